@@ -0,0 +1,80 @@
+package nl.tudelft.sem.template.apigateway.application;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput of resolving the target uri of a request, with and without a query string.
+ * <p>
+ * The *Rebuilt benchmark is the resolution as it was before the route table: a map of the service urls built on
+ * every request and the service prefix removed with a regex, for comparison.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RouteTableBenchmark {
+
+    private static final String SERVICE = "messages";
+
+    private static final String REQUEST_URI = "/messages/inbox/page";
+
+    @Param({"", "page=2&size=50"})
+    private String query;
+
+    private RouteTable routeTable;
+
+    /**
+     * Builds the route table from the routes in application.properties.
+     */
+    @Setup
+    public void setUp() {
+        routeTable = new RouteTable(Map.of(
+            "contracts", "http://localhost:8082",
+            "authentication", "http://localhost:8081",
+            "messages", "http://localhost:8088"
+        ));
+        // An empty parameter stands for a request without a query string
+        if (query.isEmpty()) {
+            query = null;
+        }
+    }
+
+    /**
+     * Resolves the target through the route table.
+     */
+    @Benchmark
+    public URI resolveTable() {
+        return routeTable.resolve(SERVICE, REQUEST_URI, query);
+    }
+
+    /**
+     * Resolves the target as the controller did before the route table.
+     */
+    @Benchmark
+    public URI resolveRebuilt() {
+        Map<String, String> serviceUrls = new HashMap<>();
+        serviceUrls.put("/contracts", "http://localhost:8082");
+        serviceUrls.put("/authentication", "http://localhost:8081");
+        serviceUrls.put("/messages", "http://localhost:8088");
+
+        if (!serviceUrls.containsKey("/" + SERVICE)) {
+            return null;
+        }
+        String servicePath = REQUEST_URI.replaceFirst("/" + SERVICE, "");
+        if (servicePath.equals("")) {
+            servicePath = "/";
+        }
+        return URI.create(serviceUrls.get("/" + SERVICE) + servicePath + (query == null ? "" : "?" + query));
+    }
+}
@@ -0,0 +1,81 @@
+package nl.tudelft.sem.template.apigateway.controllers;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Latency of passing a request and a response body through the gateway, sampled so the report includes the
+ * p99. Run with <i>-prof gc</i> for the allocation rate.
+ * <p>
+ * The *Buffered benchmark is the copy as it was before bodies were streamed: the request body read line by line
+ * into a String and the response body read into a String before being written back, for comparison.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BodyCopyBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int bodySize;
+
+    private byte[] body;
+
+    private final OutputStream client = OutputStream.nullOutputStream();
+
+    /**
+     * Builds a JSON-like body of lines of text.
+     */
+    @Setup
+    public void setUp() {
+        body = new byte[bodySize];
+        Arrays.fill(body, (byte) 'a');
+        for (int i = 79; i < bodySize; i += 80) {
+            body[i] = '\n';
+        }
+    }
+
+    /**
+     * Streams the request body to the service and the response body to the client through the copy buffer.
+     *
+     * @throws IOException when a body cannot be copied.
+     */
+    @Benchmark
+    public void copyStreamed() throws IOException {
+        StreamUtils.copy(new ByteArrayInputStream(body), client);
+        StreamUtils.copy(new ByteArrayInputStream(body), client);
+    }
+
+    /**
+     * Reads the request body and the response body into Strings before writing them on.
+     *
+     * @throws IOException when a body cannot be copied.
+     */
+    @Benchmark
+    public void copyBuffered() throws IOException {
+        InputStream requestBody = new ByteArrayInputStream(body);
+        String request = new BufferedReader(new InputStreamReader(requestBody, StandardCharsets.UTF_8)).lines()
+            .collect(Collectors.joining("\n"));
+        client.write(request.getBytes(StandardCharsets.UTF_8));
+
+        String response = StreamUtils.copyToString(new ByteArrayInputStream(body), StandardCharsets.UTF_8);
+        client.write(response.getBytes(StandardCharsets.UTF_8));
+    }
+}
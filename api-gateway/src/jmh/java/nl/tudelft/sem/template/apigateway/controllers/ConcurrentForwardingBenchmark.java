@@ -0,0 +1,161 @@
+package nl.tudelft.sem.template.apigateway.controllers;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Time to forward a burst of 1k+ concurrent requests to a service that takes {@value #SERVICE_LATENCY_MS} ms to
+ * respond, in the servlet mode (a worker thread per request, as many as Tomcat's default of
+ * {@value #WORKER_THREADS}) and in the reactive mode (no thread held while the service responds).
+ * <p>
+ * The service is an in-process stub, so the numbers compare the two threading models rather than a deployment;
+ * the connection pools are sized to the burst so that they are not the limit in either mode.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConcurrentForwardingBenchmark {
+
+    private static final int SERVICE_LATENCY_MS = 20;
+
+    private static final int WORKER_THREADS = 200;
+
+    private static final byte[] RESPONSE = "{\"messages\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"1000", "2000"})
+    private int connections;
+
+    private HttpServer service;
+
+    private URI target;
+
+    private ExecutorService workers;
+
+    private CloseableHttpClient httpClient;
+
+    private RestTemplate restTemplate;
+
+    private ConnectionProvider connectionProvider;
+
+    private WebClient webClient;
+
+    /**
+     * Starts the stub service and sets up both clients.
+     *
+     * @throws IOException when the stub service cannot be started.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        service = HttpServer.create(new InetSocketAddress("localhost", 0), connections);
+        service.setExecutor(Executors.newCachedThreadPool());
+        service.createContext("/messages/inbox", exchange -> {
+            try {
+                Thread.sleep(SERVICE_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RESPONSE);
+            }
+        });
+        service.start();
+        target = URI.create("http://localhost:" + service.getAddress().getPort() + "/messages/inbox");
+
+        workers = Executors.newFixedThreadPool(WORKER_THREADS);
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(connections);
+        connectionManager.setDefaultMaxPerRoute(connections);
+        httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        connectionProvider = ConnectionProvider.builder("benchmark")
+            .maxConnections(connections)
+            .pendingAcquireMaxCount(-1)
+            .build();
+        webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+            .build();
+    }
+
+    /**
+     * Stops the stub service and releases the clients.
+     *
+     * @throws IOException when the HTTP client cannot be closed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        workers.shutdownNow();
+        httpClient.close();
+        connectionProvider.dispose();
+        service.stop(0);
+        ((ExecutorService) service.getExecutor()).shutdownNow();
+    }
+
+    /**
+     * Forwards the burst with the RestTemplate, every request on a worker thread.
+     *
+     * @return the number of forwarded responses.
+     * @throws InterruptedException when the benchmark is interrupted.
+     * @throws ExecutionException   when a request fails.
+     */
+    @Benchmark
+    public int forwardServlet() throws InterruptedException, ExecutionException {
+        List<Future<String>> responses = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            responses.add(workers.submit(() -> restTemplate.getForObject(target, String.class)));
+        }
+        int forwarded = 0;
+        for (Future<String> response : responses) {
+            if (response.get() != null) {
+                forwarded++;
+            }
+        }
+        return forwarded;
+    }
+
+    /**
+     * Forwards the burst with the WebClient, all requests in flight at once.
+     *
+     * @return the number of forwarded responses.
+     */
+    @Benchmark
+    public long forwardReactive() {
+        return Flux.range(0, connections)
+            .flatMap(i -> webClient.get().uri(target).retrieve().bodyToMono(String.class), connections)
+            .count()
+            .block();
+    }
+}
@@ -0,0 +1,80 @@
+package nl.tudelft.sem.template.apigateway.application;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable table of the services the gateway routes to.
+ * <p>
+ * The table is built once at startup. A request for <i>/{service}/rest</i> is resolved with a single map lookup
+ * on the service name; the rest of the path is located by its offset, so no regex or intermediate strings are
+ * involved.
+ * </p>
+ */
+public final class RouteTable {
+
+    private final transient Map<String, String> serviceUrls;
+
+    /**
+     * Instantiates a new RouteTable.
+     *
+     * @param serviceUrls the base url of every service keyed by its name, e.g. <i>contracts</i>
+     *                    to <i>http://localhost:8082</i>
+     * @throws IllegalArgumentException when a url is missing or malformed
+     */
+    public RouteTable(Map<String, String> serviceUrls) {
+        Map<String, String> urls = new HashMap<>();
+        serviceUrls.forEach((service, url) -> {
+            if (url == null || url.isBlank()) {
+                throw new IllegalArgumentException("No url configured for service " + service);
+            }
+            String baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+            // Fail at startup instead of on the first request
+            URI.create(baseUrl);
+            urls.put(service, baseUrl);
+        });
+        this.serviceUrls = Map.copyOf(urls);
+    }
+
+    /**
+     * Checks whether the gateway routes to a service.
+     *
+     * @param service the service name, the first path segment of the request.
+     * @return true if the service is known.
+     */
+    public boolean contains(String service) {
+        return serviceUrls.containsKey(service);
+    }
+
+    /**
+     * Resolves the url of the service a request should be forwarded to.
+     *
+     * @param service    the service name, the first path segment of the request.
+     * @param requestUri the request uri, starting with <i>/{service}</i>.
+     * @param query      the raw query string of the request, or null.
+     * @return the target uri, or null if the service is unknown.
+     */
+    public URI resolve(String service, String requestUri, String query) {
+        String baseUrl = serviceUrls.get(service);
+        if (baseUrl == null) {
+            return null;
+        }
+        // Skip "/" + service, the remainder of the uri is the path on the service
+        int pathStart = Math.min(service.length() + 1, requestUri.length());
+        int pathLength = requestUri.length() - pathStart;
+        int queryLength = query == null ? 0 : query.length() + 1;
+
+        StringBuilder target = new StringBuilder(baseUrl.length() + Math.max(pathLength, 1) + queryLength)
+            .append(baseUrl);
+        if (pathLength == 0) {
+            target.append('/');
+        } else {
+            target.append(requestUri, pathStart, requestUri.length());
+        }
+        if (query != null) {
+            target.append('?').append(query);
+        }
+        return URI.create(target.toString());
+    }
+}
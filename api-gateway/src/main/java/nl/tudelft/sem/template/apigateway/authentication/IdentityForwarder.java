@@ -0,0 +1,79 @@
+package nl.tudelft.sem.template.apigateway.authentication;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the identity verified by the gateway to a request that is forwarded to a service.
+ * <p>
+ * Services trust the identity header only together with the shared gateway key, which lets them skip
+ * verifying the JWT token again. Identity headers sent by clients are always removed.
+ * </p>
+ */
+@Component
+public class IdentityForwarder {
+
+    public static final String VERIFIED_IDENTITY_HEADER = "X-Verified-Identity";
+    public static final String GATEWAY_KEY_HEADER = "X-Gateway-Key";
+    public static final String AUTHORIZATION_AUTH_SCHEME = "Bearer";
+
+    private final transient JwtTokenVerifier jwtTokenVerifier;
+
+    private final transient String gatewayKey;
+
+    /**
+     * Instantiates a new IdentityForwarder.
+     *
+     * @param jwtTokenVerifier the verifier of the JWT tokens.
+     * @param gatewayKey       the key shared with the services, forwarding is disabled when empty.
+     */
+    public IdentityForwarder(JwtTokenVerifier jwtTokenVerifier, @Value("${gateway.trust.key:}") String gatewayKey) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.gatewayKey = gatewayKey;
+    }
+
+    /**
+     * Verifies the token in the Authorization header of a forwarded request and adds the identity headers.
+     *
+     * @param headers the headers of the request to the service, copied from the incoming request.
+     * @return the verified identity, or null if the request has no valid token.
+     */
+    public VerifiedIdentity forward(HttpHeaders headers) {
+        VerifiedIdentity identity = verify(headers.getFirst(HttpHeaders.AUTHORIZATION));
+        forward(headers, identity);
+        return identity;
+    }
+
+    /**
+     * Adds the headers of an identity that was already verified to a forwarded request.
+     *
+     * @param headers  the headers of the request to the service, copied from the incoming request.
+     * @param identity the identity returned by {@link #verify(String)}, or null.
+     */
+    public void forward(HttpHeaders headers, VerifiedIdentity identity) {
+        headers.remove(VERIFIED_IDENTITY_HEADER);
+        headers.remove(GATEWAY_KEY_HEADER);
+        if (identity != null && !gatewayKey.isEmpty()) {
+            headers.set(VERIFIED_IDENTITY_HEADER, identity.toHeaderValue());
+            headers.set(GATEWAY_KEY_HEADER, gatewayKey);
+        }
+    }
+
+    /**
+     * Verifies the token in an Authorization header.
+     *
+     * @param authorizationHeader the Authorization header of the incoming request, or null.
+     * @return the verified identity, or null if the header holds no valid token or forwarding is disabled.
+     */
+    public VerifiedIdentity verify(String authorizationHeader) {
+        if (authorizationHeader == null || gatewayKey.isEmpty()) {
+            return null;
+        }
+        String[] directives = authorizationHeader.split(" ");
+        if (directives.length != 2 || !directives[0].equals(AUTHORIZATION_AUTH_SCHEME)) {
+            return null;
+        }
+        return jwtTokenVerifier.verify(directives[1]);
+    }
+}
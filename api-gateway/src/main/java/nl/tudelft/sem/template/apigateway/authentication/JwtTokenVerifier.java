@@ -0,0 +1,92 @@
+package nl.tudelft.sem.template.apigateway.authentication;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies the JWT token of a request once at the edge.
+ * <p>
+ * Verified identities are cached until the token expires, so a token that is used for several requests
+ * (or for the follow-up calls a service makes on behalf of the user) is only parsed and checked once.
+ * Invalid tokens are never cached.
+ * </p>
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private final transient String jwtSecret;
+
+    private final transient Cache<String, VerifiedIdentity> identities;
+
+    /**
+     * Instantiates a new JwtTokenVerifier.
+     *
+     * @param jwtSecret    the secret the tokens are signed with.
+     * @param maximumSize  the maximum number of cached identities.
+     */
+    public JwtTokenVerifier(@Value("${jwt.secret}") String jwtSecret,
+                            @Value("${gateway.jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.jwtSecret = jwtSecret;
+        this.identities = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, VerifiedIdentity>() {
+                @Override
+                public long expireAfterCreate(String token, VerifiedIdentity identity, long currentTime) {
+                    long remaining = identity.getExpiresAt() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+                }
+
+                @Override
+                public long expireAfterUpdate(String token, VerifiedIdentity identity, long currentTime,
+                                              long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String token, VerifiedIdentity identity, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Verifies a token.
+     *
+     * @param token JWT token.
+     * @return the identity in the token, or null if the token is invalid or expired.
+     */
+    public VerifiedIdentity verify(String token) {
+        VerifiedIdentity identity = identities.getIfPresent(token);
+        if (identity != null && identity.getExpiresAt() > System.currentTimeMillis()) {
+            return identity;
+        }
+        identity = parse(token);
+        if (identity != null) {
+            identities.put(token, identity);
+        }
+        return identity;
+    }
+
+    private VerifiedIdentity parse(String token) {
+        try {
+            // Also rejects expired tokens
+            Claims claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody();
+            Object role = claims.get("role");
+            if (claims.getSubject() == null || role == null || claims.getExpiration() == null) {
+                return null;
+            }
+            return new VerifiedIdentity(claims.getSubject(), role.toString(), claims.getExpiration().getTime());
+        } catch (IllegalArgumentException | JwtException e) {
+            return null;
+        }
+    }
+}
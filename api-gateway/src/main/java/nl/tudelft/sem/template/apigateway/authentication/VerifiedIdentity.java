@@ -0,0 +1,33 @@
+package nl.tudelft.sem.template.apigateway.authentication;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * The identity of a user whose JWT token was verified by the gateway.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class VerifiedIdentity {
+
+    private final String netId;
+
+    private final String role;
+
+    /**
+     * Expiration of the token in milliseconds since the epoch.
+     */
+    private final long expiresAt;
+
+    /**
+     * Encodes the identity as the value of the verified identity header: <i>expiresAt:role:netId</i>.
+     * The netId is last so it may contain any character.
+     *
+     * @return the header value.
+     */
+    public String toHeaderValue() {
+        return expiresAt + ":" + role + ":" + netId;
+    }
+}
@@ -0,0 +1,93 @@
+package nl.tudelft.sem.template.apigateway.cache;
+
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A response of a service that is stored by the gateway.
+ * Only successful responses are stored, so the status is always 200.
+ */
+@Getter
+public class CachedResponse {
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    /**
+     * Time the response was received, in milliseconds since the epoch.
+     */
+    private final long storedAt;
+
+    /**
+     * Time until the response may be served without asking the service, in milliseconds.
+     */
+    private final long freshFor;
+
+    /**
+     * Instantiates a new CachedResponse.
+     *
+     * @param headers  the headers of the response, without hop-by-hop headers.
+     * @param body     the complete body of the response.
+     * @param storedAt the time the response was received, in milliseconds since the epoch.
+     * @param freshFor the freshness lifetime of the response in milliseconds.
+     */
+    public CachedResponse(HttpHeaders headers, byte[] body, long storedAt, long freshFor) {
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.storedAt = storedAt;
+        this.freshFor = freshFor;
+    }
+
+    /**
+     * Gets the age of the response, the value of the <i>Age</i> header when it is served.
+     *
+     * @param now the current time in milliseconds since the epoch.
+     * @return the age in seconds.
+     */
+    public long getAge(long now) {
+        return TimeUnit.MILLISECONDS.toSeconds(Math.max(now - storedAt, 0));
+    }
+
+    /**
+     * Checks whether the response matches the If-None-Match header of a conditional request,
+     * using the weak comparison of RFC 7232 3.2.
+     *
+     * @param ifNoneMatch the If-None-Match header of the request, or null.
+     * @return true if the client already has this response and a 304 Not Modified can be sent.
+     */
+    public boolean matches(String ifNoneMatch) {
+        String etag = headers.getETag();
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaqueTag = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || stripWeak(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of bytes the response takes up in the cache, an estimate for the headers.
+     *
+     * @return the weight of the response.
+     */
+    public int getWeight() {
+        int weight = body.length;
+        for (String name : headers.keySet()) {
+            for (String value : headers.getOrEmpty(name)) {
+                weight += name.length() + value.length();
+            }
+        }
+        return weight;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
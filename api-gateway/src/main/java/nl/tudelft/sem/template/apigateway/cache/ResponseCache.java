@@ -0,0 +1,313 @@
+package nl.tudelft.sem.template.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import nl.tudelft.sem.template.apigateway.authentication.VerifiedIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the GET responses of the services, so polling clients are answered by the gateway.
+ * <p>
+ * Responses are keyed on the service, the verified user and the path and query of the request; requests
+ * without a valid token are never cached. A response is only stored when the service allows it with a
+ * <i>Cache-Control</i> max-age, and it is served until that lifetime ends. <i>private</i> responses are
+ * stored as well, since an entry is only ever served to the user it was fetched for.
+ * </p>
+ * <p>
+ * Invalidation is scoped to the user and the path family: the first path segment on the service, e.g. <i>message</i>
+ * for <i>/messages/message/{netId}/inbox</i>. A non-safe request (e.g. a POST to <i>/messages/message/send</i>)
+ * invalidates the cached responses of its user in its path family, and so does a GET whose response lists the
+ * family in the {@value #INVALIDATE_HEADER} header (e.g. opening a message marks it as read, which changes the inbox).
+ * Changes made by other users show up once the cached response expires, within the max-age the service chose.
+ * </p>
+ * <p>
+ * Every invalidated scope has a generation that is part of the keys of its responses, so an invalidation is a single
+ * update; the responses of earlier generations are no longer found and are evicted when they expire. The cache is
+ * bounded by the total number of bytes of the stored responses, and responses are kept at most
+ * <i>gateway.cache.maximum-age</i>.
+ * </p>
+ * <p>
+ * The generations are bounded as well, as clients choose the paths they are kept for. A generation is forgotten when
+ * its scope was not used for twice the maximum age, by then all responses of earlier generations have expired. When
+ * there are too many scopes, the least used are dropped and all scopes without a generation move on to a new one,
+ * so a dropped scope can never serve a response from before its invalidation.
+ * </p>
+ */
+@Component
+public class ResponseCache {
+
+    public static final String METRIC_NAME = "gateway.responses";
+
+    /**
+     * Response header of a GET that changed the state of the service, listing the path families to invalidate for the
+     * user (comma separated). It is not passed on to the client.
+     */
+    public static final String INVALIDATE_HEADER = "X-Gateway-Invalidate";
+
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final transient boolean enabled;
+
+    private final transient int maximumEntryBytes;
+
+    private final transient long maximumAge;
+
+    private final transient Cache<String, CachedResponse> responses;
+
+    /**
+     * Generation per invalidated scope (service, user and path family), part of the keys of the responses.
+     */
+    private final transient Cache<String, Long> generations;
+
+    /**
+     * Last generation given out, generations only increase.
+     */
+    private final transient AtomicLong lastGeneration = new AtomicLong();
+
+    /**
+     * Generation of the scopes that have none in {@link #generations}, raised when a scope is dropped for its size.
+     */
+    private final transient AtomicLong defaultGeneration = new AtomicLong();
+
+    /**
+     * Instantiates a new ResponseCache.
+     *
+     * @param enabled           whether responses are cached at all.
+     * @param maximumBytes      the maximum number of bytes of all cached responses.
+     * @param maximumEntryBytes the maximum size of the body of a single cached response.
+     * @param maximumAge        the maximum time in milliseconds a response is cached, whatever its max-age.
+     * @param maximumScopes     the maximum number of invalidated scopes whose generation is kept.
+     * @param meterRegistry     the registry the hit and miss counts are published to.
+     */
+    public ResponseCache(@Value("${gateway.cache.enabled:true}") boolean enabled,
+                         @Value("${gateway.cache.maximum-bytes:33554432}") long maximumBytes,
+                         @Value("${gateway.cache.maximum-entry-bytes:262144}") int maximumEntryBytes,
+                         @Value("${gateway.cache.maximum-age:300000}") long maximumAge,
+                         @Value("${gateway.cache.maximum-scopes:100000}") long maximumScopes,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maximumEntryBytes = maximumEntryBytes;
+        this.maximumAge = maximumAge;
+        this.generations = Caffeine.newBuilder()
+            .maximumSize(maximumScopes)
+            .expireAfterAccess(Duration.ofMillis(maximumAge).multipliedBy(2))
+            // A writer runs as part of the eviction, a removal listener would only run after the scope is gone
+            .writer(new CacheWriter<String, Long>() {
+                @Override
+                public void write(String scope, Long generation) {
+                    // Nothing to write through
+                }
+
+                @Override
+                public void delete(String scope, Long generation, RemovalCause cause) {
+                    if (cause == RemovalCause.SIZE) {
+                        defaultGeneration.set(lastGeneration.incrementAndGet());
+                    }
+                }
+            })
+            .build();
+        this.responses = Caffeine.newBuilder()
+            .maximumWeight(maximumBytes)
+            .weigher((String key, CachedResponse response) -> key.length() + response.getWeight())
+            .expireAfter(new Expiry<String, CachedResponse>() {
+                @Override
+                public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(response.getFreshFor());
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                              long currentDuration) {
+                    return TimeUnit.MILLISECONDS.toNanos(response.getFreshFor());
+                }
+
+                @Override
+                public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, METRIC_NAME);
+    }
+
+    /**
+     * Gets the key a GET request is cached under.
+     *
+     * @param service      the service the request is forwarded to.
+     * @param identity     the verified identity of the user, or null.
+     * @param requestUri   the request uri.
+     * @param query        the raw query string of the request, or null.
+     * @param cacheControl the Cache-Control header of the request, or null.
+     * @return the key, or null if the request must not be answered from the cache.
+     */
+    public String key(String service, VerifiedIdentity identity, String requestUri, String query,
+                      String cacheControl) {
+        if (!enabled || identity == null || bypassesCache(cacheControl)) {
+            return null;
+        }
+        String scope = scope(service, identity, family(service, requestUri));
+        StringBuilder key = new StringBuilder(scope).append(KEY_SEPARATOR)
+            .append(generation(scope)).append(KEY_SEPARATOR)
+            .append(requestUri);
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Gets a fresh response.
+     *
+     * @param key the key of the request.
+     * @return the cached response, or null if there is none.
+     */
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    /**
+     * Gets how long a response may be cached according to its Cache-Control header.
+     * A response that changed the state of the service ({@value #INVALIDATE_HEADER}) is not stored.
+     *
+     * @param headers the headers of the response.
+     * @return the freshness lifetime in milliseconds, or 0 if the response must not be stored.
+     */
+    public long freshFor(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null || headers.containsKey(HttpHeaders.SET_COOKIE) || headers.containsKey(HttpHeaders.VARY)
+            || headers.containsKey(INVALIDATE_HEADER) || headers.getContentLength() > maximumEntryBytes) {
+            return 0;
+        }
+        long maxAge = 0;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String name = directive.trim();
+            String value = "";
+            int equals = name.indexOf('=');
+            if (equals >= 0) {
+                value = name.substring(equals + 1).trim().replace("\"", "");
+                name = name.substring(0, equals).trim();
+            }
+            switch (name) {
+                case "no-store":
+                case "no-cache":
+                    return 0;
+                case "s-maxage":
+                    // Meant for shared caches such as the gateway, overrides max-age
+                    return Math.min(seconds(value), maximumAge);
+                case "max-age":
+                    maxAge = seconds(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return Math.min(maxAge, maximumAge);
+    }
+
+    /**
+     * Gets the maximum size of the body of a single cached response.
+     *
+     * @return the size in bytes.
+     */
+    public int getMaximumEntryBytes() {
+        return maximumEntryBytes;
+    }
+
+    /**
+     * Stores a response.
+     * A response whose scope was invalidated since the request was sent is stored under its old generation, so it is
+     * never served.
+     *
+     * @param key      the key of the request.
+     * @param response the response.
+     */
+    public void put(String key, CachedResponse response) {
+        responses.put(key, response);
+    }
+
+    /**
+     * Invalidates the cached responses of a user in the path family of a request that may have changed the state of
+     * the service.
+     *
+     * @param service    the service the request was forwarded to.
+     * @param identity   the verified identity of the user, or null (nothing is cached for requests without one).
+     * @param requestUri the request uri.
+     */
+    public void invalidate(String service, VerifiedIdentity identity, String requestUri) {
+        invalidateFamily(service, identity, family(service, requestUri));
+    }
+
+    /**
+     * Invalidates the cached responses of a user in the path families a service listed in the
+     * {@value #INVALIDATE_HEADER} header of a response.
+     *
+     * @param service  the service the request was forwarded to.
+     * @param identity the verified identity of the user, or null.
+     * @param headers  the headers of the response.
+     */
+    public void invalidate(String service, VerifiedIdentity identity, HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(INVALIDATE_HEADER)) {
+            for (String family : value.split(",")) {
+                invalidateFamily(service, identity, family.trim());
+            }
+        }
+    }
+
+    private void invalidateFamily(String service, VerifiedIdentity identity, String family) {
+        if (identity != null && !family.isEmpty()) {
+            generations.asMap().merge(scope(service, identity, family), lastGeneration.incrementAndGet(), Math::max);
+        }
+    }
+
+    private long generation(String scope) {
+        Long generation = generations.getIfPresent(scope);
+        return generation == null ? defaultGeneration.get() : generation;
+    }
+
+    private static String scope(String service, VerifiedIdentity identity, String family) {
+        return service + KEY_SEPARATOR + identity.getRole() + KEY_SEPARATOR + identity.getNetId() + KEY_SEPARATOR
+            + family;
+    }
+
+    /**
+     * Gets the path family of a request: the first path segment after the service.
+     *
+     * @param service    the service the request is forwarded to.
+     * @param requestUri the request uri, starting with <i>/{service}</i>.
+     * @return the family, e.g. <i>message</i> for <i>/messages/message/5</i>, or an empty string.
+     */
+    private static String family(String service, String requestUri) {
+        int start = Math.min(service.length() + 2, requestUri.length());
+        int end = requestUri.indexOf('/', start);
+        return requestUri.substring(start, end < 0 ? requestUri.length() : end);
+    }
+
+    private static boolean bypassesCache(String cacheControl) {
+        if (cacheControl == null) {
+            return false;
+        }
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        return directives.contains("no-cache") || directives.contains("no-store") || directives.contains("max-age=0");
+    }
+
+    private static long seconds(String value) {
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(Long.parseLong(value), 0));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package nl.tudelft.sem.template.apigateway.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the utilization of the outbound connection pool, in total and per route (service).
+ * <p>
+ * The totals are published as the <i>http.client.pool.*</i> gauges.
+ * </p>
+ */
+@Component
+public class ConnectionPoolStatistics implements MeterBinder {
+
+    private final transient PoolingHttpClientConnectionManager connectionManager;
+
+    public ConnectionPoolStatistics(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.client.pool.leased", this, statistics -> statistics.getTotalStats().getLeased())
+            .description("Connections in use").register(registry);
+        Gauge.builder("http.client.pool.available", this, statistics -> statistics.getTotalStats().getAvailable())
+            .description("Idle connections").register(registry);
+        Gauge.builder("http.client.pool.pending", this, statistics -> statistics.getTotalStats().getPending())
+            .description("Requests waiting for a connection").register(registry);
+        Gauge.builder("http.client.pool.max", this, statistics -> statistics.getTotalStats().getMax())
+            .description("Maximum number of connections").register(registry);
+    }
+
+    /**
+     * Get the statistics of the whole pool.
+     *
+     * @return leased, pending, available and max connections over all routes.
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Get the statistics of every route that currently has a pool.
+     *
+     * @return the statistics keyed by target host (e.g. <i>localhost:8082</i>).
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> routeStats = new TreeMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routeStats.put(route.getTargetHost().toHostString(), connectionManager.getStats(route));
+        }
+        return routeStats;
+    }
+
+    /**
+     * Get the share of the pool that is currently leased.
+     *
+     * @return leased connections divided by the maximum number of connections.
+     */
+    public double getUtilization() {
+        PoolStats totalStats = getTotalStats();
+        return totalStats.getMax() == 0 ? 0 : (double) totalStats.getLeased() / totalStats.getMax();
+    }
+}
@@ -0,0 +1,151 @@
+package nl.tudelft.sem.template.apigateway.config;
+
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The outbound HTTP client config.
+ * <p>
+ * All calls to the services share one pool of keep-alive connections (one pool per route, i.e. per service),
+ * so a proxied request does not pay for a TCP handshake. Pool sizes and timeouts are read from
+ * <i>application.properties</i> (<i>http.client.*</i>).
+ * </p>
+ * <p>
+ * Event streams (Server-Sent Events) keep their connection for as long as the client is subscribed, so they are
+ * forwarded over a separate, smaller pool (<i>http.client.streaming.*</i>). Subscribers can therefore never take the
+ * connections that ordinary requests to the same service need.
+ * </p>
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public HttpClientConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the connection pool shared by all outbound requests.
+     *
+     * @return The connection manager.
+     */
+    @Primary
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager connectionManager() {
+        return newConnectionManager(getProperty("http.client.max-connections", 200),
+            getProperty("http.client.max-connections-per-route", 50));
+    }
+
+    /**
+     * Set up the connection pool of the forwarded event streams.
+     * Every route may use the whole pool, at most <i>http.client.streaming.max-connections</i> streams are forwarded
+     * at the same time.
+     *
+     * @return The connection manager.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager streamingConnectionManager() {
+        int maxConnections = getProperty("http.client.streaming.max-connections", 50);
+        return newConnectionManager(maxConnections, maxConnections);
+    }
+
+    /**
+     * Set up the HTTP client on top of the connection pool.
+     * Content decompression, redirects and cookies are disabled as the gateway passes those through unchanged.
+     *
+     * @param connectionManager The connection pool.
+     * @return The HTTP client.
+     */
+    @Primary
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return newHttpClient(connectionManager, getProperty("http.client.read-timeout", 30_000));
+    }
+
+    /**
+     * Set up the HTTP client of the forwarded event streams.
+     * The read timeout only has to cover the interval between the heartbeats of a stream.
+     *
+     * @param streamingConnectionManager The connection pool of the event streams.
+     * @return The HTTP client.
+     */
+    @Bean
+    public CloseableHttpClient streamingHttpClient(
+        @Qualifier("streamingConnectionManager") PoolingHttpClientConnectionManager streamingConnectionManager) {
+        return newHttpClient(streamingConnectionManager, getProperty("http.client.streaming.read-timeout", 60_000));
+    }
+
+    /**
+     * Set up the RestTemplate used to forward requests to the services.
+     * The request body is streamed to the connection instead of being buffered by the request factory,
+     * which is also why no interceptors are registered on this template (they force buffering).
+     *
+     * @param httpClient The pooled HTTP client.
+     * @return The RestTemplate.
+     */
+    @Primary
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return newRestTemplate(httpClient);
+    }
+
+    /**
+     * Set up the RestTemplate used to forward event streams to the services.
+     *
+     * @param streamingHttpClient The HTTP client of the event streams.
+     * @return The RestTemplate.
+     */
+    @Bean
+    public RestTemplate streamingRestTemplate(@Qualifier("streamingHttpClient") CloseableHttpClient streamingHttpClient) {
+        return newRestTemplate(streamingHttpClient);
+    }
+
+    private PoolingHttpClientConnectionManager newConnectionManager(int maxConnections, int maxConnectionsPerRoute) {
+        int timeToLive = getProperty("http.client.time-to-live", 300_000);
+        PoolingHttpClientConnectionManager connectionManager =
+            new PoolingHttpClientConnectionManager(timeToLive, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(getProperty("http.client.validate-after-inactivity", 2_000));
+        return connectionManager;
+    }
+
+    private CloseableHttpClient newHttpClient(PoolingHttpClientConnectionManager connectionManager, int readTimeout) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(getProperty("http.client.connect-timeout", 2_000))
+            .setConnectionRequestTimeout(getProperty("http.client.connection-request-timeout", 2_000))
+            .setSocketTimeout(readTimeout)
+            .build();
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictIdleConnections(getProperty("http.client.idle-timeout", 30_000), TimeUnit.MILLISECONDS)
+            .disableContentCompression()
+            .disableRedirectHandling()
+            .disableCookieManagement()
+            .build();
+    }
+
+    private static RestTemplate newRestTemplate(CloseableHttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setBufferRequestBody(false);
+        return new RestTemplate(requestFactory);
+    }
+
+    private int getProperty(String key, int defaultValue) {
+        return environment.getProperty(key, Integer.class, defaultValue);
+    }
+}
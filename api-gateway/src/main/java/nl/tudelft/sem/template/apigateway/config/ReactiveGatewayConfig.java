@@ -0,0 +1,75 @@
+package nl.tudelft.sem.template.apigateway.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * The config of the non-blocking gateway, active with the <i>reactive</i> profile.
+ * <p>
+ * The gateway then runs on Netty instead of Tomcat and forwards requests with a WebClient, so a request waiting
+ * for a service does not hold a thread. The pool sizes and timeouts are the same <i>http.client.*</i>
+ * properties used by the blocking client.
+ * </p>
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveGatewayConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public ReactiveGatewayConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Run the gateway on Netty, Tomcat is on the classpath for the blocking mode and would be picked otherwise.
+     *
+     * @return The web server factory.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Set up the WebClient used to forward requests to the services.
+     *
+     * @param webClientBuilder The builder provided by Spring Boot.
+     * @return The WebClient.
+     */
+    @Bean
+    public WebClient webClient(WebClient.Builder webClientBuilder) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("gateway")
+            .maxConnections(getProperty("http.client.max-connections-per-route", 50))
+            .pendingAcquireTimeout(Duration.ofMillis(getProperty("http.client.connection-request-timeout", 2_000)))
+            .maxIdleTime(Duration.ofMillis(getProperty("http.client.idle-timeout", 30_000)))
+            .maxLifeTime(Duration.ofMillis(getProperty("http.client.time-to-live", 300_000)))
+            .build();
+        int readTimeout = getProperty("http.client.read-timeout", 30_000);
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .tcpConfiguration(tcpClient -> tcpClient
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getProperty("http.client.connect-timeout", 2_000))
+                .doOnConnected(connection -> connection
+                    .addHandlerLast(new ReadTimeoutHandler(readTimeout, TimeUnit.MILLISECONDS))));
+        return webClientBuilder
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+    }
+
+    private int getProperty(String key, int defaultValue) {
+        return environment.getProperty(key, Integer.class, defaultValue);
+    }
+}
@@ -0,0 +1,40 @@
+package nl.tudelft.sem.template.apigateway.config;
+
+import java.util.Map;
+import lombok.Getter;
+import nl.tudelft.sem.template.apigateway.application.RouteTable;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The routing config.
+ * <p>
+ * Services are read from <i>application.properties</i> as <i>gateway.routes.{service}={base url}</i>.
+ * </p>
+ */
+@Configuration
+public class RouteConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public RouteConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the route table.
+     *
+     * @return The route table.
+     */
+    @Bean
+    public RouteTable routeTable() {
+        Map<String, String> serviceUrls = Binder.get(environment)
+            .bind("gateway.routes", Bindable.mapOf(String.class, String.class))
+            .orElseThrow(() -> new IllegalStateException("No routes configured (gateway.routes.*)"));
+        return new RouteTable(serviceUrls);
+    }
+}
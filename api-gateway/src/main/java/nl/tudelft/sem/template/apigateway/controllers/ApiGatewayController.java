@@ -1,18 +1,41 @@
 package nl.tudelft.sem.template.apigateway.controllers;
 
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Enumeration;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
 import javax.servlet.http.HttpServletRequest;
-import org.springframework.http.HttpEntity;
+import javax.servlet.http.HttpServletResponse;
+import nl.tudelft.sem.template.apigateway.application.RouteTable;
+import nl.tudelft.sem.template.apigateway.authentication.IdentityForwarder;
+import nl.tudelft.sem.template.apigateway.authentication.VerifiedIdentity;
+import nl.tudelft.sem.template.apigateway.cache.CachedResponse;
+import nl.tudelft.sem.template.apigateway.cache.ResponseCache;
+import nl.tudelft.sem.template.apigateway.metrics.OutboundRequestMetrics;
+import nl.tudelft.sem.template.apigateway.tracing.Span;
+import nl.tudelft.sem.template.apigateway.tracing.SpanRecorder;
+import nl.tudelft.sem.template.apigateway.tracing.TraceContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -22,93 +45,355 @@ import org.springframework.web.client.RestTemplate;
 /**
  * API Gateway controller.
  * This controller is responsible for routing requests to the correct service.
- *
+ * <p>
+ * Request and response bodies are streamed between the client and the service with a bounded copy buffer,
+ * so the gateway never holds a complete body in memory and binary payloads pass through untouched.
+ * </p>
+ * <p>
+ * GET responses that a service marks as cacheable are kept in the {@link ResponseCache} and served by the gateway
+ * itself; any other request to a service invalidates the cached responses of its user in its path family once it
+ * completes, as does a GET whose response asks for it.
+ * </p>
+ * <p>
+ * Requests for an event stream (<i>Accept: text/event-stream</i>) hold a request thread and a connection for as long
+ * as the client is subscribed. They are forwarded over their own connection pool, and at most
+ * <i>http.client.streaming.max-connections</i> of them at the same time; further subscribers get 503 Service
+ * Unavailable, so streams cannot starve ordinary requests of threads or connections.
+ * </p>
+ * <p>
+ * This is the default, blocking gateway; with the <i>reactive</i> profile {@link ReactiveApiGatewayController}
+ * is used instead.
+ * </p>
  */
 @RestController
+@Profile("!reactive")
 public class ApiGatewayController {
 
-    private final transient RestTemplate restTemplate = new RestTemplate();
+    /**
+     * Headers that only apply to a single connection and must not be forwarded by a proxy (RFC 7230 6.1).
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+        "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+        "te", "trailer", "transfer-encoding", "upgrade"
+    );
 
-    private String getServiceUri(String requestUri) {
-        if (requestUri.equals("")) {
-            requestUri = "/";
-        }
-        return requestUri;
+    /**
+     * Methods for which the request body is forwarded to the service.
+     */
+    private static final Set<HttpMethod> METHODS_WITH_BODY =
+        Collections.unmodifiableSet(EnumSet.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE));
+
+    /**
+     * Methods that do not change the state of a service, so they leave the cached responses intact.
+     */
+    private static final Set<HttpMethod> SAFE_METHODS =
+        Collections.unmodifiableSet(EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE));
+
+    private final transient RestTemplate restTemplate;
+
+    private final transient RestTemplate streamingRestTemplate;
+
+    private final transient Semaphore streamPermits;
+
+    private final transient RouteTable routeTable;
+
+    private final transient IdentityForwarder identityForwarder;
+
+    private final transient OutboundRequestMetrics outboundRequestMetrics;
+
+    private final transient SpanRecorder spanRecorder;
+
+    private final transient ResponseCache responseCache;
+
+    /**
+     * Instantiates a new ApiGatewayController.
+     *
+     * @param restTemplate           the pooled RestTemplate that streams request bodies to the services
+     * @param routeTable             the table of services requests are routed to
+     * @param identityForwarder      verifies the token of a request and forwards the identity to the service
+     * @param outboundRequestMetrics times the requests forwarded to the services
+     * @param spanRecorder           records the span of every forwarded request
+     * @param responseCache          the cache of the GET responses of the services
+     * @param streamingRestTemplate  the RestTemplate with its own connection pool that event streams are forwarded with
+     * @param maxStreams             the maximum number of event streams forwarded at the same time
+     */
+    public ApiGatewayController(RestTemplate restTemplate, RouteTable routeTable,
+                                IdentityForwarder identityForwarder, OutboundRequestMetrics outboundRequestMetrics,
+                                SpanRecorder spanRecorder, ResponseCache responseCache,
+                                @Qualifier("streamingRestTemplate") RestTemplate streamingRestTemplate,
+                                @Value("${http.client.streaming.max-connections:50}") int maxStreams) {
+        this.restTemplate = restTemplate;
+        this.streamingRestTemplate = streamingRestTemplate;
+        this.streamPermits = new Semaphore(maxStreams);
+        this.routeTable = routeTable;
+        this.identityForwarder = identityForwarder;
+        this.outboundRequestMetrics = outboundRequestMetrics;
+        this.spanRecorder = spanRecorder;
+        this.responseCache = responseCache;
     }
 
     /**
      * RequestMapping to forward Http request to correct service.
+     * The service response (status, headers and body) is streamed back to the client.
      *
-     * @param request Http Request to API gateway
-     * @param service Service to forward request to
-     * @return ResponseEntity containing service response
+     * @param request  Http Request to API gateway
+     * @param response Http Response of the API gateway the service response is copied to
+     * @param service  Service to forward request to
+     * @throws IOException when reading the request or writing the response fails
      */
     @RequestMapping(value = {"/{service}/**"})
-    public ResponseEntity<Object> service(HttpServletRequest request, @PathVariable String service) {
-        // Map routes to service urls
-        Map<String, String> serviceUrls = new HashMap<>();
-        serviceUrls.put("/contracts", "http://localhost:8082");
-        serviceUrls.put("/authentication", "http://localhost:8081");
-        serviceUrls.put("/messages", "http://localhost:8088");
-
-        StringBuilder params = new StringBuilder("?");
-        Enumeration<String> parameters = request.getParameterNames();
-        while (parameters.hasMoreElements()) {
-            String paramName = parameters.nextElement();
-            params.append(paramName + "=" + request.getParameter(paramName) + "&");
-        }
-        params.deleteCharAt(params.length() - 1);
-        // Get service url
-        if (!serviceUrls.containsKey("/" + service)) {
-            return ResponseEntity.badRequest().body("Unknown service");
+    public void service(HttpServletRequest request, HttpServletResponse response, @PathVariable String service)
+        throws IOException {
+        // The raw query string is forwarded as-is, reading parameters would consume form-encoded bodies.
+        URI target = routeTable.resolve(service, request.getRequestURI(), request.getQueryString());
+        if (target == null) {
+            writeError(response, HttpStatus.BAD_REQUEST.value(), MediaType.TEXT_PLAIN,
+                "Unknown service".getBytes(StandardCharsets.UTF_8));
+            return;
         }
+        HttpMethod method = Objects.requireNonNull(HttpMethod.resolve(request.getMethod()));
+        VerifiedIdentity identity = identityForwarder.verify(request.getHeader(HttpHeaders.AUTHORIZATION));
 
-        String body;
-        Enumeration<String> headers;
+        boolean stream = acceptsEventStream(request);
+        if (stream && !streamPermits.tryAcquire()) {
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE.value(), MediaType.TEXT_PLAIN,
+                "Too many event streams".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
         try {
-            // Parse request body
-            body = request.getReader().lines().collect(Collectors.joining("\n")); //NOPMD
-            headers = request.getHeaderNames(); //NOPMD
-            request.getReader().close();
-        } catch (IOException ioException) {
-            return ResponseEntity.badRequest().body("Error reading HTTP body");
+            forward(request, response, service, target, method, identity, stream);
+        } finally {
+            if (stream) {
+                streamPermits.release();
+            }
         }
+    }
 
-        // Create request headers for Http request to the concerned service
-        HttpHeaders requestHeaders = new HttpHeaders();
-        while (headers.hasMoreElements()) {
-            String headerName = headers.nextElement();
-            requestHeaders.set(headerName, request.getHeader(headerName));
+    /**
+     * Forwards a request to a service, or answers it from the cache, and streams the service response back.
+     *
+     * @param request  the incoming request.
+     * @param response the response to the client.
+     * @param service  the service the request is forwarded to.
+     * @param target   the URI of the request at the service.
+     * @param method   the method of the incoming request.
+     * @param identity the identity verified from the token of the incoming request, or null.
+     * @param stream   whether the client asks for an event stream, which is forwarded over its own pool.
+     * @throws IOException when reading the request or writing the response fails.
+     */
+    private void forward(HttpServletRequest request, HttpServletResponse response, String service, URI target,
+                         HttpMethod method, VerifiedIdentity identity, boolean stream) throws IOException {
+        String cacheKey = null;
+        if (method == HttpMethod.GET && !stream) {
+            cacheKey = responseCache.key(service, identity, request.getRequestURI(), request.getQueryString(),
+                request.getHeader(HttpHeaders.CACHE_CONTROL));
         }
-        HttpEntity<String> entity = new HttpEntity<>(body, requestHeaders);
+        if (cacheKey != null) {
+            CachedResponse cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                writeCached(request, response, cached);
+                return;
+            }
+        }
+
+        // Continue the trace of the client, or start one; the span is passed on to the service
+        TraceContext trace = TraceContext.continueOrStart(request.getHeader(TraceContext.TRACEPARENT_HEADER));
+        Span span = spanRecorder.start(trace, method.name() + " /" + service, SpanRecorder.SERVER);
+        Timer.Sample sample = outboundRequestMetrics.start();
+        String status = OutboundRequestMetrics.IO_ERROR;
         try {
-            // Create Http request to service
-            ResponseEntity<String> result =
-                restTemplate.exchange(
-                    serviceUrls.get("/" + service)
-                        + getServiceUri(request.getRequestURI().replaceFirst("/" + service, "")
-                        + params),
-                    Objects.requireNonNull(HttpMethod.resolve(request.getMethod())),
-                    entity, String.class);
-            HttpHeaders responseHeaders = new HttpHeaders();
-            result.getHeaders()
-                .forEach((String name, List<String> values) -> responseHeaders.set(name, String.join(" ", values)));
-            return ResponseEntity.status(result.getStatusCode()).headers(responseHeaders)
-                .body(String.valueOf(result.getBody()));
+            // Create Http request to service, streaming the body in both directions
+            String key = cacheKey;
+            (stream ? streamingRestTemplate : restTemplate).execute(target, method,
+                clientRequest -> copyRequest(request, method, identity, trace, clientRequest),
+                clientResponse -> {
+                    response.setStatus(clientResponse.getRawStatusCode());
+                    HttpHeaders headers = clientResponse.getHeaders();
+                    responseCache.invalidate(service, identity, headers);
+                    copyHeaders(headers, response);
+                    long freshFor = key != null && clientResponse.getRawStatusCode() == HttpStatus.OK.value()
+                        ? responseCache.freshFor(headers) : 0;
+                    try (InputStream body = clientResponse.getBody()) {
+                        if (freshFor > 0) {
+                            byte[] copy = copyAndCapture(body, response.getOutputStream());
+                            if (copy != null) {
+                                responseCache.put(key, new CachedResponse(withoutHopByHop(headers), copy,
+                                    System.currentTimeMillis(), freshFor));
+                            }
+                        } else if (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(headers.getContentType())) {
+                            copyFlushing(body, response.getOutputStream());
+                        } else {
+                            StreamUtils.copy(body, response.getOutputStream());
+                        }
+                    }
+                    return null;
+                });
+            status = String.valueOf(response.getStatus());
         } catch (HttpStatusCodeException e) {
+            status = String.valueOf(e.getRawStatusCode());
             // In case of error (non 200 status code) respond with the original service response.
-            HttpHeaders responseHeaders = new HttpHeaders();
             MediaType contentType = Objects.requireNonNull(e.getResponseHeaders()).getContentType();
             if (contentType == null) {
                 contentType = MediaType.APPLICATION_JSON;
             }
-            responseHeaders.setContentType(contentType);
-            return ResponseEntity.status(e.getRawStatusCode()).headers(responseHeaders)
-                .body(e.getResponseBodyAsString());
+            writeError(response, e.getRawStatusCode(), contentType, e.getResponseBodyAsByteArray());
+        } finally {
+            if (!SAFE_METHODS.contains(method)) {
+                // After the service has handled the request, so a concurrent GET cannot cache the old state
+                responseCache.invalidate(service, identity, request.getRequestURI());
+            }
+            outboundRequestMetrics.stop(sample, service, method, status);
+            span.tag("http.status", status);
+            spanRecorder.record(span);
         }
+    }
 
+    /**
+     * Copies the headers and (if applicable) the body of the incoming request to the request to the service.
+     *
+     * @param request       the incoming request.
+     * @param method        the method of the incoming request.
+     * @param identity      the identity verified from the token of the incoming request, or null.
+     * @param trace         the trace context passed on to the service.
+     * @param clientRequest the request to the service.
+     * @throws IOException when reading the incoming body fails.
+     */
+    private void copyRequest(HttpServletRequest request, HttpMethod method, VerifiedIdentity identity,
+                             TraceContext trace, ClientHttpRequest clientRequest) throws IOException {
+        // Create request headers for Http request to the concerned service
+        HttpHeaders requestHeaders = clientRequest.getHeaders();
+        for (String headerName : Collections.list(request.getHeaderNames())) {
+            if (!isHopByHop(headerName)) {
+                requestHeaders.addAll(headerName, Collections.list(request.getHeaders(headerName)));
+            }
+        }
+        identityForwarder.forward(requestHeaders, identity);
+        requestHeaders.set(TraceContext.TRACEPARENT_HEADER, trace.toTraceparent());
+        if (!METHODS_WITH_BODY.contains(method)) {
+            return;
+        }
+        InputStream body = request.getInputStream();
+        if (clientRequest instanceof StreamingHttpOutputMessage) {
+            ((StreamingHttpOutputMessage) clientRequest).setBody(outputStream -> StreamUtils.copy(body, outputStream));
+        } else {
+            StreamUtils.copy(body, clientRequest.getBody());
+        }
+    }
 
+    /**
+     * Checks whether the client asks for an event stream, a wildcard <i>Accept</i> header does not count.
+     *
+     * @param request the incoming request.
+     * @return true if <i>text/event-stream</i> is listed in the <i>Accept</i> header.
+     */
+    private static boolean acceptsEventStream(HttpServletRequest request) {
+        for (String accept : Collections.list(request.getHeaders(HttpHeaders.ACCEPT))) {
+            try {
+                if (MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.TEXT_EVENT_STREAM))) {
+                    return true;
+                }
+            } catch (InvalidMediaTypeException e) {
+                // Left to the service to reject
+            }
+        }
+        return false;
     }
 
+    private void copyHeaders(HttpHeaders headers, HttpServletResponse response) {
+        headers.forEach((String name, List<String> values) -> {
+            if (!isHopByHop(name) && !ResponseCache.INVALIDATE_HEADER.equalsIgnoreCase(name)) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+    }
 
+    /**
+     * Streams a response body to the client while keeping a copy of it for the cache.
+     *
+     * @param body         the body of the service response.
+     * @param outputStream the body of the response to the client.
+     * @return the copy, or null if the body is larger than a cached response may be.
+     * @throws IOException when reading or writing the body fails.
+     */
+    private byte[] copyAndCapture(InputStream body, OutputStream outputStream) throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+            if (copy != null) {
+                if (copy.size() + read > responseCache.getMaximumEntryBytes()) {
+                    copy = null;
+                } else {
+                    copy.write(buffer, 0, read);
+                }
+            }
+        }
+        outputStream.flush();
+        return copy == null ? null : copy.toByteArray();
+    }
+
+    /**
+     * Streams a response body to the client, flushing after every read, so events of a stream (Server-Sent Events)
+     * reach the client as soon as the service sends them instead of when the output buffer is full.
+     * The service sends heartbeats on idle streams, which keeps them within the read timeout.
+     *
+     * @param body         the body of the service response.
+     * @param outputStream the body of the response to the client.
+     * @throws IOException when reading or writing the body fails.
+     */
+    private static void copyFlushing(InputStream body, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Answers a request with a cached response, or with 304 Not Modified if the client already has it.
+     *
+     * @param request  the incoming request.
+     * @param response the response to the client.
+     * @param cached   the cached response.
+     * @throws IOException when writing the response fails.
+     */
+    private void writeCached(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+        throws IOException {
+        HttpHeaders headers = cached.getHeaders();
+        response.setHeader(HttpHeaders.AGE, String.valueOf(cached.getAge(System.currentTimeMillis())));
+        if (cached.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            for (String name : List.of(HttpHeaders.CACHE_CONTROL, HttpHeaders.ETAG, HttpHeaders.EXPIRES)) {
+                headers.getOrEmpty(name).forEach(value -> response.addHeader(name, value));
+            }
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        copyHeaders(headers, response);
+        response.getOutputStream().write(cached.getBody());
+    }
+
+    private HttpHeaders withoutHopByHop(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((String name, List<String> values) -> {
+            if (!isHopByHop(name)) {
+                copy.addAll(name, values);
+            }
+        });
+        return copy;
+    }
+
+    private boolean isHopByHop(String headerName) {
+        return HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+
+    private void writeError(HttpServletResponse response, int status, MediaType contentType, byte[] body)
+        throws IOException {
+        response.setStatus(status);
+        response.setContentType(contentType.toString());
+        response.getOutputStream().write(body);
+    }
 }
@@ -0,0 +1,170 @@
+package nl.tudelft.sem.template.apigateway.controllers;
+
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import nl.tudelft.sem.template.apigateway.application.RouteTable;
+import nl.tudelft.sem.template.apigateway.authentication.IdentityForwarder;
+import nl.tudelft.sem.template.apigateway.metrics.OutboundRequestMetrics;
+import nl.tudelft.sem.template.apigateway.tracing.Span;
+import nl.tudelft.sem.template.apigateway.tracing.SpanRecorder;
+import nl.tudelft.sem.template.apigateway.tracing.TraceContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking API Gateway controller, active with the <i>reactive</i> profile.
+ * This controller is responsible for routing requests to the correct service.
+ * <p>
+ * It routes the same way as {@link ApiGatewayController}, but bodies are forwarded as streams of buffers on the
+ * event loop: the service is only read as fast as the client consumes the response (and vice versa), and no
+ * thread waits for a service to respond.
+ * </p>
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveApiGatewayController {
+
+    /**
+     * Headers that only apply to a single connection and must not be forwarded by a proxy (RFC 7230 6.1).
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+        "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+        "te", "trailer", "transfer-encoding", "upgrade"
+    );
+
+    /**
+     * Methods for which the request body is forwarded to the service.
+     */
+    private static final Set<HttpMethod> METHODS_WITH_BODY =
+        Collections.unmodifiableSet(EnumSet.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE));
+
+    private final transient WebClient webClient;
+
+    private final transient RouteTable routeTable;
+
+    private final transient IdentityForwarder identityForwarder;
+
+    private final transient OutboundRequestMetrics outboundRequestMetrics;
+
+    private final transient SpanRecorder spanRecorder;
+
+    /**
+     * Instantiates a new ReactiveApiGatewayController.
+     *
+     * @param webClient              the pooled WebClient requests are forwarded with
+     * @param routeTable             the table of services requests are routed to
+     * @param identityForwarder      verifies the token of a request and forwards the identity to the service
+     * @param outboundRequestMetrics times the requests forwarded to the services
+     * @param spanRecorder           records the span of every forwarded request
+     */
+    public ReactiveApiGatewayController(WebClient webClient, RouteTable routeTable,
+                                        IdentityForwarder identityForwarder,
+                                        OutboundRequestMetrics outboundRequestMetrics,
+                                        SpanRecorder spanRecorder) {
+        this.webClient = webClient;
+        this.routeTable = routeTable;
+        this.identityForwarder = identityForwarder;
+        this.outboundRequestMetrics = outboundRequestMetrics;
+        this.spanRecorder = spanRecorder;
+    }
+
+    /**
+     * RequestMapping to forward Http request to correct service.
+     * The service response (status, headers and body) is streamed back to the client.
+     *
+     * @param request  Http Request to API gateway
+     * @param response Http Response of the API gateway the service response is copied to
+     * @param service  Service to forward request to
+     * @return completes when the service response has been written
+     */
+    @RequestMapping(value = {"/{service}/**"})
+    public Mono<Void> service(ServerHttpRequest request, ServerHttpResponse response, @PathVariable String service) {
+        URI target = routeTable.resolve(service, request.getURI().getRawPath(), request.getURI().getRawQuery());
+        if (target == null) {
+            return writeError(response, HttpStatus.BAD_REQUEST.value(), MediaType.TEXT_PLAIN,
+                "Unknown service".getBytes(StandardCharsets.UTF_8));
+        }
+        HttpMethod method = Objects.requireNonNull(request.getMethod());
+        // Continue the trace of the client, or start one; the span is passed on to the service
+        TraceContext trace = TraceContext.continueOrStart(
+            request.getHeaders().getFirst(TraceContext.TRACEPARENT_HEADER));
+        Span span = spanRecorder.start(trace, method.name() + " /" + service, SpanRecorder.SERVER);
+
+        WebClient.RequestBodySpec serviceRequest = webClient.method(method)
+            .uri(target)
+            .headers(headers -> {
+                copyHeaders(request.getHeaders(), headers);
+                identityForwarder.forward(headers);
+                headers.set(TraceContext.TRACEPARENT_HEADER, trace.toTraceparent());
+            });
+        if (METHODS_WITH_BODY.contains(method)) {
+            serviceRequest.body(BodyInserters.fromDataBuffers(request.getBody()));
+        }
+        // exchange() does not turn error statuses into exceptions, so they are mirrored like any other response
+        Timer.Sample sample = outboundRequestMetrics.start();
+        AtomicReference<String> status = new AtomicReference<>(OutboundRequestMetrics.IO_ERROR);
+        return serviceRequest.exchange()
+            .flatMap(clientResponse -> {
+                status.set(String.valueOf(clientResponse.rawStatusCode()));
+                return copyResponse(clientResponse, response);
+            })
+            .doFinally(signal -> {
+                outboundRequestMetrics.stop(sample, service, method, status.get());
+                span.tag("http.status", status.get());
+                spanRecorder.record(span);
+            });
+    }
+
+    private Mono<Void> copyResponse(ClientResponse clientResponse, ServerHttpResponse response) {
+        response.setRawStatusCode(clientResponse.rawStatusCode());
+        HttpHeaders responseHeaders = response.getHeaders();
+        copyHeaders(clientResponse.headers().asHttpHeaders(), responseHeaders);
+        // In case of error (non 200 status code) respond with the original service response.
+        if (clientResponse.rawStatusCode() >= HttpStatus.BAD_REQUEST.value()
+            && responseHeaders.getContentType() == null) {
+            responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+        }
+        return response.writeWith(clientResponse.body(BodyExtractors.toDataBuffers()));
+    }
+
+    private void copyHeaders(HttpHeaders from, HttpHeaders to) {
+        from.forEach((String name, List<String> values) -> {
+            if (!isHopByHop(name)) {
+                to.addAll(name, values);
+            }
+        });
+    }
+
+    private boolean isHopByHop(String headerName) {
+        return HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+
+    private Mono<Void> writeError(ServerHttpResponse response, int status, MediaType contentType, byte[] body) {
+        response.setRawStatusCode(status);
+        response.getHeaders().setContentType(contentType);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -0,0 +1,54 @@
+package nl.tudelft.sem.template.apigateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the requests the gateway forwards to the services.
+ * <p>
+ * Requests are recorded in the <i>gateway.outbound.requests</i> timer, tagged with the target service, the method
+ * and the status returned by the service (<i>IO_ERROR</i> when the service could not be reached).
+ * </p>
+ */
+@Component
+public class OutboundRequestMetrics {
+
+    public static final String METRIC_NAME = "gateway.outbound.requests";
+
+    public static final String IO_ERROR = "IO_ERROR";
+
+    private final transient MeterRegistry meterRegistry;
+
+    public OutboundRequestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts timing a request to a service.
+     *
+     * @return the sample to stop when the response has been received.
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Records a request to a service.
+     *
+     * @param sample  the sample started before sending the request.
+     * @param service the service the request was forwarded to.
+     * @param method  the method of the request.
+     * @param status  the status returned by the service, or {@link #IO_ERROR}.
+     */
+    public void stop(Timer.Sample sample, String service, HttpMethod method, String status) {
+        sample.stop(Timer.builder(METRIC_NAME)
+            .description("Duration of requests forwarded to the services")
+            .tag("service", service)
+            .tag("method", method.name())
+            .tag("status", status)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    }
+}
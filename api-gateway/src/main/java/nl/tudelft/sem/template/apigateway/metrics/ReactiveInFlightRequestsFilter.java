@@ -0,0 +1,46 @@
+package nl.tudelft.sem.template.apigateway.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Web filter that counts the requests currently being handled by the non-blocking gateway.
+ * <p>
+ * The count is published as the same <i>http.server.requests.active</i> gauge as {@link InFlightRequestsFilter}.
+ * </p>
+ */
+@Component
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveInFlightRequestsFilter implements WebFilter {
+
+    private final transient AtomicInteger inFlightRequests = new AtomicInteger();
+
+    /**
+     * Instantiates a new ReactiveInFlightRequestsFilter.
+     *
+     * @param meterRegistry the registry the gauge is registered in.
+     */
+    public ReactiveInFlightRequestsFilter(MeterRegistry meterRegistry) {
+        Gauge.builder(InFlightRequestsFilter.METRIC_NAME, inFlightRequests, AtomicInteger::get)
+            .description("Number of requests currently being handled")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return Mono.defer(() -> {
+            inFlightRequests.incrementAndGet();
+            return chain.filter(exchange);
+        }).doFinally(signal -> inFlightRequests.decrementAndGet());
+    }
+}
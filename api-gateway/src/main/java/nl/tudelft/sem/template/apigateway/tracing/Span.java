@@ -0,0 +1,78 @@
+package nl.tudelft.sem.template.apigateway.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A timed operation within a trace, e.g. the handling of a request or a call to another service.
+ */
+@Getter
+public class Span {
+
+    private final String traceId;
+
+    private final String spanId;
+
+    private final String parentSpanId;
+
+    private final String service;
+
+    private final String name;
+
+    /**
+     * SERVER for handling an incoming request, CLIENT for a call to another service.
+     */
+    private final String kind;
+
+    /**
+     * Start time in microseconds since the epoch.
+     */
+    private final long startMicros;
+
+    private long durationMicros;
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final transient long startNanos;
+
+    /**
+     * Starts a new span.
+     *
+     * @param context the position of the span in the trace.
+     * @param service the service the span is recorded in.
+     * @param name    the name of the operation.
+     * @param kind    SERVER or CLIENT.
+     */
+    public Span(TraceContext context, String service, String name, String kind) {
+        this.traceId = context.getTraceId();
+        this.spanId = context.getSpanId();
+        this.parentSpanId = context.getParentSpanId();
+        this.service = service;
+        this.name = name;
+        this.kind = kind;
+        this.startMicros = System.currentTimeMillis() * 1000;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Adds a tag to the span.
+     *
+     * @param key   the key of the tag.
+     * @param value the value of the tag.
+     * @return this span.
+     */
+    public Span tag(String key, String value) {
+        tags.put(key, value);
+        return this;
+    }
+
+    /**
+     * Ends the span.
+     */
+    public void end() {
+        durationMicros = (System.nanoTime() - startNanos) / 1000;
+    }
+}
@@ -0,0 +1,117 @@
+package nl.tudelft.sem.template.apigateway.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Getter;
+
+/**
+ * The position of a span in a trace, propagated between services in the W3C <i>traceparent</i> header.
+ * <p>
+ * The header has the form <i>00-{32 hex trace id}-{16 hex span id}-{2 hex flags}</i>.
+ * </p>
+ */
+@Getter
+public final class TraceContext {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private static final String VERSION = "00";
+    private static final String SAMPLED = "01";
+    private static final int TRACE_ID_LENGTH = 32;
+    private static final int SPAN_ID_LENGTH = 16;
+
+    private final String traceId;
+
+    private final String spanId;
+
+    /**
+     * The span id of the caller, null for the root span of a trace.
+     */
+    private final String parentSpanId;
+
+    private TraceContext(String traceId, String spanId, String parentSpanId) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+    }
+
+    /**
+     * Starts a new trace.
+     *
+     * @return the context of the root span.
+     */
+    public static TraceContext root() {
+        return new TraceContext(randomHex(TRACE_ID_LENGTH), randomHex(SPAN_ID_LENGTH), null);
+    }
+
+    /**
+     * Parses a traceparent header.
+     *
+     * @param traceparent the header value, may be null.
+     * @return the context of the calling span, or null if the header is missing or invalid.
+     */
+    public static TraceContext parse(String traceparent) {
+        if (traceparent == null) {
+            return null;
+        }
+        String[] parts = traceparent.trim().split("-");
+        if (parts.length < 4 || parts[0].length() != 2 || !isHex(parts[1], TRACE_ID_LENGTH)
+            || !isHex(parts[2], SPAN_ID_LENGTH)) {
+            return null;
+        }
+        return new TraceContext(parts[1], parts[2], null);
+    }
+
+    /**
+     * Continues the trace of a traceparent header, or starts a new one if there is none.
+     *
+     * @param traceparent the header value, may be null.
+     * @return the context of a new span, a child of the calling span if there is one.
+     */
+    public static TraceContext continueOrStart(String traceparent) {
+        TraceContext parent = parse(traceparent);
+        return parent == null ? root() : parent.child();
+    }
+
+    /**
+     * Creates the context of a span called by this span.
+     *
+     * @return the context of the child span.
+     */
+    public TraceContext child() {
+        return new TraceContext(traceId, randomHex(SPAN_ID_LENGTH), spanId);
+    }
+
+    /**
+     * Formats this context as traceparent header, to pass it to a service that is called from this span.
+     *
+     * @return the header value.
+     */
+    public String toTraceparent() {
+        return VERSION + "-" + traceId + "-" + spanId + "-" + SAMPLED;
+    }
+
+    private static boolean isHex(String value, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        boolean allZero = true;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+            allZero &= c == '0';
+        }
+        // An id of only zeros is invalid
+        return !allZero;
+    }
+
+    private static String randomHex(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(length);
+        for (int i = 0; i < length; i += SPAN_ID_LENGTH) {
+            hex.append(String.format("%016x", random.nextLong()));
+        }
+        return hex.toString();
+    }
+}
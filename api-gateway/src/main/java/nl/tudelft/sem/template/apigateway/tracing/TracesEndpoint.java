@@ -0,0 +1,32 @@
+package nl.tudelft.sem.template.apigateway.tracing;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint (<i>/actuator/traces</i>) listing the spans recorded in this service.
+ */
+@Component
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private final transient SpanRecorder spanRecorder;
+
+    public TracesEndpoint(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+
+    /**
+     * Lists the recorded spans.
+     *
+     * @param traceId the trace to list the spans of, all spans when omitted.
+     * @return the spans, oldest first.
+     */
+    @ReadOperation
+    public List<Span> traces(@Nullable String traceId) {
+        return spanRecorder.getSpans(traceId);
+    }
+}
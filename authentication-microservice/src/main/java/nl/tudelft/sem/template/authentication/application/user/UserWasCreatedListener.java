@@ -1,5 +1,6 @@
 package nl.tudelft.sem.template.authentication.application.user;
 
+import lombok.extern.slf4j.Slf4j;
 import nl.tudelft.sem.template.authentication.domain.user.UserLoggedInEvent;
 import nl.tudelft.sem.template.authentication.domain.user.UserWasCreatedEvent;
 import org.springframework.context.event.EventListener;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
  * This event listener is automatically called when a domain entity is saved
  * which has stored events of type: UserWasCreated.
  */
+@Slf4j
 @Component
 public class UserWasCreatedListener {
     /**
@@ -20,7 +22,7 @@ public class UserWasCreatedListener {
     @EventListener
     public void onAccountWasCreated(UserWasCreatedEvent event) {
         // Handler code here
-        System.out.print("Account (" + event.getNetId().toString() + ") was created.\n");
+        log.info("Account ({}) was created.", event.getNetId());
     }
 
     /**
@@ -32,6 +34,6 @@ public class UserWasCreatedListener {
     @EventListener
     public void onUserLogin(UserLoggedInEvent event) {
         // Handler code here
-        System.out.print("Account (" + event.getNetId().toString() + ") was created.\n");
+        log.info("Account ({}) logged in.", event.getNetId());
     }
 }
@@ -0,0 +1,66 @@
+package nl.tudelft.sem.template.authentication.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies the identity the API gateway forwards after it verified the JWT token of a request.
+ * <p>
+ * The identity header is only trusted when the request also carries the key shared with the gateway,
+ * so the token does not have to be verified again. The fast path is disabled when no key is configured.
+ * </p>
+ */
+@Component
+public class GatewayIdentityVerifier {
+
+    public static final String VERIFIED_IDENTITY_HEADER = "X-Verified-Identity";
+    public static final String GATEWAY_KEY_HEADER = "X-Gateway-Key";
+
+    @Value("${gateway.trust.key:}")  // automatically loads gateway.trust.key from resources/application.properties
+    private transient String gatewayKey;
+
+    /**
+     * Verifies the identity forwarded by the gateway.
+     *
+     * @param identityHeader the verified identity header, <i>expiresAt:role:netId</i>.
+     * @param keyHeader      the gateway key header.
+     * @return the identity, or null if the headers are missing, not trusted or expired.
+     */
+    public VerifiedIdentity verify(String identityHeader, String keyHeader) {
+        if (identityHeader == null || keyHeader == null || gatewayKey == null || gatewayKey.isEmpty()) {
+            return null;
+        }
+        // Constant time comparison, the key must not be guessable from response times
+        if (!MessageDigest.isEqual(gatewayKey.getBytes(StandardCharsets.UTF_8),
+            keyHeader.getBytes(StandardCharsets.UTF_8))) {
+            return null;
+        }
+        String[] parts = identityHeader.split(":", 3);
+        if (parts.length != 3 || parts[1].isEmpty() || parts[2].isEmpty()) {
+            return null;
+        }
+        try {
+            long expiresAt = Long.parseLong(parts[0]);
+            if (expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            return new VerifiedIdentity(parts[2], parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The identity of a user, as verified by the gateway.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedIdentity {
+        private final String netId;
+        private final String role;
+    }
+}
@@ -1,20 +1,43 @@
 package nl.tudelft.sem.template.authentication.authentication;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * Verifies the JWT token in the request for validity.
+ * <p>
+ * Verified claims are cached by the SHA-256 digest of the token until the token expires, so a token is only
+ * parsed and its signature checked once. The cache is bounded to {@link #MAXIMUM_CACHE_SIZE} tokens.
+ * </p>
  */
 @Component
 public class JwtTokenVerifier {
+    /**
+     * Maximum number of tokens of which the claims are cached.
+     */
+    public static final long MAXIMUM_CACHE_SIZE = 10_000;
+
     @Value("${jwt.secret}")  // automatically loads jwt.secret from resources/application.properties
     private transient String jwtSecret;
 
+    private final transient Cache<ByteBuffer, Claims> claimsCache = Caffeine.newBuilder()
+        .maximumSize(MAXIMUM_CACHE_SIZE)
+        .expireAfter(new TokenExpiry())
+        .recordStats()
+        .build();
+
     /**
      * Validate the JWT token for expiration.
      */
@@ -22,30 +45,114 @@ public class JwtTokenVerifier {
         return !isTokenExpired(token);
     }
 
+    /**
+     * Gets the netId from token.
+     *
+     * @param token JWT token.
+     * @return the netId as String.
+     */
     public String getNetIdFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
+    /**
+     * Returns expirationDate from token.
+     *
+     * @param token JWT token.
+     * @return the Date.
+     */
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return verify(token).getExpiration();
     }
 
+    /**
+     * Gets the role from the token.
+     *
+     * @param token JWT token.
+     * @return the role as String.
+     */
     public String getRoleFromToken(String token) {
-        return getClaims(token).get("role").toString();
+        return verify(token).get("role").toString();
+    }
+
+    /**
+     * Verifies the token and returns its claims, from the cache if the token was verified before.
+     *
+     * @param token JWT token.
+     * @return the claims.
+     * @throws io.jsonwebtoken.JwtException when the token is invalid or expired.
+     * @throws IllegalArgumentException when the token is empty.
+     */
+    public Claims verify(String token) {
+        ByteBuffer key = digest(token);
+        Claims claims = claimsCache.getIfPresent(key);
+        if (claims != null && !isExpired(claims)) {
+            return claims;
+        }
+        // Parsing also rejects expired tokens
+        claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody();
+        claimsCache.put(key, claims);
+        return claims;
     }
 
+    /**
+     * Gets the hit and miss counters of the claims cache.
+     *
+     * @return the cache statistics.
+     */
+    public CacheStats getCacheStats() {
+        return claimsCache.stats();
+    }
+
+    /**
+     * Returns whether the token is expired.
+     *
+     * @param token JWT token.
+     * @return bool.
+     */
     private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+        return isExpired(verify(token));
     }
 
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getClaims(token);
-        System.out.println(claims.get("role"));
-        return claimsResolver.apply(claims);
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody();
+    private static ByteBuffer digest(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("JWT token is missing");
+        }
+        try {
+            // MessageDigest instances are not thread safe, getting one per call is cheap
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Evicts cached claims when the token expires.
+     */
+    private static class TokenExpiry implements Expiry<ByteBuffer, Claims> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            long remaining = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -2,6 +2,7 @@ package nl.tudelft.sem.template.authentication.service;
 
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
 import nl.tudelft.sem.template.authentication.domain.user.AppUser;
 import nl.tudelft.sem.template.authentication.domain.user.EmployeeType;
 import nl.tudelft.sem.template.authentication.domain.user.NetId;
@@ -9,6 +10,7 @@ import nl.tudelft.sem.template.authentication.domain.user.UserRepository;
 import nl.tudelft.sem.template.authentication.exceptions.RoleAlreadySetException;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 public class AppUserService {
     private final transient UserRepository userRepository;
@@ -29,7 +31,7 @@ public class AppUserService {
     public void createCandidate(AppUser user) {
         user.setRole(EmployeeType.CANDIDATE);
         userRepository.save(user);
-        System.out.print("Account created.\n");
+        log.info("Account created.");
     }
 
     public AppUser getUserById(int userId) {
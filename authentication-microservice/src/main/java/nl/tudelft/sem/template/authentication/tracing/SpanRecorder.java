@@ -0,0 +1,200 @@
+package nl.tudelft.sem.template.authentication.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects the spans recorded in this service.
+ * <p>
+ * The most recent spans are kept in memory (see the <i>traces</i> actuator endpoint). When
+ * <i>tracing.export.file</i> is set, every span is also appended to that file as a JSON line by a background
+ * thread, so traces of all services can be inspected without a tracing backend. The thread keeps the file open and
+ * writes the queued spans in batches, flushing after every batch; spans are dropped while the queue is full.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SpanRecorder {
+
+    public static final String SERVER = "SERVER";
+    public static final String CLIENT = "CLIENT";
+
+    private static final int EXPORT_QUEUE_SIZE = 10_000;
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private final transient String service;
+
+    private final transient int capacity;
+
+    private final transient Deque<Span> spans;
+
+    private final transient ObjectMapper objectMapper;
+
+    private final transient Path exportFile;
+
+    private final transient BlockingQueue<Span> exportQueue;
+
+    private final transient ExecutorService exporter;
+
+    private transient volatile boolean exporting;
+
+    /**
+     * Instantiates a new SpanRecorder.
+     *
+     * @param service      the name of this service.
+     * @param capacity     the number of spans kept in memory, 0 to only export them.
+     * @param exportFile   the file spans are appended to, empty to only keep them in memory.
+     * @param objectMapper the mapper used to write spans as JSON.
+     * @throws IllegalArgumentException when the capacity is negative.
+     */
+    public SpanRecorder(@Value("${spring.application.name}") String service,
+                        @Value("${tracing.recorder.capacity:1000}") int capacity,
+                        @Value("${tracing.export.file:}") String exportFile,
+                        ObjectMapper objectMapper) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("tracing.recorder.capacity must not be negative: " + capacity);
+        }
+        this.service = service;
+        this.capacity = capacity;
+        this.spans = new ArrayDeque<>(capacity);
+        this.objectMapper = objectMapper;
+        this.exportFile = exportFile.isEmpty() ? null : Path.of(exportFile);
+        if (this.exportFile == null) {
+            this.exportQueue = null;
+            this.exporter = null;
+        } else {
+            this.exportQueue = new ArrayBlockingQueue<>(EXPORT_QUEUE_SIZE);
+            this.exporter = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "span-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.exporting = true;
+            this.exporter.execute(this::export);
+        }
+    }
+
+    /**
+     * Starts a span in this service.
+     *
+     * @param context the position of the span in the trace.
+     * @param name    the name of the operation.
+     * @param kind    {@link #SERVER} or {@link #CLIENT}.
+     * @return the started span.
+     */
+    public Span start(TraceContext context, String name, String kind) {
+        return new Span(context, service, name, kind);
+    }
+
+    /**
+     * Ends and records a span.
+     *
+     * @param span the span.
+     */
+    public void record(Span span) {
+        span.end();
+        if (capacity > 0) {
+            synchronized (spans) {
+                if (spans.size() == capacity) {
+                    spans.removeFirst();
+                }
+                spans.addLast(span);
+            }
+        }
+        if (exportQueue != null && !exportQueue.offer(span)) {
+            log.debug("Export queue full, span {} not exported", span.getSpanId());
+        }
+    }
+
+    /**
+     * Gets the recorded spans that are still kept in memory.
+     *
+     * @param traceId the trace to get the spans of, or null for all spans.
+     * @return the spans, oldest first.
+     */
+    public List<Span> getSpans(String traceId) {
+        List<Span> result = new ArrayList<>();
+        synchronized (spans) {
+            for (Span span : spans) {
+                if (traceId == null || traceId.equals(span.getTraceId())) {
+                    result.add(span);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the queued spans until the recorder shuts down and the queue is empty.
+     */
+    private void export() {
+        List<Span> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+        try (Writer writer = Files.newBufferedWriter(exportFile, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (exporting || !exportQueue.isEmpty()) {
+                Span first = exportQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                exportQueue.drainTo(batch, EXPORT_BATCH_SIZE - 1);
+                for (Span span : batch) {
+                    write(writer, span);
+                }
+                writer.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            log.warn("Unable to export spans to {}, export stopped", exportFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Writer writer, Span span) throws IOException {
+        try {
+            writer.write(objectMapper.writeValueAsString(span));
+            writer.write(System.lineSeparator());
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to serialize span {}", span.getSpanId(), e);
+        }
+    }
+
+    /**
+     * Stops the exporter, spans that are already queued are still written.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (exporter != null) {
+            exporting = false;
+            exporter.shutdown();
+            try {
+                if (!exporter.awaitTermination(5, TimeUnit.SECONDS)) {
+                    log.warn("{} spans were not exported to {}", exportQueue.size(), exportFile);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
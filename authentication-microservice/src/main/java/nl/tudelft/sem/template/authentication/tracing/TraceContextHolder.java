@@ -0,0 +1,29 @@
+package nl.tudelft.sem.template.authentication.tracing;
+
+/**
+ * Holds the trace context of the request handled by the current thread.
+ */
+public final class TraceContextHolder {
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private TraceContextHolder() {
+    }
+
+    /**
+     * Gets the trace context of the current request.
+     *
+     * @return the context, or null outside of a request.
+     */
+    public static TraceContext get() {
+        return CURRENT.get();
+    }
+
+    public static void set(TraceContext context) {
+        CURRENT.set(context);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,51 @@
+package nl.tudelft.sem.template.authentication.tracing;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Request filter that records a span for every request.
+ * <p>
+ * The trace of the caller is continued when the request has a <i>traceparent</i> header. While the request is
+ * handled, the context is available through {@link TraceContextHolder} (for calls to other services) and the
+ * trace and span id are added to the log events.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final transient SpanRecorder spanRecorder;
+
+    public TracingFilter(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        TraceContext context = TraceContext.continueOrStart(request.getHeader(TraceContext.TRACEPARENT_HEADER));
+        Span span = spanRecorder.start(context, request.getMethod() + " " + request.getRequestURI(),
+            SpanRecorder.SERVER);
+        TraceContextHolder.set(context);
+        MDC.put("traceId", context.getTraceId());
+        MDC.put("spanId", context.getSpanId());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            span.tag("http.status", String.valueOf(response.getStatus()));
+            spanRecorder.record(span);
+            TraceContextHolder.clear();
+            MDC.remove("traceId");
+            MDC.remove("spanId");
+        }
+    }
+}
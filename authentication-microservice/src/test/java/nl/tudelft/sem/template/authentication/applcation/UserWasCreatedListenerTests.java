@@ -1,9 +1,10 @@
 package nl.tudelft.sem.template.authentication.applcation;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import nl.tudelft.sem.template.authentication.application.user.UserWasCreatedListener;
 import nl.tudelft.sem.template.authentication.domain.user.AppUser;
 import nl.tudelft.sem.template.authentication.domain.user.EmployeeType;
@@ -14,25 +15,23 @@ import nl.tudelft.sem.template.authentication.domain.user.UserWasCreatedEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
 
 public class UserWasCreatedListenerTests {
 
-    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
-    private final PrintStream originalOut = System.out;
-    private final PrintStream originalErr = System.err;
+    private final ListAppender<ILoggingEvent> logAppender = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(UserWasCreatedListener.class);
 
     @BeforeEach
-    public void setUpStreams() {
-        System.setOut(new PrintStream(outContent));
-        System.setErr(new PrintStream(errContent));
+    public void setUpLogAppender() {
+        logAppender.start();
+        logger.addAppender(logAppender);
     }
 
     @AfterEach
-    public void restoreStreams() {
-        System.setOut(originalOut);
-        System.setErr(originalErr);
+    public void removeLogAppender() {
+        logger.detachAppender(logAppender);
     }
 
     @Test
@@ -42,7 +41,8 @@ public class UserWasCreatedListenerTests {
         UserWasCreatedEvent event = new UserWasCreatedEvent(user.getNetId());
 
         userWasCreatedListener.onAccountWasCreated(event);
-        assertThat(outContent.toString()).isEqualTo("Account (" + event.getNetId().toString() + ") was created.\n");
+        assertThat(logAppender.list).extracting(ILoggingEvent::getFormattedMessage)
+            .containsExactly("Account (" + event.getNetId().toString() + ") was created.");
 
     }
 
@@ -53,7 +53,8 @@ public class UserWasCreatedListenerTests {
         UserLoggedInEvent event = new UserLoggedInEvent(user.getNetId());
 
         userWasCreatedListener.onUserLogin(event);
-        assertThat(outContent.toString()).isEqualTo("Account (" + event.getNetId().toString() + ") was created.\n");
+        assertThat(logAppender.list).extracting(ILoggingEvent::getFormattedMessage)
+            .containsExactly("Account (" + event.getNetId().toString() + ") logged in.");
 
     }
 }
@@ -9,8 +9,10 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import nl.tudelft.sem.template.authentication.application.user.UserWasCreatedListener;
 import nl.tudelft.sem.template.authentication.authentication.JwtTokenGenerator;
 import nl.tudelft.sem.template.authentication.domain.user.AppUser;
 import nl.tudelft.sem.template.authentication.domain.user.EmployeeType;
@@ -27,6 +29,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -64,21 +67,18 @@ public class UsersTests {
     private transient UserRepository userRepository;
 
 
-    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
-    private final PrintStream originalOut = System.out;
-    private final PrintStream originalErr = System.err;
+    private final ListAppender<ILoggingEvent> logAppender = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(UserWasCreatedListener.class);
 
     @BeforeEach
-    public void setUpStreams() {
-        System.setOut(new PrintStream(outContent));
-        System.setErr(new PrintStream(errContent));
+    public void setUpLogAppender() {
+        logAppender.start();
+        logger.addAppender(logAppender);
     }
 
     @AfterEach
-    public void restoreStreams() {
-        System.setOut(originalOut);
-        System.setErr(originalErr);
+    public void removeLogAppender() {
+        logger.detachAppender(logAppender);
     }
 
     @Test
@@ -107,8 +107,8 @@ public class UsersTests {
 
         assertThat(savedUser.getNetId()).isEqualTo(testUser);
         assertThat(savedUser.getPassword()).isEqualTo(testHashedPassword);
-        String s = "Account (" + savedUser.getNetId().toString() + ") was created.\n";
-        assertThat(s).isEqualTo(outContent.toString());
+        String s = "Account (" + savedUser.getNetId().toString() + ") was created.";
+        assertThat(logAppender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(s);
     }
 
     @Test
@@ -171,8 +171,8 @@ public class UsersTests {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(JsonUtil.serialize(model)));
 
-        String s = "Account (" + appUser.getNetId().toString() + ") was created.\n";
-        assertThat(s).isEqualTo(outContent.toString());
+        String s = "Account (" + appUser.getNetId().toString() + ") logged in.";
+        assertThat(logAppender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(s);
 
         // Assert
         MvcResult result = resultActions
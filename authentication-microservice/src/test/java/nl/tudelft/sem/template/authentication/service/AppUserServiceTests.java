@@ -12,8 +12,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import javax.persistence.EntityNotFoundException;
@@ -27,6 +28,7 @@ import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
 
 public class AppUserServiceTests {
@@ -38,24 +40,21 @@ public class AppUserServiceTests {
     private transient NetId invalidNetId;
     private transient HashedPassword hashedPassword;
     private transient EmployeeType role;
-    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
-    private final PrintStream originalOut = System.out;
-    private final PrintStream originalErr = System.err;
+    private final ListAppender<ILoggingEvent> logAppender = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(AppUserService.class);
 
     /**
-     * Set up for reading System.outs
+     * Set up for reading the log.
      */
     @BeforeEach
-    public void setUpStreams() {
-        System.setOut(new PrintStream(outContent));
-        System.setErr(new PrintStream(errContent));
+    public void setUpLogAppender() {
+        logAppender.start();
+        logger.addAppender(logAppender);
     }
 
     @AfterEach
-    public void restoreStreams() {
-        System.setOut(originalOut);
-        System.setErr(originalErr);
+    public void removeLogAppender() {
+        logger.detachAppender(logAppender);
     }
 
     /**
@@ -116,7 +115,8 @@ public class AppUserServiceTests {
         //Assert
         verify(spyAppUser, times(1)).setRole(EmployeeType.CANDIDATE);
         verify(userRepository, times(1)).save(spyAppUser);
-        assertThat("Account created.\n").isEqualTo(outContent.toString());
+        assertThat(logAppender.list).extracting(ILoggingEvent::getFormattedMessage)
+            .containsExactly("Account created.");
     }
 
     @Test
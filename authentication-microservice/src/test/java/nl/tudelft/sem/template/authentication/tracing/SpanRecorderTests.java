@@ -0,0 +1,72 @@
+package nl.tudelft.sem.template.authentication.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SpanRecorderTests {
+
+    @Test
+    public void dropsOldestSpanAtCapacity() {
+        // Arrange
+        SpanRecorder spanRecorder = new SpanRecorder("test-service", 2, "", new ObjectMapper());
+        Span first = spanRecorder.start(TraceContext.root(), "first", SpanRecorder.SERVER);
+        Span second = spanRecorder.start(TraceContext.root(), "second", SpanRecorder.SERVER);
+        Span third = spanRecorder.start(TraceContext.root(), "third", SpanRecorder.SERVER);
+
+        // Act
+        spanRecorder.record(first);
+        spanRecorder.record(second);
+        spanRecorder.record(third);
+
+        // Assert
+        assertThat(spanRecorder.getSpans(null)).containsExactly(second, third);
+    }
+
+    @Test
+    public void zeroCapacityKeepsNoSpans() {
+        // Arrange
+        SpanRecorder spanRecorder = new SpanRecorder("test-service", 0, "", new ObjectMapper());
+        Span span = spanRecorder.start(TraceContext.root(), "test", SpanRecorder.SERVER);
+
+        // Act
+        spanRecorder.record(span);
+
+        // Assert
+        assertThat(spanRecorder.getSpans(null)).isEmpty();
+    }
+
+    @Test
+    public void negativeCapacityTest() {
+        //Act&Assert
+        assertThatThrownBy(() -> new SpanRecorder("test-service", -1, "", new ObjectMapper()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void exportsSpansAsJsonLines(@TempDir Path directory) throws IOException {
+        // Arrange
+        Path exportFile = directory.resolve("spans.jsonl");
+        SpanRecorder spanRecorder = new SpanRecorder("test-service", 0, exportFile.toString(), new ObjectMapper());
+        Span first = spanRecorder.start(TraceContext.root(), "first", SpanRecorder.SERVER);
+        Span second = spanRecorder.start(TraceContext.root(), "second", SpanRecorder.CLIENT);
+
+        // Act
+        spanRecorder.record(first);
+        spanRecorder.record(second);
+        spanRecorder.shutdown();
+
+        // Assert
+        List<String> lines = Files.readAllLines(exportFile);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains(first.getSpanId(), "\"name\":\"first\"");
+        assertThat(lines.get(1)).contains(second.getSpanId(), "\"name\":\"second\"");
+    }
+}
@@ -0,0 +1,53 @@
+package nl.tudelft.sem.template.authentication.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TraceContextTests {
+
+    @Test
+    public void parseTraceparent() {
+        // Arrange
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+        // Act
+        TraceContext actual = TraceContext.parse(traceparent);
+
+        // Assert
+        assertThat(actual.getTraceId()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(actual.getSpanId()).isEqualTo("00f067aa0ba902b7");
+    }
+
+    @Test
+    public void parseInvalidTraceparent() {
+        assertThat(TraceContext.parse(null)).isNull();
+        assertThat(TraceContext.parse("00-xyz-00f067aa0ba902b7-01")).isNull();
+        assertThat(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01")).isNull();
+    }
+
+    @Test
+    public void continueTrace() {
+        // Arrange
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+        // Act
+        TraceContext actual = TraceContext.continueOrStart(traceparent);
+
+        // Assert
+        assertThat(actual.getTraceId()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(actual.getParentSpanId()).isEqualTo("00f067aa0ba902b7");
+        assertThat(actual.getSpanId()).hasSize(16).isNotEqualTo("00f067aa0ba902b7");
+    }
+
+    @Test
+    public void startTrace() {
+        // Act
+        TraceContext actual = TraceContext.continueOrStart(null);
+
+        // Assert
+        assertThat(actual.getTraceId()).hasSize(32);
+        assertThat(actual.getParentSpanId()).isNull();
+        assertThat(TraceContext.parse(actual.toTraceparent()).getSpanId()).isEqualTo(actual.getSpanId());
+    }
+}
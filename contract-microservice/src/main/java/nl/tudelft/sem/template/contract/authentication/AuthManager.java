@@ -1,5 +1,6 @@
 package nl.tudelft.sem.template.contract.authentication;
 
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
@@ -20,4 +21,16 @@ public class AuthManager {
     public String getRole() {
         return SecurityContextHolder.getContext().getAuthentication().getAuthorities().toString();
     }
+
+    /**
+     * Gets the role of the user in the current context, as granted by their token.
+     *
+     * @return The role of the user, or null if they have none.
+     */
+    public String getAuthority() {
+        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .findFirst()
+            .orElse(null);
+    }
 }
@@ -0,0 +1,93 @@
+package nl.tudelft.sem.template.contract.config;
+
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import nl.tudelft.sem.template.contract.tracing.TracingInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The outbound HTTP client config.
+ * <p>
+ * Calls to the message and authentication services share one pool of keep-alive connections instead of
+ * opening a new connection per call. Pool sizes and timeouts are read from <i>application.properties</i>
+ * (<i>http.client.*</i>).
+ * </p>
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public HttpClientConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the connection pool shared by all outbound requests.
+     *
+     * @return The connection manager.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager connectionManager() {
+        int timeToLive = getProperty("http.client.time-to-live", 300_000);
+        PoolingHttpClientConnectionManager connectionManager =
+            new PoolingHttpClientConnectionManager(timeToLive, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(getProperty("http.client.max-connections", 200));
+        connectionManager.setDefaultMaxPerRoute(getProperty("http.client.max-connections-per-route", 50));
+        connectionManager.setValidateAfterInactivity(getProperty("http.client.validate-after-inactivity", 2_000));
+        return connectionManager;
+    }
+
+    /**
+     * Set up the HTTP client on top of the connection pool.
+     *
+     * @param connectionManager The connection pool.
+     * @return The HTTP client.
+     */
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(getProperty("http.client.connect-timeout", 2_000))
+            .setConnectionRequestTimeout(getProperty("http.client.connection-request-timeout", 2_000))
+            .setSocketTimeout(getProperty("http.client.read-timeout", 30_000))
+            .build();
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictIdleConnections(getProperty("http.client.idle-timeout", 30_000), TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    /**
+     * Set up the RestTemplate used to call the other services.
+     *
+     * The trace of the current request is propagated to the called services.
+     *
+     * @param restTemplateBuilder The builder provided by Spring Boot.
+     * @param httpClient The pooled HTTP client.
+     * @param tracingInterceptor The interceptor propagating the trace.
+     * @return The RestTemplate.
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient httpClient,
+                                     TracingInterceptor tracingInterceptor) {
+        return restTemplateBuilder
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+            .additionalInterceptors(tracingInterceptor)
+            .build();
+    }
+
+    private int getProperty(String key, int defaultValue) {
+        return environment.getProperty(key, Integer.class, defaultValue);
+    }
+}
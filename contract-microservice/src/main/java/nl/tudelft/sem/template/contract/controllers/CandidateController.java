@@ -21,6 +21,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestTemplate;
 
 /**
  * This controller is responsible for creating new candidates with an associated contract proposal.
@@ -41,10 +42,11 @@ public class CandidateController {
      * @param authManager Spring Security component used to authenticate and authorize the user
      * @param contractRepository the ContractRepository entity to be used.
      * @param contractService the ContractService entity to be used.
+     * @param restTemplate the pooled RestTemplate used to call the authentication service.
      */
     @Autowired
-    public CandidateController(AuthManager authManager,
-                               ContractRepository contractRepository, ContractService contractService) {
+    public CandidateController(AuthManager authManager, ContractRepository contractRepository,
+                               ContractService contractService, RestTemplate restTemplate) {
         this.authManager = authManager;
         this.contractService = contractService;
 
@@ -53,7 +55,7 @@ public class CandidateController {
             .nextHandler(new IsHrHandler())
             .nextHandler(new ValidateCandidateDetailsHandler())
             .nextHandler(new ValidateContractHandler(contractRepository))
-            .nextHandler(new CheckNetIdUniqueHandler());
+            .nextHandler(new CheckNetIdUniqueHandler(restTemplate));
     }
 
     /**
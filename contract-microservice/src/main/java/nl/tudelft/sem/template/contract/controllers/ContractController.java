@@ -3,6 +3,7 @@ package nl.tudelft.sem.template.contract.controllers;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
 import nl.tudelft.sem.template.contract.authentication.AuthManager;
 import nl.tudelft.sem.template.contract.domain.Contract;
 import nl.tudelft.sem.template.contract.domain.ContractRepository;
@@ -31,6 +32,7 @@ import org.springframework.web.bind.annotation.RestController;
 /**
  * This controller is responsible for all contract related processes.
  */
+@Slf4j
 @RestController
 public class ContractController {
 
@@ -105,8 +107,9 @@ public class ContractController {
 
     @GetMapping("/test")
     public String test() {
-        System.out.println(authManager.getNetId());
-        return authManager.getNetId();
+        String netId = authManager.getNetId();
+        log.debug("Test endpoint called by {}", netId);
+        return netId;
     }
 
     /**
@@ -1,13 +1,10 @@
 package nl.tudelft.sem.template.contract.domain;
 
-import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import nl.tudelft.sem.template.contract.authentication.AuthManager;
 import nl.tudelft.sem.template.contract.exceptions.ContractHandlerException;
 import nl.tudelft.sem.template.contract.models.AppUserRequestModel;
-import nl.tudelft.sem.template.contract.models.MessagePayload;
-import nl.tudelft.sem.template.contract.models.PostMessageRequestModel;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -15,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
@@ -29,12 +27,24 @@ public class ContractService {
     private final transient ResponseEntity<String> errorUnauthorized = ResponseEntity.status(401).body("Unauthorized");
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String HTTPREQUEST_FAILED_MESSAGE = "HttpRequest failed";
-    private final transient RestTemplate restTemplate = new RestTemplate();
+    private final transient RestTemplate restTemplate;
+    private final transient NotificationRepository notificationRepository;
 
 
-    public ContractService(ContractRepository contractRepository, AuthManager authManager) {
+    /**
+     * Instantiates a new ContractService.
+     *
+     * @param contractRepository the ContractRepository entity to be used.
+     * @param authManager        Spring Security component used to authenticate and authorize the user
+     * @param restTemplate           the pooled RestTemplate used to call the other services
+     * @param notificationRepository the outbox of messages to the message service
+     */
+    public ContractService(ContractRepository contractRepository, AuthManager authManager, RestTemplate restTemplate,
+                           NotificationRepository notificationRepository) {
         this.contractRepository = contractRepository;
         this.authManager = authManager;
+        this.restTemplate = restTemplate;
+        this.notificationRepository = notificationRepository;
     }
 
     /**
@@ -112,6 +122,7 @@ public class ContractService {
      *      200 OK otherwise
      * @throws ContractHandlerException Exception when handler chain fails
      */
+    @Transactional
     public ResponseEntity<String> propose(Contract contract, String jwt) throws ContractHandlerException {
         // Update existing proposal
         Optional<Contract> existingContractOptional = contractRepository.findById(contract.getId());
@@ -138,13 +149,9 @@ public class ContractService {
         contractRepository.save(existingContract);
 
         // Set fromHr flag
-        Boolean fromHr = existingContract.getReviewer().equals(Contract.Reviewer.CANDIDATE);
+        boolean fromHr = existingContract.getReviewer().equals(Contract.Reviewer.CANDIDATE);
 
-        //set jwt as authorization header
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.add(AUTHORIZATION_HEADER, jwt);
-        // Create the http request body as a MultiValueMap which will contain the PostMessageRequestModel
+        // Notify the other party
         String to;
         if (existingContract.getReviewer().equals(Contract.Reviewer.CANDIDATE)) {
             to = existingContract.getCandidateNetId();
@@ -153,28 +160,20 @@ public class ContractService {
         }
         String type = "contr-prop";
         String contents = "A new contract proposal has been sent";
-        List<MessagePayload> payload =
-            List.of(new MessagePayload(MessagePayload.CONTRACT_MESSAGE_PAYLOAD_TYPE,
-                    existingContract.getId().intValue()));
-        PostMessageRequestModel reqModel = new PostMessageRequestModel(to, type, contents, payload);
-        try {
-            // Send message to message service
-            return this.sendMessage(headers, reqModel, fromHr);
-        } catch (HttpClientErrorException errorCode) {
-            throw (new ContractHandlerException(HTTPREQUEST_FAILED_MESSAGE + errorCode.getResponseBodyAsString()));
-        }
+        return notify(to, type, contents, existingContract.getId(), fromHr);
     }
 
     /**
-     * Method that accepts a contract proposal, it first sends an http request to the message service indicating that
-     * the user accepted the contract, then updates the status of the contract in the contract DB.
+     * Method that accepts a contract proposal, it updates the status of the contract in the contract DB and queues
+     * a message to the message service indicating that the user accepted the contract.
      *
      * @param contractId The ID of the contract.
      * @param jwt        token of the user
      * @return ErrorUnauthorized if updating the contract fails,
      *      200 OK otherwise.
-     * @throws ContractHandlerException with reason if http request fails
+     * @throws ContractHandlerException with reason if the contract does not exist or is not a draft
      */
+    @Transactional
     public ResponseEntity<String> accept(Long contractId, String jwt) throws ContractHandlerException {
         Optional<Contract> existingContractOptional = contractRepository.findById(contractId);
         if (existingContractOptional.isEmpty()) {
@@ -188,14 +187,8 @@ public class ContractService {
 
         this.updateContractStatus(contractId, Contract.State.DRAFT);
 
-        // Send message
-        //Create Http request to send to message service
-        Boolean fromHr = authManager.getRole().contains("HR");
-        //set jwt as authorization header
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.add(AUTHORIZATION_HEADER, jwt);
-        // Create the http request body
+        // Notify the other party
+        boolean fromHr = authManager.getRole().contains("HR");
         String to;
         if (existingContract.getReviewer().equals(Contract.Reviewer.CANDIDATE)) {
             to = "HR";
@@ -204,18 +197,7 @@ public class ContractService {
         }
         String type = "contr-appr";
         String contents = "Contract proposal has been approved";
-
-        List<MessagePayload> payload =
-            List.of(new MessagePayload(MessagePayload.CONTRACT_MESSAGE_PAYLOAD_TYPE, contractId.intValue()));
-        PostMessageRequestModel reqModel = new PostMessageRequestModel(to, type, contents, payload);
-
-
-        try {
-            // Send message to message service
-            return this.sendMessage(headers, reqModel, fromHr);
-        } catch (HttpClientErrorException errorCode) {
-            throw (new ContractHandlerException(HTTPREQUEST_FAILED_MESSAGE + errorCode.getResponseBodyAsString()));
-        }
+        return notify(to, type, contents, contractId, fromHr);
     }
 
 
@@ -227,6 +209,7 @@ public class ContractService {
      * @return HTTP Response entity
      * @throws ContractHandlerException Exception when handler chain fails
      */
+    @Transactional
     public ResponseEntity<String> terminate(Long contractId, String jwt) throws ContractHandlerException {
         Optional<Contract> existingContractOptional = contractRepository.findById(contractId);
         if (existingContractOptional.isEmpty()) {
@@ -244,27 +227,12 @@ public class ContractService {
         // Update contract status
         this.updateContractStatus(contractId, Contract.State.TERMINATED);
 
-        // Send message
-        //Create Http request to send to message service
-        Boolean fromHr = authManager.getRole().contains("HR");
-        //set jwt as authorization header
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.add(AUTHORIZATION_HEADER, jwt);
-        // Create the http request body
+        // Notify the candidate
+        boolean fromHr = authManager.getRole().contains("HR");
         String to = existingContract.getCandidateNetId();
         String type = "contr-appr";
         String contents = "Contract proposal has been terminated";
-        List<MessagePayload> payload =
-            List.of(new MessagePayload(MessagePayload.CONTRACT_MESSAGE_PAYLOAD_TYPE, contractId.intValue()));
-        PostMessageRequestModel reqModel = new PostMessageRequestModel(to, type, contents, payload);
-
-        try {
-            // Send message to message esrvice
-            return this.sendMessage(headers, reqModel, fromHr);
-        } catch (HttpClientErrorException errorCode) {
-            throw (new ContractHandlerException(HTTPREQUEST_FAILED_MESSAGE + errorCode.getResponseBodyAsString()));
-        }
+        return notify(to, type, contents, contractId, fromHr);
     }
 
     /**
@@ -329,29 +297,23 @@ public class ContractService {
     }
 
     /**
-     * Method for sending message to message microservice.
+     * Method for notifying a party about a contract change through the message service.
+     * The message is stored in the outbox within the transaction of the change and sent later by the
+     * {@link NotificationDispatcher}, so the request does not wait for the message service.
      *
-     * @param headers HttpHeaders
-     * @param model PostMessageRequestModal for sending message
-     * @param fromHr Flag if message is fromHr
-     * @return Message ID
-     * @throws HttpClientErrorException Http error when sending to message service fails
+     * @param to         NetID of the receiver, or "HR"
+     * @param type       Message type
+     * @param contents   Message content
+     * @param contractId ID of the contract the message is about
+     * @param fromHr     Flag if message is fromHr
+     * @return 200 OK
      */
-    private ResponseEntity<String> sendMessage(HttpHeaders headers, PostMessageRequestModel model,
-                                               Boolean fromHr) throws HttpClientErrorException {
-        //Before updating contract in db,
-        //Create Http request to send to message service
-        String sendUrl = "http://localhost:8083/messages/message/send";
-        if (fromHr) {
-            sendUrl += "?fromHr";
-        }
-        //create httpEntity with the body and header
-        HttpEntity<PostMessageRequestModel> httpEntity = new HttpEntity<>(model, headers);
-        //try sending http request to message service indicating a new proposal was created. If it was successful update
-        //contract and return success message, otherwise throw HttpClientErrorException
-
-        // Send HTTP request
-        return restTemplate.exchange(sendUrl, HttpMethod.POST, httpEntity, String.class);
+    private ResponseEntity<String> notify(String to, String type, String contents, Long contractId,
+                                          boolean fromHr) {
+        // The message is sent on behalf of the current user, only their identity is kept in the outbox
+        notificationRepository.save(new Notification(to, type, contents, contractId.intValue(), fromHr,
+            authManager.getNetId(), authManager.getAuthority()));
+        return ResponseEntity.ok().build();
     }
 
 }
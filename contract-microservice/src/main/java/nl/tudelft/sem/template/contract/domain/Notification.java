@@ -0,0 +1,108 @@
+package nl.tudelft.sem.template.contract.domain;
+
+import java.time.Instant;
+import java.util.List;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.template.contract.models.MessagePayload;
+import nl.tudelft.sem.template.contract.models.PostMessageRequestModel;
+
+/**
+ * A message about a contract that still has to be delivered to the message service (transactional outbox).
+ * <p>
+ * The notification is saved in the same transaction as the contract change it is about, and delivered
+ * afterwards by the {@link NotificationDispatcher}.
+ * </p>
+ */
+@Entity
+@Table(name = "notification_outbox")
+@NoArgsConstructor
+@Getter
+public class Notification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    @Column(name = "contents", nullable = false)
+    private String contents;
+
+    @Column(name = "contract_id", nullable = false)
+    private int contractId;
+
+    @Column(name = "from_hr", nullable = false)
+    private boolean fromHr;
+
+    /**
+     * The NetID of the user that changed the contract, the message is sent on their behalf.
+     * Only their identity is stored, never their token.
+     */
+    @Column(name = "sender_net_id", nullable = false)
+    private String senderNetId;
+
+    @Column(name = "sender_role", nullable = false)
+    private String senderRole;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    /**
+     * Constructor for Notification.
+     *
+     * @param recipient     The NetID of the recipient, or "HR".
+     * @param type          The type of the message.
+     * @param contents      The contents of the message.
+     * @param contractId    The id of the contract the message is about.
+     * @param fromHr        Whether the message is sent from HR.
+     * @param senderNetId   The NetID of the user the message is sent for.
+     * @param senderRole    The role of the user the message is sent for.
+     */
+    public Notification(String recipient, String type, String contents, int contractId, boolean fromHr,
+                        String senderNetId, String senderRole) {
+        this.recipient = recipient;
+        this.type = type;
+        this.contents = contents;
+        this.contractId = contractId;
+        this.fromHr = fromHr;
+        this.senderNetId = senderNetId;
+        this.senderRole = senderRole;
+        this.attempts = 0;
+        this.nextAttemptAt = Instant.now();
+    }
+
+    /**
+     * Creates the request to the message service.
+     *
+     * @return the message with the contract as payload.
+     */
+    public PostMessageRequestModel toRequestModel() {
+        return new PostMessageRequestModel(recipient, type, contents,
+            List.of(new MessagePayload(MessagePayload.CONTRACT_MESSAGE_PAYLOAD_TYPE, contractId)));
+    }
+
+    /**
+     * Records a failed delivery attempt.
+     *
+     * @param retryAt the time of the next attempt.
+     */
+    public void failed(Instant retryAt) {
+        this.attempts++;
+        this.nextAttemptAt = retryAt;
+    }
+}
@@ -0,0 +1,165 @@
+package nl.tudelft.sem.template.contract.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.contract.authentication.GatewayIdentityVerifier;
+import nl.tudelft.sem.template.contract.models.PostMessageRequestModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Delivers the notifications in the outbox to the message service in the background.
+ * <p>
+ * Every run takes a batch of due notifications. Delivered notifications are removed from the outbox together;
+ * when the message service cannot be reached (or fails) a notification is retried later with exponential
+ * backoff. A notification the message service rejects (4xx) would be rejected again and is dropped, except when
+ * it is refused as unauthenticated or forbidden (401, 403): that depends on the configuration of the services,
+ * not on the notification, so it is retried as well.
+ * </p>
+ * <p>
+ * The outbox only holds the identity of the user a message is sent for. The dispatcher sends it with the key
+ * shared with the gateway (<i>gateway.trust.key</i>), the same way the gateway forwards a verified identity.
+ * </p>
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private static final Duration MAXIMUM_RETRY_DELAY = Duration.ofMinutes(5);
+
+    /**
+     * How long the identity sent with a notification is valid, it only has to outlive the request.
+     */
+    private static final Duration IDENTITY_VALIDITY = Duration.ofMinutes(1);
+
+    private final transient NotificationRepository notificationRepository;
+    private final transient RestTemplate restTemplate;
+    private final transient String sendUrl;
+    private final transient int batchSize;
+    private final transient int maximumAttempts;
+    private final transient Duration retryDelay;
+    private final transient String gatewayKey;
+
+    /**
+     * Instantiates a new NotificationDispatcher.
+     *
+     * @param notificationRepository the outbox.
+     * @param restTemplate           the pooled RestTemplate used to call the other services.
+     * @param sendUrl                the url messages are sent to.
+     * @param batchSize              the maximum number of notifications delivered per run.
+     * @param maximumAttempts        the number of attempts after which a notification is dropped.
+     * @param retryDelay             the delay before the first retry in milliseconds, doubled for every retry.
+     * @param gatewayKey             the key shared with the gateway, the message service trusts the identity sent
+     *                               with it.
+     * @throws IllegalArgumentException when no gateway key is configured.
+     */
+    public NotificationDispatcher(NotificationRepository notificationRepository, RestTemplate restTemplate,
+                                  @Value("${notifications.send-url:http://localhost:8083/messages/message/send}")
+                                      String sendUrl,
+                                  @Value("${notifications.dispatch.batch-size:100}") int batchSize,
+                                  @Value("${notifications.dispatch.maximum-attempts:10}") int maximumAttempts,
+                                  @Value("${notifications.dispatch.retry-delay:1000}") long retryDelay,
+                                  @Value("${gateway.trust.key:}") String gatewayKey) {
+        if (gatewayKey == null || gatewayKey.isEmpty()) {
+            throw new IllegalArgumentException("gateway.trust.key is needed to send notifications");
+        }
+        this.notificationRepository = notificationRepository;
+        this.restTemplate = restTemplate;
+        this.sendUrl = sendUrl;
+        this.batchSize = batchSize;
+        this.maximumAttempts = maximumAttempts;
+        this.retryDelay = Duration.ofMillis(retryDelay);
+        this.gatewayKey = gatewayKey;
+    }
+
+    /**
+     * Delivers the notifications that are due.
+     *
+     * @return the number of notifications that were delivered.
+     */
+    @Scheduled(fixedDelayString = "${notifications.dispatch.interval:500}")
+    public int dispatch() {
+        Instant now = Instant.now();
+        List<Notification> due = notificationRepository
+            .findByNextAttemptAtLessThanEqualOrderByIdAsc(now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<Notification> done = new ArrayList<>(due.size());
+        List<Notification> retries = new ArrayList<>();
+        int delivered = 0;
+        for (Notification notification : due) {
+            try {
+                send(notification);
+                done.add(notification);
+                delivered++;
+            } catch (HttpClientErrorException e) {
+                if (isAuthenticationError(e)) {
+                    retryOrDrop(notification, now, done, retries, e);
+                } else {
+                    log.warn("Notification {} rejected by the message service ({}), dropped",
+                        notification.getId(), e.getRawStatusCode());
+                    done.add(notification);
+                }
+            } catch (RestClientException e) {
+                retryOrDrop(notification, now, done, retries, e);
+            }
+        }
+        if (!done.isEmpty()) {
+            notificationRepository.deleteInBatch(done);
+        }
+        if (!retries.isEmpty()) {
+            notificationRepository.saveAll(retries);
+        }
+        log.debug("Delivered {} of {} notifications", delivered, due.size());
+        return delivered;
+    }
+
+    private void retryOrDrop(Notification notification, Instant now, List<Notification> done,
+                             List<Notification> retries, RestClientException e) {
+        if (notification.getAttempts() + 1 >= maximumAttempts) {
+            log.error("Notification {} could not be delivered after {} attempts, dropped",
+                notification.getId(), maximumAttempts, e);
+            done.add(notification);
+        } else {
+            log.debug("Delivering notification {} failed, retrying", notification.getId(), e);
+            notification.failed(now.plus(backoff(notification.getAttempts())));
+            retries.add(notification);
+        }
+    }
+
+    private static boolean isAuthenticationError(HttpClientErrorException e) {
+        return e.getStatusCode() == HttpStatus.UNAUTHORIZED || e.getStatusCode() == HttpStatus.FORBIDDEN;
+    }
+
+    private void send(Notification notification) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        // Identity header as forwarded by the gateway: expiresAt:role:netId
+        long expiresAt = Instant.now().plus(IDENTITY_VALIDITY).toEpochMilli();
+        headers.set(GatewayIdentityVerifier.VERIFIED_IDENTITY_HEADER,
+            expiresAt + ":" + notification.getSenderRole() + ":" + notification.getSenderNetId());
+        headers.set(GatewayIdentityVerifier.GATEWAY_KEY_HEADER, gatewayKey);
+        String url = notification.isFromHr() ? sendUrl + "?fromHr" : sendUrl;
+        HttpEntity<PostMessageRequestModel> httpEntity = new HttpEntity<>(notification.toRequestModel(), headers);
+        restTemplate.exchange(url, HttpMethod.POST, httpEntity, String.class);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts, 16));
+        return delay.compareTo(MAXIMUM_RETRY_DELAY) > 0 ? MAXIMUM_RETRY_DELAY : delay;
+    }
+}
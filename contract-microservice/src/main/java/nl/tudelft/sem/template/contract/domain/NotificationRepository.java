@@ -0,0 +1,20 @@
+package nl.tudelft.sem.template.contract.domain;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    /**
+     * Finds the notifications that are due for delivery, oldest first.
+     *
+     * @param now      the current time.
+     * @param pageable the maximum number of notifications.
+     * @return the due notifications.
+     */
+    List<Notification> findByNextAttemptAtLessThanEqualOrderByIdAsc(Instant now, Pageable pageable);
+}
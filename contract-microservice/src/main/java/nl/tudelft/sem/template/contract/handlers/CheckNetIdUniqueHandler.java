@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.contract.handlers;
 
 import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
 import nl.tudelft.sem.template.contract.exceptions.ContractHandlerException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -9,12 +10,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+@Slf4j
 public class CheckNetIdUniqueHandler extends BaseHandler {
-    private transient RestTemplate restTemplate = new RestTemplate();
+    private final transient RestTemplate restTemplate;
+
+    public CheckNetIdUniqueHandler(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
 
     @Override
     public boolean handle(Map<String, Object> data) throws ContractHandlerException {
-        System.out.println(data.toString());
+        // Never log the whole data map, it contains the password of the candidate
+        log.debug("Checking whether netId {} is unique", data.get("candidateNetId"));
         String checkNetIdUniqueUrl = "http://localhost:8083/authentication/users/checkNetIdUnique/" + data.get("candidateNetId");
         String jwt = data.get("jwt").toString();
         HttpHeaders header = new HttpHeaders();
@@ -0,0 +1,52 @@
+package nl.tudelft.sem.template.contract.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Request filter that counts the requests currently being handled.
+ * <p>
+ * The count is published as the <i>http.server.requests.active</i> gauge. The filter runs before the security
+ * filters, so requests waiting for authentication are counted as well.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class InFlightRequestsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "http.server.requests.active";
+
+    private final transient AtomicInteger inFlightRequests = new AtomicInteger();
+
+    /**
+     * Instantiates a new InFlightRequestsFilter.
+     *
+     * @param meterRegistry the registry the gauge is registered in.
+     */
+    public InFlightRequestsFilter(MeterRegistry meterRegistry) {
+        Gauge.builder(METRIC_NAME, inFlightRequests, AtomicInteger::get)
+            .description("Number of requests currently being handled")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        inFlightRequests.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlightRequests.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package nl.tudelft.sem.template.contract.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.client.DefaultRestTemplateExchangeTagsProvider;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the target service to the <i>http.client.requests</i> timers of the RestTemplate.
+ * <p>
+ * All calls go through the API gateway, so the host does not tell the services apart; the service is the first
+ * segment of the path (e.g. <i>messages</i> for <i>/messages/message/send</i>).
+ * </p>
+ */
+@Component
+public class ServiceTagsProvider extends DefaultRestTemplateExchangeTagsProvider {
+
+    @Override
+    public Iterable<Tag> getTags(String urlTemplate, HttpRequest request, ClientHttpResponse response) {
+        return Tags.of(super.getTags(urlTemplate, request, response))
+            .and("service", getService(request.getURI().getPath()));
+    }
+
+    /**
+     * Gets the service a path is routed to by the gateway.
+     *
+     * @param path the path of the request.
+     * @return the first segment of the path, or <i>none</i>.
+     */
+    static String getService(String path) {
+        if (path == null || path.length() < 2) {
+            return "none";
+        }
+        int end = path.indexOf('/', 1);
+        return end == -1 ? path.substring(1) : path.substring(1, end);
+    }
+}
@@ -0,0 +1,44 @@
+package nl.tudelft.sem.template.contract.tracing;
+
+import java.io.IOException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propagates the trace of the current request to the services called with the RestTemplate.
+ * <p>
+ * Every call is recorded as a CLIENT span, a child of the span of the current request, and its context is
+ * passed on in the <i>traceparent</i> header.
+ * </p>
+ */
+@Component
+public class TracingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final transient SpanRecorder spanRecorder;
+
+    public TracingInterceptor(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        TraceContext parent = TraceContextHolder.get();
+        TraceContext context = parent == null ? TraceContext.root() : parent.child();
+        Span span = spanRecorder.start(context, request.getMethodValue() + " " + request.getURI().getPath(),
+            SpanRecorder.CLIENT);
+        request.getHeaders().set(TraceContext.TRACEPARENT_HEADER, context.toTraceparent());
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getRawStatusCode());
+            return response;
+        } finally {
+            span.tag("http.status", status);
+            spanRecorder.record(span);
+        }
+    }
+}
@@ -55,4 +55,33 @@ public class AuthManagerTests {
         // Assert
         assertThat(actual).isEqualTo(expectedRole.toString());
     }
+
+    @Test
+    public void getAuthorityTest() {
+        // Arrange
+        var authenticationToken = new UsernamePasswordAuthenticationToken(
+                "123",
+                null, List.of(new SimpleGrantedAuthority("HR"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+
+        // Act
+        String actual = authManager.getAuthority();
+
+        // Assert
+        assertThat(actual).isEqualTo("HR");
+    }
+
+    @Test
+    public void getAuthorityWithoutRoleTest() {
+        // Arrange
+        var authenticationToken = new UsernamePasswordAuthenticationToken("123", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+
+        // Act
+        String actual = authManager.getAuthority();
+
+        // Assert
+        assertThat(actual).isNull();
+    }
 }
@@ -0,0 +1,84 @@
+package nl.tudelft.sem.template.contract.authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Field;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GatewayIdentityVerifierTests {
+    private transient GatewayIdentityVerifier gatewayIdentityVerifier;
+
+    private final String key = "testGatewayKey";
+
+    @BeforeEach
+    public void setup() throws NoSuchFieldException, IllegalAccessException {
+        gatewayIdentityVerifier = new GatewayIdentityVerifier();
+        this.injectKey(key);
+    }
+
+    @Test
+    public void verifyTrustedIdentity() {
+        // Arrange
+        String identity = (System.currentTimeMillis() + 10_000_000) + ":role123:user123";
+
+        // Act
+        GatewayIdentityVerifier.VerifiedIdentity actual = gatewayIdentityVerifier.verify(identity, key);
+
+        // Assert
+        assertThat(actual.getNetId()).isEqualTo("user123");
+        assertThat(actual.getRole()).isEqualTo("role123");
+    }
+
+    @Test
+    public void verifyIncorrectKey() {
+        // Arrange
+        String identity = (System.currentTimeMillis() + 10_000_000) + ":role123:user123";
+
+        // Act
+        GatewayIdentityVerifier.VerifiedIdentity actual = gatewayIdentityVerifier.verify(identity, "incorrectKey");
+
+        // Assert
+        assertThat(actual).isNull();
+    }
+
+    @Test
+    public void verifyExpiredIdentity() {
+        // Arrange
+        String identity = (System.currentTimeMillis() - 5_000_000) + ":role123:user123";
+
+        // Act
+        GatewayIdentityVerifier.VerifiedIdentity actual = gatewayIdentityVerifier.verify(identity, key);
+
+        // Assert
+        assertThat(actual).isNull();
+    }
+
+    @Test
+    public void verifyMalformedIdentity() {
+        // Act
+        GatewayIdentityVerifier.VerifiedIdentity actual = gatewayIdentityVerifier.verify("malformed:user123", key);
+
+        // Assert
+        assertThat(actual).isNull();
+    }
+
+    @Test
+    public void verifyWithoutConfiguredKey() throws NoSuchFieldException, IllegalAccessException {
+        // Arrange
+        this.injectKey("");
+        String identity = (System.currentTimeMillis() + 10_000_000) + ":role123:user123";
+
+        // Act
+        GatewayIdentityVerifier.VerifiedIdentity actual = gatewayIdentityVerifier.verify(identity, "");
+
+        // Assert
+        assertThat(actual).isNull();
+    }
+
+    private void injectKey(String key) throws NoSuchFieldException, IllegalAccessException {
+        Field declaredField = gatewayIdentityVerifier.getClass().getDeclaredField("gatewayKey");
+        declaredField.setAccessible(true);
+        declaredField.set(gatewayIdentityVerifier, key);
+    }
+}
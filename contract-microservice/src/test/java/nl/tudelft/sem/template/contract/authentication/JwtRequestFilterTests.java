@@ -2,11 +2,14 @@ package nl.tudelft.sem.template.contract.authentication;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
 import java.io.IOException;
 import java.util.stream.Stream;
 import javax.servlet.FilterChain;
@@ -31,6 +34,7 @@ public class JwtRequestFilterTests {
     private transient FilterChain mockFilterChain;
 
     private transient JwtTokenVerifier mockJwtTokenVerifier;
+    private transient GatewayIdentityVerifier mockGatewayIdentityVerifier;
 
     /**
      * Set up mocks.
@@ -41,8 +45,9 @@ public class JwtRequestFilterTests {
         mockResponse = Mockito.mock(HttpServletResponse.class);
         mockFilterChain = Mockito.mock(FilterChain.class);
         mockJwtTokenVerifier = Mockito.mock(JwtTokenVerifier.class);
+        mockGatewayIdentityVerifier = Mockito.mock(GatewayIdentityVerifier.class);
 
-        jwtRequestFilter = new JwtRequestFilter(mockJwtTokenVerifier);
+        jwtRequestFilter = new JwtRequestFilter(mockJwtTokenVerifier, mockGatewayIdentityVerifier);
 
         SecurityContextHolder.getContext().setAuthentication(null);
     }
@@ -61,9 +66,7 @@ public class JwtRequestFilterTests {
         String role = "role123";
         
         when(mockRequest.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(mockJwtTokenVerifier.validateToken(token)).thenReturn(true);
-        when(mockJwtTokenVerifier.getNetIdFromToken(token)).thenReturn(user);
-        when(mockJwtTokenVerifier.getRoleFromToken(token)).thenReturn(role);
+        when(mockJwtTokenVerifier.verify(token)).thenReturn(claims(user, role));
 
         // Act
         jwtRequestFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
@@ -74,16 +77,33 @@ public class JwtRequestFilterTests {
     }
 
     @Test
-    public void invalidToken() throws ServletException, IOException {
+    public void verifiedIdentityFromGateway() throws ServletException, IOException {
+        // Arrange
+        String identity = "4102444800000:role123:user123";
+        String key = "gatewayKey";
+
+        when(mockRequest.getHeader("X-Verified-Identity")).thenReturn(identity);
+        when(mockRequest.getHeader("X-Gateway-Key")).thenReturn(key);
+        when(mockGatewayIdentityVerifier.verify(identity, key))
+                .thenReturn(new GatewayIdentityVerifier.VerifiedIdentity("user123", "role123"));
+
+        // Act
+        jwtRequestFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        // Assert
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName())
+                .isEqualTo("user123");
+        verifyNoInteractions(mockJwtTokenVerifier);
+    }
+
+    @Test
+    public void tokenWithoutRole() throws ServletException, IOException {
         // Arrange
         String token = "randomtoken123";
         String user = "user123";
-        String role = "role123";
 
         when(mockRequest.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(mockJwtTokenVerifier.validateToken(token)).thenReturn(false);
-        when(mockJwtTokenVerifier.getNetIdFromToken(token)).thenReturn(user);
-        when(mockJwtTokenVerifier.getRoleFromToken(token)).thenReturn(role);
+        when(mockJwtTokenVerifier.verify(token)).thenReturn(claims(user, null));
 
         // Act
         jwtRequestFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
@@ -104,15 +124,9 @@ public class JwtRequestFilterTests {
             throws ServletException, IOException {
         // Arrange
         String token = "randomtoken123";
-        String user = "user123";
-        String role = "role123";
 
         when(mockRequest.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(mockJwtTokenVerifier.validateToken(token)).thenThrow(throwable);
-        when(mockJwtTokenVerifier.getNetIdFromToken(token)).thenReturn(user);
-        when(mockJwtTokenVerifier.getRoleFromToken(token)).thenReturn(role);
-
-
+        when(mockJwtTokenVerifier.verify(token)).thenThrow(throwable);
 
         // Act
         jwtRequestFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
@@ -152,9 +166,7 @@ public class JwtRequestFilterTests {
         String role = "role123";
 
         when(mockRequest.getHeader("Authorization")).thenReturn("Bearer1 " + token);
-        when(mockJwtTokenVerifier.validateToken(token)).thenReturn(true);
-        when(mockJwtTokenVerifier.getNetIdFromToken(token)).thenReturn(user);
-        when(mockJwtTokenVerifier.getRoleFromToken(token)).thenReturn(role);
+        when(mockJwtTokenVerifier.verify(token)).thenReturn(claims(user, role));
         // Act
         jwtRequestFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
 
@@ -171,9 +183,7 @@ public class JwtRequestFilterTests {
         String role = "role123";
 
         when(mockRequest.getHeader("Authorization")).thenReturn(token);
-        when(mockJwtTokenVerifier.validateToken(token)).thenReturn(true);
-        when(mockJwtTokenVerifier.getNetIdFromToken(token)).thenReturn(user);
-        when(mockJwtTokenVerifier.getRoleFromToken(token)).thenReturn(role);
+        when(mockJwtTokenVerifier.verify(token)).thenReturn(claims(user, role));
         // Act
         jwtRequestFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
 
@@ -181,4 +191,12 @@ public class JwtRequestFilterTests {
         assertThat(SecurityContextHolder.getContext().getAuthentication())
                 .isNull();
     }
+
+    private static Claims claims(String user, String role) {
+        Claims claims = Jwts.claims().setSubject(user);
+        if (role != null) {
+            claims.put("role", role);
+        }
+        return claims;
+    }
 }
@@ -3,6 +3,7 @@ package nl.tudelft.sem.template.contract.authentication;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
@@ -110,6 +111,39 @@ public class JwtTokenVerifierTests {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    public void verifyCachesClaims() {
+        // Arrange
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", "role123");
+        String token = generateToken(secret, "user123", -10_000_000, 10_000_000, claims);
+
+        // Act
+        Claims first = jwtTokenVerifier.verify(token);
+        Claims second = jwtTokenVerifier.verify(token);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(jwtTokenVerifier.getCacheStats().missCount()).isEqualTo(1);
+        assertThat(jwtTokenVerifier.getCacheStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void verifyDoesNotCacheInvalidToken() {
+        // Arrange
+        String token = generateToken("incorrectSecret", "user123", -10_000_000, 10_000_000, new HashMap<>());
+
+        // Act
+        ThrowableAssert.ThrowingCallable action = () -> jwtTokenVerifier.verify(token);
+
+        // Assert
+        assertThatExceptionOfType(SignatureException.class)
+                .isThrownBy(action);
+        assertThatExceptionOfType(SignatureException.class)
+                .isThrownBy(action);
+        assertThat(jwtTokenVerifier.getCacheStats().hitCount()).isZero();
+    }
+
     private String generateToken(String jwtSecret, String netid, long issuanceOffset, long expirationOffset,
                                  Map<String, Object> claims) {
         return Jwts.builder().setClaims(claims).setSubject(netid)
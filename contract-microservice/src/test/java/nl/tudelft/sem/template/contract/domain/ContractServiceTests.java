@@ -20,8 +20,10 @@ import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
 
 class ContractServiceTests {
 
@@ -29,6 +31,7 @@ class ContractServiceTests {
     private ContractRepository mockContractRepository;
     private AuthManager mockAuthManager;
     private Contract mockContract;
+    private NotificationRepository mockNotificationRepository;
 
 
     @BeforeEach
@@ -36,7 +39,9 @@ class ContractServiceTests {
         mockContractRepository = mock(ContractRepository.class);
         mockAuthManager = mock(AuthManager.class);
         mockContract = mock(Contract.class);
-        contractService = new ContractService(mockContractRepository, mockAuthManager);
+        mockNotificationRepository = mock(NotificationRepository.class);
+        contractService = new ContractService(mockContractRepository, mockAuthManager, mock(RestTemplate.class),
+            mockNotificationRepository);
 
         when(mockContractRepository.save(any())).then(returnsFirstArg());
     }
@@ -286,4 +291,44 @@ class ContractServiceTests {
         verify(mockContract, times(1)).setState(Contract.State.ACCEPTED);
         verify(mockContractRepository, times(1)).save(mockContract);
     }
+
+    @Test
+    void terminateQueuesNotificationTest() throws ContractHandlerException {
+        //Arrange
+        when(mockContractRepository.findById(anyLong())).thenReturn(Optional.of(mockContract));
+        when(mockAuthManager.getRole()).thenReturn("HR");
+        when(mockAuthManager.getNetId()).thenReturn("hr1");
+        when(mockAuthManager.getAuthority()).thenReturn("HR");
+        when(mockContract.getState()).thenReturn(Contract.State.DRAFT);
+        when(mockContract.getCandidateNetId()).thenReturn("Candidate");
+        ArgumentCaptor<Notification> notification = ArgumentCaptor.forClass(Notification.class);
+
+        //Act
+        ResponseEntity<String> actual = contractService.terminate(1L, "jwt");
+
+        //Verify
+        assertThat(actual).isEqualTo(ResponseEntity.ok().build());
+        verify(mockContract, times(1)).setState(Contract.State.TERMINATED);
+        verify(mockNotificationRepository, times(1)).save(notification.capture());
+        assertThat(notification.getValue().getRecipient()).isEqualTo("Candidate");
+        assertThat(notification.getValue().getContractId()).isEqualTo(1);
+        assertThat(notification.getValue().isFromHr()).isTrue();
+        assertThat(notification.getValue().getSenderNetId()).isEqualTo("hr1");
+        assertThat(notification.getValue().getSenderRole()).isEqualTo("HR");
+    }
+
+    @Test
+    void terminateNotDraftTest() {
+        //Arrange
+        when(mockContractRepository.findById(anyLong())).thenReturn(Optional.of(mockContract));
+        when(mockContract.getState()).thenReturn(Contract.State.ACCEPTED);
+
+        //Act
+        ThrowableAssert.ThrowingCallable action = () -> contractService.terminate(1L, "jwt");
+
+        //Verify
+        assertThatExceptionOfType(ContractHandlerException.class)
+                .isThrownBy(action);
+        verify(mockNotificationRepository, never()).save(any());
+    }
 }
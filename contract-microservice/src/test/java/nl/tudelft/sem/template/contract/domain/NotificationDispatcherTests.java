@@ -0,0 +1,192 @@
+package nl.tudelft.sem.template.contract.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import nl.tudelft.sem.template.contract.authentication.GatewayIdentityVerifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+class NotificationDispatcherTests {
+
+    private static final String SEND_URL = "http://localhost:8083/messages/message/send";
+    private static final String GATEWAY_KEY = "gatewayKey";
+
+    private NotificationRepository mockNotificationRepository;
+    private RestTemplate mockRestTemplate;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    public void setup() {
+        mockNotificationRepository = mock(NotificationRepository.class);
+        mockRestTemplate = mock(RestTemplate.class);
+        dispatcher = new NotificationDispatcher(mockNotificationRepository, mockRestTemplate, SEND_URL, 100, 3, 1000,
+            GATEWAY_KEY);
+    }
+
+    @Test
+    void noNotificationsTest() {
+        //Arrange
+        when(mockNotificationRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any()))
+            .thenReturn(List.of());
+
+        //Act
+        int delivered = dispatcher.dispatch();
+
+        //Verify
+        assertThat(delivered).isZero();
+        verify(mockRestTemplate, never()).exchange(any(String.class), any(), any(), eq(String.class));
+    }
+
+    @Test
+    void deliversNotificationsTest() {
+        //Arrange
+        Notification toCandidate = new Notification("Candidate", "contr-prop", "proposal", 1, true, "hr1", "HR");
+        Notification toHr = new Notification("HR", "contr-appr", "approved", 2, false, "candidate1", "CANDIDATE");
+        when(mockNotificationRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(Pageable.class)))
+            .thenReturn(List.of(toCandidate, toHr));
+        when(mockRestTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(), eq(String.class)))
+            .thenReturn(ResponseEntity.ok("1"));
+
+        //Act
+        int delivered = dispatcher.dispatch();
+
+        //Verify
+        assertThat(delivered).isEqualTo(2);
+        verify(mockRestTemplate, times(1)).exchange(eq(SEND_URL + "?fromHr"), eq(HttpMethod.POST),
+            any(HttpEntity.class), eq(String.class));
+        verify(mockRestTemplate, times(1)).exchange(eq(SEND_URL), eq(HttpMethod.POST),
+            any(HttpEntity.class), eq(String.class));
+        verify(mockNotificationRepository, times(1)).deleteInBatch(List.of(toCandidate, toHr));
+        verify(mockNotificationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void retriesUnreachableMessageServiceTest() {
+        //Arrange
+        Notification notification =
+            new Notification("Candidate", "contr-prop", "proposal", 1, false, "candidate1", "CANDIDATE");
+        Instant firstAttempt = notification.getNextAttemptAt();
+        when(mockNotificationRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(Pageable.class)))
+            .thenReturn(List.of(notification));
+        when(mockRestTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(), eq(String.class)))
+            .thenThrow(new ResourceAccessException("Connection refused"));
+
+        //Act
+        int delivered = dispatcher.dispatch();
+
+        //Verify
+        assertThat(delivered).isZero();
+        assertThat(notification.getAttempts()).isEqualTo(1);
+        assertThat(notification.getNextAttemptAt()).isAfter(firstAttempt);
+        verify(mockNotificationRepository, times(1)).saveAll(List.of(notification));
+        verify(mockNotificationRepository, never()).deleteInBatch(any());
+    }
+
+    @Test
+    void dropsAfterMaximumAttemptsTest() {
+        //Arrange
+        Notification notification =
+            new Notification("Candidate", "contr-prop", "proposal", 1, false, "candidate1", "CANDIDATE");
+        notification.failed(Instant.now());
+        notification.failed(Instant.now());
+        when(mockNotificationRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(Pageable.class)))
+            .thenReturn(List.of(notification));
+        when(mockRestTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(), eq(String.class)))
+            .thenThrow(new ResourceAccessException("Connection refused"));
+
+        //Act
+        dispatcher.dispatch();
+
+        //Verify
+        verify(mockNotificationRepository, times(1)).deleteInBatch(List.of(notification));
+        verify(mockNotificationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void dropsRejectedNotificationTest() {
+        //Arrange
+        Notification notification =
+            new Notification("Candidate", "contr-prop", "proposal", 1, false, "candidate1", "CANDIDATE");
+        when(mockNotificationRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(Pageable.class)))
+            .thenReturn(List.of(notification));
+        when(mockRestTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(), eq(String.class)))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", new HttpHeaders(),
+                new byte[0], null));
+
+        //Act
+        int delivered = dispatcher.dispatch();
+
+        //Verify
+        assertThat(delivered).isZero();
+        verify(mockNotificationRepository, times(1)).deleteInBatch(List.of(notification));
+    }
+
+    @Test
+    void retriesUnauthorizedNotificationTest() {
+        //Arrange
+        Notification notification =
+            new Notification("Candidate", "contr-prop", "proposal", 1, false, "candidate1", "CANDIDATE");
+        when(mockNotificationRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(Pageable.class)))
+            .thenReturn(List.of(notification));
+        when(mockRestTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(), eq(String.class)))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", new HttpHeaders(),
+                new byte[0], null));
+
+        //Act
+        int delivered = dispatcher.dispatch();
+
+        //Verify
+        assertThat(delivered).isZero();
+        assertThat(notification.getAttempts()).isEqualTo(1);
+        verify(mockNotificationRepository, times(1)).saveAll(List.of(notification));
+        verify(mockNotificationRepository, never()).deleteInBatch(any());
+    }
+
+    @Test
+    void sendsIdentityWithGatewayKeyTest() {
+        //Arrange
+        Notification notification = new Notification("Candidate", "contr-prop", "proposal", 1, true, "hr1", "HR");
+        when(mockNotificationRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(Pageable.class)))
+            .thenReturn(List.of(notification));
+        when(mockRestTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(), eq(String.class)))
+            .thenReturn(ResponseEntity.ok("1"));
+        ArgumentCaptor<HttpEntity> request = ArgumentCaptor.forClass(HttpEntity.class);
+
+        //Act
+        dispatcher.dispatch();
+
+        //Verify
+        verify(mockRestTemplate).exchange(any(String.class), eq(HttpMethod.POST), request.capture(), eq(String.class));
+        HttpHeaders headers = request.getValue().getHeaders();
+        assertThat(headers.getFirst(GatewayIdentityVerifier.GATEWAY_KEY_HEADER)).isEqualTo(GATEWAY_KEY);
+        assertThat(headers.getFirst(GatewayIdentityVerifier.VERIFIED_IDENTITY_HEADER)).endsWith(":HR:hr1");
+        assertThat(headers.containsKey(HttpHeaders.AUTHORIZATION)).isFalse();
+    }
+
+    @Test
+    void missingGatewayKeyTest() {
+        //Act&Assert
+        assertThatIllegalArgumentException().isThrownBy(() -> new NotificationDispatcher(mockNotificationRepository,
+            mockRestTemplate, SEND_URL, 100, 3, 1000, ""));
+    }
+}
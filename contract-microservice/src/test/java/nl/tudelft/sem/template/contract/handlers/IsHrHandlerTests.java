@@ -18,6 +18,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
@@ -29,6 +30,8 @@ public class IsHrHandlerTests {
     transient MockMvc mockMvc;
     @Autowired
     transient ContractRepository contractRepository;
+    @Autowired
+    transient RestTemplate restTemplate;
     public static Handler createCandidateHandler;
     public static Handler proposeHandler;
     public static Handler acceptHandler;
@@ -40,7 +43,7 @@ public class IsHrHandlerTests {
         createCandidateHandler = new IsAuthenticatedHandler().nextHandler(
             new IsHrHandler().nextHandler(
                 new ValidateCandidateDetailsHandler().nextHandler(
-                    new CheckNetIdUniqueHandler()
+                    new CheckNetIdUniqueHandler(restTemplate)
                 )
             )
         );
@@ -0,0 +1,76 @@
+package nl.tudelft.sem.template.contract.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class InFlightRequestsFilterTests {
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient InFlightRequestsFilter inFlightRequestsFilter;
+
+    private transient HttpServletRequest mockRequest;
+    private transient HttpServletResponse mockResponse;
+    private transient FilterChain mockFilterChain;
+
+    /**
+     * Set up mocks.
+     */
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        inFlightRequestsFilter = new InFlightRequestsFilter(meterRegistry);
+
+        mockRequest = Mockito.mock(HttpServletRequest.class);
+        mockResponse = Mockito.mock(HttpServletResponse.class);
+        mockFilterChain = Mockito.mock(FilterChain.class);
+    }
+
+    @Test
+    public void countsRequestWhileHandled() throws ServletException, IOException {
+        // Arrange
+        AtomicReference<Double> duringRequest = new AtomicReference<>();
+        doAnswer(invocation -> {
+            duringRequest.set(inFlightRequests());
+            return null;
+        }).when(mockFilterChain).doFilter(any(), any());
+
+        // Act
+        inFlightRequestsFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        // Assert
+        assertThat(duringRequest.get()).isEqualTo(1.0);
+        assertThat(inFlightRequests()).isZero();
+    }
+
+    @Test
+    public void decrementsWhenRequestFails() throws ServletException, IOException {
+        // Arrange
+        doThrow(new ServletException("failed")).when(mockFilterChain).doFilter(any(), any());
+
+        // Act
+        ThrowableAssert.ThrowingCallable action = () ->
+            inFlightRequestsFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        // Assert
+        assertThatExceptionOfType(ServletException.class).isThrownBy(action);
+        assertThat(inFlightRequests()).isZero();
+    }
+
+    private double inFlightRequests() {
+        return meterRegistry.get(InFlightRequestsFilter.METRIC_NAME).gauge().value();
+    }
+}
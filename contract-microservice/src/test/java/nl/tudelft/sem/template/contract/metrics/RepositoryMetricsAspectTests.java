@@ -0,0 +1,71 @@
+package nl.tudelft.sem.template.contract.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.tudelft.sem.template.contract.domain.ContractRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RepositoryMetricsAspectTests {
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient RepositoryMetricsAspect repositoryMetricsAspect;
+
+    private transient ProceedingJoinPoint mockJoinPoint;
+
+    /**
+     * Set up mocks.
+     */
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        repositoryMetricsAspect = new RepositoryMetricsAspect(meterRegistry);
+
+        Signature mockSignature = mock(Signature.class);
+        when(mockSignature.getName()).thenReturn("findAll");
+        mockJoinPoint = mock(ProceedingJoinPoint.class);
+        when(mockJoinPoint.getSignature()).thenReturn(mockSignature);
+        when(mockJoinPoint.getThis()).thenReturn(mock(ContractRepository.class));
+    }
+
+    @Test
+    public void timesRepositoryCall() throws Throwable {
+        // Arrange
+        when(mockJoinPoint.proceed()).thenReturn("result");
+
+        // Act
+        Object actual = repositoryMetricsAspect.time(mockJoinPoint);
+
+        // Assert
+        assertThat(actual).isEqualTo("result");
+        Timer timer = meterRegistry.get(RepositoryMetricsAspect.METRIC_NAME)
+            .tag("repository", "ContractRepository")
+            .tag("method", "findAll")
+            .tag("exception", "none")
+            .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void timesFailingRepositoryCall() throws Throwable {
+        // Arrange
+        when(mockJoinPoint.proceed()).thenThrow(new IllegalStateException("failed"));
+
+        // Act
+        ThrowableAssert.ThrowingCallable action = () -> repositoryMetricsAspect.time(mockJoinPoint);
+
+        // Assert
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(action);
+        Timer timer = meterRegistry.get(RepositoryMetricsAspect.METRIC_NAME)
+            .tag("exception", "IllegalStateException")
+            .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
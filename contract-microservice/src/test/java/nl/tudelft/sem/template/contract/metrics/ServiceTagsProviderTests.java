@@ -0,0 +1,35 @@
+package nl.tudelft.sem.template.contract.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class ServiceTagsProviderTests {
+
+    @Test
+    public void serviceIsFirstPathSegment() {
+        // Act
+        String actual = ServiceTagsProvider.getService("/messages/message/send");
+
+        // Assert
+        assertThat(actual).isEqualTo("messages");
+    }
+
+    @Test
+    public void serviceWithoutFurtherPath() {
+        // Act
+        String actual = ServiceTagsProvider.getService("/authentication");
+
+        // Assert
+        assertThat(actual).isEqualTo("authentication");
+    }
+
+    @Test
+    public void noService() {
+        // Act
+        String actual = ServiceTagsProvider.getService("/");
+
+        // Assert
+        assertThat(actual).isEqualTo("none");
+    }
+}
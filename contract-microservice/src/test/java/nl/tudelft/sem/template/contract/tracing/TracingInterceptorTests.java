@@ -0,0 +1,71 @@
+package nl.tudelft.sem.template.contract.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+public class TracingInterceptorTests {
+    private transient SpanRecorder spanRecorder;
+    private transient TracingInterceptor tracingInterceptor;
+
+    private transient HttpRequest mockRequest;
+    private transient ClientHttpRequestExecution mockExecution;
+    private transient HttpHeaders headers;
+
+    /**
+     * Set up mocks.
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        spanRecorder = new SpanRecorder("contract-microservice", 10, "", new ObjectMapper());
+        tracingInterceptor = new TracingInterceptor(spanRecorder);
+
+        headers = new HttpHeaders();
+        mockRequest = mock(HttpRequest.class);
+        when(mockRequest.getHeaders()).thenReturn(headers);
+        when(mockRequest.getMethodValue()).thenReturn("POST");
+        when(mockRequest.getURI()).thenReturn(URI.create("http://localhost:8083/messages/message/send"));
+
+        ClientHttpResponse mockResponse = mock(ClientHttpResponse.class);
+        when(mockResponse.getRawStatusCode()).thenReturn(200);
+        mockExecution = mock(ClientHttpRequestExecution.class);
+        when(mockExecution.execute(mockRequest, new byte[0])).thenReturn(mockResponse);
+    }
+
+    @AfterEach
+    public void clearContext() {
+        TraceContextHolder.clear();
+    }
+
+    @Test
+    public void propagatesTraceOfCurrentRequest() throws IOException {
+        // Arrange
+        TraceContext current = TraceContext.root();
+        TraceContextHolder.set(current);
+
+        // Act
+        tracingInterceptor.intercept(mockRequest, new byte[0], mockExecution);
+
+        // Assert
+        List<Span> spans = spanRecorder.getSpans(current.getTraceId());
+        assertThat(spans).hasSize(1);
+        assertThat(spans.get(0).getParentSpanId()).isEqualTo(current.getSpanId());
+        assertThat(spans.get(0).getKind()).isEqualTo(SpanRecorder.CLIENT);
+        assertThat(spans.get(0).getTags()).containsEntry("http.status", "200");
+        TraceContext propagated = TraceContext.parse(headers.getFirst(TraceContext.TRACEPARENT_HEADER));
+        assertThat(propagated.getTraceId()).isEqualTo(current.getTraceId());
+        assertThat(propagated.getSpanId()).isEqualTo(spans.get(0).getSpanId());
+    }
+}
@@ -0,0 +1,127 @@
+package nl.tudelft.sem.sem26b.message.authentication;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of the logging done on every authenticated request (to the inbox, for instance), from 8 request threads
+ * at once.
+ * <p>
+ * The *Println benchmark is the logging as it was before: the invalid authorization header message printed to a
+ * synchronized, auto-flushing stream like System.out, for comparison. The *Async benchmarks log through the
+ * appenders of <i>logback-spring.xml</i> (a JSON encoder behind an AsyncAppender); both write to the same file.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class RequestLoggingBenchmark {
+
+    private static final String MESSAGE = "Invalid authorization header";
+
+    private Path logFile;
+
+    private FileOutputStream logOutput;
+
+    private PrintStream stdout;
+
+    private LoggerContext loggerContext;
+
+    private Logger logger;
+
+    /**
+     * Sets up the print stream and a logger configured as in <i>logback-spring.xml</i>, both writing to a
+     * temporary file.
+     *
+     * @throws IOException when the file cannot be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("request-logging", ".log");
+        logOutput = new FileOutputStream(logFile.toFile());
+        stdout = new PrintStream(logOutput, true);
+
+        loggerContext = new LoggerContext();
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setCustomFields("{\"service\":\"message-microservice\"}");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> json = new OutputStreamAppender<>();
+        json.setContext(loggerContext);
+        json.setEncoder(encoder);
+        json.setOutputStream(logOutput);
+        json.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(loggerContext);
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(1638);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(json);
+        async.start();
+
+        logger = loggerContext.getLogger(RequestLoggingBenchmark.class);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(async);
+    }
+
+    /**
+     * Stops the logger and removes the log file.
+     *
+     * @throws IOException when the file cannot be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        loggerContext.stop();
+        stdout.close();
+        Files.deleteIfExists(logFile);
+    }
+
+    /**
+     * Prints the message on every request, as the filter did before.
+     */
+    @Benchmark
+    public void logPrintln() {
+        stdout.println(MESSAGE);
+    }
+
+    /**
+     * Logs the message at INFO through the asynchronous JSON appender.
+     */
+    @Benchmark
+    public void logAsyncInfo() {
+        logger.info(MESSAGE);
+    }
+
+    /**
+     * Logs the message at DEBUG, below the configured level, as the filter does now.
+     */
+    @Benchmark
+    public void logAsyncDebug() {
+        logger.debug(MESSAGE);
+    }
+}
@@ -0,0 +1,198 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to read the first page of an inbox of 10k to 1M messages together with its total and unread counts, on an
+ * in-memory H2 database migrated with the Flyway scripts of the service.
+ * <p>
+ * pageAndCounts is the read as it was originally: the page and two COUNT queries. pageWithWindowCounts computes
+ * the counts with window aggregates on the page rows, and pageAndCounterRow is the current read, which takes
+ * the counts from the mailbox counters.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MailboxPageBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private static final String RECEIVER = "receiver";
+
+    private static final String PAGE = "SELECT m.id, m.was_read, m.sent_at FROM message m WHERE m.to = ? "
+        + "ORDER BY m.was_read ASC, m.sent_at DESC, m.id DESC LIMIT " + PAGE_SIZE;
+
+    private static final String COUNT_ALL = "SELECT COUNT(*) FROM message m WHERE m.to = ?";
+
+    private static final String COUNT_UNREAD = "SELECT COUNT(*) FROM message m WHERE m.to = ? AND m.was_read = FALSE";
+
+    private static final String PAGE_WITH_WINDOW_COUNTS = "SELECT m.id, m.was_read, m.sent_at, "
+        + "COUNT(*) OVER () AS all_messages, SUM(CASE WHEN m.was_read THEN 0 ELSE 1 END) OVER () AS unread_messages "
+        + "FROM message m WHERE m.to = ? ORDER BY m.was_read ASC, m.sent_at DESC, m.id DESC LIMIT " + PAGE_SIZE;
+
+    private static final String COUNTER = "SELECT inbox_total, inbox_unread FROM mailbox_counter WHERE mailbox = ?";
+
+    @Param({"10000", "100000", "1000000"})
+    private int mailboxSize;
+
+    private Connection connection;
+
+    private PreparedStatement page;
+
+    private PreparedStatement countAll;
+
+    private PreparedStatement countUnread;
+
+    private PreparedStatement pageWithWindowCounts;
+
+    private PreparedStatement counter;
+
+    /**
+     * Migrates an in-memory database and fills one inbox, in which every tenth message is unread.
+     *
+     * @throws SQLException when the database cannot be filled.
+     */
+    @Setup
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:mailbox" + mailboxSize + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+
+        Instant start = Instant.parse("2022-01-01T00:00:00Z");
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO message "
+            + "(id, sender, to, type, contents, sent_at, read_at, was_read) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= mailboxSize; id++) {
+                boolean wasRead = id % 10 != 0;
+                Timestamp sentAt = Timestamp.from(start.plusSeconds(id));
+                insert.setInt(1, id);
+                insert.setString(2, "sender" + id % 50);
+                insert.setString(3, RECEIVER);
+                insert.setString(4, "other");
+                insert.setString(5, "Message " + id);
+                insert.setTimestamp(6, sentAt);
+                insert.setTimestamp(7, wasRead ? sentAt : null);
+                insert.setBoolean(8, wasRead);
+                insert.addBatch();
+                if (id % INSERT_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+            "INSERT INTO mailbox_counter (mailbox, inbox_total, inbox_unread) VALUES (?, ?, ?)")) {
+            insert.setString(1, RECEIVER);
+            insert.setLong(2, mailboxSize);
+            insert.setLong(3, mailboxSize / 10);
+            insert.executeUpdate();
+        }
+
+        page = prepare(PAGE);
+        countAll = prepare(COUNT_ALL);
+        countUnread = prepare(COUNT_UNREAD);
+        pageWithWindowCounts = prepare(PAGE_WITH_WINDOW_COUNTS);
+        counter = prepare(COUNTER);
+    }
+
+    /**
+     * Drops the database.
+     *
+     * @throws SQLException when the database cannot be dropped.
+     */
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (PreparedStatement shutdown = connection.prepareStatement("SHUTDOWN")) {
+            shutdown.execute();
+        }
+        connection.close();
+    }
+
+    /**
+     * Reads the page, then the total and the unread count with a query each.
+     *
+     * @throws SQLException when a query fails.
+     */
+    @Benchmark
+    public void pageAndCounts(Blackhole blackhole) throws SQLException {
+        readPage(page, blackhole);
+        blackhole.consume(readCount(countAll));
+        blackhole.consume(readCount(countUnread));
+    }
+
+    /**
+     * Reads the page with the counts as window aggregates on every row.
+     *
+     * @throws SQLException when a query fails.
+     */
+    @Benchmark
+    public void pageWithWindowCounts(Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = pageWithWindowCounts.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getInt(1));
+                blackhole.consume(rows.getBoolean(2));
+                blackhole.consume(rows.getTimestamp(3));
+                blackhole.consume(rows.getLong(4));
+                blackhole.consume(rows.getLong(5));
+            }
+        }
+    }
+
+    /**
+     * Reads the page, then the counts from the counter row of the mailbox.
+     *
+     * @throws SQLException when a query fails.
+     */
+    @Benchmark
+    public void pageAndCounterRow(Blackhole blackhole) throws SQLException {
+        readPage(page, blackhole);
+        try (ResultSet row = counter.executeQuery()) {
+            row.next();
+            blackhole.consume(row.getLong(1));
+            blackhole.consume(row.getLong(2));
+        }
+    }
+
+    private PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setString(1, RECEIVER);
+        return statement;
+    }
+
+    private static void readPage(PreparedStatement page, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = page.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getInt(1));
+                blackhole.consume(rows.getBoolean(2));
+                blackhole.consume(rows.getTimestamp(3));
+            }
+        }
+    }
+
+    private static long readCount(PreparedStatement count) throws SQLException {
+        try (ResultSet row = count.executeQuery()) {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+}
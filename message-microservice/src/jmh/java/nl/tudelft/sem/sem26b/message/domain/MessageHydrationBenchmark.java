@@ -0,0 +1,132 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost per row of converting the columns of a 100-message inbox page (sender, receiver and type) into their
+ * attributes, as Hibernate does when hydrating the page.
+ * <p>
+ * The *Allocated and *Scan benchmarks are the conversions as they were before targets were interned and types
+ * looked up in a reverse map, for comparison.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageHydrationBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final String[] TYPES = {"contr-prop", "doc-req", "leave-req", "leave-appr", "other"};
+
+    private final MessageTargetAttributeConverter targetConverter = new MessageTargetAttributeConverter();
+
+    private final MessageTypeAttributeConverter typeConverter = new MessageTypeAttributeConverter();
+
+    private final Map<MessageType, String> typeStrings = Map.of(
+        MessageType.CONTRACT_PROPOSE, "contr-prop",
+        MessageType.CONTRACT_APPROVE, "contr-appr",
+        MessageType.CONTRACT_TERMINATE, "contr-term",
+        MessageType.CONTRACT_TERMINATE_REQUEST, "contr-term-req",
+        MessageType.DOCUMENT_REQUEST, "doc-req",
+        MessageType.LEAVE_REQUEST, "leave-req",
+        MessageType.LEAVE_APPROVE, "leave-appr",
+        MessageType.OTHER, "other"
+    );
+
+    private String[] senders;
+
+    private String[] receivers;
+
+    private String[] types;
+
+    /**
+     * Builds the columns of an inbox page: messages from a handful of senders (and HR) to one receiver.
+     * Every value is a new String, as the JDBC driver returns them.
+     */
+    @Setup
+    public void setUp() {
+        senders = new String[PAGE_SIZE];
+        receivers = new String[PAGE_SIZE];
+        types = new String[PAGE_SIZE];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            senders[i] = new String(i % 5 == 0 ? MessageTarget.HR_TARGET_LABEL : "sender" + i % 10);
+            receivers[i] = new String("receiver");
+            types[i] = new String(TYPES[i % TYPES.length]);
+        }
+    }
+
+    /**
+     * Converts the targets of a page through the interning converter.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void targetsInterned(Blackhole blackhole) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            blackhole.consume(targetConverter.convertToEntityAttribute(senders[i]));
+            blackhole.consume(targetConverter.convertToEntityAttribute(receivers[i]));
+        }
+    }
+
+    /**
+     * Converts the targets of a page into new instances, of a class shaped like MessageTarget (its constructor is
+     * private, targets are only created interned).
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void targetsAllocated(Blackhole blackhole) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            blackhole.consume(new AllocatedTarget(senders[i]));
+            blackhole.consume(new AllocatedTarget(receivers[i]));
+        }
+    }
+
+    /**
+     * Converts the types of a page through the reverse map.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void typesLookup(Blackhole blackhole) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            blackhole.consume(typeConverter.convertToEntityAttribute(types[i]));
+        }
+    }
+
+    /**
+     * Converts the types of a page by scanning all types.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void typesScan(Blackhole blackhole) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            String type = types[i];
+            blackhole.consume(typeStrings.entrySet().stream()
+                .filter(entry -> entry.getValue().equalsIgnoreCase(type))
+                .map(Map.Entry::getKey)
+                .findAny()
+                .orElse(MessageType.OTHER));
+        }
+    }
+
+    /**
+     * A target as it was allocated for every column before targets were interned.
+     */
+    private static final class AllocatedTarget {
+
+        private final String id;
+
+        AllocatedTarget(String id) {
+            this.id = id;
+        }
+    }
+}
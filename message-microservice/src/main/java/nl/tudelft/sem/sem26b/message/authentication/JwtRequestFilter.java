@@ -1,5 +1,6 @@
 package nl.tudelft.sem.sem26b.message.authentication;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import java.io.IOException;
@@ -8,6 +9,7 @@ import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -23,7 +25,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * before it reaches the application. If an authorization header is present in the request,
  * the filter will validate it and authenticate the token.
  * </p>
+ * <p>
+ * Requests forwarded by the API gateway carry the identity the gateway already verified. That identity is used
+ * directly when the gateway key matches, without verifying the token again.
+ * </p>
  */
+@Slf4j
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
@@ -33,9 +40,12 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final transient JwtTokenVerifier jwtTokenVerifier;
 
+    private final transient GatewayIdentityVerifier gatewayIdentityVerifier;
+
     @Autowired
-    public JwtRequestFilter(JwtTokenVerifier jwtTokenVerifier) {
+    public JwtRequestFilter(JwtTokenVerifier jwtTokenVerifier, GatewayIdentityVerifier gatewayIdentityVerifier) {
         this.jwtTokenVerifier = jwtTokenVerifier;
+        this.gatewayIdentityVerifier = gatewayIdentityVerifier;
     }
 
     /**
@@ -50,6 +60,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        // Fast path: the token was already verified by the gateway
+        GatewayIdentityVerifier.VerifiedIdentity identity = gatewayIdentityVerifier.verify(
+            request.getHeader(GatewayIdentityVerifier.VERIFIED_IDENTITY_HEADER),
+            request.getHeader(GatewayIdentityVerifier.GATEWAY_KEY_HEADER));
+        if (identity != null) {
+            authenticate(request, identity.getNetId(), identity.getRole());
+            filterChain.doFilter(request, response);
+            return;
+        }
         // Get authorization header
         String authorizationHeader = request.getHeader(AUTHORIZATION_HEADER);
         // Check if an authorization header is set
@@ -59,33 +78,38 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             if (directives.length == 2 && directives[0].equals(AUTHORIZATION_AUTH_SCHEME)) {
                 String token = directives[1];
                 setAuthentication(request, jwtTokenVerifier, token);
+            } else {
+                log.debug("Invalid authorization header");
             }
-            System.err.println("Invalid authorization header");
         }
         filterChain.doFilter(request, response);
     }
 
     private void setAuthentication(HttpServletRequest request, JwtTokenVerifier jwtTokenVerifier, String token) {
         try {
-            if (jwtTokenVerifier.validateToken(token)) {
-                String netId = jwtTokenVerifier.getNetIdFromToken(token);
-
-                var authenticationToken = new UsernamePasswordAuthenticationToken(
-                        netId,
-                        null, List.of(new
-                        SimpleGrantedAuthority(jwtTokenVerifier.getRoleFromToken(token)))
-                );
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource()
-                        .buildDetails(request));
-                // After setting the Authentication in the context, we specify
-                // that the current user is authenticated. So it passes the
-                // Spring Security Configurations successfully.
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            // Subject, role and expiration all come from a single (cached) verification
+            Claims claims = jwtTokenVerifier.verify(token);
+            Object role = claims.get("role");
+            if (claims.getSubject() != null && role != null) {
+                authenticate(request, claims.getSubject(), role.toString());
             }
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token has expired.");
+            log.debug("JWT token has expired");
         } catch (IllegalArgumentException | JwtException e) {
-            System.err.println("Unable to parse JWT token");
+            log.debug("Unable to parse JWT token");
         }
     }
+
+    private void authenticate(HttpServletRequest request, String netId, String role) {
+        var authenticationToken = new UsernamePasswordAuthenticationToken(
+                netId,
+                null, List.of(new SimpleGrantedAuthority(role))
+        );
+        authenticationToken.setDetails(new WebAuthenticationDetailsSource()
+                .buildDetails(request));
+        // After setting the Authentication in the context, we specify
+        // that the current user is authenticated. So it passes the
+        // Spring Security Configurations successfully.
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+    }
 }
@@ -1,6 +1,12 @@
 package nl.tudelft.sem.sem26b.message.controllers;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.sem26b.message.domain.MailboxCursor;
 import nl.tudelft.sem.sem26b.message.domain.MailboxService;
 import nl.tudelft.sem.sem26b.message.domain.Message;
 import nl.tudelft.sem.sem26b.message.domain.MessagePayload;
@@ -9,11 +15,19 @@ import nl.tudelft.sem.sem26b.message.domain.MessageSenderService;
 import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
 import nl.tudelft.sem.sem26b.message.domain.MessageValidator;
 import nl.tudelft.sem.sem26b.message.domain.PayloadService;
+import nl.tudelft.sem.sem26b.message.events.MailboxEventHub;
 import nl.tudelft.sem.sem26b.message.models.GetInboxOrOutboxResponseModel;
 import nl.tudelft.sem.sem26b.message.models.GetMessageResponseModel;
+import nl.tudelft.sem.sem26b.message.models.MarkReadRequestModel;
 import nl.tudelft.sem.sem26b.message.models.PostMessageRequestModel;
+import nl.tudelft.sem.sem26b.message.models.SearchMessagesResponseModel;
+import nl.tudelft.sem.sem26b.message.search.MessageSearchQuery;
+import nl.tudelft.sem.sem26b.message.search.MessageSearchResult;
+import nl.tudelft.sem.sem26b.message.search.MessageSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -23,19 +37,36 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Controller for the message microservice.
+ * <p>
+ * Messages cannot be changed once sent, so they may be cached by the gateway (per user) for a while. Mailboxes
+ * change with every message that is sent or opened and are only cached briefly.
+ * </p>
  */
+@Slf4j
 @RestController
 @RequestMapping("/message")
 public class MessageController {
 
+    private static final CacheControl MESSAGE_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate();
+    private static final CacheControl MAILBOX_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.SECONDS).cachePrivate();
+
+    /**
+     * Tells the gateway which cached responses of the user changed, here the path family of this controller.
+     */
+    private static final String GATEWAY_INVALIDATE_HEADER = "X-Gateway-Invalidate";
+    private static final String MESSAGE_PATH_FAMILY = "message";
+
     private final transient MessageSenderService senderService;
     private final transient MessageRetrieverService retrieverService;
     private final transient MailboxService mailboxService;
     private final transient PayloadService payloadService;
     private final transient MessageValidator validator;
+    private final transient MailboxEventHub eventHub;
+    private final transient MessageSearchService searchService;
 
     /**
      * Constructor for MessageController.
@@ -45,25 +76,69 @@ public class MessageController {
      * @param mailboxService   The service responsible for retrieving inboxes and outboxes.
      * @param payloadService   The service responsible for attaching payloads to messages and retrieving them.
      * @param validator        The validator responsible for validation and authorization.
+     * @param eventHub         The hub pushing mailbox events to subscribed clients.
+     * @param searchService    The service responsible for searching messages.
      */
     @Autowired
     public MessageController(MessageSenderService senderService,
                              MessageRetrieverService retrieverService,
                              MailboxService mailboxService,
                              PayloadService payloadService,
-                             MessageValidator validator) {
+                             MessageValidator validator,
+                             MailboxEventHub eventHub,
+                             MessageSearchService searchService) {
         this.senderService = senderService;
         this.retrieverService = retrieverService;
         this.mailboxService = mailboxService;
         this.payloadService = payloadService;
         this.validator = validator;
+        this.eventHub = eventHub;
+        this.searchService = searchService;
+    }
+
+    /**
+     * Endpoint for searching the contents of the messages the token bearer can read (all messages for HR, otherwise
+     * the messages they sent or received), including archived messages.
+     *
+     * @param text       The words that must all occur in the contents, "quoted phrases" must occur as written.
+     * @param sender     The NetID of the sender, or "HR". [default: any sender]
+     * @param receiver   The NetID of the receiver, or "HR". [default: any receiver]
+     * @param type       The type of the messages (e.g. "leave-req"). [default: any type]
+     * @param sentFrom   The time (ISO-8601, inclusive) from which the messages were sent. [default: none]
+     * @param sentBefore The time (ISO-8601, exclusive) before which the messages were sent. [default: none]
+     * @param page       The page to get. [default: 1] [allowed: 1 to 100]
+     * @param limit      The number of messages on a page. [default: 20] [allowed: 1 to 100]
+     * @param headers    if set to true, the headers of the messages found are included. [default: false]
+     * @return IDs of the messages found, newest first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchMessagesResponseModel> searchMessages(
+        @RequestParam(name = "q") String text,
+        @RequestParam(name = "sender", required = false) String sender,
+        @RequestParam(name = "receiver", required = false) String receiver,
+        @RequestParam(name = "type", required = false) String type,
+        @RequestParam(name = "from", required = false) String sentFrom,
+        @RequestParam(name = "to", required = false) String sentBefore,
+        @RequestParam(name = "page", required = false, defaultValue = "1") int page,
+        @RequestParam(name = "limit", required = false, defaultValue = "20") int limit,
+        @RequestParam(name = "headers", required = false, defaultValue = "false") boolean headers
+    ) {
+        MessageSearchQuery query = MessageSearchQuery.parse(text, sender, receiver, type, sentFrom, sentBefore,
+            page, limit);
+        MessageSearchResult result = searchService.search(query);
+        SearchMessagesResponseModel responseBody = new SearchMessagesResponseModel(
+            result.getIds().stream().mapToInt(Integer::intValue).toArray(), result.isMore());
+        if (headers) {
+            responseBody.setHeaders(mailboxService.getHeaders(result.getIds()));
+        }
+        return ResponseEntity.ok().cacheControl(MAILBOX_CACHE_CONTROL).body(responseBody);
     }
 
     /**
      * Endpoint for opening a message.
      *
      * @param messageId The id of the message to open.
-     * @return The message.
+     * @return The message. When opening marked it as read, the gateway is told to drop the cached mailbox pages.
      */
     @GetMapping("/{messageId}")
     public ResponseEntity<GetMessageResponseModel> getMessageById(
@@ -74,12 +149,14 @@ public class MessageController {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Message not found");
         }
         validator.checkReadPermission(message);
-        retrieverService.openMessageIfApplicable(message);
-        GetMessageResponseModel response = retrieverService.parseMessageToModel(message);
-        List<MessagePayload> payload = payloadService.getMessagePayload(message);
-        response.setPayload(payload.toArray(MessagePayload[]::new));
+        boolean opened = retrieverService.openMessageIfApplicable(message);
+        GetMessageResponseModel response = toResponseModel(message);
 
-        return ResponseEntity.ok(response);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(MESSAGE_CACHE_CONTROL);
+        if (opened) {
+            builder.header(GATEWAY_INVALIDATE_HEADER, MESSAGE_PATH_FAMILY);
+        }
+        return builder.body(response);
     }
 
     /**
@@ -88,22 +165,41 @@ public class MessageController {
      * @param netId  The NetID of the user to get the inbox of.
      * @param fromHr if set to true, requests the HR inbox. [default: false]
      * @param page   The page to get (e.g. Page = 1 will return first 100 messages). [default: 1] [allowed: 1 or higher]
+     * @param cursor The nextCursor of the previous page, to get the page after it. Takes precedence over the page
+     *               number and stays constant time for deep pages. [default: none]
+     * @param includePayloads if set to true, the messages of the page are included with their payloads, instead of
+     *                        requesting them one by one. They are not marked as read. [default: false]
+     * @param headers if set to true, the headers of the messages of the page (sender, type, preview of the contents,
+     *                ...) are included, enough to show the page without requesting any message. [default: false]
      * @return IDs and amount of both read and unread messages; (will return max 100 IDs and the full count)
      */
     @GetMapping("/{netId}/inbox")
     public ResponseEntity<GetInboxOrOutboxResponseModel> getInbox(
         @PathVariable String netId,
         @RequestParam(name = "fromHr", required = false, defaultValue = "false") boolean fromHr,
-        @RequestParam(name = "page", required = false, defaultValue = "1") int page
+        @RequestParam(name = "page", required = false, defaultValue = "1") int page,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "includePayloads", required = false, defaultValue = "false") boolean includePayloads,
+        @RequestParam(name = "headers", required = false, defaultValue = "false") boolean headers
     ) {
         if (fromHr) {
             validator.checkHrPermission();
         } else {
             validator.checkMailboxPermission(netId);
         }
-        MessageTarget target = new MessageTarget(fromHr ? MessageTarget.HR_TARGET_LABEL : netId);
-        GetInboxOrOutboxResponseModel responseBody = mailboxService.getInbox(target, page);
-        return ResponseEntity.ok(responseBody);
+        MessageTarget target = fromHr ? MessageTarget.HR : MessageTarget.of(netId);
+        GetInboxOrOutboxResponseModel responseBody = cursor == null
+            ? mailboxService.getInbox(target, page)
+            : mailboxService.getInbox(target, MailboxCursor.decode(cursor));
+        if (includePayloads) {
+            responseBody.setMessages(retrieverService.retrieveMessagesByIds(pageIds(responseBody)).stream()
+                .map(this::toResponseModel)
+                .collect(Collectors.toList()));
+        }
+        if (headers) {
+            responseBody.setHeaders(mailboxService.getHeaders(pageIds(responseBody)));
+        }
+        return ResponseEntity.ok().cacheControl(MAILBOX_CACHE_CONTROL).body(responseBody);
     }
 
     /**
@@ -113,22 +209,85 @@ public class MessageController {
      * @param fromHr if set to true, requests the HR outbox. [default: false]
      * @param page   The page to get (e.g. Page = 1 will return first 100 messages).
      *               [default: 1] [allowed: 1 or higher, incorrect values will be set to 1]
+     * @param cursor The nextCursor of the previous page, to get the page after it. Takes precedence over the page
+     *               number and stays constant time for deep pages. [default: none]
+     * @param headers if set to true, the headers of the messages of the page (receiver, type, preview of the contents,
+     *                ...) are included, enough to show the page without requesting any message. [default: false]
      * @return IDs and amount of both read and unread messages (by the recipient) [return max 100 IDs and the full count]
      */
     @GetMapping("/{netId}/sentMessages")
     public ResponseEntity<GetInboxOrOutboxResponseModel> getSentMessages(
         @PathVariable String netId,
         @RequestParam(name = "fromHr", required = false, defaultValue = "false") boolean fromHr,
-        @RequestParam(name = "page", required = false, defaultValue = "1") int page
+        @RequestParam(name = "page", required = false, defaultValue = "1") int page,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "headers", required = false, defaultValue = "false") boolean headers
+    ) {
+        if (fromHr) {
+            validator.checkHrPermission();
+        } else {
+            validator.checkMailboxPermission(netId);
+        }
+        MessageTarget target = fromHr ? MessageTarget.HR : MessageTarget.of(netId);
+        GetInboxOrOutboxResponseModel responseBody = cursor == null
+            ? mailboxService.getOutbox(target, page)
+            : mailboxService.getOutbox(target, MailboxCursor.decode(cursor));
+        if (headers) {
+            responseBody.setHeaders(mailboxService.getHeaders(pageIds(responseBody)));
+        }
+        return ResponseEntity.ok().cacheControl(MAILBOX_CACHE_CONTROL).body(responseBody);
+    }
+
+    /**
+     * Endpoint for marking messages of an inbox as read without opening them, e.g. to empty an inbox.
+     * Either the given messages or all messages sent before a time are marked as read, with one UPDATE statement.
+     * Messages that are not in the inbox or were read already are skipped. Like opening a message, only the receiver
+     * (or HR for the HR inbox) marks messages as read.
+     *
+     * @param netId  The NetID of the user to mark the messages of.
+     * @param fromHr if set to true, marks messages of the HR inbox. [default: false]
+     * @param body   The ids of the messages (max. 1000), or the time before which they were sent.
+     * @return the number of messages marked as read.
+     */
+    @PostMapping("/{netId}/markRead")
+    public ResponseEntity<Integer> markAsRead(
+        @PathVariable String netId,
+        @RequestParam(name = "fromHr", required = false, defaultValue = "false") boolean fromHr,
+        @RequestBody MarkReadRequestModel body
+    ) {
+        if (fromHr) {
+            validator.checkHrPermission();
+        } else {
+            validator.checkMailboxOwner(netId);
+        }
+        MessageTarget target = fromHr ? MessageTarget.HR : MessageTarget.of(netId);
+        int read = retrieverService.markMessagesAsRead(target, body);
+        log.debug("{} messages marked as read", read);
+        return ResponseEntity.ok(read);
+    }
+
+    /**
+     * Endpoint for subscribing to the events of an inbox (Server-Sent Events), instead of polling it.
+     * The stream starts with a "counts" event (unread and total number of messages), followed by a "message" event
+     * with the header of every new message and a "counts" event whenever the counts change. Heartbeat comments are
+     * sent while the inbox is idle. The stream ends after a while, or when the client does not keep up with the
+     * events, the client then reconnects and reads the inbox to catch up.
+     *
+     * @param netId  The NetID of the user to subscribe to the inbox of.
+     * @param fromHr if set to true, subscribes to the HR inbox. [default: false]
+     * @return the event stream.
+     */
+    @GetMapping(value = "/{netId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToInbox(
+        @PathVariable String netId,
+        @RequestParam(name = "fromHr", required = false, defaultValue = "false") boolean fromHr
     ) {
         if (fromHr) {
             validator.checkHrPermission();
         } else {
             validator.checkMailboxPermission(netId);
         }
-        MessageTarget target = new MessageTarget(fromHr ? MessageTarget.HR_TARGET_LABEL : netId);
-        GetInboxOrOutboxResponseModel responseBody = mailboxService.getOutbox(target, page);
-        return ResponseEntity.ok(responseBody);
+        return eventHub.subscribe(fromHr ? MessageTarget.HR : MessageTarget.of(netId));
     }
 
     /**
@@ -149,8 +308,55 @@ public class MessageController {
         }
         Message message = senderService.postMessage(body, fromHr);
         payloadService.attachMessagePayloadList(message, body.getPayload());
-        System.out.println(message.getId());
+        log.debug("Message {} sent", message.getId());
         return ResponseEntity.ok(message.getId());
     }
 
+    /**
+     * Endpoint for sending a batch of messages (e.g. an announcement to all employees) in one request.
+     * Either all messages are sent, or none when any of them is invalid.
+     *
+     * @param fromHr if set to true, the messages are sent from HR. [default: false]
+     * @param body   The messages to send. [allowed: 1 to 1000 messages]
+     * @return the ids of the messages, in the order of the request.
+     */
+    @PostMapping("/sendBatch")
+    public ResponseEntity<List<Integer>> sendMessages(
+        @RequestParam(name = "fromHr", required = false, defaultValue = "false") boolean fromHr,
+        @RequestBody List<PostMessageRequestModel> body
+    ) {
+        if (fromHr) {
+            validator.checkHrPermission();
+        }
+        List<Integer> ids = senderService.postMessages(body, fromHr).stream()
+            .map(Message::getId)
+            .collect(Collectors.toList());
+        log.debug("Batch of {} messages sent", ids.size());
+        return ResponseEntity.ok(ids);
+    }
+
+    /**
+     * Parse a message, loaded with its payloads, into its response model.
+     *
+     * @param message The message to parse.
+     * @return The message with its payloads.
+     */
+    private GetMessageResponseModel toResponseModel(Message message) {
+        GetMessageResponseModel response = retrieverService.parseMessageToModel(message);
+        List<MessagePayload> payload = payloadService.getMessagePayload(message);
+        response.setPayload(payload.toArray(MessagePayload[]::new));
+        return response;
+    }
+
+    /**
+     * Get the ids of the messages on a mailbox page, unread first.
+     *
+     * @param page The mailbox page.
+     * @return The ids.
+     */
+    private static List<Integer> pageIds(GetInboxOrOutboxResponseModel page) {
+        return IntStream.concat(Arrays.stream(page.getUnreadMessages()), Arrays.stream(page.getReadMessages()))
+            .boxed()
+            .collect(Collectors.toList());
+    }
 }
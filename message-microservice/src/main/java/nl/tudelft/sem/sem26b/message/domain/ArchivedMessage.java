@@ -0,0 +1,102 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * A read message that was moved to the archive after the retention age, see {@link MessageArchiveService}.
+ * Archived messages are never changed, they are only looked up by id.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "message_archive")
+public class ArchivedMessage {
+
+    /**
+     * Identifier of the message, the id it had before it was archived.
+     */
+    @Id
+    @Column(name = "id", nullable = false)
+    private int id;
+
+    /**
+     * The sender of the message.
+     */
+    @Column(name = "sender", nullable = false)
+    @Convert(converter = MessageTargetAttributeConverter.class)
+    private MessageTarget sender;
+
+    /**
+     * The receiver of the message.
+     */
+    @Column(name = "to", nullable = false)
+    @Convert(converter = MessageTargetAttributeConverter.class)
+    private MessageTarget receiver;
+
+    /**
+     * The type of the message.
+     */
+    @Column(name = "type", nullable = false)
+    @Convert(converter = MessageTypeAttributeConverter.class)
+    private MessageType messageType;
+
+    /**
+     * Contents of the message.
+     */
+    @Column(name = "contents", length = 2048, nullable = true)
+    private String contents;
+
+    /**
+     * Time the message was sent.
+     */
+    @Column(name = "sent_at", nullable = false)
+    private Instant sentAt;
+
+    /**
+     * Time the message was read by the receiver.
+     */
+    @Column(name = "read_at", nullable = false)
+    private Instant readAt;
+
+    /**
+     * Time the message was archived.
+     */
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    /**
+     * The payloads attached to the message.
+     */
+    @OneToMany(mappedBy = "message", fetch = FetchType.LAZY)
+    @OrderBy("id ASC")
+    private List<ArchivedMessagePayload> payloads = new ArrayList<>();
+
+    /**
+     * Restore the message as it was before it was archived, with its payloads.
+     * The message is not managed, changes to it are not stored.
+     *
+     * @return the message.
+     */
+    public Message toMessage() {
+        Message message = new Message(id, sender, receiver, messageType, contents, new MessageStatus(sentAt, readAt));
+        message.getPayloads().addAll(payloads.stream()
+            .map(payload -> payload.toMessagePayloadMessage(message))
+            .collect(Collectors.toList()));
+        return message;
+    }
+}
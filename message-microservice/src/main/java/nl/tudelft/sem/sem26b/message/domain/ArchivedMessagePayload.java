@@ -0,0 +1,62 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * A payload of an archived message, see {@link ArchivedMessage}.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "message_payload_message_archive")
+public class ArchivedMessagePayload {
+
+    /**
+     * ID of the message-payload-message, the id it had before it was archived.
+     */
+    @Id
+    @Column(name = "id", nullable = false)
+    private long id;
+
+    /**
+     * The archived message the payload is linked to.
+     */
+    @ManyToOne(targetEntity = ArchivedMessage.class, optional = false, fetch = FetchType.LAZY)
+    private ArchivedMessage message;
+
+    /**
+     * The reference to the payload.
+     */
+    @Column(name = "payload_id", nullable = false)
+    private long payloadId;
+
+    /**
+     * The type of the payload.
+     */
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    /**
+     * Restore the link between the message and the payload as it was before it was archived.
+     *
+     * @param restored the restored message.
+     * @return the link, not managed.
+     */
+    MessagePayloadMessage toMessagePayloadMessage(Message restored) {
+        MessagePayloadMessage payload = new MessagePayloadMessage();
+        payload.setId(id);
+        payload.setMessage(restored);
+        payload.setPayloadId(payloadId);
+        payload.setType(type);
+        return payload;
+    }
+}
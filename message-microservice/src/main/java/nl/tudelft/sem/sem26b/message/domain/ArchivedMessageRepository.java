@@ -0,0 +1,66 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for ArchivedMessage.
+ * Messages are copied into the archive with set-based statements, they are removed from the message tables by the
+ * {@link MessageRepository} in the same transaction.
+ */
+@Repository
+public interface ArchivedMessageRepository extends JpaRepository<ArchivedMessage, Integer> {
+
+    /**
+     * Find an archived message by id together with its payloads, in one query.
+     *
+     * @param id the id of the message.
+     * @return the archived message, with its payloads loaded.
+     */
+    @Query("SELECT DISTINCT m FROM ArchivedMessage m LEFT JOIN FETCH m.payloads WHERE m.id = :id")
+    Optional<ArchivedMessage> findWithPayloadsById(@Param("id") int id);
+
+    /**
+     * Find the searchable parts of archived messages, in the order of their ids, to (re)build the search index.
+     *
+     * @param afterId  the id (exclusive) after which to start, the last id of the previous page.
+     * @param pageable the number of messages (first page, unsorted).
+     * @return the messages.
+     */
+    @Query("SELECT m.id AS id, m.sender AS sender, m.receiver AS receiver, m.messageType AS messageType, "
+        + "m.contents AS contents, m.sentAt AS sentAt FROM ArchivedMessage m WHERE m.id > :afterId ORDER BY m.id ASC")
+    List<MessageText> findTextsAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Copy read messages into the archive.
+     *
+     * @param ids        the ids of the messages.
+     * @param archivedAt the time the messages are archived.
+     * @return the number of archived messages.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_archive (id, sender, to, type, contents, sent_at, read_at, archived_at) "
+        + "SELECT id, sender, to, type, contents, sent_at, read_at, :archivedAt FROM message "
+        + "WHERE id IN (:ids)", nativeQuery = true)
+    int archiveMessages(@Param("ids") Collection<Integer> ids, @Param("archivedAt") Instant archivedAt);
+
+    /**
+     * Copy the payloads of messages into the archive.
+     *
+     * @param ids the ids of the messages.
+     * @return the number of archived payloads.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_payload_message_archive (id, message_id, payload_id, type) "
+        + "SELECT id, message_id, payload_id, type FROM message_payload_message WHERE message_id IN (:ids)",
+        nativeQuery = true)
+    int archivePayloads(@Param("ids") Collection<Integer> ids);
+}
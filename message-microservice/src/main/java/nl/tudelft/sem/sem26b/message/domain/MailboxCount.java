@@ -0,0 +1,17 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+/**
+ * Projection of the number of messages of a mailbox (their sender or receiver).
+ */
+public interface MailboxCount {
+
+    /**
+     * The owner of the mailbox.
+     */
+    MessageTarget getMailbox();
+
+    /**
+     * Amount of messages.
+     */
+    Long getCount();
+}
@@ -0,0 +1,62 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * DDD entity holding the message counts of a mailbox (a user or HR).
+ * The counts are maintained when messages are sent and read, so viewing a mailbox does not count its messages.
+ * Rows are only changed with atomic update statements, see {@link MailboxCounterRepository}.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "mailbox_counter")
+public class MailboxCounter {
+
+    private static final String COUNTER_COLUMN = "BIGINT DEFAULT 0 NOT NULL";
+
+    /**
+     * The NetID of the owner of the mailbox, or "HR".
+     */
+    @Id
+    @Column(name = "mailbox", nullable = false)
+    private String mailbox;
+
+    /**
+     * Amount of messages received (inbox).
+     */
+    @Column(name = "inbox_total", columnDefinition = COUNTER_COLUMN)
+    private long inboxTotal;
+
+    /**
+     * Amount of received messages that were not read yet.
+     */
+    @Column(name = "inbox_unread", columnDefinition = COUNTER_COLUMN)
+    private long inboxUnread;
+
+    /**
+     * Amount of messages sent (outbox).
+     */
+    @Column(name = "outbox_total", columnDefinition = COUNTER_COLUMN)
+    private long outboxTotal;
+
+    /**
+     * Amount of sent messages that were not read by the receiver yet.
+     */
+    @Column(name = "outbox_unread", columnDefinition = COUNTER_COLUMN)
+    private long outboxUnread;
+
+    /**
+     * Constructor for the counters of an empty mailbox.
+     *
+     * @param mailbox The NetID of the owner of the mailbox, or "HR".
+     */
+    public MailboxCounter(String mailbox) {
+        this.mailbox = mailbox;
+    }
+}
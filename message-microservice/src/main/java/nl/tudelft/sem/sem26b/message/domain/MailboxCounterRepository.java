@@ -0,0 +1,92 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for MailboxCounter.
+ * The counters are incremented and decremented in the database, so concurrent sends and reads never lose an update.
+ */
+@Repository
+public interface MailboxCounterRepository extends JpaRepository<MailboxCounter, String> {
+
+    /**
+     * Create the counters of a mailbox, if it has none yet.
+     *
+     * @param mailbox the NetID of the owner of the mailbox, or "HR".
+     */
+    @Modifying
+    @Query(value = "MERGE INTO mailbox_counter (mailbox) KEY (mailbox) VALUES (:mailbox)", nativeQuery = true)
+    void createIfAbsent(@Param("mailbox") String mailbox);
+
+    /**
+     * Count messages that were received (as unread).
+     *
+     * @param mailbox the NetID of the receiver, or "HR".
+     * @param count   the number of messages.
+     * @return the number of updated counters.
+     */
+    @Modifying
+    @Query("UPDATE MailboxCounter c SET c.inboxTotal = c.inboxTotal + :count, c.inboxUnread = c.inboxUnread + :count "
+        + "WHERE c.mailbox = :mailbox")
+    int addReceived(@Param("mailbox") String mailbox, @Param("count") long count);
+
+    /**
+     * Count messages that were sent (as not read by the receiver).
+     *
+     * @param mailbox the NetID of the sender, or "HR".
+     * @param count   the number of messages.
+     * @return the number of updated counters.
+     */
+    @Modifying
+    @Query("UPDATE MailboxCounter c SET c.outboxTotal = c.outboxTotal + :count, c.outboxUnread = c.outboxUnread + :count "
+        + "WHERE c.mailbox = :mailbox")
+    int addSent(@Param("mailbox") String mailbox, @Param("count") long count);
+
+    /**
+     * Count received messages as read.
+     *
+     * @param mailbox the NetID of the receiver, or "HR".
+     * @param count   the number of messages.
+     * @return the number of updated counters.
+     */
+    @Modifying
+    @Query("UPDATE MailboxCounter c SET c.inboxUnread = c.inboxUnread - :count WHERE c.mailbox = :mailbox")
+    int readReceived(@Param("mailbox") String mailbox, @Param("count") long count);
+
+    /**
+     * Count sent messages as read by the receiver.
+     *
+     * @param mailbox the NetID of the sender, or "HR".
+     * @param count   the number of messages.
+     * @return the number of updated counters.
+     */
+    @Modifying
+    @Query("UPDATE MailboxCounter c SET c.outboxUnread = c.outboxUnread - :count WHERE c.mailbox = :mailbox")
+    int readSent(@Param("mailbox") String mailbox, @Param("count") long count);
+
+    /**
+     * Remove received messages (that were read) from the inbox counts, when they are archived.
+     *
+     * @param mailbox the NetID of the receiver, or "HR".
+     * @param count   the number of messages.
+     * @return the number of updated counters.
+     */
+    @Modifying
+    @Query("UPDATE MailboxCounter c SET c.inboxTotal = c.inboxTotal - :count WHERE c.mailbox = :mailbox")
+    int removeReceived(@Param("mailbox") String mailbox, @Param("count") long count);
+
+    /**
+     * Remove sent messages (that were read) from the outbox counts, when they are archived.
+     *
+     * @param mailbox the NetID of the sender, or "HR".
+     * @param count   the number of messages.
+     * @return the number of updated counters.
+     */
+    @Modifying
+    @Query("UPDATE MailboxCounter c SET c.outboxTotal = c.outboxTotal - :count WHERE c.mailbox = :mailbox")
+    int removeSent(@Param("mailbox") String mailbox, @Param("count") long count);
+}
@@ -0,0 +1,117 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the unread and total message counts of the mailboxes.
+ * The counters are updated in the transaction that sends or reads the messages, so they stay consistent with
+ * the messages themselves.
+ */
+@Service
+public class MailboxCounterService {
+
+    private final transient MailboxCounterRepository mailboxCounterRepository;
+
+    /**
+     * Instantiates a new MailboxCounterService.
+     *
+     * @param mailboxCounterRepository the mailbox counter repository.
+     */
+    @Autowired
+    public MailboxCounterService(MailboxCounterRepository mailboxCounterRepository) {
+        this.mailboxCounterRepository = mailboxCounterRepository;
+    }
+
+    /**
+     * Count messages that were sent, in the outbox of their senders and the inbox of their receivers.
+     *
+     * @param messages the messages that were sent.
+     */
+    @Transactional
+    public void messagesSent(List<Message> messages) {
+        Map<String, Long> sent = new TreeMap<>();
+        Map<String, Long> received = new TreeMap<>();
+        for (Message message : messages) {
+            sent.merge(message.getSender().getNetId(), 1L, Long::sum);
+            received.merge(message.getReceiver().getNetId(), 1L, Long::sum);
+        }
+        // Mailboxes are updated in a fixed order, so concurrent batches cannot deadlock on the counter rows
+        Set<String> mailboxes = new TreeSet<>(sent.keySet());
+        mailboxes.addAll(received.keySet());
+        for (String mailbox : mailboxes) {
+            mailboxCounterRepository.createIfAbsent(mailbox);
+            if (sent.containsKey(mailbox)) {
+                mailboxCounterRepository.addSent(mailbox, sent.get(mailbox));
+            }
+            if (received.containsKey(mailbox)) {
+                mailboxCounterRepository.addReceived(mailbox, received.get(mailbox));
+            }
+        }
+    }
+
+    /**
+     * Count messages of an inbox as read, in the inbox and the outboxes of their senders.
+     * Must only be called once per message, when they are marked as read.
+     *
+     * @param receiver the owner of the inbox.
+     * @param perSender the number of messages that were read, per NetID of the sender (or "HR").
+     */
+    @Transactional
+    public void messagesRead(MessageTarget receiver, Map<String, Long> perSender) {
+        long received = perSender.values().stream().mapToLong(Long::longValue).sum();
+        if (received == 0) {
+            return;
+        }
+        // Same order as in messagesSent
+        Set<String> mailboxes = new TreeSet<>(perSender.keySet());
+        mailboxes.add(receiver.getNetId());
+        for (String mailbox : mailboxes) {
+            if (mailbox.equals(receiver.getNetId())) {
+                mailboxCounterRepository.readReceived(mailbox, received);
+            }
+            if (perSender.getOrDefault(mailbox, 0L) > 0) {
+                mailboxCounterRepository.readSent(mailbox, perSender.get(mailbox));
+            }
+        }
+    }
+
+    /**
+     * Remove archived messages from the counts of the inboxes and outboxes they were in.
+     * Only read messages are archived, so only the totals change.
+     *
+     * @param received the number of archived messages, per NetID of the receiver (or "HR").
+     * @param sent     the number of archived messages, per NetID of the sender (or "HR").
+     */
+    @Transactional
+    public void messagesArchived(Map<String, Long> received, Map<String, Long> sent) {
+        // Same order as in messagesSent
+        Set<String> mailboxes = new TreeSet<>(sent.keySet());
+        mailboxes.addAll(received.keySet());
+        for (String mailbox : mailboxes) {
+            if (sent.containsKey(mailbox)) {
+                mailboxCounterRepository.removeSent(mailbox, sent.get(mailbox));
+            }
+            if (received.containsKey(mailbox)) {
+                mailboxCounterRepository.removeReceived(mailbox, received.get(mailbox));
+            }
+        }
+    }
+
+    /**
+     * Get the counters of a mailbox.
+     *
+     * @param target the user/HR to get the counters for.
+     * @return the counters, all zero if no message was ever sent to or from the mailbox.
+     */
+    public MailboxCounter getCounters(MessageTarget target) {
+        return mailboxCounterRepository.findById(target.getNetId())
+            .orElseGet(() -> new MailboxCounter(target.getNetId()));
+    }
+}
@@ -0,0 +1,91 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Position in a mailbox, the last message of a page.
+ * The next page starts right after it, so it does not shift when new messages arrive and deep pages are found
+ * through the index instead of skipping all messages before them.
+ * Clients get it as an opaque string, see {@link #encode()}.
+ */
+@Getter
+@EqualsAndHashCode
+public class MailboxCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Whether the last message was read by the receiver (only used for inboxes).
+     */
+    private final boolean wasRead;
+
+    /**
+     * When the last message was sent.
+     */
+    private final Instant sentAt;
+
+    /**
+     * ID of the last message, orders messages sent at the same time.
+     */
+    private final int id;
+
+    /**
+     * Constructor for MailboxCursor.
+     *
+     * @param wasRead Whether the last message was read.
+     * @param sentAt  When the last message was sent.
+     * @param id      The id of the last message.
+     */
+    public MailboxCursor(boolean wasRead, Instant sentAt, int id) {
+        this.wasRead = wasRead;
+        this.sentAt = sentAt;
+        this.id = id;
+    }
+
+    /**
+     * Create the cursor pointing after a message on a mailbox page.
+     *
+     * @param entry The last message on the page.
+     * @return the cursor of the next page.
+     */
+    public static MailboxCursor after(MailboxEntry entry) {
+        return new MailboxCursor(Boolean.TRUE.equals(entry.getWasRead()), entry.getSentAt(), entry.getId());
+    }
+
+    /**
+     * Encode the cursor for a client.
+     *
+     * @return the cursor as an url-safe string.
+     */
+    public String encode() {
+        String cursor = (wasRead ? "1" : "0") + SEPARATOR + sentAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor received from a client.
+     *
+     * @param cursor The encoded cursor.
+     * @return the cursor.
+     * @throws ResponseStatusException (400) if the cursor was not created by {@link #encode()}.
+     */
+    public static MailboxCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                .split("\\" + SEPARATOR, -1);
+            if (parts.length != 3 || !("0".equals(parts[0]) || "1".equals(parts[0]))) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            return new MailboxCursor("1".equals(parts[0]), Instant.parse(parts[1]), Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+}
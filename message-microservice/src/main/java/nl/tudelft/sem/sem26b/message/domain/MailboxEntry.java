@@ -0,0 +1,24 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.time.Instant;
+
+/**
+ * Projection of a message on a mailbox page.
+ */
+public interface MailboxEntry {
+
+    /**
+     * ID of the message.
+     */
+    Integer getId();
+
+    /**
+     * Whether the message was read by the receiver.
+     */
+    Boolean getWasRead();
+
+    /**
+     * When the message was sent.
+     */
+    Instant getSentAt();
+}
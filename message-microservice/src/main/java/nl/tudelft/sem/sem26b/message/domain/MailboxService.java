@@ -1,124 +1,138 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import nl.tudelft.sem.sem26b.message.models.GetInboxOrOutboxResponseModel;
+import nl.tudelft.sem.sem26b.message.models.MessageHeaderModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 @Service
 public class MailboxService {
 
+    /**
+     * Number of messages on a mailbox page.
+     */
+    private static final int PAGE_SIZE = 100;
+
     private final transient MessageRepository messageRepository;
+    private final transient MailboxCounterService mailboxCounterService;
 
     /**
      * Instantiates a new MailboxService.
      *
-     * @param messageRepository the message repository.
+     * @param messageRepository     the message repository.
+     * @param mailboxCounterService the service maintaining the message counts of the mailboxes.
      */
     @Autowired
-    public MailboxService(MessageRepository messageRepository) {
+    public MailboxService(MessageRepository messageRepository, MailboxCounterService mailboxCounterService) {
         this.messageRepository = messageRepository;
+        this.mailboxCounterService = mailboxCounterService;
     }
 
 
     /**
      * Get the inbox page for a user.
+     * The counts are read from the counters of the mailbox, they are not recomputed from the messages.
      *
      * @param target the target (user/HR) to get the inbox for.
      * @param page   the page to get (1-indexed, lower values will return first page).
      * @return the inbox page for the target as a response model.
      */
     public GetInboxOrOutboxResponseModel getInbox(MessageTarget target, int page) {
-        List<Message> messages = getInboxContents(target, page);
-        int unreadMessagesCount = getUnreadMessagesAmount(target);
-        int allMessagesCount = getInboxSize(target);
-        return new GetInboxOrOutboxResponseModel(messages, unreadMessagesCount, allMessagesCount);
-    }
-
-    /**
-     * Get the outbox page for a user.
-     *
-     * @param target the target (user/HR) to get the outbox for.
-     * @param page   the page to get (1-indexed, lower values will return first page).
-     * @return the outbox page for the target as a response model.
-     */
-    public GetInboxOrOutboxResponseModel getOutbox(MessageTarget target, int page) {
-        List<Message> messages = getOutboxContents(target, page);
-        int unreadMessagesCount = getUnreadOutboxMessagesAmount(target);
-        int allMessagesCount = getOutboxSize(target);
-        return new GetInboxOrOutboxResponseModel(messages, unreadMessagesCount, allMessagesCount);
+        List<MailboxEntry> entries = messageRepository.findInboxPage(target, pageRequest(page));
+        MailboxCounter counters = mailboxCounterService.getCounters(target);
+        return toResponseModel(entries, counters.getInboxUnread(), counters.getInboxTotal());
     }
 
     /**
-     * Get inbox for a user.
-     * Paginated, 100 messages per page, sorted by whether they were read (primary) and then by when they were sent
-     * (secondary).
+     * Get the inbox page after a cursor for a user.
+     * The page is found through the index, so its cost does not depend on how deep it is in the inbox.
      *
-     * @param target The user/HR to get the inbox for.
-     * @param page   The page number to get (1-indexed).
-     * @return The user's inbox.
+     * @param target the target (user/HR) to get the inbox for.
+     * @param cursor the cursor returned with the previous page.
+     * @return the inbox page for the target as a response model.
      */
-    public List<Message> getInboxContents(MessageTarget target, int page) {
-        page = Math.max(page - 1, 0);
-        Pageable pageable =
-            PageRequest.of(page, 100, Sort.by("status.wasRead").ascending().and(Sort.by("status.sentAt").descending()));
-        return messageRepository.findAllByReceiver(target, pageable);
+    public GetInboxOrOutboxResponseModel getInbox(MessageTarget target, MailboxCursor cursor) {
+        List<MailboxEntry> entries = new ArrayList<>(messageRepository.findInboxPageAfter(target, cursor.isWasRead(),
+            cursor.getSentAt(), cursor.getId(), PageRequest.of(0, PAGE_SIZE)));
+        if (!cursor.isWasRead() && entries.size() < PAGE_SIZE) {
+            // End of the unread messages, the page continues with the read messages
+            entries.addAll(messageRepository.findReadInboxPage(target, PageRequest.of(0, PAGE_SIZE - entries.size())));
+        }
+        MailboxCounter counters = mailboxCounterService.getCounters(target);
+        return toResponseModel(entries, counters.getInboxUnread(), counters.getInboxTotal());
     }
 
     /**
-     * Get outbox for a user.
-     * Paginated, 100 messages per page, sorted by when they were sent.
+     * Get the outbox page for a user.
+     * The counts are read from the counters of the mailbox, they are not recomputed from the messages.
      *
-     * @param target The user/HR to get the outbox for.
-     * @param page   The page number to get (1-indexed).
-     * @return The user's outbox.
+     * @param target the target (user/HR) to get the outbox for.
+     * @param page   the page to get (1-indexed, lower values will return first page).
+     * @return the outbox page for the target as a response model.
      */
-    public List<Message> getOutboxContents(MessageTarget target, int page) {
-        page = Math.max(page - 1, 0);
-        Pageable pageable = PageRequest.of(page, 100, Sort.by("status.sentAt").descending());
-        return messageRepository.findAllBySender(target, pageable);
+    public GetInboxOrOutboxResponseModel getOutbox(MessageTarget target, int page) {
+        List<MailboxEntry> entries = messageRepository.findOutboxPage(target, pageRequest(page));
+        MailboxCounter counters = mailboxCounterService.getCounters(target);
+        return toResponseModel(entries, counters.getOutboxUnread(), counters.getOutboxTotal());
     }
 
     /**
-     * Get the inbox size for a user.
+     * Get the outbox page after a cursor for a user.
+     * The page is found through the index, so its cost does not depend on how deep it is in the outbox.
      *
-     * @param target the user/HR to get the inbox size for.
-     * @return the number of messages in the inbox.
+     * @param target the target (user/HR) to get the outbox for.
+     * @param cursor the cursor returned with the previous page.
+     * @return the outbox page for the target as a response model.
      */
-    public int getInboxSize(MessageTarget target) {
-        return messageRepository.countByReceiver(target);
+    public GetInboxOrOutboxResponseModel getOutbox(MessageTarget target, MailboxCursor cursor) {
+        List<MailboxEntry> entries = messageRepository.findOutboxPageAfter(target, cursor.getSentAt(), cursor.getId(),
+            PageRequest.of(0, PAGE_SIZE));
+        MailboxCounter counters = mailboxCounterService.getCounters(target);
+        return toResponseModel(entries, counters.getOutboxUnread(), counters.getOutboxTotal());
     }
 
     /**
-     * Get the amount of unread messages in the inbox for a user.
+     * Get the headers of the messages on a mailbox page, in one query that does not load the messages.
      *
-     * @param target the user/HR to get the unread inbox size for.
-     * @return the number of unread messages in the inbox.
+     * @param ids the ids of the messages on the page.
+     * @return the headers of the messages that exist, in the order of the ids.
      */
-    public int getUnreadMessagesAmount(MessageTarget target) {
-        return messageRepository.countByReceiverAndStatus_WasRead(target, false);
+    public List<MessageHeaderModel> getHeaders(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, MessageHeader> headers = messageRepository.findHeadersByIdIn(ids).stream()
+            .collect(Collectors.toMap(MessageHeader::getId, Function.identity()));
+        return ids.stream()
+            .map(headers::get)
+            .filter(Objects::nonNull)
+            .map(MessageHeaderModel::new)
+            .collect(Collectors.toList());
     }
 
-    /**
-     * Get the outbox size for a user.
-     *
-     * @param target the user/HR to get the outbox size for.
-     * @return the number of messages in the outbox.
-     */
-    public int getOutboxSize(MessageTarget target) {
-        return messageRepository.countBySender(target);
+    private static Pageable pageRequest(int page) {
+        return PageRequest.of(Math.max(page - 1, 0), PAGE_SIZE);
     }
 
-    /**
-     * Get the amount of messages not read by the recipient in the outbox for a user.
-     *
-     * @param target the user/HR to get the unread outbox size for.
-     * @return the number of messages not read by the recipient in the outbox.
-     */
-    public int getUnreadOutboxMessagesAmount(MessageTarget target) {
-        return messageRepository.countBySenderAndStatus_WasRead(target, false);
+    private static GetInboxOrOutboxResponseModel toResponseModel(List<MailboxEntry> entries, long unreadCount,
+                                                                 long allCount) {
+        int[] readMessages = entries.stream()
+            .filter(entry -> Boolean.TRUE.equals(entry.getWasRead())).mapToInt(MailboxEntry::getId).toArray();
+        int[] unreadMessages = entries.stream()
+            .filter(entry -> !Boolean.TRUE.equals(entry.getWasRead())).mapToInt(MailboxEntry::getId).toArray();
+        GetInboxOrOutboxResponseModel response =
+            new GetInboxOrOutboxResponseModel(unreadMessages, (int) unreadCount, readMessages, (int) allCount);
+        if (entries.size() == PAGE_SIZE) {
+            response.setNextCursor(MailboxCursor.after(entries.get(PAGE_SIZE - 1)).encode());
+        }
+        return response;
     }
 }
@@ -1,12 +1,18 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import javax.persistence.Column;
 import javax.persistence.Convert;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -23,9 +29,11 @@ public class Message {
     /**
      * Identifier for the message.
      * Auto-generated with sequence strategy (1, 2, 3, ...).
+     * Ids are allocated in blocks of 50, so a batch of messages does not query the sequence for every message.
      */
     @Id
     @GeneratedValue(generator = "message_id_seq", strategy = javax.persistence.GenerationType.SEQUENCE)
+    @SequenceGenerator(name = "message_id_seq", sequenceName = "message_id_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private int id;
 
@@ -62,6 +70,14 @@ public class Message {
     @Embedded
     private MessageStatus status;
 
+    /**
+     * The payloads attached to the message.
+     * Lazy, fetched together with the message where they are needed (see MessageRepository#findWithPayloadsById).
+     */
+    @OneToMany(mappedBy = "message", fetch = FetchType.LAZY)
+    @OrderBy("id ASC")
+    private List<MessagePayloadMessage> payloads = new ArrayList<>();
+
     /**
      * Constructor for a message.
      *
@@ -80,6 +96,39 @@ public class Message {
         this.status = new MessageStatus(sentAt);
     }
 
+    /**
+     * Constructor for a message that was sent and read before, restored from the archive.
+     *
+     * @param id          The id of the message.
+     * @param sender      The sender of the message.
+     * @param receiver    The receiver of the message.
+     * @param messageType The type of the message.
+     * @param contents    The contents of the message.
+     * @param status      The sent and read time of the message.
+     */
+    Message(int id, MessageTarget sender, MessageTarget receiver, MessageType messageType, String contents,
+            MessageStatus status) {
+        this.id = id;
+        this.sender = sender;
+        this.receiver = receiver;
+        this.messageType = messageType;
+        this.contents = contents;
+        this.status = status;
+    }
+
+    /**
+     * Copies the message, detached from the database, e.g. to keep it in the message cache.
+     * The copy has its own status, so marking either as read does not change the other. The payloads are shared,
+     * they do not change once the message is sent.
+     *
+     * @return the copy.
+     */
+    Message copy() {
+        Message copy = new Message(id, sender, receiver, messageType, contents, status.copy());
+        copy.payloads.addAll(payloads);
+        return copy;
+    }
+
     /**
      * Marks the message as read.
      * <b> This function should be called only when the receiver opens the message </b>
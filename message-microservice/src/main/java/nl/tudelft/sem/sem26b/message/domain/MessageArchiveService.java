@@ -0,0 +1,110 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service moving read messages out of the message tables into the archive, and retrieving them from there.
+ * <p>
+ * Mailboxes only list the messages in the message tables, so they stay small and fast to sort and count however
+ * long the service runs. Only messages that were read longer ago than the retention age are archived, they are
+ * still retrieved by id (e.g. through links in other messages), but no longer listed or counted in the mailboxes.
+ * </p>
+ */
+@Service
+public class MessageArchiveService {
+
+    private final transient MessageRepository messageRepository;
+    private final transient ArchivedMessageRepository archivedMessageRepository;
+    private final transient MailboxCounterService mailboxCounterService;
+
+    private final transient Duration archiveAfter;
+    private final transient int batchSize;
+
+    /**
+     * Instantiates a new MessageArchiveService.
+     *
+     * @param messageRepository         the message repository.
+     * @param archivedMessageRepository the archived message repository.
+     * @param mailboxCounterService     the service maintaining the message counts of the mailboxes.
+     * @param archiveAfterDays          the number of days after which read messages are archived.
+     * @param batchSize                 the maximum number of messages archived in one transaction.
+     */
+    @Autowired
+    public MessageArchiveService(MessageRepository messageRepository,
+                                 ArchivedMessageRepository archivedMessageRepository,
+                                 MailboxCounterService mailboxCounterService,
+                                 @Value("${message.retention.archive-after-days:90}") long archiveAfterDays,
+                                 @Value("${message.retention.batch-size:500}") int batchSize) {
+        this.messageRepository = messageRepository;
+        this.archivedMessageRepository = archivedMessageRepository;
+        this.mailboxCounterService = mailboxCounterService;
+        this.archiveAfter = Duration.ofDays(archiveAfterDays);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Retrieve an archived message by its id, together with its payloads.
+     *
+     * @param id The id of the message.
+     * @return the message as it was before it was archived (not managed), empty if no such message is archived.
+     */
+    public Optional<Message> retrieveArchivedMessage(int id) {
+        return archivedMessageRepository.findWithPayloadsById(id).map(ArchivedMessage::toMessage);
+    }
+
+    /**
+     * Get the time before which read messages are archived now.
+     *
+     * @return the current time minus the retention age.
+     */
+    public Instant retentionCutoff() {
+        return Instant.now().minus(archiveAfter);
+    }
+
+    /**
+     * Get the maximum number of messages archived in one transaction.
+     *
+     * @return the batch size.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Archive a batch of messages read before a time, oldest read first.
+     * The messages and their payloads are copied into the archive and removed from the message tables, and the
+     * mailbox counts are updated, in one transaction.
+     *
+     * @param readBefore the time (exclusive) before which the messages were read.
+     * @return the number of archived messages, less than the batch size if no messages are left.
+     */
+    @Transactional
+    public int archiveBatch(Instant readBefore) {
+        List<Integer> ids = messageRepository.findIdsReadBefore(readBefore, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> received = toMap(messageRepository.countByReceiverForIds(ids));
+        Map<String, Long> sent = toMap(messageRepository.countBySenderForIds(ids));
+        archivedMessageRepository.archiveMessages(ids, Instant.now());
+        archivedMessageRepository.archivePayloads(ids);
+        messageRepository.deletePayloadsByMessageIds(ids);
+        int archived = messageRepository.deleteByIds(ids);
+        mailboxCounterService.messagesArchived(received, sent);
+        return archived;
+    }
+
+    private static Map<String, Long> toMap(List<MailboxCount> counts) {
+        return counts.stream().collect(Collectors.toMap(count -> count.getMailbox().getNetId(), MailboxCount::getCount));
+    }
+}
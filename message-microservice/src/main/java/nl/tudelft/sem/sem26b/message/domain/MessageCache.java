@@ -0,0 +1,115 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of messages (with their payloads) by id, so opening a message again does not query the database.
+ * <p>
+ * Messages cannot be changed once sent, except for their read status. The cache keeps a detached copy of every
+ * message that is never modified, and hands out a new copy on every hit, so concurrent readers never see a read
+ * status that is being changed. Read status changes replace the cached copy (a single message) or remove the
+ * affected messages (bulk), once the transaction that changed them commits.
+ * </p>
+ * <p>
+ * The cache is bounded in size and messages are evicted a while after they were loaded. Hits and misses are
+ * published as <i>cache.gets</i> with the tag cache=messages, the hit ratio as <i>cache.hit.ratio</i>.
+ * </p>
+ */
+@Component
+public class MessageCache {
+
+    public static final String CACHE_NAME = "messages";
+
+    private final transient Cache<Integer, Message> cache;
+
+    /**
+     * Instantiates a new MessageCache.
+     *
+     * @param meterRegistry the registry to publish the cache statistics to.
+     * @param maximumSize   the maximum number of cached messages.
+     * @param expireAfter   the time after which a cached message is evicted, in seconds since it was loaded.
+     */
+    @Autowired
+    public MessageCache(MeterRegistry meterRegistry,
+                        @Value("${message.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${message.cache.expire-after:600}") long expireAfter) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofSeconds(expireAfter))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", cache, cached -> cached.stats().hitRate())
+            .description("Ratio of cache lookups that were hits")
+            .tag("cache", CACHE_NAME)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Gets a message from the cache, or loads it on a miss.
+     * Messages that do not exist are not cached, they may be sent later.
+     *
+     * @param id     the id of the message.
+     * @param loader loads the message with its payloads, called at most once at a time per id.
+     * @return a copy of the message that may be modified, empty if it does not exist.
+     */
+    public Optional<Message> get(int id, IntFunction<Optional<Message>> loader) {
+        Message cached = cache.get(id, key -> loader.apply(key).map(Message::copy).orElse(null));
+        return Optional.ofNullable(cached).map(Message::copy);
+    }
+
+    /**
+     * Marks a cached message as read, once the current transaction commits.
+     *
+     * @param id     the id of the message.
+     * @param readAt the time the message was read.
+     */
+    public void messageRead(int id, Instant readAt) {
+        afterCommit(() -> cache.asMap().computeIfPresent(id, (key, cached) -> {
+            Message copy = cached.copy();
+            copy.readMessage(readAt);
+            return copy;
+        }));
+    }
+
+    /**
+     * Removes messages from the cache, once the current transaction commits.
+     *
+     * @param ids the ids of the messages.
+     */
+    public void invalidate(Collection<Integer> ids) {
+        afterCommit(() -> cache.invalidateAll(ids));
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or right away outside a transaction.
+     * Messages loaded while the transaction was running still have the old read status, they are replaced or
+     * removed by the action.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
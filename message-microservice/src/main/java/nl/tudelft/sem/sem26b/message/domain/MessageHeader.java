@@ -0,0 +1,44 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.time.Instant;
+
+/**
+ * Projection of the header of a message, everything a mailbox listing shows without loading the entity.
+ */
+public interface MessageHeader {
+
+    /**
+     * ID of the message.
+     */
+    Integer getId();
+
+    /**
+     * The sender of the message.
+     */
+    MessageTarget getSender();
+
+    /**
+     * The receiver of the message.
+     */
+    MessageTarget getReceiver();
+
+    /**
+     * The type of the message.
+     */
+    MessageType getMessageType();
+
+    /**
+     * The start of the contents of the message, at most {@link MessageRepository#PREVIEW_LENGTH} characters.
+     */
+    String getPreview();
+
+    /**
+     * When the message was sent.
+     */
+    Instant getSentAt();
+
+    /**
+     * Whether the message was read by the receiver.
+     */
+    Boolean getWasRead();
+}
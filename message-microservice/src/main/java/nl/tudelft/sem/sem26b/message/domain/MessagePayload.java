@@ -1,7 +1,7 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
-import java.util.Arrays;
 import java.util.Locale;
+import java.util.Set;
 import lombok.Getter;
 
 /**
@@ -28,6 +28,11 @@ public class MessagePayload {
         SICK_LEAVE_MESSAGE_PAYLOAD_TYPE,
     };
 
+    /**
+     * Lookup of the valid message payload types.
+     */
+    private static final Set<String> ALLOWED_PAYLOAD_TYPE_SET = Set.of(ALLOWED_PAYLOAD_TYPES);
+
     /**
      * The type and id of the entity.
      * Getters done by Lombok (the @Getter annotation).
@@ -44,10 +49,20 @@ public class MessagePayload {
      */
     public MessagePayload(String type, long id) {
         type = type.toLowerCase(Locale.ROOT);
-        if (!Arrays.asList(ALLOWED_PAYLOAD_TYPES).contains(type)) {
+        if (!ALLOWED_PAYLOAD_TYPE_SET.contains(type)) {
             throw new IllegalArgumentException("Message payload of type " + type + " not supported.");
         }
         this.type = type;
         this.id = id;
     }
+
+    /**
+     * Check whether a payload type is supported.
+     *
+     * @param type The type of the entity (case-insensitive).
+     * @return true if a payload of the type can be created.
+     */
+    public static boolean isAllowedType(String type) {
+        return type != null && ALLOWED_PAYLOAD_TYPE_SET.contains(type.toLowerCase(Locale.ROOT));
+    }
 }
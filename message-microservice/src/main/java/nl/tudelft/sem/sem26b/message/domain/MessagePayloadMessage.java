@@ -7,6 +7,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,9 +27,12 @@ public class MessagePayloadMessage {
 
     /**
      * ID of the message-payload-message.
+     * Taken from a sequence (not an identity column), so Hibernate can insert the links in JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "message_payload_message_id_seq", strategy = GenerationType.SEQUENCE)
+    @SequenceGenerator(name = "message_payload_message_id_seq", sequenceName = "message_payload_message_id_seq",
+        allocationSize = 50)
     @Column(name = "id", nullable = false)
     private long id;
 
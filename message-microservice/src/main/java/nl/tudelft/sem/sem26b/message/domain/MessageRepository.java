@@ -1,9 +1,16 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -12,65 +19,282 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Integer> {
 
+    /**
+     * Columns of a mailbox page, only the id and read status are needed for the response and the sent time for the
+     * cursor of the next page.
+     */
+    String MAILBOX_ENTRY_COLUMNS = "SELECT m.id AS id, m.status.wasRead AS wasRead, m.status.sentAt AS sentAt "
+        + "FROM Message m ";
+
+    /**
+     * Maximum length of the preview of the contents in a message header.
+     */
+    int PREVIEW_LENGTH = 100;
+
+    /**
+     * Order of an inbox, unread first and then newest first.
+     */
+    String INBOX_ORDER = " ORDER BY m.status.wasRead ASC, m.status.sentAt DESC, m.id DESC";
+
+    /**
+     * Order of an outbox, newest first.
+     */
+    String OUTBOX_ORDER = " ORDER BY m.status.sentAt DESC, m.id DESC";
+
+    /**
+     * Messages after a cursor (sent before it, or at the same time with a lower id).
+     * The first condition alone bounds the index range, the rest skips the messages sent at the same time.
+     */
+    String AFTER_CURSOR = " AND m.status.sentAt <= :sentAt AND (m.status.sentAt < :sentAt OR m.id < :id)";
+
+    /**
+     * The unread messages of an inbox, a condition selecting the messages is appended.
+     * Marking messages as read locks, counts and updates them with the same condition.
+     */
+    String UNREAD_INBOX = "FROM Message m WHERE m.receiver = :receiver AND m.status.wasRead = false ";
+
+    /**
+     * Selects the ids of the unread messages of an inbox, a condition selecting the messages is appended.
+     */
+    String UNREAD_INBOX_IDS = "SELECT m.id " + UNREAD_INBOX;
+
+    /**
+     * Counts the unread messages of an inbox per sender, a condition selecting the messages is appended.
+     */
+    String UNREAD_INBOX_COUNT_BY_SENDER = "SELECT m.sender AS mailbox, COUNT(m) AS count " + UNREAD_INBOX;
+
+    /**
+     * Marks the unread messages of an inbox as read, a condition selecting the messages is appended.
+     */
+    String MARK_UNREAD_INBOX_AS_READ = "UPDATE Message m SET m.status.wasRead = true, m.status.readAt = :readAt "
+        + "WHERE m.receiver = :receiver AND m.status.wasRead = false ";
+
     /**
      * Find message by id.
      */
     Optional<Message> findById(Integer id);
 
     /**
-     * Find all messages sent by a user (outbox) paginated.
+     * Find a message by id together with its payloads, in one query.
      *
-     * @param sender   the sender of the messages.
-     * @param pageable the page to return.
-     * @return a list of messages paginated by the pageable (A page of the outbox).
+     * @param id the id of the message.
+     * @return the message, with its payloads loaded.
      */
-    List<Message> findAllBySender(MessageTarget sender, Pageable pageable);
+    @Query("SELECT DISTINCT m FROM Message m LEFT JOIN FETCH m.payloads WHERE m.id = :id")
+    Optional<Message> findWithPayloadsById(@Param("id") int id);
 
     /**
-     * Count all messages sent by a user (outbox).
+     * Find messages by id together with their payloads, in one query.
      *
-     * @param sender the sender of the messages.
-     * @return the number of messages sent by the user (in the outbox).
+     * @param ids the ids of the messages.
+     * @return the messages that exist, with their payloads loaded, in no particular order.
      */
-    int countBySender(MessageTarget sender);
+    @Query("SELECT DISTINCT m FROM Message m LEFT JOIN FETCH m.payloads WHERE m.id IN :ids")
+    List<Message> findAllWithPayloadsByIdIn(@Param("ids") Collection<Integer> ids);
 
     /**
-     * Count all messages sent by a user (outbox), filtered by whether they were read.
+     * Find the headers of messages by id, without loading the messages themselves.
      *
-     * @param sender the sender of the messages.
-     * @param wasRead whether the messages were read.
-     * @return the number of messages sent by the user (in the outbox) that fit the constraints above.
+     * @param ids the ids of the messages.
+     * @return the headers of the messages that exist, in no particular order.
      */
-    int countBySenderAndStatus_WasRead(MessageTarget sender, boolean wasRead);
+    @Query("SELECT m.id AS id, m.sender AS sender, m.receiver AS receiver, m.messageType AS messageType, "
+        + "SUBSTRING(m.contents, 1, " + PREVIEW_LENGTH + ") AS preview, m.status.sentAt AS sentAt, "
+        + "m.status.wasRead AS wasRead FROM Message m WHERE m.id IN :ids")
+    List<MessageHeader> findHeadersByIdIn(@Param("ids") Collection<Integer> ids);
 
     /**
-     * Count all messages received by a user (inbox).
+     * Find a page of the inbox of a user by its number.
+     * Sorted by whether the messages were read (unread first) and then by when they were sent (newest first).
      *
      * @param receiver the receiver of the messages.
-     * @return the number of messages received by the user (in the inbox).
+     * @param pageable the page to return (unsorted).
+     * @return the messages on the page, empty if the page is beyond the end of the inbox.
      */
-    int countByReceiver(MessageTarget receiver);
+    @Query(MAILBOX_ENTRY_COLUMNS + "WHERE m.receiver = :receiver" + INBOX_ORDER)
+    List<MailboxEntry> findInboxPage(@Param("receiver") MessageTarget receiver, Pageable pageable);
 
     /**
-     * Count all messages received by a user (inbox), filtered by whether they were read.
+     * Find the messages of the inbox of a user after a cursor, with the same read status as the cursor.
+     * Sorted by when they were sent (newest first).
      *
      * @param receiver the receiver of the messages.
-     * @param wasRead whether the messages were read.
-     * @return the number of messages received by the user (in the inbox) that fit the constraints above.
+     * @param wasRead  whether the messages were read.
+     * @param sentAt   when the message of the cursor was sent.
+     * @param id       the id of the message of the cursor.
+     * @param pageable the page size (first page, unsorted).
+     * @return the messages after the cursor.
      */
-    int countByReceiverAndStatus_WasRead(MessageTarget receiver, boolean wasRead);
+    @Query(MAILBOX_ENTRY_COLUMNS + "WHERE m.receiver = :receiver AND m.status.wasRead = :wasRead" + AFTER_CURSOR
+        + INBOX_ORDER)
+    List<MailboxEntry> findInboxPageAfter(@Param("receiver") MessageTarget receiver, @Param("wasRead") boolean wasRead,
+                                          @Param("sentAt") Instant sentAt, @Param("id") int id, Pageable pageable);
 
     /**
-     * Find all messages sent to a user (inbox) paginated.
+     * Find the first read messages of the inbox of a user, the part of the inbox after all unread messages.
+     * Sorted by when they were sent (newest first).
      *
      * @param receiver the receiver of the messages.
-     * @param pageable the page to return.
-     * @return a list of messages paginated by the pageable (A page of the inbox).
+     * @param pageable the page size (first page, unsorted).
+     * @return the read messages.
+     */
+    @Query(MAILBOX_ENTRY_COLUMNS + "WHERE m.receiver = :receiver AND m.status.wasRead = true" + INBOX_ORDER)
+    List<MailboxEntry> findReadInboxPage(@Param("receiver") MessageTarget receiver, Pageable pageable);
+
+    /**
+     * Find a page of the outbox of a user by its number.
+     * Sorted by when the messages were sent (newest first).
+     *
+     * @param sender   the sender of the messages.
+     * @param pageable the page to return (unsorted).
+     * @return the messages on the page, empty if the page is beyond the end of the outbox.
+     */
+    @Query(MAILBOX_ENTRY_COLUMNS + "WHERE m.sender = :sender" + OUTBOX_ORDER)
+    List<MailboxEntry> findOutboxPage(@Param("sender") MessageTarget sender, Pageable pageable);
+
+    /**
+     * Find the messages of the outbox of a user after a cursor.
+     * Sorted by when the messages were sent (newest first).
+     *
+     * @param sender   the sender of the messages.
+     * @param sentAt   when the message of the cursor was sent.
+     * @param id       the id of the message of the cursor.
+     * @param pageable the page size (first page, unsorted).
+     * @return the messages after the cursor.
+     */
+    @Query(MAILBOX_ENTRY_COLUMNS + "WHERE m.sender = :sender" + AFTER_CURSOR + OUTBOX_ORDER)
+    List<MailboxEntry> findOutboxPageAfter(@Param("sender") MessageTarget sender, @Param("sentAt") Instant sentAt,
+                                           @Param("id") int id, Pageable pageable);
+
+    /**
+     * Find the unread messages of an inbox among the given messages, and lock them until the transaction ends.
+     * Messages of other inboxes are left out.
+     *
+     * @param receiver the owner of the inbox.
+     * @param ids      the ids of the messages.
+     * @return the ids of the unread messages.
      */
-    List<Message> findAllByReceiver(MessageTarget receiver, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(UNREAD_INBOX_IDS + "AND m.id IN :ids")
+    List<Integer> findUnreadIdsForUpdate(@Param("receiver") MessageTarget receiver,
+                                         @Param("ids") Collection<Integer> ids);
 
     /**
-     * Check if an existing message already uses an id.
+     * Find the unread messages of an inbox sent before a time, and lock them until the transaction ends.
+     *
+     * @param receiver the owner of the inbox.
+     * @param before   the time (exclusive) before which the messages were sent.
+     * @return the ids of the unread messages.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(UNREAD_INBOX_IDS + "AND m.status.sentAt < :before")
+    List<Integer> findUnreadIdsSentBeforeForUpdate(@Param("receiver") MessageTarget receiver,
+                                                   @Param("before") Instant before);
+
+    /**
+     * Count the unread messages of an inbox among the given messages, per sender.
+     *
+     * @param receiver the owner of the inbox.
+     * @param ids      the ids of the messages.
+     * @return the number of unread messages, per sender.
+     */
+    @Query(UNREAD_INBOX_COUNT_BY_SENDER + "AND m.id IN :ids GROUP BY m.sender")
+    List<MailboxCount> countUnreadBySenderForIds(@Param("receiver") MessageTarget receiver,
+                                                 @Param("ids") Collection<Integer> ids);
+
+    /**
+     * Count the unread messages of an inbox sent before a time, per sender.
+     *
+     * @param receiver the owner of the inbox.
+     * @param before   the time (exclusive) before which the messages were sent.
+     * @return the number of unread messages, per sender.
+     */
+    @Query(UNREAD_INBOX_COUNT_BY_SENDER + "AND m.status.sentAt < :before GROUP BY m.sender")
+    List<MailboxCount> countUnreadBySenderSentBefore(@Param("receiver") MessageTarget receiver,
+                                                     @Param("before") Instant before);
+
+    /**
+     * Mark the unread messages of an inbox among the given messages as read.
+     *
+     * @param receiver the owner of the inbox.
+     * @param ids      the ids of the messages.
+     * @param readAt   the time the messages were read.
+     * @return the number of messages marked as read.
+     */
+    @Modifying
+    @Query(MARK_UNREAD_INBOX_AS_READ + "AND m.id IN :ids")
+    int markAsReadByIds(@Param("receiver") MessageTarget receiver, @Param("ids") Collection<Integer> ids,
+                        @Param("readAt") Instant readAt);
+
+    /**
+     * Mark the unread messages of an inbox sent before a time as read.
+     *
+     * @param receiver the owner of the inbox.
+     * @param before   the time (exclusive) before which the messages were sent.
+     * @param readAt   the time the messages were read.
+     * @return the number of messages marked as read.
+     */
+    @Modifying
+    @Query(MARK_UNREAD_INBOX_AS_READ + "AND m.status.sentAt < :before")
+    int markAsReadSentBefore(@Param("receiver") MessageTarget receiver, @Param("before") Instant before,
+                             @Param("readAt") Instant readAt);
+
+    /**
+     * Find the searchable parts of messages, in the order of their ids, to (re)build the search index.
+     *
+     * @param afterId  the id (exclusive) after which to start, the last id of the previous page.
+     * @param pageable the number of messages (first page, unsorted).
+     * @return the messages.
+     */
+    @Query("SELECT m.id AS id, m.sender AS sender, m.receiver AS receiver, m.messageType AS messageType, "
+        + "m.contents AS contents, m.status.sentAt AS sentAt FROM Message m WHERE m.id > :afterId ORDER BY m.id ASC")
+    List<MessageText> findTextsAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Find messages that were read before a time, oldest read first.
+     *
+     * @param readBefore the time (exclusive) before which the messages were read.
+     * @param pageable   the number of messages (first page, unsorted).
+     * @return the ids of the messages.
+     */
+    @Query("SELECT m.id FROM Message m WHERE m.status.readAt < :readBefore ORDER BY m.status.readAt ASC")
+    List<Integer> findIdsReadBefore(@Param("readBefore") Instant readBefore, Pageable pageable);
+
+    /**
+     * Count messages per receiver.
+     *
+     * @param ids the ids of the messages.
+     * @return the number of messages, per receiver.
+     */
+    @Query("SELECT m.receiver AS mailbox, COUNT(m) AS count FROM Message m WHERE m.id IN :ids GROUP BY m.receiver")
+    List<MailboxCount> countByReceiverForIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Count messages per sender.
+     *
+     * @param ids the ids of the messages.
+     * @return the number of messages, per sender.
+     */
+    @Query("SELECT m.sender AS mailbox, COUNT(m) AS count FROM Message m WHERE m.id IN :ids GROUP BY m.sender")
+    List<MailboxCount> countBySenderForIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Delete the payload links of messages.
+     *
+     * @param ids the ids of the messages.
+     * @return the number of deleted links.
+     */
+    @Modifying
+    @Query("DELETE FROM MessagePayloadMessage p WHERE p.message.id IN :ids")
+    int deletePayloadsByMessageIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Delete messages, their payload links must be deleted first.
+     *
+     * @param ids the ids of the messages.
+     * @return the number of deleted messages.
      */
-    boolean existsById(Integer id);
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Integer> ids);
 }
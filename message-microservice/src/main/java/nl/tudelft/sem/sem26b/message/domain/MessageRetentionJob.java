@@ -0,0 +1,54 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job archiving the messages that were read longer ago than the retention age.
+ * Messages are archived in batches of their own transaction, so the message tables are never locked for long.
+ * A run can take a while, the scheduler has a thread per job (<i>spring.task.scheduling.pool.size</i>) so the other
+ * scheduled jobs keep running meanwhile.
+ */
+@Slf4j
+@Component
+public class MessageRetentionJob {
+
+    private final transient MessageArchiveService archiveService;
+
+    /**
+     * Instantiates a new MessageRetentionJob.
+     *
+     * @param archiveService the service archiving the messages.
+     */
+    @Autowired
+    public MessageRetentionJob(MessageArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * Archive all messages read before the retention age.
+     */
+    @Scheduled(fixedDelayString = "${message.retention.interval:3600000}",
+        initialDelayString = "${message.retention.initial-delay:60000}")
+    public void archiveReadMessages() {
+        Instant readBefore = archiveService.retentionCutoff();
+        int total = 0;
+        try {
+            int archived;
+            do {
+                archived = archiveService.archiveBatch(readBefore);
+                total += archived;
+            } while (archived == archiveService.getBatchSize());
+        } catch (DataAccessException e) {
+            // E.g. another instance archived the same messages, the next run continues
+            log.warn("Archiving messages failed after {} messages", total, e);
+        }
+        if (total > 0) {
+            log.info("Archived {} messages read before {}", total, readBefore);
+        }
+    }
+}
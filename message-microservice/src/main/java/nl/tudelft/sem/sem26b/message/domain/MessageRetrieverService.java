@@ -1,10 +1,23 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import nl.tudelft.sem.sem26b.message.authentication.AuthManager;
 import nl.tudelft.sem.sem26b.message.models.GetMessageResponseModel;
+import nl.tudelft.sem.sem26b.message.models.MarkReadRequestModel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Service responsible for retrieving messages.
@@ -15,61 +28,176 @@ public class MessageRetrieverService {
     private final transient MessageRepository messageRepository;
     private final transient MessageValidator validator;
     private final transient AuthManager authManager;
+    private final transient MailboxCounterService mailboxCounterService;
+    private final transient ApplicationEventPublisher eventPublisher;
+    private final transient MessageArchiveService archiveService;
+    private final transient MessageCache messageCache;
+    private final transient ReadReceiptBuffer readReceipts;
+
+    /**
+     * Maximum number of messages that can be marked as read by id at once.
+     */
+    public static final int MAX_MARK_READ_IDS = 1000;
 
 
     /**
      * Instantiates a new MessageRetrieverService.
      *
-     * @param messageRepository the message repository.
-     * @param validator         the validator responsible for authorisation and validation.
-     * @param authManager       the authentication manager responsible for retrieving details about token holder.
+     * @param messageRepository     the message repository.
+     * @param validator             the validator responsible for authorisation and validation.
+     * @param authManager           the authentication manager responsible for retrieving details about token holder.
+     * @param mailboxCounterService the service maintaining the message counts of the mailboxes.
+     * @param eventPublisher        the publisher notifying subscribers of the receiver's mailbox.
+     * @param archiveService        the service retrieving archived messages.
+     * @param messageCache          the cache of messages by id.
+     * @param readReceipts          the buffer writing the times messages were opened.
      */
     @Autowired
     public MessageRetrieverService(MessageRepository messageRepository, MessageValidator validator,
-                                   AuthManager authManager) {
+                                   AuthManager authManager, MailboxCounterService mailboxCounterService,
+                                   ApplicationEventPublisher eventPublisher, MessageArchiveService archiveService,
+                                   MessageCache messageCache, ReadReceiptBuffer readReceipts) {
         this.messageRepository = messageRepository;
         this.validator = validator;
         this.authManager = authManager;
+        this.mailboxCounterService = mailboxCounterService;
+        this.eventPublisher = eventPublisher;
+        this.archiveService = archiveService;
+        this.messageCache = messageCache;
+        this.readReceipts = readReceipts;
     }
 
     /**
-     * Retrieve a message by its id.
+     * Retrieve a message by its id, together with its payloads.
+     * Messages that were archived are retrieved from the archive. Messages are cached, see {@link MessageCache}.
      *
      * @param id The id of the message to retrieve.
-     * @return The message with the given id or null if no such message exists.
+     * @return The message with the given id (detached) or null if no such message exists.
      */
     public Message retrieveMessageById(int id) {
-        return messageRepository.findById(id).orElse(null);
+        return messageCache.get(id, key -> messageRepository.findWithPayloadsById(key)
+                .or(() -> archiveService.retrieveArchivedMessage(key)))
+            .orElse(null);
+    }
+
+    /**
+     * Retrieve messages with their payloads, in one query.
+     *
+     * @param ids The ids of the messages to retrieve.
+     * @return The messages that exist, in the order of the ids.
+     */
+    public List<Message> retrieveMessagesByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Message> messages = messageRepository.findAllWithPayloadsByIdIn(ids).stream()
+            .collect(Collectors.toMap(Message::getId, Function.identity()));
+        return ids.stream().map(messages::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     /**
      * Open a message if token bearer is the receiver.
+     * The message is marked as read right away, in the database it is marked by the next flush of the read receipts.
      *
      * @param message The message to open.
+     * @return true if the message was unread and is marked as read now.
      */
-    public void openMessageIfApplicable(Message message) {
+    public boolean openMessageIfApplicable(Message message) {
         if (message.getReceiver().isHr()) {
             //if message is for hr, check if user is hr
-            if (validator.hasHrPermission()) {
-                markMessageAsRead(message);
-            }
-        } else {
-            //if message is for user, check if user is receiver
-            if (message.getReceiver().equals(new MessageTarget(authManager.getNetId()))) {
-                markMessageAsRead(message);
-            }
+            return validator.hasHrPermission() && markMessageAsRead(message);
         }
+        //if message is for user, check if user is receiver
+        return message.getReceiver().getNetId().equals(authManager.getNetId()) && markMessageAsRead(message);
     }
 
     /**
      * Mark a message as read.
      * set the read time to the current time (if not already read).
+     * The read receipt is buffered, see {@link ReadReceiptBuffer}. When the message is opened again before the receipt
+     * is written, it keeps the time it was first opened.
      *
      * @param message The message to mark as read.
+     * @return true if the message was unread.
+     */
+    private boolean markMessageAsRead(Message message) {
+        if (message.getStatus().isWasRead()) {
+            return false;
+        }
+        Instant readAt = readReceipts.messageRead(message, readTime());
+        message.readMessage(readAt);
+        messageCache.messageRead(message.getId(), readAt);
+        return true;
+    }
+
+    /**
+     * Mark messages of an inbox as read, either the given messages or all messages sent before a time, with one UPDATE.
+     * Messages that were read already or are not in the inbox are skipped. The unread messages are locked first, then
+     * counted per sender and updated with the same condition, so the counters are updated exactly for the messages
+     * this call marked as read.
+     * This function does not check, if the user may read the inbox.
+     *
+     * @param receiver The owner of the inbox.
+     * @param request  The ids of the messages, or the time before which they were sent.
+     * @return The number of messages marked as read.
+     * @throws ResponseStatusException if not exactly one of ids and before is given, there are too many ids or the
+     *                                 time is invalid. Exception will cause a 400 Bad Request response.
+     */
+    @Transactional
+    public int markMessagesAsRead(MessageTarget receiver, MarkReadRequestModel request) {
+        List<Integer> ids = request.getIds();
+        if ((ids == null) == (request.getBefore() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either ids or before must be given");
+        }
+        if (ids != null && (ids.isEmpty() || ids.size() > MAX_MARK_READ_IDS)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Between 1 and " + MAX_MARK_READ_IDS + " ids can be marked as read at once");
+        }
+        Instant now = readTime();
+        List<Integer> unread;
+        List<MailboxCount> counts;
+        int read;
+        if (ids != null) {
+            unread = messageRepository.findUnreadIdsForUpdate(receiver, ids);
+            if (unread.isEmpty()) {
+                return 0;
+            }
+            counts = messageRepository.countUnreadBySenderForIds(receiver, ids);
+            read = messageRepository.markAsReadByIds(receiver, ids, now);
+        } else {
+            // Messages sent while this call runs are not marked, they were not in the inbox when it was emptied
+            Instant requested = parseTime(request.getBefore());
+            Instant before = requested.isBefore(now) ? requested : now;
+            unread = messageRepository.findUnreadIdsSentBeforeForUpdate(receiver, before);
+            if (unread.isEmpty()) {
+                return 0;
+            }
+            counts = messageRepository.countUnreadBySenderSentBefore(receiver, before);
+            read = messageRepository.markAsReadSentBefore(receiver, before, now);
+        }
+        messageCache.invalidate(unread);
+        Map<String, Long> perSender = new HashMap<>();
+        counts.forEach(count -> perSender.merge(count.getMailbox().getNetId(), count.getCount(), Long::sum));
+        mailboxCounterService.messagesRead(receiver, perSender);
+        eventPublisher.publishEvent(new MessagesReadEvent(receiver, read));
+        return read;
+    }
+
+    /**
+     * Gets the current time at the precision of the database, so the time can be compared to the stored read times.
+     *
+     * @return the current time.
      */
-    private void markMessageAsRead(Message message) {
-        message.readMessage(Instant.now());
-        messageRepository.save(message);
+    private static Instant readTime() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static Instant parseTime(String time) {
+        try {
+            return Instant.parse(time);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid time: " + time, e);
+        }
     }
 
     /**
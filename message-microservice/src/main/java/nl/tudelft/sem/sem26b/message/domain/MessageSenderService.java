@@ -1,11 +1,16 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 import nl.tudelft.sem.sem26b.message.authentication.AuthManager;
 import nl.tudelft.sem.sem26b.message.models.PostMessageRequestModel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -18,26 +23,42 @@ public class MessageSenderService {
     private final transient MessageValidator validator;
     private final transient MessageTypeAttributeConverter messageTypeAttributeConverter;
     private final transient AuthManager authManager;
+    private final transient PayloadService payloadService;
+    private final transient MailboxCounterService mailboxCounterService;
+    private final transient ApplicationEventPublisher eventPublisher;
 
     /**
      * Maximum allowed length of a message.
      */
     private static final int MAX_MSG_LEN = 2000;
 
+    /**
+     * Maximum number of messages that can be sent in one batch.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
     /**
      * Instantiates a new MessageSenderService.
      *
-     * @param messageRepository the message repository.
-     * @param validator         the validator responsible for validating messages.
-     * @param authManager       the authentication manager responsible for retrieving details about token holder.
+     * @param messageRepository     the message repository.
+     * @param validator             the validator responsible for validating messages.
+     * @param authManager           the authentication manager responsible for retrieving details about token holder.
+     * @param payloadService        the service responsible for attaching payloads to messages.
+     * @param mailboxCounterService the service maintaining the message counts of the mailboxes.
+     * @param eventPublisher        the publisher notifying subscribers of the receivers' mailboxes.
      */
     @Autowired
     public MessageSenderService(MessageRepository messageRepository, MessageValidator validator,
-                                AuthManager authManager) {
+                                AuthManager authManager, PayloadService payloadService,
+                                MailboxCounterService mailboxCounterService,
+                                ApplicationEventPublisher eventPublisher) {
         this.messageRepository = messageRepository;
         this.validator = validator;
         this.messageTypeAttributeConverter = new MessageTypeAttributeConverter();
         this.authManager = authManager;
+        this.payloadService = payloadService;
+        this.mailboxCounterService = mailboxCounterService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -50,11 +71,50 @@ public class MessageSenderService {
      * @throws ResponseStatusException if the message/payload is invalid.
      *                                 Exception will cause a 400 Bad Request response.
      */
+    @Transactional
     public Message postMessage(PostMessageRequestModel payload, boolean sendAsHr) {
         String senderId = authManager.getNetId();
         Message message = parseMessage(payload, sendAsHr, senderId);
         validator.checkMessageIsValid(message);
-        return messageRepository.save(message);
+        Message sent = messageRepository.save(message);
+        mailboxCounterService.messagesSent(List.of(sent));
+        eventPublisher.publishEvent(new MessagesSentEvent(List.of(sent)));
+        return sent;
+    }
+
+    /**
+     * Parses and validates a batch of messages, then sends them together with their payloads.
+     * All messages are validated before any is stored, and the messages and payloads are inserted in JDBC batches
+     * within one transaction, so either the whole batch is sent or none of it.
+     * This function does not check, if the user has HR authorization.
+     *
+     * @param payloads The request bodies to parse.
+     * @param sendAsHr Whether the messages are sent from HR.
+     * @return The messages that were sent, in the order of the requests.
+     * @throws ResponseStatusException if the batch is empty or too large, or any message/payload is invalid.
+     *                                 Exception will cause a 400 Bad Request response.
+     */
+    @Transactional
+    public List<Message> postMessages(List<PostMessageRequestModel> payloads, boolean sendAsHr) {
+        if (payloads == null || payloads.isEmpty() || payloads.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "A batch must contain between 1 and " + MAX_BATCH_SIZE + " messages");
+        }
+        String senderId = authManager.getNetId();
+        List<Message> messages = new ArrayList<>(payloads.size());
+        for (PostMessageRequestModel payload : payloads) {
+            Message message = parseMessage(payload, sendAsHr, senderId);
+            validator.checkMessageIsValid(message);
+            messages.add(message);
+        }
+        List<Message> sent = messageRepository.saveAll(messages);
+        mailboxCounterService.messagesSent(sent);
+        List<List<MessagePayload>> messagePayloads = payloads.stream()
+            .map(payload -> payload.getPayload() == null ? List.<MessagePayload>of() : payload.getPayload())
+            .collect(Collectors.toList());
+        payloadService.attachMessagePayloadLists(sent, messagePayloads);
+        eventPublisher.publishEvent(new MessagesSentEvent(sent));
+        return sent;
     }
 
     /**
@@ -69,6 +129,9 @@ public class MessageSenderService {
      */
     private Message parseMessage(PostMessageRequestModel payload, boolean sendAsHr, String senderId) {
 
+        if (payload.getTo() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Message has no receiver");
+        }
         if (payload.getContents().length() > MAX_MSG_LEN) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                 "Message too long, maximum allowed length: " + MAX_MSG_LEN + " characters");
@@ -77,8 +140,8 @@ public class MessageSenderService {
         Instant now = Instant.now();
 
         return new Message(
-            new MessageTarget(sendAsHr ? MessageTarget.HR_TARGET_LABEL : senderId),
-            new MessageTarget(payload.getTo()),
+            sendAsHr ? MessageTarget.HR : MessageTarget.of(senderId),
+            MessageTarget.of(payload.getTo()),
             messageTypeAttributeConverter.convertToEntityAttribute(payload.getType()),
             payload.getContents(),
             now
@@ -20,6 +20,18 @@ public class MessageStatus {
         this.sentAt = sentAt;
     }
 
+    /**
+     * Constructor for the MessageStatus of a message that was read.
+     *
+     * @param sentAt the timestamp representing when the message was sent.
+     * @param readAt the timestamp representing when the message was read.
+     */
+    MessageStatus(Instant sentAt, Instant readAt) {
+        this.sentAt = sentAt;
+        this.readAt = readAt;
+        this.wasRead = true;
+    }
+
     /**
      * Time the message was sent.
      */
@@ -39,6 +51,15 @@ public class MessageStatus {
     @Column(name = "was_read", nullable = false)
     private boolean wasRead = false;
 
+    /**
+     * Copies the status.
+     *
+     * @return a status with the same sent and read time.
+     */
+    MessageStatus copy() {
+        return wasRead ? new MessageStatus(sentAt, readAt) : new MessageStatus(sentAt);
+    }
+
     /**
      * Marks the message as read.
      *
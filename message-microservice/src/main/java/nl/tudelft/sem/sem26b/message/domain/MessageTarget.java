@@ -1,18 +1,46 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 /**
  * Used to store the message target.
  * It can be either an AppUser or anyone from HR
+ * <p>
+ * Targets are immutable and only created through {@link #of(String)}, so every message loaded from the database
+ * shares the same instance per NetID instead of allocating two new ones. Interned targets are held weakly and
+ * dropped once no message refers to them anymore.
+ * </p>
  */
 public class MessageTarget {
 
     private final transient String id;
     public static final String HR_TARGET_LABEL = "HR";
 
-    public MessageTarget(String id) {
+    /**
+     * The canonical HR target.
+     */
+    public static final MessageTarget HR = new MessageTarget(HR_TARGET_LABEL);
+
+    private static final Cache<String, MessageTarget> INTERNED = Caffeine.newBuilder().weakValues().build();
+
+    private MessageTarget(String id) {
         this.id = id;
     }
 
+    /**
+     * Gets the canonical target of a NetID (or "HR").
+     *
+     * @param id the NetID, or "HR".
+     * @return the shared instance.
+     */
+    public static MessageTarget of(String id) {
+        if (HR_TARGET_LABEL.equals(id)) {
+            return HR;
+        }
+        return INTERNED.get(id, MessageTarget::new);
+    }
+
     public String getNetId() {
         return id;
     }
@@ -34,6 +62,9 @@ public class MessageTarget {
      */
     @Override
     public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
         if (other == null) {
             return false;
         }
@@ -23,12 +23,13 @@ public class MessageTargetAttributeConverter implements AttributeConverter<Messa
 
     /**
      * Convert String to a MessageTarget.
+     * The same instance is returned for every row of the same target, see {@link MessageTarget#of(String)}.
      *
-     * @param dbData the Integer to convert
-     * @return the converted MessageTarget
+     * @param dbData the String to convert
+     * @return the converted MessageTarget, null if dbData is null
      */
     @Override
     public MessageTarget convertToEntityAttribute(String dbData) {
-        return new MessageTarget(dbData);
+        return dbData == null ? null : MessageTarget.of(dbData);
     }
 }
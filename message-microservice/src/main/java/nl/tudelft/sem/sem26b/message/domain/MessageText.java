@@ -0,0 +1,79 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.time.Instant;
+
+/**
+ * Projection of the searchable parts of a message, indexed for the message search.
+ */
+public interface MessageText {
+
+    /**
+     * ID of the message.
+     */
+    Integer getId();
+
+    /**
+     * The sender of the message.
+     */
+    MessageTarget getSender();
+
+    /**
+     * The receiver of the message.
+     */
+    MessageTarget getReceiver();
+
+    /**
+     * The type of the message.
+     */
+    MessageType getMessageType();
+
+    /**
+     * Contents of the message.
+     */
+    String getContents();
+
+    /**
+     * When the message was sent.
+     */
+    Instant getSentAt();
+
+    /**
+     * Gets the searchable parts of a message.
+     *
+     * @param message the message.
+     * @return a view of the message.
+     */
+    static MessageText of(Message message) {
+        return new MessageText() {
+            @Override
+            public Integer getId() {
+                return message.getId();
+            }
+
+            @Override
+            public MessageTarget getSender() {
+                return message.getSender();
+            }
+
+            @Override
+            public MessageTarget getReceiver() {
+                return message.getReceiver();
+            }
+
+            @Override
+            public MessageType getMessageType() {
+                return message.getMessageType();
+            }
+
+            @Override
+            public String getContents() {
+                return message.getContents();
+            }
+
+            @Override
+            public Instant getSentAt() {
+                return message.getStatus().getSentAt();
+            }
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
@@ -15,8 +18,13 @@ public class MessageTypeAttributeConverter implements AttributeConverter<Message
      */
     private static final Map<MessageType, String> messageEnumToStringMap;
 
+    /**
+     * Reverse of messageEnumToStringMap, keyed by the lower case String, so a row is converted with one lookup.
+     */
+    private static final Map<String, MessageType> messageStringToEnumMap;
+
     static {
-        messageEnumToStringMap = Map.of(
+        messageEnumToStringMap = new EnumMap<>(Map.of(
             MessageType.CONTRACT_PROPOSE, "contr-prop",
             MessageType.CONTRACT_APPROVE, "contr-appr",
             MessageType.CONTRACT_TERMINATE, "contr-term",
@@ -25,7 +33,9 @@ public class MessageTypeAttributeConverter implements AttributeConverter<Message
             MessageType.LEAVE_REQUEST, "leave-req",
             MessageType.LEAVE_APPROVE, "leave-appr",
             MessageType.OTHER, "other"
-        );
+        ));
+        messageStringToEnumMap = new HashMap<>();
+        messageEnumToStringMap.forEach((type, string) -> messageStringToEnumMap.put(string, type));
     }
 
     /**
@@ -42,17 +52,14 @@ public class MessageTypeAttributeConverter implements AttributeConverter<Message
      */
     @Override
     public MessageType convertToEntityAttribute(String dbData) {
-        return messageEnumToStringMap
-            .entrySet()
-            .stream()
-            .filter(entry -> entry.getValue().equalsIgnoreCase(dbData))
-            .map(Map.Entry::getKey)
-            .findAny()
-            .orElse(MessageType.OTHER);
+        if (dbData == null) {
+            return MessageType.OTHER;
+        }
+        MessageType messageType = messageStringToEnumMap.get(dbData);
+        if (messageType == null) {
+            // Stored values are lower case, other spellings only come from requests
+            messageType = messageStringToEnumMap.get(dbData.toLowerCase(Locale.ROOT));
+        }
+        return messageType == null ? MessageType.OTHER : messageType;
     }
 }
-
-
-
-
-
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
 import java.util.Map;
+import java.util.Optional;
 import nl.tudelft.sem.sem26b.message.authentication.AuthManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -119,6 +120,19 @@ public class MessageValidator {
     }
 
 
+    /**
+     * Checks if the token bearer owns the mailbox of the given user, only the owner marks messages as read.
+     *
+     * @param netId The NetID of the user whose mailbox to check.
+     * @throws ResponseStatusException if the token bearer is not the owner of the mailbox.
+     *                                 Exception will cause a 401 Unauthorized response.
+     */
+    public void checkMailboxOwner(String netId) {
+        if (!authManager.getNetId().equals(netId)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, MAILBOX_AUTHORIZATION_FAILED_MESSAGE);
+        }
+    }
+
     /**
      * Check if the token bearer can access a mailbox of the given user.
      *
@@ -147,6 +161,19 @@ public class MessageValidator {
         }
     }
 
+    /**
+     * Gets the mailbox of the messages the token bearer can access, see {@link #hasReadPermission(Message)}.
+     *
+     * @return empty if the token bearer is HR and can access all messages, otherwise the token bearer, who can access
+     *     the messages they sent or received.
+     */
+    public Optional<MessageTarget> readableMailbox() {
+        if (hasHrPermission()) {
+            return Optional.empty();
+        }
+        return Optional.of(MessageTarget.of(authManager.getNetId()));
+    }
+
     /**
      * Check if the token bearer can access the message.
      * Token bearer must be the HR, sender or receiver of the message to be able to access it.
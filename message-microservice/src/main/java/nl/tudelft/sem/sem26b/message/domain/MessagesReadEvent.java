@@ -0,0 +1,32 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import lombok.Getter;
+
+/**
+ * Published when messages of an inbox were read by the receiver for the first time, delivered to listeners once the
+ * transaction that marked them commits.
+ */
+@Getter
+public class MessagesReadEvent {
+
+    /**
+     * The owner of the inbox.
+     */
+    private final MessageTarget receiver;
+
+    /**
+     * The number of messages that were read.
+     */
+    private final int count;
+
+    /**
+     * Constructor for MessagesReadEvent.
+     *
+     * @param receiver The owner of the inbox.
+     * @param count    The number of messages that were read.
+     */
+    public MessagesReadEvent(MessageTarget receiver, int count) {
+        this.receiver = receiver;
+        this.count = count;
+    }
+}
@@ -0,0 +1,25 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Published when messages were sent, delivered to listeners once the transaction that saved them commits.
+ */
+@Getter
+public class MessagesSentEvent {
+
+    /**
+     * The messages that were sent.
+     */
+    private final List<Message> messages;
+
+    /**
+     * Constructor for MessagesSentEvent.
+     *
+     * @param messages The messages that were sent.
+     */
+    public MessagesSentEvent(List<Message> messages) {
+        this.messages = messages;
+    }
+}
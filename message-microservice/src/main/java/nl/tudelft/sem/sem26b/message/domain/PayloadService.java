@@ -1,7 +1,7 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -36,6 +36,24 @@ public class PayloadService {
         }
     }
 
+    /**
+     * Attach the payloads of a batch of messages, the links are inserted together.
+     *
+     * @param messages           The messages to attach the payloads to.
+     * @param messagePayloadList The list of payloads of every message, in the same order as the messages.
+     */
+    public void attachMessagePayloadLists(List<Message> messages, List<List<MessagePayload>> messagePayloadList) {
+        List<MessagePayloadMessage> links = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            for (MessagePayload messagePayload : messagePayloadList.get(i)) {
+                links.add(createLink(messages.get(i), messagePayload));
+            }
+        }
+        if (!links.isEmpty()) {
+            messagePayloadMessageRepository.saveAll(links);
+        }
+    }
+
     /**
      * Attach a payload to a message.
      *
@@ -43,35 +61,33 @@ public class PayloadService {
      * @param payload The payload to attach.
      */
     public MessagePayloadMessage attachPayload(Message message, MessagePayload payload) {
+        MessagePayloadMessage messagePayloadMessage = createLink(message, payload);
+        messagePayloadMessageRepository.save(messagePayloadMessage);
+        return messagePayloadMessage;
+    }
+
+    private MessagePayloadMessage createLink(Message message, MessagePayload payload) {
         MessagePayloadMessage messagePayloadMessage = new MessagePayloadMessage();
         messagePayloadMessage.setMessage(message);
         messagePayloadMessage.setPayloadId(payload.getId());
         messagePayloadMessage.setType(payload.getType());
-        messagePayloadMessageRepository.save(messagePayloadMessage);
         return messagePayloadMessage;
     }
 
     /**
      * Get a list of payloads attached to a message.
+     * The payloads are read from the message, load it with its payloads to avoid a query per message.
+     * Payloads of a type that is no longer supported are skipped.
      *
      * @param message The message to get the payloads from.
      * @return The list of payloads attached to the message.
      */
     public List<MessagePayload> getMessagePayload(Message message) {
-        List<MessagePayloadMessage> messagePayloadMessages = getPayloadsForMessage(message);
-        return messagePayloadMessages.stream()
-            .map(
-                messagePayloadMessage -> {
-                    try {
-                        return new MessagePayload(
-                            messagePayloadMessage.getType(),
-                            messagePayloadMessage.getPayloadId()
-                        );
-                    } catch (Exception e) {
-                        return null;
-                    }
-                }
-            ).filter(Objects::nonNull).collect(Collectors.toList());
+        return message.getPayloads().stream()
+            .filter(messagePayloadMessage -> MessagePayload.isAllowedType(messagePayloadMessage.getType()))
+            .map(messagePayloadMessage ->
+                new MessagePayload(messagePayloadMessage.getType(), messagePayloadMessage.getPayloadId()))
+            .collect(Collectors.toList());
     }
 
 
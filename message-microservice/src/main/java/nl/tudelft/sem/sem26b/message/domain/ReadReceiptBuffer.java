@@ -0,0 +1,225 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Buffer of read receipts: messages opened by their receiver that are not marked as read in the database yet.
+ * <p>
+ * Opening a message only records the time it was read here, so retrieving a message does not write to the database.
+ * Receipts are coalesced per message (the first time it was opened counts) and written in one transaction, as a
+ * batch of UPDATE statements, every flush interval or as soon as the buffer holds flush-size receipts. Messages that
+ * were marked as read in the meantime (e.g. by a bulk mark-as-read) are skipped, so they are counted only once in
+ * the mailbox counters.
+ * </p>
+ * <p>
+ * Receipts that could not be written are kept and written with the next flush. The buffer is flushed when the
+ * service shuts down, only receipts recorded since the last flush are lost if the service is killed.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ReadReceiptBuffer {
+
+    /**
+     * Marks a single message as read, unless it was read already.
+     */
+    static final String MARK_AS_READ_SQL =
+        "UPDATE message SET was_read = TRUE, read_at = ? WHERE id = ? AND was_read = FALSE";
+
+    private final transient JdbcTemplate jdbcTemplate;
+    private final transient TransactionOperations transactionOperations;
+    private final transient MailboxCounterService mailboxCounterService;
+    private final transient ApplicationEventPublisher eventPublisher;
+
+    private final transient Executor flushExecutor;
+
+    private final transient int flushSize;
+
+    private final transient Map<Integer, ReadReceipt> pending = new ConcurrentHashMap<>();
+
+    private final transient AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /**
+     * Instantiates a new ReadReceiptBuffer.
+     *
+     * @param jdbcTemplate          the template executing the batched updates.
+     * @param transactionManager    the transaction manager, receipts are written and counted in one transaction.
+     * @param mailboxCounterService the service maintaining the message counts of the mailboxes.
+     * @param eventPublisher        the publisher notifying subscribers of the receivers' mailboxes.
+     * @param flushSize             the number of buffered receipts after which they are written right away.
+     */
+    @Autowired
+    public ReadReceiptBuffer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             MailboxCounterService mailboxCounterService, ApplicationEventPublisher eventPublisher,
+                             @Value("${message.read-receipts.flush-size:500}") int flushSize) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), mailboxCounterService, eventPublisher,
+            newFlushExecutor(), flushSize);
+    }
+
+    /**
+     * Instantiates a new ReadReceiptBuffer with the given transactions and executor for the flushes.
+     *
+     * @param jdbcTemplate          the template executing the batched updates.
+     * @param transactionOperations runs the flushes in a transaction.
+     * @param mailboxCounterService the service maintaining the message counts of the mailboxes.
+     * @param eventPublisher        the publisher notifying subscribers of the receivers' mailboxes.
+     * @param flushExecutor         the executor of the flushes triggered by the size of the buffer.
+     * @param flushSize             the number of buffered receipts after which they are written right away.
+     */
+    ReadReceiptBuffer(JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations,
+                      MailboxCounterService mailboxCounterService, ApplicationEventPublisher eventPublisher,
+                      Executor flushExecutor, int flushSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.mailboxCounterService = mailboxCounterService;
+        this.eventPublisher = eventPublisher;
+        this.flushExecutor = flushExecutor;
+        this.flushSize = flushSize;
+    }
+
+    /**
+     * Records that the receiver opened a message.
+     *
+     * @param message the message, not read yet.
+     * @param readAt  the time the message was opened.
+     * @return the time the message was read: readAt, or the time of an earlier receipt that was not written yet.
+     */
+    public Instant messageRead(Message message, Instant readAt) {
+        ReadReceipt receipt = new ReadReceipt(message, readAt);
+        ReadReceipt earlier = pending.putIfAbsent(receipt.id, receipt);
+        if (earlier != null) {
+            return earlier.readAt;
+        }
+        if (pending.size() >= flushSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    flushRequested.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the buffer is flushed on close
+                flushRequested.set(false);
+            }
+        }
+        return readAt;
+    }
+
+    /**
+     * Gets the number of receipts that are not written yet.
+     *
+     * @return the number of buffered receipts.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the buffered receipts and counts the messages as read in the mailbox counters.
+     *
+     * @return the number of messages marked as read, receipts of messages that were read already are not counted.
+     */
+    @Scheduled(fixedDelayString = "${message.read-receipts.flush-interval:500}")
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<ReadReceipt> receipts = new ArrayList<>(pending.values());
+        try {
+            Integer read = transactionOperations.execute(status -> write(receipts));
+            // Receipts recorded for the same messages meanwhile were coalesced into these, and are written as well
+            receipts.forEach(receipt -> pending.remove(receipt.id, receipt));
+            return read == null ? 0 : read;
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Writing {} read receipts failed, retrying with the next flush", receipts.size(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Writes the buffered receipts before the service stops.
+     */
+    @PreDestroy
+    public void close() {
+        if (flushExecutor instanceof ExecutorService) {
+            ((ExecutorService) flushExecutor).shutdown();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("{} read receipts could not be written, the messages stay unread", pending.size());
+        }
+    }
+
+    private int write(List<ReadReceipt> receipts) {
+        List<Object[]> arguments = new ArrayList<>(receipts.size());
+        for (ReadReceipt receipt : receipts) {
+            arguments.add(new Object[]{Timestamp.from(receipt.readAt), receipt.id});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(MARK_AS_READ_SQL, arguments);
+        Map<MessageTarget, Map<String, Long>> perReceiver = new HashMap<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                ReadReceipt receipt = receipts.get(i);
+                perReceiver.computeIfAbsent(receipt.receiver, receiver -> new HashMap<>())
+                    .merge(receipt.sender, 1L, Long::sum);
+            }
+        }
+        int read = 0;
+        for (Map.Entry<MessageTarget, Map<String, Long>> inbox : perReceiver.entrySet()) {
+            int count = inbox.getValue().values().stream().mapToInt(Long::intValue).sum();
+            mailboxCounterService.messagesRead(inbox.getKey(), inbox.getValue());
+            eventPublisher.publishEvent(new MessagesReadEvent(inbox.getKey(), count));
+            read += count;
+        }
+        return read;
+    }
+
+    private static ExecutorService newFlushExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-receipts-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The time a message was opened by its receiver.
+     */
+    private static final class ReadReceipt {
+
+        private final int id;
+        private final MessageTarget receiver;
+        private final String sender;
+        private final Instant readAt;
+
+        ReadReceipt(Message message, Instant readAt) {
+            this.id = message.getId();
+            this.receiver = message.getReceiver();
+            this.sender = message.getSender().getNetId();
+            this.readAt = readAt;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package nl.tudelft.sem.sem26b.message.events;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * An event waiting to be written to a subscriber.
+ * <p>
+ * Only the name and data are shared between the subscribers of a mailbox. Building an SSE event modifies the builder,
+ * so every subscriber builds its own when the event is written.
+ * </p>
+ */
+final class MailboxEvent {
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final String name;
+
+    private final Object data;
+
+    private MailboxEvent(String name, Object data) {
+        this.name = name;
+        this.data = data;
+    }
+
+    /**
+     * Creates an event.
+     *
+     * @param name the name of the event.
+     * @param data the data of the event, serialized as JSON.
+     * @return the event.
+     */
+    static MailboxEvent of(String name, Object data) {
+        return new MailboxEvent(name, data);
+    }
+
+    /**
+     * Creates a heartbeat, a comment that keeps the connection open.
+     *
+     * @return the heartbeat.
+     */
+    static MailboxEvent heartbeat() {
+        return new MailboxEvent(null, null);
+    }
+
+    /**
+     * Builds the SSE event, a new builder on every call.
+     *
+     * @return the SSE event.
+     */
+    SseEmitter.SseEventBuilder toSse() {
+        if (name == null) {
+            return SseEmitter.event().comment(HEARTBEAT);
+        }
+        return SseEmitter.event().name(name).data(data);
+    }
+}
@@ -0,0 +1,265 @@
+package nl.tudelft.sem.sem26b.message.events;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.sem26b.message.domain.MailboxCounter;
+import nl.tudelft.sem.sem26b.message.domain.MailboxCounterService;
+import nl.tudelft.sem.sem26b.message.domain.Message;
+import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
+import nl.tudelft.sem.sem26b.message.domain.MessagesReadEvent;
+import nl.tudelft.sem.sem26b.message.domain.MessagesSentEvent;
+import nl.tudelft.sem.sem26b.message.models.MailboxCountsModel;
+import nl.tudelft.sem.sem26b.message.models.MessageHeaderModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * In-process fan-out of mailbox events to subscribed clients (Server-Sent Events), so clients do not have to poll
+ * their inbox.
+ * <p>
+ * Subscribers of a mailbox get a <i>message</i> event with the header of every message sent to it, and an
+ * <i>counts</i> event with the unread and total counts of the inbox whenever they change (and right after
+ * subscribing). Events are published after the transaction that sent or read the messages commits.
+ * </p>
+ * <p>
+ * Every subscriber has a bounded buffer. A subscriber whose buffer is full is disconnected, the client reconnects
+ * and reads its inbox again instead of the service keeping an unbounded backlog. A comment is sent to all
+ * subscribers periodically, so proxies keep idle connections open and disconnected clients are noticed.
+ * </p>
+ * <p>
+ * Every subscription holds an open connection, so at most <i>mailbox.events.max-subscribers</i> clients are subscribed
+ * at the same time; further clients are rejected with 503 Service Unavailable and keep polling their inbox.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MailboxEventHub {
+
+    public static final String MESSAGE_EVENT = "message";
+    public static final String COUNTS_EVENT = "counts";
+
+    private final transient MailboxCounterService mailboxCounterService;
+
+    private final transient Executor deliveryExecutor;
+
+    private final transient long timeout;
+
+    private final transient int bufferSize;
+
+    private final transient int maxSubscribers;
+
+    private final transient AtomicInteger subscriberTotal = new AtomicInteger();
+
+    private final transient Map<String, Set<MailboxSubscriber>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new MailboxEventHub.
+     *
+     * @param mailboxCounterService the service maintaining the message counts of the mailboxes.
+     * @param deliveryThreads       the number of threads writing events to the clients.
+     * @param timeout               the time after which a subscription ends in milliseconds, the client reconnects.
+     * @param bufferSize            the maximum number of events waiting to be written to a single client.
+     * @param maxSubscribers        the maximum number of clients subscribed at the same time.
+     */
+    @Autowired
+    public MailboxEventHub(MailboxCounterService mailboxCounterService,
+                           @Value("${mailbox.events.delivery-threads:4}") int deliveryThreads,
+                           @Value("${mailbox.events.timeout:1800000}") long timeout,
+                           @Value("${mailbox.events.buffer-size:64}") int bufferSize,
+                           @Value("${mailbox.events.max-subscribers:50}") int maxSubscribers) {
+        this(mailboxCounterService, newDeliveryExecutor(deliveryThreads), timeout, bufferSize, maxSubscribers);
+    }
+
+    /**
+     * Instantiates a new MailboxEventHub with the given executor for the delivery.
+     *
+     * @param mailboxCounterService the service maintaining the message counts of the mailboxes.
+     * @param deliveryExecutor      the executor writing events to the clients.
+     * @param timeout               the time after which a subscription ends in milliseconds, the client reconnects.
+     * @param bufferSize            the maximum number of events waiting to be written to a single client.
+     * @param maxSubscribers        the maximum number of clients subscribed at the same time.
+     */
+    MailboxEventHub(MailboxCounterService mailboxCounterService, Executor deliveryExecutor, long timeout,
+                    int bufferSize, int maxSubscribers) {
+        this.mailboxCounterService = mailboxCounterService;
+        this.deliveryExecutor = deliveryExecutor;
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Subscribes a client to the events of a mailbox.
+     *
+     * @param target the owner of the mailbox (user/HR).
+     * @return the event stream, starting with the current counts of the inbox.
+     * @throws ResponseStatusException 503 if the maximum number of clients is already subscribed.
+     */
+    public SseEmitter subscribe(MessageTarget target) {
+        return subscribe(target, new SseEmitter(timeout));
+    }
+
+    /**
+     * Subscribes a client to the events of a mailbox.
+     *
+     * @param target  the owner of the mailbox (user/HR).
+     * @param emitter the event stream of the client.
+     * @return the event stream.
+     * @throws ResponseStatusException 503 if the maximum number of clients is already subscribed.
+     */
+    SseEmitter subscribe(MessageTarget target, SseEmitter emitter) {
+        if (subscriberTotal.incrementAndGet() > maxSubscribers) {
+            subscriberTotal.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many subscribers");
+        }
+        MailboxSubscriber subscriber = new MailboxSubscriber(target.getNetId(), emitter, bufferSize);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(subscriber.getMailbox(), mailbox -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        deliver(subscriber, countsEvent(target.getNetId()));
+        return emitter;
+    }
+
+    /**
+     * Publishes the messages that were sent to the subscribers of their receivers.
+     *
+     * @param event the messages that were sent.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void messagesSent(MessagesSentEvent event) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Message message : event.getMessages()) {
+            String mailbox = message.getReceiver().getNetId();
+            if (hasSubscribers(mailbox)) {
+                publish(mailbox, MailboxEvent.of(MESSAGE_EVENT, new MessageHeaderModel(message)));
+                changed.add(mailbox);
+            }
+        }
+        changed.forEach(mailbox -> publish(mailbox, countsEvent(mailbox)));
+    }
+
+    /**
+     * Publishes the new counts of the inbox messages were read in.
+     *
+     * @param event the inbox and the number of messages that were read.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void messagesRead(MessagesReadEvent event) {
+        String mailbox = event.getReceiver().getNetId();
+        if (hasSubscribers(mailbox)) {
+            publish(mailbox, countsEvent(mailbox));
+        }
+    }
+
+    /**
+     * Sends a heartbeat comment to all subscribers.
+     */
+    @Scheduled(fixedDelayString = "${mailbox.events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(mailbox -> mailbox.forEach(subscriber ->
+            deliver(subscriber, MailboxEvent.heartbeat())));
+    }
+
+    /**
+     * Gets the number of subscribers of a mailbox.
+     *
+     * @param mailbox the NetID of the owner of the mailbox, or "HR".
+     * @return the number of subscribed clients.
+     */
+    public int subscriberCount(String mailbox) {
+        Set<MailboxSubscriber> mailboxSubscribers = subscribers.get(mailbox);
+        return mailboxSubscribers == null ? 0 : mailboxSubscribers.size();
+    }
+
+    /**
+     * Gets the number of subscribers of all mailboxes.
+     *
+     * @return the number of subscribed clients.
+     */
+    public int subscriberCount() {
+        return subscriberTotal.get();
+    }
+
+    /**
+     * Stops the delivery threads.
+     */
+    @PreDestroy
+    public void close() {
+        if (deliveryExecutor instanceof ExecutorService) {
+            ((ExecutorService) deliveryExecutor).shutdownNow();
+        }
+    }
+
+    private boolean hasSubscribers(String mailbox) {
+        return subscriberCount(mailbox) > 0;
+    }
+
+    private void publish(String mailbox, MailboxEvent event) {
+        Set<MailboxSubscriber> mailboxSubscribers = subscribers.get(mailbox);
+        if (mailboxSubscribers != null) {
+            mailboxSubscribers.forEach(subscriber -> deliver(subscriber, event));
+        }
+    }
+
+    private void deliver(MailboxSubscriber subscriber, MailboxEvent event) {
+        if (!subscriber.offer(event)) {
+            log.debug("Subscriber of mailbox {} does not keep up, disconnected", subscriber.getMailbox());
+            disconnect(subscriber);
+            return;
+        }
+        try {
+            deliveryExecutor.execute(() -> {
+                if (!subscriber.drain()) {
+                    disconnect(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            disconnect(subscriber);
+        }
+    }
+
+    private void disconnect(MailboxSubscriber subscriber) {
+        unsubscribe(subscriber);
+        subscriber.getEmitter().complete();
+    }
+
+    private void unsubscribe(MailboxSubscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.getMailbox(), (mailbox, mailboxSubscribers) -> {
+            if (mailboxSubscribers.remove(subscriber)) {
+                subscriberTotal.decrementAndGet();
+            }
+            return mailboxSubscribers.isEmpty() ? null : mailboxSubscribers;
+        });
+    }
+
+    private MailboxEvent countsEvent(String mailbox) {
+        MailboxCounter counters = mailboxCounterService.getCounters(MessageTarget.of(mailbox));
+        return MailboxEvent.of(COUNTS_EVENT,
+            new MailboxCountsModel((int) counters.getInboxUnread(), (int) counters.getInboxTotal()));
+    }
+
+    private static ExecutorService newDeliveryExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mailbox-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
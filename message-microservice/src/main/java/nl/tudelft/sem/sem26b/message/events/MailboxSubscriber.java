@@ -0,0 +1,77 @@
+package nl.tudelft.sem.sem26b.message.events;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * A client subscribed to the events of a mailbox.
+ * <p>
+ * Events are queued in a bounded buffer and written to the client by a delivery thread, so a slow client never
+ * blocks the request that published the event. At most one thread writes to a client at a time.
+ * </p>
+ */
+class MailboxSubscriber {
+
+    @Getter
+    private final String mailbox;
+
+    @Getter
+    private final SseEmitter emitter;
+
+    private final BlockingQueue<MailboxEvent> buffer;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * Instantiates a new MailboxSubscriber.
+     *
+     * @param mailbox    the NetID of the owner of the mailbox, or "HR".
+     * @param emitter    the event stream of the client.
+     * @param bufferSize the maximum number of events waiting to be written to the client.
+     */
+    MailboxSubscriber(String mailbox, SseEmitter emitter, int bufferSize) {
+        this.mailbox = mailbox;
+        this.emitter = emitter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    /**
+     * Queues an event for the client.
+     *
+     * @param event the event.
+     * @return false if the buffer is full, the client does not keep up.
+     */
+    boolean offer(MailboxEvent event) {
+        return buffer.offer(event);
+    }
+
+    /**
+     * Writes the queued events to the client, unless another thread is already doing so.
+     *
+     * @return false if writing to the client failed, it disconnected.
+     */
+    boolean drain() {
+        while (!buffer.isEmpty()) {
+            if (!draining.compareAndSet(false, true)) {
+                return true;
+            }
+            try {
+                MailboxEvent event = buffer.poll();
+                while (event != null) {
+                    emitter.send(event.toSse());
+                    event = buffer.poll();
+                }
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            } finally {
+                draining.set(false);
+            }
+            // An event queued after the last poll, but before the flag was cleared, is sent in the next round
+        }
+        return true;
+    }
+}
@@ -27,6 +27,23 @@ public class GetInboxOrOutboxResponseModel {
             messages.stream().filter(message -> !message.getStatus().isWasRead()).mapToInt(Message::getId).toArray());
     }
 
+    /**
+     * Constructor for GetInboxOrOutboxResponseModel, from the ids of a page that were already split into read and
+     * unread messages.
+     *
+     * @param unreadMessages      the ids of the unread messages in the page.
+     * @param unreadMessagesCount the amount of unread messages.
+     * @param readMessages        the ids of the read messages in the page.
+     * @param allMessagesCount    the amount of all messages.
+     */
+    public GetInboxOrOutboxResponseModel(int[] unreadMessages, int unreadMessagesCount, int[] readMessages,
+                                         int allMessagesCount) {
+        this.unreadMessages = unreadMessages;
+        this.unreadMessagesCount = unreadMessagesCount;
+        this.readMessages = readMessages;
+        this.allMessagesCount = allMessagesCount;
+    }
+
     /**
      * IDs of unread messages in the current page.
      */
@@ -46,4 +63,19 @@ public class GetInboxOrOutboxResponseModel {
      * Amount of all messages.
      */
     private int allMessagesCount;
+
+    /**
+     * Cursor of the next page, null if this is the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * The messages of the page with their payloads, unread first, only set when requested (includePayloads).
+     */
+    private List<GetMessageResponseModel> messages;
+
+    /**
+     * The headers of the messages of the page, unread first, only set when requested (headers).
+     */
+    private List<MessageHeaderModel> headers;
 }
@@ -0,0 +1,24 @@
+package nl.tudelft.sem.sem26b.message.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The counts of an inbox, pushed to subscribed clients when they change.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MailboxCountsModel {
+
+    /**
+     * Amount of all unread messages.
+     */
+    private int unreadMessagesCount;
+
+    /**
+     * Amount of all messages.
+     */
+    private int allMessagesCount;
+}
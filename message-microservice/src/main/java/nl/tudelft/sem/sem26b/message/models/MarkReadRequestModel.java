@@ -0,0 +1,22 @@
+package nl.tudelft.sem.sem26b.message.models;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Request model for a POST request to the <i>/message/{netId}/markRead</i> endpoint.
+ * Exactly one of the fields must be set.
+ */
+@Data
+public class MarkReadRequestModel {
+
+    /**
+     * The ids of the messages to mark as read.
+     */
+    private List<Integer> ids;
+
+    /**
+     * Mark all messages sent before this time as read (ISO-8601, e.g. "2022-12-01T10:15:30Z").
+     */
+    private String before;
+}
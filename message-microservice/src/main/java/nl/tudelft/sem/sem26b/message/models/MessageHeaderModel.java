@@ -0,0 +1,81 @@
+package nl.tudelft.sem.sem26b.message.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.sem26b.message.domain.Message;
+import nl.tudelft.sem.sem26b.message.domain.MessageHeader;
+import nl.tudelft.sem.sem26b.message.domain.MessageRepository;
+
+/**
+ * Header of a message in a mailbox listing, returned instead of requesting every message separately.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageHeaderModel {
+
+    /**
+     * The message's id.
+     */
+    private int messageId;
+
+    /**
+     * The 'sender' of the message.
+     */
+    private String sender;
+
+    /**
+     * The recipient of the message.
+     */
+    private String receiver;
+
+    /**
+     * The type of the message.
+     */
+    private String messageType;
+
+    /**
+     * The start of the message, the full message is returned by the <i>/message/{id}</i> endpoint.
+     */
+    private String preview;
+
+    /**
+     * The timestamp representing when the message was sent.
+     */
+    private String sentAt;
+
+    /**
+     * Whether the message was read by the recipient.
+     */
+    private boolean wasRead;
+
+    /**
+     * Constructor for MessageHeaderModel.
+     *
+     * @param header the header of the message.
+     */
+    public MessageHeaderModel(MessageHeader header) {
+        this(header.getId(), header.getSender().getNetId(), header.getReceiver().getNetId(),
+            header.getMessageType().toString(), header.getPreview(), header.getSentAt().toString(),
+            Boolean.TRUE.equals(header.getWasRead()));
+    }
+
+    /**
+     * Constructor for MessageHeaderModel, from a loaded message.
+     *
+     * @param message the message.
+     */
+    public MessageHeaderModel(Message message) {
+        this(message.getId(), message.getSender().getNetId(), message.getReceiver().getNetId(),
+            message.getMessageType().toString(), preview(message.getContents()),
+            message.getStatus().getSentAt().toString(), message.getStatus().isWasRead());
+    }
+
+    private static String preview(String contents) {
+        if (contents == null || contents.length() <= MessageRepository.PREVIEW_LENGTH) {
+            return contents;
+        }
+        return contents.substring(0, MessageRepository.PREVIEW_LENGTH);
+    }
+}
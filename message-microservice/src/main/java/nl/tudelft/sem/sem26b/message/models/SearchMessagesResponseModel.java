@@ -0,0 +1,38 @@
+package nl.tudelft.sem.sem26b.message.models;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Response model for a GET request to the <i>/message/search</i> endpoint.
+ */
+@Data
+public class SearchMessagesResponseModel {
+
+    /**
+     * Constructor for SearchMessagesResponseModel.
+     *
+     * @param messages    the ids of the messages found, newest first.
+     * @param moreResults whether there are more results on the next pages.
+     */
+    public SearchMessagesResponseModel(int[] messages, boolean moreResults) {
+        this.messages = messages;
+        this.moreResults = moreResults;
+    }
+
+    /**
+     * IDs of the messages found in the current page, newest first.
+     */
+    private int[] messages;
+
+    /**
+     * Whether there are more results on the next pages.
+     */
+    private boolean moreResults;
+
+    /**
+     * The headers of the messages found that are still in the mailboxes (not archived), only set when requested
+     * (headers).
+     */
+    private List<MessageHeaderModel> headers;
+}
@@ -0,0 +1,298 @@
+package nl.tudelft.sem.sem26b.message.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
+import nl.tudelft.sem.sem26b.message.domain.MessageText;
+import nl.tudelft.sem.sem26b.message.domain.MessageTypeAttributeConverter;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted index of the contents of the messages (Lucene), so a search does not scan every message in the database.
+ * <p>
+ * The contents are tokenized and lower-cased, the sender, receiver and type are indexed as exact terms and the time
+ * the message was sent as a point for range filters. Documents added to the index become searchable after the next
+ * refresh and durable (in a file system index) after the next commit, both run periodically instead of per message.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MessageIndex {
+
+    static final String ID = "id";
+    static final String SENDER = "sender";
+    static final String RECEIVER = "receiver";
+    static final String TYPE = "type";
+    static final String CONTENTS = "contents";
+    static final String SENT_AT = "sent_at";
+
+    /**
+     * A "quoted phrase" or a single word of a search.
+     */
+    private static final Pattern SEARCH_TERM = Pattern.compile("\"([^\"]+)\"|(\\S+)");
+
+    /**
+     * Newest messages first, the id breaks ties between messages sent at the same time.
+     */
+    private static final Sort NEWEST_FIRST = new Sort(new SortField(SENT_AT, SortField.Type.LONG, true),
+        new SortField(ID, SortField.Type.LONG, true));
+
+    private final transient MessageTypeAttributeConverter typeConverter = new MessageTypeAttributeConverter();
+
+    private final transient Directory directory;
+
+    private final transient Analyzer analyzer;
+
+    private final transient IndexWriter writer;
+
+    private final transient SearcherManager searcherManager;
+
+    /**
+     * Instantiates a new MessageIndex.
+     *
+     * @param indexDirectory the directory to keep the index in, an in-memory index (rebuilt on every start) if blank.
+     * @throws IOException if the index cannot be opened.
+     */
+    @Autowired
+    public MessageIndex(@Value("${message.search.index-directory:}") String indexDirectory) throws IOException {
+        this(indexDirectory.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDirectory)));
+    }
+
+    /**
+     * Instantiates a new MessageIndex in the given directory.
+     *
+     * @param directory the directory to keep the index in.
+     * @throws IOException if the index cannot be opened.
+     */
+    MessageIndex(Directory directory) throws IOException {
+        this.directory = directory;
+        this.analyzer = new StandardAnalyzer();
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Adds messages to the index, replacing messages with the same ids that were indexed before.
+     *
+     * @param messages the messages.
+     */
+    public void add(Collection<MessageText> messages) {
+        try {
+            for (MessageText message : messages) {
+                writer.updateDocument(new Term(ID, String.valueOf(message.getId())), toDocument(message));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes all messages from the index.
+     */
+    public void clear() {
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the number of messages in the index, including those that are not searchable yet.
+     *
+     * @return the number of messages.
+     */
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Makes the messages added since the last refresh searchable.
+     */
+    @Scheduled(fixedDelayString = "${message.search.refresh-interval:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Refreshing the search index failed", e);
+        }
+    }
+
+    /**
+     * Writes the messages added since the last commit to the directory.
+     */
+    @Scheduled(fixedDelayString = "${message.search.commit-interval:60000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            log.warn("Committing the search index failed", e);
+        }
+    }
+
+    /**
+     * Searches the messages.
+     *
+     * @param query   the search.
+     * @param mailbox the mailbox the results are restricted to (messages it sent or received), empty for all messages.
+     * @return the page of results, newest first.
+     */
+    public MessageSearchResult search(MessageSearchQuery query, Optional<MessageTarget> mailbox) {
+        int end = query.getPage() * query.getLimit();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(toQuery(query, mailbox), end, NEWEST_FIRST);
+                List<Integer> ids = new ArrayList<>();
+                for (int i = end - query.getLimit(); i < top.scoreDocs.length; i++) {
+                    ScoreDoc hit = top.scoreDocs[i];
+                    ids.add(Integer.valueOf(searcher.doc(hit.doc).get(ID)));
+                }
+                return new MessageSearchResult(ids, top.totalHits.value > end);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the index, committing the messages added since the last commit.
+     */
+    @PreDestroy
+    public void close() {
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            log.warn("Closing the search index failed", e);
+        }
+    }
+
+    private Document toDocument(MessageText message) {
+        long sentAt = message.getSentAt().toEpochMilli();
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(message.getId()), Field.Store.YES));
+        document.add(new NumericDocValuesField(ID, message.getId()));
+        document.add(new StringField(SENDER, message.getSender().getNetId(), Field.Store.NO));
+        document.add(new StringField(RECEIVER, message.getReceiver().getNetId(), Field.Store.NO));
+        document.add(new StringField(TYPE, typeConverter.convertToDatabaseColumn(message.getMessageType()),
+            Field.Store.NO));
+        document.add(new TextField(CONTENTS, message.getContents(), Field.Store.NO));
+        document.add(new LongPoint(SENT_AT, sentAt));
+        document.add(new NumericDocValuesField(SENT_AT, sentAt));
+        return document;
+    }
+
+    /**
+     * Builds the Lucene query: every word and phrase of the search must occur in the contents, and every filter must
+     * match.
+     */
+    private Query toQuery(MessageSearchQuery query, Optional<MessageTarget> mailbox) throws IOException {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean anyTerm = false;
+        Matcher matcher = SEARCH_TERM.matcher(query.getText());
+        while (matcher.find()) {
+            String text = matcher.group(1) == null ? matcher.group(2) : matcher.group(1);
+            Query terms = toContentsQuery(text);
+            if (terms != null) {
+                builder.add(terms, BooleanClause.Occur.MUST);
+                anyTerm = true;
+            }
+        }
+        if (!anyTerm) {
+            // Only punctuation was searched for, which is not indexed
+            return new MatchNoDocsQuery();
+        }
+        if (query.getSender() != null) {
+            builder.add(new TermQuery(new Term(SENDER, query.getSender().getNetId())), BooleanClause.Occur.FILTER);
+        }
+        if (query.getReceiver() != null) {
+            builder.add(new TermQuery(new Term(RECEIVER, query.getReceiver().getNetId())), BooleanClause.Occur.FILTER);
+        }
+        if (query.getMessageType() != null) {
+            builder.add(new TermQuery(new Term(TYPE, typeConverter.convertToDatabaseColumn(query.getMessageType()))),
+                BooleanClause.Occur.FILTER);
+        }
+        if (query.getSentFrom() != null || query.getSentBefore() != null) {
+            long from = query.getSentFrom() == null ? Long.MIN_VALUE : query.getSentFrom().toEpochMilli();
+            long before = query.getSentBefore() == null ? Long.MAX_VALUE : query.getSentBefore().toEpochMilli() - 1;
+            builder.add(LongPoint.newRangeQuery(SENT_AT, from, before), BooleanClause.Occur.FILTER);
+        }
+        mailbox.ifPresent(target -> builder.add(new BooleanQuery.Builder()
+            .add(new TermQuery(new Term(SENDER, target.getNetId())), BooleanClause.Occur.SHOULD)
+            .add(new TermQuery(new Term(RECEIVER, target.getNetId())), BooleanClause.Occur.SHOULD)
+            .build(), BooleanClause.Occur.FILTER));
+        return builder.build();
+    }
+
+    /**
+     * Builds the query for a word or phrase, tokenized the same way as the contents.
+     *
+     * @return a term query for a single token, a phrase query for several, or null if the text has no tokens.
+     */
+    private Query toContentsQuery(String text) throws IOException {
+        PhraseQuery.Builder phrase = new PhraseQuery.Builder();
+        Term last = null;
+        int count = 0;
+        try (TokenStream tokens = analyzer.tokenStream(CONTENTS, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                last = new Term(CONTENTS, term.toString());
+                phrase.add(last);
+                count++;
+            }
+            tokens.end();
+        }
+        if (count == 0) {
+            return null;
+        }
+        return count == 1 ? new TermQuery(last) : phrase.build();
+    }
+}
@@ -0,0 +1,114 @@
+package nl.tudelft.sem.sem26b.message.search;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import lombok.Getter;
+import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
+import nl.tudelft.sem.sem26b.message.domain.MessageType;
+import nl.tudelft.sem.sem26b.message.domain.MessageTypeAttributeConverter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A search for messages: words and "quoted phrases" that must all occur in the contents, optionally filtered by
+ * sender, receiver, type and the time the message was sent.
+ */
+@Getter
+public class MessageSearchQuery {
+
+    /**
+     * Maximum number of results on a page.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * Maximum page number, deeper pages are not useful for a search and expensive to skip to.
+     */
+    public static final int MAX_PAGE = 100;
+
+    private final String text;
+    private final MessageTarget sender;
+    private final MessageTarget receiver;
+    private final MessageType messageType;
+    private final Instant sentFrom;
+    private final Instant sentBefore;
+    private final int page;
+    private final int limit;
+
+    /**
+     * Constructor for MessageSearchQuery.
+     *
+     * @param text        The words and "quoted phrases" to search for.
+     * @param sender      The sender of the messages, or null for any sender.
+     * @param receiver    The receiver of the messages, or null for any receiver.
+     * @param messageType The type of the messages, or null for any type.
+     * @param sentFrom    The time (inclusive) from which the messages were sent, or null.
+     * @param sentBefore  The time (exclusive) before which the messages were sent, or null.
+     * @param page        The page of results (1 or higher).
+     * @param limit       The number of results on a page.
+     */
+    public MessageSearchQuery(String text, MessageTarget sender, MessageTarget receiver, MessageType messageType,
+                              Instant sentFrom, Instant sentBefore, int page, int limit) {
+        this.text = text;
+        this.sender = sender;
+        this.receiver = receiver;
+        this.messageType = messageType;
+        this.sentFrom = sentFrom;
+        this.sentBefore = sentBefore;
+        this.page = page;
+        this.limit = limit;
+    }
+
+    /**
+     * Parse a search from the parameters of a request.
+     *
+     * @param text       The words and "quoted phrases" to search for.
+     * @param sender     The NetID of the sender (or "HR"), or null.
+     * @param receiver   The NetID of the receiver (or "HR"), or null.
+     * @param type       The type of the messages as sent (e.g. "leave-req"), or null.
+     * @param sentFrom   The time (ISO-8601, inclusive) from which the messages were sent, or null.
+     * @param sentBefore The time (ISO-8601, exclusive) before which the messages were sent, or null.
+     * @param page       The page of results.
+     * @param limit      The number of results on a page.
+     * @return the search.
+     * @throws ResponseStatusException if a parameter is invalid. Exception will cause a 400 Bad Request response.
+     */
+    public static MessageSearchQuery parse(String text, String sender, String receiver, String type,
+                                           String sentFrom, String sentBefore, int page, int limit) {
+        if (text == null || text.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to search for");
+        }
+        if (page < 1 || page > MAX_PAGE || limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Page must be between 1 and " + MAX_PAGE + ", limit between 1 and " + MAX_LIMIT);
+        }
+        return new MessageSearchQuery(text,
+            sender == null ? null : MessageTarget.of(sender),
+            receiver == null ? null : MessageTarget.of(receiver),
+            parseType(type), parseTime(sentFrom), parseTime(sentBefore), page, limit);
+    }
+
+    private static MessageType parseType(String type) {
+        if (type == null) {
+            return null;
+        }
+        MessageTypeAttributeConverter converter = new MessageTypeAttributeConverter();
+        MessageType messageType = converter.convertToEntityAttribute(type);
+        // Unknown types are converted to OTHER, which is not what was searched for
+        if (!converter.convertToDatabaseColumn(messageType).equalsIgnoreCase(type)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid type: " + type);
+        }
+        return messageType;
+    }
+
+    private static Instant parseTime(String time) {
+        if (time == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(time);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid time: " + time, e);
+        }
+    }
+}
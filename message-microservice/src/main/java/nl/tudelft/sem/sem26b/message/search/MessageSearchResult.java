@@ -0,0 +1,32 @@
+package nl.tudelft.sem.sem26b.message.search;
+
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * A page of search results.
+ */
+@Getter
+public class MessageSearchResult {
+
+    /**
+     * IDs of the messages found, newest first.
+     */
+    private final List<Integer> ids;
+
+    /**
+     * Whether there are more results on the next pages.
+     */
+    private final boolean more;
+
+    /**
+     * Constructor for MessageSearchResult.
+     *
+     * @param ids  IDs of the messages found.
+     * @param more Whether there are more results on the next pages.
+     */
+    public MessageSearchResult(List<Integer> ids, boolean more) {
+        this.ids = ids;
+        this.more = more;
+    }
+}
@@ -0,0 +1,120 @@
+package nl.tudelft.sem.sem26b.message.search;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.sem26b.message.domain.ArchivedMessageRepository;
+import nl.tudelft.sem.sem26b.message.domain.MessageRepository;
+import nl.tudelft.sem.sem26b.message.domain.MessageText;
+import nl.tudelft.sem.sem26b.message.domain.MessageValidator;
+import nl.tudelft.sem.sem26b.message.domain.MessagesSentEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service for the full-text search of messages.
+ * <p>
+ * Messages are added to the index once the transaction that sent them commits, so the index never contains messages
+ * that were rolled back. When the service starts and the index does not contain as many messages as the database
+ * (an in-memory index, or messages sent while the index was not committed), it is rebuilt from the message and
+ * archive tables. Results are restricted to the messages the token bearer can read, see {@link MessageValidator}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class MessageSearchService {
+
+    private final transient MessageIndex messageIndex;
+    private final transient MessageRepository messageRepository;
+    private final transient ArchivedMessageRepository archivedMessageRepository;
+    private final transient MessageValidator validator;
+
+    private final transient int rebuildBatchSize;
+
+    /**
+     * Instantiates a new MessageSearchService.
+     *
+     * @param messageIndex              the index of the messages.
+     * @param messageRepository         the message repository.
+     * @param archivedMessageRepository the archived message repository.
+     * @param validator                 the validator of the token bearer's permissions.
+     * @param rebuildBatchSize          the number of messages read from the database at once when rebuilding.
+     */
+    @Autowired
+    public MessageSearchService(MessageIndex messageIndex,
+                                MessageRepository messageRepository,
+                                ArchivedMessageRepository archivedMessageRepository,
+                                MessageValidator validator,
+                                @Value("${message.search.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.messageIndex = messageIndex;
+        this.messageRepository = messageRepository;
+        this.archivedMessageRepository = archivedMessageRepository;
+        this.validator = validator;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    /**
+     * Search the messages the token bearer can read.
+     *
+     * @param query The search.
+     * @return the page of results, newest first.
+     */
+    public MessageSearchResult search(MessageSearchQuery query) {
+        return messageIndex.search(query, validator.readableMailbox());
+    }
+
+    /**
+     * Indexes the messages that were sent.
+     *
+     * @param event the messages that were sent.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void messagesSent(MessagesSentEvent event) {
+        messageIndex.add(event.getMessages().stream().map(MessageText::of).collect(Collectors.toList()));
+    }
+
+    /**
+     * Rebuilds the index when the service has started, if it is not in sync with the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfStale() {
+        long stored = messageRepository.count() + archivedMessageRepository.count();
+        if (messageIndex.size() != stored) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the message and archive tables.
+     * Messages sent meanwhile are indexed as usual, indexing a message twice replaces it.
+     */
+    public void rebuild() {
+        log.info("Rebuilding the message search index");
+        messageIndex.clear();
+        // Messages are archived while the index is rebuilt, so the archive is read after the message table
+        long indexed = addAll(messageRepository::findTextsAfter) + addAll(archivedMessageRepository::findTextsAfter);
+        messageIndex.commit();
+        messageIndex.refresh();
+        log.info("Rebuilt the message search index with {} messages", indexed);
+    }
+
+    private long addAll(BiFunction<Integer, Pageable, List<MessageText>> findTextsAfter) {
+        long count = 0;
+        int lastId = 0;
+        List<MessageText> batch = findTextsAfter.apply(lastId, PageRequest.of(0, rebuildBatchSize));
+        while (!batch.isEmpty()) {
+            messageIndex.add(batch);
+            count += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            batch = findTextsAfter.apply(lastId, PageRequest.of(0, rebuildBatchSize));
+        }
+        return count;
+    }
+}
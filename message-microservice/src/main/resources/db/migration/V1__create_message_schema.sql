@@ -0,0 +1,35 @@
+-- Tables of the message microservice, previously created by Hibernate (ddl-auto=create-drop).
+
+CREATE SEQUENCE message_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE message (
+    id       INTEGER       NOT NULL,
+    sender   VARCHAR(255)  NOT NULL,
+    to       VARCHAR(255)  NOT NULL,
+    type     VARCHAR(255)  NOT NULL,
+    contents VARCHAR(2048),
+    sent_at  TIMESTAMP     NOT NULL,
+    read_at  TIMESTAMP,
+    was_read BOOLEAN       NOT NULL,
+    CONSTRAINT message_pk PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE message_payload_message_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE message_payload_message (
+    id         BIGINT       NOT NULL,
+    message_id INTEGER      NOT NULL,
+    payload_id BIGINT       NOT NULL,
+    type       VARCHAR(255) NOT NULL,
+    CONSTRAINT message_payload_message_pk PRIMARY KEY (id),
+    CONSTRAINT message_payload_message_message_fk FOREIGN KEY (message_id) REFERENCES message (id)
+);
+
+CREATE TABLE mailbox_counter (
+    mailbox       VARCHAR(255) NOT NULL,
+    inbox_total   BIGINT DEFAULT 0 NOT NULL,
+    inbox_unread  BIGINT DEFAULT 0 NOT NULL,
+    outbox_total  BIGINT DEFAULT 0 NOT NULL,
+    outbox_unread BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT mailbox_counter_pk PRIMARY KEY (mailbox)
+);
@@ -0,0 +1,10 @@
+-- Indexes for the access paths of MessageRepository, checked by MessageRepositoryQueryPlanTest.
+
+-- Inbox: filtered on the receiver (and was_read for the unread count), sorted unread first and then newest first.
+CREATE INDEX message_receiver_idx ON message (to, was_read, sent_at DESC);
+
+-- Outbox: filtered on the sender (and was_read for the unread count), sorted newest first.
+CREATE INDEX message_sender_idx ON message (sender, sent_at DESC);
+
+-- Payloads of a message.
+CREATE INDEX message_payload_message_message_idx ON message_payload_message (message_id);
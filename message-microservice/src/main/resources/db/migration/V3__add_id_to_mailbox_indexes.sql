@@ -0,0 +1,7 @@
+-- Mailbox pages are read after a cursor on (was_read, sent_at, id), the id orders messages sent at the same time.
+
+DROP INDEX message_receiver_idx;
+CREATE INDEX message_receiver_idx ON message (to, was_read, sent_at DESC, id DESC);
+
+DROP INDEX message_sender_idx;
+CREATE INDEX message_sender_idx ON message (sender, sent_at DESC, id DESC);
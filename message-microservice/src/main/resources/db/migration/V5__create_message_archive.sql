@@ -0,0 +1,28 @@
+-- Read messages older than the retention age are moved out of the message tables into the archive tables, so the
+-- tables mailboxes are listed from stay small. Archived messages are only looked up by id.
+
+CREATE TABLE message_archive (
+    id          INTEGER       NOT NULL,
+    sender      VARCHAR(255)  NOT NULL,
+    to          VARCHAR(255)  NOT NULL,
+    type        VARCHAR(255)  NOT NULL,
+    contents    VARCHAR(2048),
+    sent_at     TIMESTAMP     NOT NULL,
+    read_at     TIMESTAMP     NOT NULL,
+    archived_at TIMESTAMP     NOT NULL,
+    CONSTRAINT message_archive_pk PRIMARY KEY (id)
+);
+
+CREATE TABLE message_payload_message_archive (
+    id         BIGINT       NOT NULL,
+    message_id INTEGER      NOT NULL,
+    payload_id BIGINT       NOT NULL,
+    type       VARCHAR(255) NOT NULL,
+    CONSTRAINT message_payload_message_archive_pk PRIMARY KEY (id),
+    CONSTRAINT message_payload_message_archive_message_fk FOREIGN KEY (message_id) REFERENCES message_archive (id)
+);
+
+CREATE INDEX message_payload_message_archive_message_idx ON message_payload_message_archive (message_id);
+
+-- Messages to archive are found by read time, oldest read first.
+CREATE INDEX message_read_idx ON message (read_at);
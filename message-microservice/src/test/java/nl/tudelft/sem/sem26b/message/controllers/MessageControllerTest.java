@@ -12,6 +12,7 @@ import java.io.PrintStream;
 import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
+import nl.tudelft.sem.sem26b.message.domain.MailboxCursor;
 import nl.tudelft.sem.sem26b.message.domain.MailboxService;
 import nl.tudelft.sem.sem26b.message.domain.Message;
 import nl.tudelft.sem.sem26b.message.domain.MessagePayload;
@@ -21,14 +22,24 @@ import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
 import nl.tudelft.sem.sem26b.message.domain.MessageType;
 import nl.tudelft.sem.sem26b.message.domain.MessageValidator;
 import nl.tudelft.sem.sem26b.message.domain.PayloadService;
+import nl.tudelft.sem.sem26b.message.events.MailboxEventHub;
 import nl.tudelft.sem.sem26b.message.models.GetInboxOrOutboxResponseModel;
 import nl.tudelft.sem.sem26b.message.models.GetMessageResponseModel;
+import nl.tudelft.sem.sem26b.message.models.MarkReadRequestModel;
+import nl.tudelft.sem.sem26b.message.models.MessageHeaderModel;
 import nl.tudelft.sem.sem26b.message.models.PostMessageRequestModel;
+import nl.tudelft.sem.sem26b.message.models.SearchMessagesResponseModel;
+import nl.tudelft.sem.sem26b.message.search.MessageSearchQuery;
+import nl.tudelft.sem.sem26b.message.search.MessageSearchResult;
+import nl.tudelft.sem.sem26b.message.search.MessageSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Test class for MessageController.
@@ -40,6 +51,8 @@ public class MessageControllerTest {
     private transient MailboxService mailboxService;
     private transient PayloadService payloadService;
     private transient MessageValidator validator;
+    private transient MailboxEventHub eventHub;
+    private transient MessageSearchService searchService;
 
     private transient MessageController messageController;
 
@@ -53,13 +66,17 @@ public class MessageControllerTest {
         mailboxService = Mockito.mock(MailboxService.class);
         payloadService = Mockito.mock(PayloadService.class);
         validator = Mockito.mock(MessageValidator.class);
+        eventHub = Mockito.mock(MailboxEventHub.class);
+        searchService = Mockito.mock(MessageSearchService.class);
         messageController =
             new MessageController(
                 senderService,
                 retrieverService,
                 mailboxService,
                 payloadService,
-                validator
+                validator,
+                eventHub,
+                searchService
             );
     }
 
@@ -83,8 +100,8 @@ public class MessageControllerTest {
     @Test
     public void getMessageByIdHappyFlowTest() {
         // Arrange
-        Message message = new Message(new MessageTarget("test"),
-            new MessageTarget("test2"), MessageType.OTHER, "test", Instant.ofEpochSecond(1233L));
+        Message message = new Message(MessageTarget.of("test"),
+            MessageTarget.of("test2"), MessageType.OTHER, "test", Instant.ofEpochSecond(1233L));
         List<MessagePayload> payloads = List.of(new MessagePayload("contract", 132L));
         GetMessageResponseModel responseModel = new GetMessageResponseModel(123, "test", "test2",
             "tpe", "test", new MessagePayload[] {new MessagePayload("contract", 132L)}, "sentat");
@@ -99,6 +116,8 @@ public class MessageControllerTest {
         assertThat(response.getStatusCodeValue()).isEqualTo(200);
         assertThat(response.getBody()).isEqualTo(responseModel);
         assertThat(Objects.requireNonNull(response.getBody()).getPayload()).isEqualTo(payloads.toArray());
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=300, private");
+        assertThat(response.getHeaders().containsKey("X-Gateway-Invalidate")).isFalse();
         verify(retrieverService, times(1)).retrieveMessageById(1);
         verify(retrieverService, times(1)).openMessageIfApplicable(message);
         verify(retrieverService, times(1)).parseMessageToModel(message);
@@ -111,21 +130,42 @@ public class MessageControllerTest {
         verifyNoMoreInteractions(validator);
     }
 
+    @Test
+    public void getMessageByIdOpenedTest() {
+        // Arrange
+        Message message = new Message(MessageTarget.of("test"),
+            MessageTarget.of("test2"), MessageType.OTHER, "test", Instant.ofEpochSecond(1233L));
+        GetMessageResponseModel responseModel = new GetMessageResponseModel(123, "test", "test2",
+            "tpe", "test", new MessagePayload[] {}, "sentat");
+        when(retrieverService.retrieveMessageById(1)).thenReturn(message);
+        when(retrieverService.openMessageIfApplicable(message)).thenReturn(true);
+        when(retrieverService.parseMessageToModel(message)).thenReturn(responseModel);
+        when(payloadService.getMessagePayload(message)).thenReturn(List.of());
+
+        //Act
+        ResponseEntity<GetMessageResponseModel> response = messageController.getMessageById(1);
+
+        //Assert
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getHeaders().getFirst("X-Gateway-Invalidate")).isEqualTo("message");
+    }
+
     @Test
     public void getHrInboxTest() {
         // Arrange
-        MessageTarget target = new MessageTarget(MessageTarget.HR_TARGET_LABEL);
+        MessageTarget target = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
         GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
             List.of(), 1, 2);
         when(mailboxService.getInbox(target, 42)).thenReturn(responseModel);
 
         //Act
         ResponseEntity<GetInboxOrOutboxResponseModel> response =
-            messageController.getInbox("aa", true, 42);
+            messageController.getInbox("aa", true, 42, null, false, false);
 
         //Assert
         assertThat(response.getStatusCodeValue()).isEqualTo(200);
         assertThat(response.getBody()).isEqualTo(responseModel);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=5, private");
         verify(validator, times(1)).checkHrPermission();
         verify(mailboxService, times(1)).getInbox(target, 42);
         verifyNoMoreInteractions(retrieverService);
@@ -138,14 +178,14 @@ public class MessageControllerTest {
     @Test
     public void getUserInboxTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("abc");
+        MessageTarget target = MessageTarget.of("abc");
         GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
             List.of(), 1, 2);
         when(mailboxService.getInbox(target, 42)).thenReturn(responseModel);
 
         //Act
         ResponseEntity<GetInboxOrOutboxResponseModel> response =
-            messageController.getInbox("abc", false, 42);
+            messageController.getInbox("abc", false, 42, null, false, false);
 
         //Assert
         assertThat(response.getStatusCodeValue()).isEqualTo(200);
@@ -163,14 +203,14 @@ public class MessageControllerTest {
     @Test
     public void getHrOutboxTest() {
         // Arrange
-        MessageTarget target = new MessageTarget(MessageTarget.HR_TARGET_LABEL);
+        MessageTarget target = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
         GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
             List.of(), 1, 2);
         when(mailboxService.getOutbox(target, 42)).thenReturn(responseModel);
 
         //Act
         ResponseEntity<GetInboxOrOutboxResponseModel> response =
-            messageController.getSentMessages("aa", true, 42);
+            messageController.getSentMessages("aa", true, 42, null, false);
 
         //Assert
         assertThat(response.getStatusCodeValue()).isEqualTo(200);
@@ -187,14 +227,14 @@ public class MessageControllerTest {
     @Test
     public void getUserOutboxTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("abc");
+        MessageTarget target = MessageTarget.of("abc");
         GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
             List.of(), 1, 2);
         when(mailboxService.getOutbox(target, 42)).thenReturn(responseModel);
 
         //Act
         ResponseEntity<GetInboxOrOutboxResponseModel> response =
-            messageController.getSentMessages("abc", false, 42);
+            messageController.getSentMessages("abc", false, 42, null, false);
 
         //Assert
         assertThat(response.getStatusCodeValue()).isEqualTo(200);
@@ -208,6 +248,134 @@ public class MessageControllerTest {
         verifyNoMoreInteractions(validator);
     }
 
+    @Test
+    public void getInboxAfterCursorTest() {
+        // Arrange
+        MessageTarget target = MessageTarget.of("abc");
+        MailboxCursor cursor = new MailboxCursor(false, Instant.ofEpochSecond(1233L), 12);
+        GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
+            List.of(), 1, 2);
+        when(mailboxService.getInbox(target, cursor)).thenReturn(responseModel);
+
+        //Act
+        ResponseEntity<GetInboxOrOutboxResponseModel> response =
+            messageController.getInbox("abc", false, 1, cursor.encode(), false, false);
+
+        //Assert
+        assertThat(response.getBody()).isEqualTo(responseModel);
+        verify(mailboxService, times(1)).getInbox(target, cursor);
+        verifyNoMoreInteractions(mailboxService);
+    }
+
+    @Test
+    public void getInboxIncludePayloadsTest() {
+        // Arrange
+        MessageTarget target = MessageTarget.of("abc");
+        GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
+            new int[] {2}, 1, new int[] {1}, 2);
+        when(mailboxService.getInbox(target, 1)).thenReturn(responseModel);
+        Message unread = new Message(MessageTarget.of("test"),
+            MessageTarget.of("abc"), MessageType.OTHER, "unread", Instant.ofEpochSecond(1234L));
+        Message read = new Message(MessageTarget.of("test"),
+            MessageTarget.of("abc"), MessageType.OTHER, "read", Instant.ofEpochSecond(1233L));
+        when(retrieverService.retrieveMessagesByIds(List.of(2, 1))).thenReturn(List.of(unread, read));
+        GetMessageResponseModel unreadModel = new GetMessageResponseModel(2, "test", "abc",
+            "tpe", "unread", new MessagePayload[0], "sentat");
+        GetMessageResponseModel readModel = new GetMessageResponseModel(1, "test", "abc",
+            "tpe", "read", new MessagePayload[0], "sentat");
+        when(retrieverService.parseMessageToModel(unread)).thenReturn(unreadModel);
+        when(retrieverService.parseMessageToModel(read)).thenReturn(readModel);
+        List<MessagePayload> payloads = List.of(new MessagePayload("contract", 132L));
+        when(payloadService.getMessagePayload(unread)).thenReturn(payloads);
+        when(payloadService.getMessagePayload(read)).thenReturn(List.of());
+
+        //Act
+        ResponseEntity<GetInboxOrOutboxResponseModel> response =
+            messageController.getInbox("abc", false, 1, null, true, false);
+
+        //Assert
+        List<GetMessageResponseModel> messages = Objects.requireNonNull(response.getBody()).getMessages();
+        assertThat(messages).containsExactly(unreadModel, readModel);
+        assertThat(messages.get(0).getPayload()).isEqualTo(payloads.toArray());
+        assertThat(messages.get(1).getPayload()).isEmpty();
+        verify(retrieverService, times(1)).retrieveMessagesByIds(List.of(2, 1));
+        verify(retrieverService, times(2)).parseMessageToModel(Mockito.any(Message.class));
+        verifyNoMoreInteractions(retrieverService);
+    }
+
+    @Test
+    public void getInboxHeadersTest() {
+        // Arrange
+        MessageTarget target = MessageTarget.of("abc");
+        GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
+            new int[] {2, 3}, 2, new int[] {1}, 3);
+        when(mailboxService.getInbox(target, 1)).thenReturn(responseModel);
+        List<MessageHeaderModel> headers = List.of(
+            new MessageHeaderModel(2, "test", "abc", "OTHER", "b", "sentat", false),
+            new MessageHeaderModel(3, "test", "abc", "OTHER", "c", "sentat", false),
+            new MessageHeaderModel(1, "test", "abc", "OTHER", "a", "sentat", true));
+        when(mailboxService.getHeaders(List.of(2, 3, 1))).thenReturn(headers);
+
+        //Act
+        ResponseEntity<GetInboxOrOutboxResponseModel> response =
+            messageController.getInbox("abc", false, 1, null, false, true);
+
+        //Assert
+        assertThat(Objects.requireNonNull(response.getBody()).getHeaders()).isEqualTo(headers);
+        assertThat(response.getBody().getMessages()).isNull();
+        verify(mailboxService, times(1)).getInbox(target, 1);
+        verify(mailboxService, times(1)).getHeaders(List.of(2, 3, 1));
+        verifyNoMoreInteractions(mailboxService);
+        verifyNoMoreInteractions(retrieverService);
+    }
+
+    @Test
+    public void getOutboxHeadersTest() {
+        // Arrange
+        MessageTarget target = MessageTarget.of("abc");
+        GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
+            new int[] {5}, 1, new int[0], 1);
+        when(mailboxService.getOutbox(target, 1)).thenReturn(responseModel);
+        List<MessageHeaderModel> headers = List.of(
+            new MessageHeaderModel(5, "abc", "def", "OTHER", "e", "sentat", false));
+        when(mailboxService.getHeaders(List.of(5))).thenReturn(headers);
+
+        //Act
+        ResponseEntity<GetInboxOrOutboxResponseModel> response =
+            messageController.getSentMessages("abc", false, 1, null, true);
+
+        //Assert
+        assertThat(Objects.requireNonNull(response.getBody()).getHeaders()).isEqualTo(headers);
+        verify(mailboxService, times(1)).getHeaders(List.of(5));
+    }
+
+    @Test
+    public void getOutboxAfterCursorTest() {
+        // Arrange
+        MessageTarget target = MessageTarget.of("abc");
+        MailboxCursor cursor = new MailboxCursor(true, Instant.ofEpochSecond(1233L), 12);
+        GetInboxOrOutboxResponseModel responseModel = new GetInboxOrOutboxResponseModel(
+            List.of(), 1, 2);
+        when(mailboxService.getOutbox(target, cursor)).thenReturn(responseModel);
+
+        //Act
+        ResponseEntity<GetInboxOrOutboxResponseModel> response =
+            messageController.getSentMessages("abc", false, 1, cursor.encode(), false);
+
+        //Assert
+        assertThat(response.getBody()).isEqualTo(responseModel);
+        verify(mailboxService, times(1)).getOutbox(target, cursor);
+        verifyNoMoreInteractions(mailboxService);
+    }
+
+    @Test
+    public void getInboxInvalidCursorTest() {
+        //Act&Assert
+        assertThatThrownBy(() -> messageController.getInbox("abc", false, 1, "not a cursor", false, false))
+            .isInstanceOf(ResponseStatusException.class);
+        verifyNoMoreInteractions(mailboxService);
+    }
+
     @Test
     public void sendMessageFromHrTest() {
         // Arrange
@@ -216,8 +384,8 @@ public class MessageControllerTest {
         requestModel.setType("test");
         requestModel.setContents("test");
         requestModel.setPayload(List.of());
-        Message message = new Message(new MessageTarget("test"),
-            new MessageTarget("test2"), MessageType.OTHER, "test", Instant.ofEpochSecond(1233L));
+        Message message = new Message(MessageTarget.of("test"),
+            MessageTarget.of("test2"), MessageType.OTHER, "test", Instant.ofEpochSecond(1233L));
         when(senderService.postMessage(requestModel, true)).thenReturn(message);
 
         //Act
@@ -249,4 +417,157 @@ public class MessageControllerTest {
         verifyNoMoreInteractions(validator);
         System.setOut(System.out);
     }
+
+    @Test
+    public void sendMessagesFromHrTest() {
+        // Arrange
+        PostMessageRequestModel requestModel = new PostMessageRequestModel();
+        Message message = new Message(MessageTarget.of("test"),
+            MessageTarget.of("test2"), MessageType.OTHER, "test", Instant.ofEpochSecond(1233L));
+        when(senderService.postMessages(List.of(requestModel, requestModel), true))
+            .thenReturn(List.of(message, message));
+
+        //Act
+        ResponseEntity<List<Integer>> response = messageController.sendMessages(true, List.of(requestModel, requestModel));
+
+        //Assert
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getBody()).containsExactly(message.getId(), message.getId());
+        verify(validator, times(1)).checkHrPermission();
+        verify(senderService, times(1)).postMessages(List.of(requestModel, requestModel), true);
+        verifyNoMoreInteractions(senderService);
+        verifyNoMoreInteractions(payloadService);
+        verifyNoMoreInteractions(validator);
+    }
+
+    @Test
+    public void subscribeToInboxTest() {
+        // Arrange
+        SseEmitter emitter = new SseEmitter();
+        when(eventHub.subscribe(MessageTarget.of("abc"))).thenReturn(emitter);
+
+        // Act
+        SseEmitter response = messageController.subscribeToInbox("abc", false);
+
+        // Assert
+        assertThat(response).isSameAs(emitter);
+        verify(validator, times(1)).checkMailboxPermission("abc");
+        verify(eventHub, times(1)).subscribe(MessageTarget.of("abc"));
+        verifyNoMoreInteractions(validator);
+        verifyNoMoreInteractions(eventHub);
+    }
+
+    @Test
+    public void subscribeToHrInboxTest() {
+        // Arrange
+        SseEmitter emitter = new SseEmitter();
+        when(eventHub.subscribe(MessageTarget.of(MessageTarget.HR_TARGET_LABEL))).thenReturn(emitter);
+
+        // Act
+        SseEmitter response = messageController.subscribeToInbox("abc", true);
+
+        // Assert
+        assertThat(response).isSameAs(emitter);
+        verify(validator, times(1)).checkHrPermission();
+        verify(eventHub, times(1)).subscribe(MessageTarget.of(MessageTarget.HR_TARGET_LABEL));
+        verifyNoMoreInteractions(validator);
+        verifyNoMoreInteractions(eventHub);
+    }
+
+    @Test
+    public void subscribeToInboxWithoutPermissionTest() {
+        // Arrange
+        Mockito.doThrow(new ResponseStatusException(HttpStatus.FORBIDDEN)).when(validator).checkMailboxPermission("abc");
+
+        // Act&Assert
+        assertThatThrownBy(() -> messageController.subscribeToInbox("abc", false))
+            .isInstanceOf(ResponseStatusException.class);
+        verifyNoMoreInteractions(eventHub);
+    }
+
+    @Test
+    public void markAsReadTest() {
+        // Arrange
+        MarkReadRequestModel requestModel = new MarkReadRequestModel();
+        requestModel.setIds(List.of(1, 2));
+        when(retrieverService.markMessagesAsRead(MessageTarget.of("abc"), requestModel)).thenReturn(2);
+
+        // Act
+        ResponseEntity<Integer> response = messageController.markAsRead("abc", false, requestModel);
+
+        // Assert
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getBody()).isEqualTo(2);
+        verify(validator, times(1)).checkMailboxOwner("abc");
+        verify(retrieverService, times(1)).markMessagesAsRead(MessageTarget.of("abc"), requestModel);
+        verifyNoMoreInteractions(validator);
+        verifyNoMoreInteractions(retrieverService);
+    }
+
+    @Test
+    public void markAsReadHrTest() {
+        // Arrange
+        MarkReadRequestModel requestModel = new MarkReadRequestModel();
+        requestModel.setBefore("2022-12-01T10:15:30Z");
+        MessageTarget hr = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
+        when(retrieverService.markMessagesAsRead(hr, requestModel)).thenReturn(5000);
+
+        // Act
+        ResponseEntity<Integer> response = messageController.markAsRead("abc", true, requestModel);
+
+        // Assert
+        assertThat(response.getBody()).isEqualTo(5000);
+        verify(validator, times(1)).checkHrPermission();
+        verify(retrieverService, times(1)).markMessagesAsRead(hr, requestModel);
+        verifyNoMoreInteractions(validator);
+    }
+
+    @Test
+    public void markAsReadNotOwnerTest() {
+        // Arrange
+        Mockito.doThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED)).when(validator).checkMailboxOwner("abc");
+
+        // Act&Assert
+        assertThatThrownBy(() -> messageController.markAsRead("abc", false, new MarkReadRequestModel()))
+            .isInstanceOf(ResponseStatusException.class);
+        verifyNoMoreInteractions(retrieverService);
+    }
+
+    @Test
+    public void searchMessagesTest() {
+        // Arrange
+        ArgumentCaptor<MessageSearchQuery> query = ArgumentCaptor.forClass(MessageSearchQuery.class);
+        when(searchService.search(query.capture())).thenReturn(new MessageSearchResult(List.of(7, 3), true));
+        List<MessageHeaderModel> headers = List.of(Mockito.mock(MessageHeaderModel.class));
+        when(mailboxService.getHeaders(List.of(7, 3))).thenReturn(headers);
+
+        // Act
+        ResponseEntity<SearchMessagesResponseModel> response = messageController.searchMessages("\"sick leave\"",
+            "abc", null, "leave-req", "2022-12-01T00:00:00Z", null, 2, 2, true);
+
+        // Assert
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(Objects.requireNonNull(response.getBody()).getMessages()).containsExactly(7, 3);
+        assertThat(response.getBody().isMoreResults()).isTrue();
+        assertThat(response.getBody().getHeaders()).isSameAs(headers);
+        assertThat(query.getValue().getSender()).isEqualTo(MessageTarget.of("abc"));
+        assertThat(query.getValue().getReceiver()).isNull();
+        assertThat(query.getValue().getMessageType()).isEqualTo(MessageType.LEAVE_REQUEST);
+        assertThat(query.getValue().getSentFrom()).isEqualTo(Instant.parse("2022-12-01T00:00:00Z"));
+        assertThat(query.getValue().getPage()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchMessagesInvalidTest() {
+        // Act&Assert
+        assertThatThrownBy(() -> messageController.searchMessages(" ", null, null, null, null, null, 1, 20, false))
+            .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> messageController.searchMessages("leave", null, null, "unknown", null, null, 1, 20,
+            false)).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> messageController.searchMessages("leave", null, null, null, "yesterday", null, 1, 20,
+            false)).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> messageController.searchMessages("leave", null, null, null, null, null, 1, 101,
+            false)).isInstanceOf(ResponseStatusException.class);
+        verifyNoMoreInteractions(searchService);
+    }
 }
@@ -0,0 +1,101 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Tests for the ArchivedMessageRepository, against the schema created by the Flyway migrations.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+public class ArchivedMessageRepositoryTest {
+
+    @Autowired
+    private transient ArchivedMessageRepository archivedMessageRepository;
+
+    @Autowired
+    private transient MessageRepository messageRepository;
+
+    @Autowired
+    private transient TestEntityManager entityManager;
+
+    /**
+     * Test that an archived message is restored as it was, with its payloads, and removed from the message tables.
+     */
+    @Test
+    public void archiveAndRestoreTest() {
+        // Arrange
+        Message message = new Message(MessageTarget.of("netId"), MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
+            MessageType.LEAVE_REQUEST, "Leave", Instant.parse("2022-01-01T10:00:00Z"));
+        message.readMessage(Instant.parse("2022-01-02T10:00:00Z"));
+        entityManager.persist(message);
+        MessagePayloadMessage payload = new MessagePayloadMessage();
+        payload.setMessage(message);
+        payload.setPayloadId(42L);
+        payload.setType(MessagePayload.CONTRACT_MESSAGE_PAYLOAD_TYPE);
+        entityManager.persist(payload);
+        entityManager.flush();
+        List<Integer> ids = List.of(message.getId());
+
+        // Act
+        int archived = archivedMessageRepository.archiveMessages(ids, Instant.parse("2022-06-01T00:00:00Z"));
+        archivedMessageRepository.archivePayloads(ids);
+        messageRepository.deletePayloadsByMessageIds(ids);
+        messageRepository.deleteByIds(ids);
+        entityManager.clear();
+
+        // Assert
+        assertThat(archived).isEqualTo(1);
+        assertThat(messageRepository.findById(message.getId())).isEmpty();
+        Message restored = archivedMessageRepository.findWithPayloadsById(message.getId())
+            .map(ArchivedMessage::toMessage)
+            .orElseThrow();
+        assertThat(restored.getId()).isEqualTo(message.getId());
+        assertThat(restored.getSender()).isEqualTo(MessageTarget.of("netId"));
+        assertThat(restored.getReceiver().isHr()).isTrue();
+        assertThat(restored.getMessageType()).isEqualTo(MessageType.LEAVE_REQUEST);
+        assertThat(restored.getContents()).isEqualTo("Leave");
+        assertThat(restored.getStatus().getSentAt()).isEqualTo(Instant.parse("2022-01-01T10:00:00Z"));
+        assertThat(restored.getStatus().getReadAt()).isEqualTo(Instant.parse("2022-01-02T10:00:00Z"));
+        assertThat(restored.getStatus().isWasRead()).isTrue();
+        assertThat(restored.getPayloads()).hasSize(1);
+        assertThat(restored.getPayloads().get(0).getPayloadId()).isEqualTo(42L);
+        assertThat(restored.getPayloads().get(0).getMessage()).isSameAs(restored);
+    }
+
+    /**
+     * Test that only messages read before the cutoff are found for archiving, oldest read first.
+     */
+    @Test
+    public void findIdsReadBeforeTest() {
+        // Arrange
+        Message unread = persist(null);
+        Message readLater = persist(Instant.parse("2022-03-01T00:00:00Z"));
+        Message readFirst = persist(Instant.parse("2022-01-01T00:00:00Z"));
+        Message readSecond = persist(Instant.parse("2022-02-01T00:00:00Z"));
+        entityManager.flush();
+
+        // Act
+        List<Integer> ids = messageRepository.findIdsReadBefore(Instant.parse("2022-02-15T00:00:00Z"),
+            PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(ids).containsExactly(readFirst.getId(), readSecond.getId());
+        assertThat(ids).doesNotContain(unread.getId(), readLater.getId());
+    }
+
+    private Message persist(Instant readAt) {
+        Message message = new Message(MessageTarget.of("a"), MessageTarget.of("b"), MessageType.OTHER, "body",
+            Instant.parse("2021-12-01T00:00:00Z"));
+        if (readAt != null) {
+            message.readMessage(readAt);
+        }
+        return entityManager.persist(message);
+    }
+}
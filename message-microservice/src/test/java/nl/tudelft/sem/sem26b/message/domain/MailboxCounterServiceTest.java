@@ -0,0 +1,150 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+/**
+ * Tests for the MailboxCounterService.
+ */
+public class MailboxCounterServiceTest {
+
+    private transient MailboxCounterService mailboxCounterService;
+
+    private transient MailboxCounterRepository mockMailboxCounterRepository;
+
+    /**
+     * Set up for each test.
+     * Mock and inject dependencies.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockMailboxCounterRepository = Mockito.mock(MailboxCounterRepository.class);
+        mailboxCounterService = new MailboxCounterService(mockMailboxCounterRepository);
+    }
+
+    /**
+     * Test the messagesSent method.
+     * The messages are counted per mailbox, and the mailboxes are updated in order.
+     */
+    @Test
+    public void messagesSentTest() {
+        // Arrange
+        List<Message> messages = List.of(message("HR", "b"), message("HR", "a"), message("a", "HR"),
+            message("HR", "b"));
+
+        // Act
+        mailboxCounterService.messagesSent(messages);
+
+        // Assert
+        InOrder inOrder = inOrder(mockMailboxCounterRepository);
+        inOrder.verify(mockMailboxCounterRepository).createIfAbsent("HR");
+        inOrder.verify(mockMailboxCounterRepository).addSent("HR", 3L);
+        inOrder.verify(mockMailboxCounterRepository).addReceived("HR", 1L);
+        inOrder.verify(mockMailboxCounterRepository).createIfAbsent("a");
+        inOrder.verify(mockMailboxCounterRepository).addSent("a", 1L);
+        inOrder.verify(mockMailboxCounterRepository).addReceived("a", 1L);
+        inOrder.verify(mockMailboxCounterRepository).createIfAbsent("b");
+        inOrder.verify(mockMailboxCounterRepository).addReceived("b", 2L);
+        verifyNoMoreInteractions(mockMailboxCounterRepository);
+    }
+
+    /**
+     * Test the messagesRead method.
+     * The inbox is counted once for all messages, every sender for its own messages, all in a fixed order.
+     */
+    @Test
+    public void messagesReadTest() {
+        // Act
+        mailboxCounterService.messagesRead(MessageTarget.of("b"), Map.of("c", 3L, "a", 2L));
+
+        // Assert
+        InOrder inOrder = inOrder(mockMailboxCounterRepository);
+        inOrder.verify(mockMailboxCounterRepository).readSent("a", 2L);
+        inOrder.verify(mockMailboxCounterRepository).readReceived("b", 5L);
+        inOrder.verify(mockMailboxCounterRepository).readSent("c", 3L);
+        verifyNoMoreInteractions(mockMailboxCounterRepository);
+    }
+
+    /**
+     * Test the messagesRead method.
+     * Nothing is updated when no message was read.
+     */
+    @Test
+    public void messagesReadNothingTest() {
+        // Act
+        mailboxCounterService.messagesRead(MessageTarget.of("b"), Map.of());
+
+        // Assert
+        verifyNoMoreInteractions(mockMailboxCounterRepository);
+    }
+
+    /**
+     * Test the messagesArchived method.
+     * Only the totals are updated, in a fixed order.
+     */
+    @Test
+    public void messagesArchivedTest() {
+        // Act
+        mailboxCounterService.messagesArchived(Map.of("b", 3L, "HR", 1L), Map.of("a", 2L, "b", 2L));
+
+        // Assert
+        InOrder inOrder = inOrder(mockMailboxCounterRepository);
+        inOrder.verify(mockMailboxCounterRepository).removeReceived("HR", 1L);
+        inOrder.verify(mockMailboxCounterRepository).removeSent("a", 2L);
+        inOrder.verify(mockMailboxCounterRepository).removeSent("b", 2L);
+        inOrder.verify(mockMailboxCounterRepository).removeReceived("b", 3L);
+        verifyNoMoreInteractions(mockMailboxCounterRepository);
+    }
+
+    /**
+     * Test the getCounters method.
+     * A mailbox without counters has no messages.
+     */
+    @Test
+    public void getCountersEmptyMailboxTest() {
+        // Arrange
+        when(mockMailboxCounterRepository.findById("abc")).thenReturn(Optional.empty());
+
+        // Act
+        MailboxCounter counters = mailboxCounterService.getCounters(MessageTarget.of("abc"));
+
+        // Assert
+        assertThat(counters.getMailbox()).isEqualTo("abc");
+        assertThat(counters.getInboxTotal()).isZero();
+        assertThat(counters.getInboxUnread()).isZero();
+        assertThat(counters.getOutboxTotal()).isZero();
+        assertThat(counters.getOutboxUnread()).isZero();
+        verify(mockMailboxCounterRepository, times(1)).findById("abc");
+    }
+
+    /**
+     * Test the getCounters method.
+     */
+    @Test
+    public void getCountersTest() {
+        // Arrange
+        MailboxCounter expected = new MailboxCounter("abc");
+        when(mockMailboxCounterRepository.findById("abc")).thenReturn(Optional.of(expected));
+
+        // Act&Assert
+        assertThat(mailboxCounterService.getCounters(MessageTarget.of("abc"))).isSameAs(expected);
+    }
+
+    private static Message message(String sender, String receiver) {
+        return new Message(MessageTarget.of(sender), MessageTarget.of(receiver), MessageType.OTHER, "body",
+            Instant.ofEpochSecond(1L));
+    }
+}
@@ -0,0 +1,122 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Tests for the MailboxCursor.
+ */
+public class MailboxCursorTest {
+
+    /**
+     * Test that a cursor is decoded to the cursor it was encoded from.
+     */
+    @Test
+    public void encodeDecodeTest() {
+        // Arrange
+        MailboxCursor cursor = new MailboxCursor(true, Instant.parse("2022-12-01T10:15:30.123456Z"), 42);
+
+        // Act
+        MailboxCursor decoded = MailboxCursor.decode(cursor.encode());
+
+        // Assert
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.isWasRead()).isTrue();
+        assertThat(decoded.getSentAt()).isEqualTo(Instant.parse("2022-12-01T10:15:30.123456Z"));
+        assertThat(decoded.getId()).isEqualTo(42);
+    }
+
+    /**
+     * Test that the encoded cursor can be used in an url as is.
+     */
+    @Test
+    public void encodeUrlSafeTest() {
+        // Act
+        String encoded = new MailboxCursor(false, Instant.ofEpochSecond(1L), 1).encode();
+
+        // Assert
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    /**
+     * Test the after method, the cursor points at the given message.
+     */
+    @Test
+    public void afterTest() {
+        // Arrange
+        MailboxEntry entry = new MailboxEntry() {
+            @Override
+            public Integer getId() {
+                return 3;
+            }
+
+            @Override
+            public Boolean getWasRead() {
+                return false;
+            }
+
+            @Override
+            public Instant getSentAt() {
+                return Instant.ofEpochSecond(5L);
+            }
+        };
+
+        // Act&Assert
+        assertThat(MailboxCursor.after(entry)).isEqualTo(new MailboxCursor(false, Instant.ofEpochSecond(5L), 3));
+    }
+
+    /**
+     * Test that a string that is not base64 is rejected.
+     */
+    @Test
+    public void decodeNotBase64Test() {
+        assertThatThrownBy(() -> MailboxCursor.decode("not a cursor"))
+            .isInstanceOf(ResponseStatusException.class);
+    }
+
+    /**
+     * Test that a cursor with missing parts is rejected.
+     */
+    @Test
+    public void decodeMissingPartsTest() {
+        assertThatThrownBy(() -> MailboxCursor.decode(encode("1|2022-12-01T10:15:30Z")))
+            .isInstanceOf(ResponseStatusException.class);
+    }
+
+    /**
+     * Test that a cursor with an invalid read status is rejected.
+     */
+    @Test
+    public void decodeInvalidReadStatusTest() {
+        assertThatThrownBy(() -> MailboxCursor.decode(encode("yes|2022-12-01T10:15:30Z|1")))
+            .isInstanceOf(ResponseStatusException.class);
+    }
+
+    /**
+     * Test that a cursor with an invalid time is rejected.
+     */
+    @Test
+    public void decodeInvalidTimeTest() {
+        assertThatThrownBy(() -> MailboxCursor.decode(encode("1|yesterday|1")))
+            .isInstanceOf(ResponseStatusException.class);
+    }
+
+    /**
+     * Test that a cursor with an invalid id is rejected.
+     */
+    @Test
+    public void decodeInvalidIdTest() {
+        assertThatThrownBy(() -> MailboxCursor.decode(encode("1|2022-12-01T10:15:30Z|one")))
+            .isInstanceOf(ResponseStatusException.class);
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
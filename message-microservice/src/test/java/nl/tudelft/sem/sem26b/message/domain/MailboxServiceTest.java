@@ -10,11 +10,11 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import nl.tudelft.sem.sem26b.message.models.GetInboxOrOutboxResponseModel;
+import nl.tudelft.sem.sem26b.message.models.MessageHeaderModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 
 /**
  * Tests for the MailboxService.
@@ -25,6 +25,8 @@ public class MailboxServiceTest {
 
     private transient MessageRepository mockMessageRepository;
 
+    private transient MailboxCounterService mockMailboxCounterService;
+
     /**
      * Set up for each test.
      * Mock and inject dependencies.
@@ -32,23 +34,21 @@ public class MailboxServiceTest {
     @BeforeEach
     public void setUp() {
         mockMessageRepository = Mockito.mock(MessageRepository.class);
-        mailboxService = new MailboxService(mockMessageRepository);
+        mockMailboxCounterService = Mockito.mock(MailboxCounterService.class);
+        mailboxService = new MailboxService(mockMessageRepository, mockMailboxCounterService);
     }
 
     /**
      * Test the getInbox method.
+     * The counts are read from the counters of the mailbox.
      */
     @Test
     public void getInboxTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("1234");
-        List<Message> returnList = messageProvider(5);
-        PageRequest inboxRequest =
-            PageRequest.of(3, 100, Sort.by("status.wasRead").ascending().and(Sort.by("status.sentAt").descending()));
-        returnList.get(0).readMessage(Instant.ofEpochSecond(3L));
-        when(mockMessageRepository.findAllByReceiver(target, inboxRequest)).thenReturn(returnList);
-        when(mockMessageRepository.countByReceiverAndStatus_WasRead(target, false)).thenReturn(9);
-        when(mockMessageRepository.countByReceiver(target)).thenReturn(10);
+        MessageTarget target = MessageTarget.of("1234");
+        List<MailboxEntry> entries = List.of(entry(1, true), entry(2, false), entry(3, false));
+        when(mockMessageRepository.findInboxPage(target, PageRequest.of(3, 100))).thenReturn(entries);
+        when(mockMailboxCounterService.getCounters(target)).thenReturn(counters(10, 9, 0, 0));
 
         // Act
         GetInboxOrOutboxResponseModel response = mailboxService.getInbox(target, 4);
@@ -56,183 +56,238 @@ public class MailboxServiceTest {
         // Assert
         assertThat(response.getAllMessagesCount()).isEqualTo(10);
         assertThat(response.getUnreadMessagesCount()).isEqualTo(9);
-        assertThat(response.getReadMessages()).hasSize(1);
-        assertThat(response.getUnreadMessages()).hasSize(4);
-        verify(mockMessageRepository, times(1)).findAllByReceiver(target, inboxRequest);
-        verify(mockMessageRepository, times(1)).countByReceiverAndStatus_WasRead(target, false);
-        verify(mockMessageRepository, times(1)).countByReceiver(target);
+        assertThat(response.getReadMessages()).containsExactly(1);
+        assertThat(response.getUnreadMessages()).containsExactly(2, 3);
+        assertThat(response.getNextCursor()).isNull();
+        verify(mockMessageRepository, times(1)).findInboxPage(target, PageRequest.of(3, 100));
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
     /**
-     * Test the getOutbox method.
+     * Test the getInbox method.
+     * A page beyond the end of the inbox still returns the counts.
      */
     @Test
-    public void getOutboxTest() {
+    public void getInboxEmptyPageTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("12345");
-        List<Message> returnList = messageProvider(2);
-        returnList.get(0).readMessage(Instant.ofEpochSecond(3L));
-        PageRequest outboxRequest =
-            PageRequest.of(33, 100, Sort.by("status.sentAt").descending());
-        when(mockMessageRepository.findAllBySender(target, outboxRequest)).thenReturn(returnList);
-        when(mockMessageRepository.countBySenderAndStatus_WasRead(target, false)).thenReturn(99);
-        when(mockMessageRepository.countBySender(target)).thenReturn(109);
+        MessageTarget target = MessageTarget.of("1234");
+        when(mockMessageRepository.findInboxPage(target, PageRequest.of(0, 100))).thenReturn(List.of());
+        when(mockMailboxCounterService.getCounters(target)).thenReturn(counters(0, 0, 5, 1));
 
         // Act
-        GetInboxOrOutboxResponseModel response = mailboxService.getOutbox(target, 34);
+        GetInboxOrOutboxResponseModel response = mailboxService.getInbox(target, -3);
 
         // Assert
-        assertThat(response.getAllMessagesCount()).isEqualTo(109);
-        assertThat(response.getUnreadMessagesCount()).isEqualTo(99); // 0
-        assertThat(response.getReadMessages()).hasSize(1);
-        assertThat(response.getUnreadMessages()).hasSize(1);
-        verify(mockMessageRepository, times(1)).findAllBySender(target, outboxRequest);
-        verify(mockMessageRepository, times(1)).countBySender(target);
-        verify(mockMessageRepository, times(1)).countBySenderAndStatus_WasRead(target, false);
+        assertThat(response.getAllMessagesCount()).isZero();
+        assertThat(response.getUnreadMessagesCount()).isZero();
+        assertThat(response.getReadMessages()).isEmpty();
+        assertThat(response.getUnreadMessages()).isEmpty();
+        verify(mockMessageRepository, times(1)).findInboxPage(target, PageRequest.of(0, 100));
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
     /**
-     * Test for getInboxContents, correct usage, page >= 1.
+     * Test the getInbox method.
+     * A full page returns the cursor of the next page, pointing after its last message.
      */
     @Test
-    public void testGetInboxContents() {
+    public void getInboxFullPageTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("qweerty");
-        int page = 112;
-        PageRequest pageRequest =
-            PageRequest.of(111, 100, Sort.by("status.wasRead").ascending().and(Sort.by("status.sentAt").descending()));
-        List<Message> expected = messageProvider(3);
-        when(mockMessageRepository.findAllByReceiver(target, pageRequest)).thenReturn(expected);
+        MessageTarget target = MessageTarget.of("1234");
+        List<MailboxEntry> entries = entries(100, false);
+        when(mockMessageRepository.findInboxPage(target, PageRequest.of(0, 100))).thenReturn(entries);
+        when(mockMailboxCounterService.getCounters(target)).thenReturn(counters(150, 150, 0, 0));
 
-        // Act&Assert
-        assertThat(mailboxService.getInboxContents(target, page)).isEqualTo(expected);
-        verify(mockMessageRepository, times(1))
-            .findAllByReceiver(target, PageRequest.of(111, 100, pageRequest.getSort()));
-        verifyNoMoreInteractions(mockMessageRepository);
+        // Act
+        GetInboxOrOutboxResponseModel response = mailboxService.getInbox(target, 1);
+
+        // Assert
+        assertThat(response.getUnreadMessages()).hasSize(100);
+        assertThat(MailboxCursor.decode(response.getNextCursor()))
+            .isEqualTo(new MailboxCursor(false, Instant.ofEpochSecond(99), 99));
     }
 
     /**
-     * Test for getInboxContents, incorrect usage, page < 1. Should return default to first page.
+     * Test the getInbox method with a cursor.
+     * The unread messages after the cursor are followed by the first read messages.
      */
     @Test
-    public void testGetInboxContentsPageTooLow() {
+    public void getInboxAfterUnreadCursorTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("qweerty");
-        int page = -112;
-        PageRequest pageRequest =
-            PageRequest.of(0, 100, Sort.by("status.wasRead").ascending().and(Sort.by("status.sentAt").descending()));
-        List<Message> expected = messageProvider(3);
-        when(mockMessageRepository.findAllByReceiver(target, pageRequest)).thenReturn(expected);
+        MessageTarget target = MessageTarget.of("1234");
+        MailboxCursor cursor = new MailboxCursor(false, Instant.ofEpochSecond(50), 7);
+        when(mockMessageRepository.findInboxPageAfter(target, false, Instant.ofEpochSecond(50), 7,
+            PageRequest.of(0, 100))).thenReturn(List.of(entry(6, false), entry(5, false)));
+        when(mockMessageRepository.findReadInboxPage(target, PageRequest.of(0, 98)))
+            .thenReturn(List.of(entry(9, true)));
+        when(mockMailboxCounterService.getCounters(target)).thenReturn(counters(103, 102, 0, 0));
 
-        // Act&Assert
-        assertThat(mailboxService.getInboxContents(target, page)).isEqualTo(expected);
-        verify(mockMessageRepository, times(1))
-            .findAllByReceiver(target, PageRequest.of(0, 100, pageRequest.getSort()));
+        // Act
+        GetInboxOrOutboxResponseModel response = mailboxService.getInbox(target, cursor);
+
+        // Assert
+        assertThat(response.getUnreadMessages()).containsExactly(6, 5);
+        assertThat(response.getReadMessages()).containsExactly(9);
+        assertThat(response.getAllMessagesCount()).isEqualTo(103);
+        assertThat(response.getNextCursor()).isNull();
+        verify(mockMessageRepository, times(1)).findInboxPageAfter(target, false, Instant.ofEpochSecond(50), 7,
+            PageRequest.of(0, 100));
+        verify(mockMessageRepository, times(1)).findReadInboxPage(target, PageRequest.of(0, 98));
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
     /**
-     * Test for getOutboxContents, correct usage, page >= 1.
+     * Test the getInbox method with a cursor.
+     * After a read message only read messages follow.
      */
     @Test
-    public void testGetOutboxContents() {
+    public void getInboxAfterReadCursorTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("ID");
-        int page = 12;
-        List<Message> expected = messageProvider(2);
-        when(mockMessageRepository.findAllBySender(target, PageRequest.of(11, 100, Sort.by("status.sentAt").descending())))
-            .thenReturn(expected);
+        MessageTarget target = MessageTarget.of("1234");
+        MailboxCursor cursor = new MailboxCursor(true, Instant.ofEpochSecond(50), 7);
+        List<MailboxEntry> entries = entries(100, true);
+        when(mockMessageRepository.findInboxPageAfter(target, true, Instant.ofEpochSecond(50), 7,
+            PageRequest.of(0, 100))).thenReturn(entries);
+        when(mockMailboxCounterService.getCounters(target)).thenReturn(counters(300, 0, 0, 0));
 
-        // Act&Assert
-        assertThat(mailboxService.getOutboxContents(target, page)).isEqualTo(expected);
-        verify(mockMessageRepository, times(1))
-            .findAllBySender(target, PageRequest.of(11, 100, Sort.by("status.sentAt").descending()));
+        // Act
+        GetInboxOrOutboxResponseModel response = mailboxService.getInbox(target, cursor);
+
+        // Assert
+        assertThat(response.getReadMessages()).hasSize(100);
+        assertThat(MailboxCursor.decode(response.getNextCursor()))
+            .isEqualTo(new MailboxCursor(true, Instant.ofEpochSecond(99), 99));
+        verify(mockMessageRepository, times(1)).findInboxPageAfter(target, true, Instant.ofEpochSecond(50), 7,
+            PageRequest.of(0, 100));
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
     /**
-     * Test for getOutboxContents, incorrect usage, page < 1. Should return default to first page.
+     * Test the getOutbox method.
      */
     @Test
-    public void testGetOutboxContentsPageTooLow() {
+    public void getOutboxTest() {
         // Arrange
-        MessageTarget target = new MessageTarget("IDD");
-        int page = -1;
-        List<Message> expected = messageProvider(1);
-        when(mockMessageRepository.findAllBySender(target, PageRequest.of(0, 100, Sort.by("status.sentAt").descending())))
-            .thenReturn(expected);
+        MessageTarget target = MessageTarget.of("12345");
+        List<MailboxEntry> entries = List.of(entry(7, true), entry(8, false));
+        when(mockMessageRepository.findOutboxPage(target, PageRequest.of(33, 100))).thenReturn(entries);
+        when(mockMailboxCounterService.getCounters(target)).thenReturn(counters(3, 2, 109, 99));
 
-        // Act&Assert
-        assertThat(mailboxService.getOutboxContents(target, page)).isEqualTo(expected);
-        verify(mockMessageRepository, times(1))
-            .findAllBySender(target, PageRequest.of(0, 100, Sort.by("status.sentAt").descending()));
+        // Act
+        GetInboxOrOutboxResponseModel response = mailboxService.getOutbox(target, 34);
+
+        // Assert
+        assertThat(response.getAllMessagesCount()).isEqualTo(109);
+        assertThat(response.getUnreadMessagesCount()).isEqualTo(99);
+        assertThat(response.getReadMessages()).containsExactly(7);
+        assertThat(response.getUnreadMessages()).containsExactly(8);
+        verify(mockMessageRepository, times(1)).findOutboxPage(target, PageRequest.of(33, 100));
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
     /**
-     * Test for getInboxSize.
+     * Test the getOutbox method with a cursor.
      */
     @Test
-    public void getInboxSizeTest() {
-        when(mockMessageRepository.countByReceiver(new MessageTarget("abc"))).thenReturn(5);
-        assertThat(mailboxService.getInboxSize(new MessageTarget("abc"))).isEqualTo(5);
-        verify(mockMessageRepository, times(1)).countByReceiver(new MessageTarget("abc"));
+    public void getOutboxAfterCursorTest() {
+        // Arrange
+        MessageTarget target = MessageTarget.of("12345");
+        MailboxCursor cursor = new MailboxCursor(true, Instant.ofEpochSecond(50), 7);
+        when(mockMessageRepository.findOutboxPageAfter(target, Instant.ofEpochSecond(50), 7, PageRequest.of(0, 100)))
+            .thenReturn(List.of(entry(6, true), entry(5, false)));
+        when(mockMailboxCounterService.getCounters(target)).thenReturn(counters(0, 0, 109, 99));
+
+        // Act
+        GetInboxOrOutboxResponseModel response = mailboxService.getOutbox(target, cursor);
+
+        // Assert
+        assertThat(response.getReadMessages()).containsExactly(6);
+        assertThat(response.getUnreadMessages()).containsExactly(5);
+        assertThat(response.getAllMessagesCount()).isEqualTo(109);
+        assertThat(response.getNextCursor()).isNull();
+        verify(mockMessageRepository, times(1))
+            .findOutboxPageAfter(target, Instant.ofEpochSecond(50), 7, PageRequest.of(0, 100));
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
     /**
-     * Test for getUnreadMessagesAmount.
+     * Test the getHeaders method.
+     * The headers are returned in the order of the ids, missing messages are skipped.
      */
     @Test
-    public void getUnreadMessagesAmountTest() {
-        when(mockMessageRepository.countByReceiverAndStatus_WasRead(new MessageTarget("qwerty"), false)).thenReturn(15);
-        assertThat(mailboxService.getUnreadMessagesAmount(new MessageTarget("qwerty"))).isEqualTo(15);
-        verify(mockMessageRepository, times(1)).countByReceiverAndStatus_WasRead(new MessageTarget("qwerty"), false);
+    public void getHeadersTest() {
+        // Arrange
+        MessageHeader first = header(1, "first");
+        MessageHeader second = header(2, "second");
+        when(mockMessageRepository.findHeadersByIdIn(List.of(2, 3, 1))).thenReturn(List.of(first, second));
+
+        // Act
+        List<MessageHeaderModel> headers = mailboxService.getHeaders(List.of(2, 3, 1));
+
+        // Assert
+        assertThat(headers).extracting(MessageHeaderModel::getMessageId).containsExactly(2, 1);
+        assertThat(headers.get(0)).isEqualTo(new MessageHeaderModel(2, "sender", "HR", "CONTRACT_PROPOSE", "second",
+            Instant.ofEpochSecond(2).toString(), true));
+        verify(mockMessageRepository, times(1)).findHeadersByIdIn(List.of(2, 3, 1));
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
     /**
-     * Test for getOutboxSize.
+     * Test the getHeaders method.
+     * No query is sent for an empty page.
      */
     @Test
-    public void getOutboxSizeTest() {
-        when(mockMessageRepository.countBySender(new MessageTarget("AAA"))).thenReturn(9);
-        assertThat(mailboxService.getOutboxSize(new MessageTarget("AAA"))).isEqualTo(9);
-        verify(mockMessageRepository, times(1)).countBySender(new MessageTarget("AAA"));
+    public void getHeadersEmptyPageTest() {
+        // Act&Assert
+        assertThat(mailboxService.getHeaders(List.of())).isEmpty();
         verifyNoMoreInteractions(mockMessageRepository);
     }
 
-    /**
-     * Test for getUnreadOutboxMessagesAmount.
-     */
-    @Test
-    public void getUnreadOutboxMessagesAmountTest() {
-        when(mockMessageRepository.countBySenderAndStatus_WasRead(new MessageTarget("BBB"), false)).thenReturn(3);
-        assertThat(mailboxService.getUnreadOutboxMessagesAmount(new MessageTarget("BBB"))).isEqualTo(3);
-        verify(mockMessageRepository, times(1)).countBySenderAndStatus_WasRead(new MessageTarget("BBB"), false);
-        verifyNoMoreInteractions(mockMessageRepository);
+    private static MailboxCounter counters(long inboxTotal, long inboxUnread, long outboxTotal, long outboxUnread) {
+        MailboxCounter counters = Mockito.mock(MailboxCounter.class);
+        when(counters.getInboxTotal()).thenReturn(inboxTotal);
+        when(counters.getInboxUnread()).thenReturn(inboxUnread);
+        when(counters.getOutboxTotal()).thenReturn(outboxTotal);
+        when(counters.getOutboxUnread()).thenReturn(outboxUnread);
+        return counters;
     }
 
-    /**
-     * Generate a list of messages with the given amount.
-     * Used for testing.
-     *
-     * @param amount The amount of messages to generate.
-     * @return The list of messages.
-     */
-    private List<Message> messageProvider(int amount) {
-        if (amount < 0) {
-            throw new IllegalArgumentException("Amount cannot be negative.");
-        }
-        List<Message> messages = new ArrayList<>();
+    private static MessageHeader header(int id, String preview) {
+        MessageHeader header = Mockito.mock(MessageHeader.class);
+        when(header.getId()).thenReturn(id);
+        when(header.getSender()).thenReturn(MessageTarget.of("sender"));
+        when(header.getReceiver()).thenReturn(MessageTarget.of(MessageTarget.HR_TARGET_LABEL));
+        when(header.getMessageType()).thenReturn(MessageType.CONTRACT_PROPOSE);
+        when(header.getPreview()).thenReturn(preview);
+        when(header.getSentAt()).thenReturn(Instant.ofEpochSecond(id));
+        when(header.getWasRead()).thenReturn(true);
+        return header;
+    }
+
+    private static List<MailboxEntry> entries(int amount, boolean wasRead) {
+        List<MailboxEntry> entries = new ArrayList<>();
         for (int i = 0; i < amount; i++) {
-            messages.add(
-                new Message(new MessageTarget("1234"), new MessageTarget("1234"), MessageType.CONTRACT_APPROVE, "test",
-                    Instant.ofEpochSecond(i)));
+            entries.add(entry(i, wasRead));
         }
-        return messages;
+        return entries;
     }
 
+    private static MailboxEntry entry(int id, boolean wasRead) {
+        return new MailboxEntry() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public Boolean getWasRead() {
+                return wasRead;
+            }
+
+            @Override
+            public Instant getSentAt() {
+                return Instant.ofEpochSecond(id);
+            }
+        };
+    }
 }
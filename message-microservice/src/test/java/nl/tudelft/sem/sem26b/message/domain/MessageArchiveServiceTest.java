@@ -0,0 +1,136 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Tests for the MessageArchiveService.
+ */
+public class MessageArchiveServiceTest {
+
+    private static final Instant READ_BEFORE = Instant.ofEpochSecond(1000L);
+
+    private transient MessageRepository mockMessageRepository;
+    private transient ArchivedMessageRepository mockArchivedMessageRepository;
+    private transient MailboxCounterService mockMailboxCounterService;
+
+    private transient MessageArchiveService archiveService;
+
+    /**
+     * Set up for each test.
+     * Mock and inject dependencies.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockMessageRepository = Mockito.mock(MessageRepository.class);
+        mockArchivedMessageRepository = Mockito.mock(ArchivedMessageRepository.class);
+        mockMailboxCounterService = Mockito.mock(MailboxCounterService.class);
+        archiveService = new MessageArchiveService(mockMessageRepository, mockArchivedMessageRepository,
+            mockMailboxCounterService, 30, 2);
+    }
+
+    /**
+     * Test the archiveBatch method.
+     * The messages are copied into the archive before they are deleted, and the counts are updated.
+     */
+    @Test
+    public void archiveBatchTest() {
+        // Arrange
+        List<Integer> ids = List.of(1, 2);
+        when(mockMessageRepository.findIdsReadBefore(READ_BEFORE, PageRequest.of(0, 2))).thenReturn(ids);
+        when(mockMessageRepository.countByReceiverForIds(ids)).thenReturn(List.of(count("HR", 2L)));
+        when(mockMessageRepository.countBySenderForIds(ids)).thenReturn(List.of(count("a", 1L), count("b", 1L)));
+        when(mockMessageRepository.deleteByIds(ids)).thenReturn(2);
+
+        // Act
+        int archived = archiveService.archiveBatch(READ_BEFORE);
+
+        // Assert
+        assertThat(archived).isEqualTo(2);
+        InOrder inOrder = inOrder(mockArchivedMessageRepository, mockMessageRepository);
+        inOrder.verify(mockArchivedMessageRepository).archiveMessages(eq(ids), any(Instant.class));
+        inOrder.verify(mockArchivedMessageRepository).archivePayloads(ids);
+        inOrder.verify(mockMessageRepository).deletePayloadsByMessageIds(ids);
+        inOrder.verify(mockMessageRepository).deleteByIds(ids);
+        verify(mockMailboxCounterService, times(1)).messagesArchived(Map.of("HR", 2L), Map.of("a", 1L, "b", 1L));
+    }
+
+    /**
+     * Test the archiveBatch method.
+     * Nothing is done when no message is old enough.
+     */
+    @Test
+    public void archiveBatchNothingToArchiveTest() {
+        // Arrange
+        when(mockMessageRepository.findIdsReadBefore(READ_BEFORE, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        // Act
+        int archived = archiveService.archiveBatch(READ_BEFORE);
+
+        // Assert
+        assertThat(archived).isZero();
+        verify(mockMessageRepository, times(1)).findIdsReadBefore(READ_BEFORE, PageRequest.of(0, 2));
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockArchivedMessageRepository);
+        verifyNoMoreInteractions(mockMailboxCounterService);
+    }
+
+    /**
+     * Test the retrieveArchivedMessage method.
+     */
+    @Test
+    public void retrieveArchivedMessageTest() {
+        // Arrange
+        ArchivedMessage archived = Mockito.mock(ArchivedMessage.class);
+        Message message = new Message(MessageTarget.of("a"), MessageTarget.of("b"), MessageType.OTHER, "body",
+            Instant.ofEpochSecond(1L));
+        when(archived.toMessage()).thenReturn(message);
+        when(mockArchivedMessageRepository.findWithPayloadsById(7)).thenReturn(Optional.of(archived));
+
+        // Act&Assert
+        assertThat(archiveService.retrieveArchivedMessage(7)).contains(message);
+        assertThat(archiveService.retrieveArchivedMessage(8)).isEmpty();
+    }
+
+    /**
+     * Test the retentionCutoff method, messages read before the retention age are archived.
+     */
+    @Test
+    public void retentionCutoffTest() {
+        // Act&Assert
+        assertThat(archiveService.retentionCutoff())
+            .isCloseTo(Instant.now().minus(30, ChronoUnit.DAYS), within(1, ChronoUnit.MINUTES));
+    }
+
+    private static MailboxCount count(String mailbox, long count) {
+        return new MailboxCount() {
+            @Override
+            public MessageTarget getMailbox() {
+                return MessageTarget.of(mailbox);
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Tests for the MessageCache.
+ */
+public class MessageCacheTest {
+
+    private static final MessageTarget RECEIVER = MessageTarget.of("netId2");
+
+    private transient SimpleMeterRegistry meterRegistry;
+
+    private transient MessageCache messageCache;
+
+    private transient AtomicInteger loads;
+
+    /**
+     * Set up for each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        messageCache = new MessageCache(meterRegistry, 100, 600);
+        loads = new AtomicInteger();
+    }
+
+    /**
+     * Test that a message is loaded once, and that hits and misses are published.
+     */
+    @Test
+    public void getTest() {
+        // Act
+        messageCache.get(1, this::load);
+        messageCache.get(1, this::load);
+        messageCache.get(1, this::load);
+
+        // Assert
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", MessageCache.CACHE_NAME).tag("result", "hit")
+            .functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cache.hit.ratio").gauge().value()).isEqualTo(2.0 / 3.0);
+    }
+
+    /**
+     * Test that messages that do not exist are not cached.
+     */
+    @Test
+    public void getMissingTest() {
+        // Act
+        Optional<Message> first = messageCache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        messageCache.get(1, this::load);
+
+        // Assert
+        assertThat(first).isEmpty();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    /**
+     * Test that a read message replaces the cached message once the transaction commits.
+     */
+    @Test
+    public void messageReadAfterCommitTest() {
+        // Arrange
+        messageCache.get(1, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            messageCache.messageRead(1, Instant.ofEpochSecond(5L));
+
+            // Assert
+            assertThat(cached(1).getStatus().isWasRead()).isFalse();
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertThat(cached(1).getStatus().isWasRead()).isTrue();
+            assertThat(cached(1).getStatus().getReadAt()).isEqualTo(Instant.ofEpochSecond(5L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Test that messages are removed by id.
+     */
+    @Test
+    public void invalidateTest() {
+        // Arrange
+        messageCache.get(1, this::load);
+        messageCache.get(2, this::load);
+
+        // Act
+        messageCache.invalidate(List.of(1));
+        messageCache.get(1, this::load);
+        messageCache.get(2, this::load);
+
+        // Assert
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    private Optional<Message> load(int id) {
+        loads.incrementAndGet();
+        return Optional.of(new Message(id, MessageTarget.of("netId"), RECEIVER, MessageType.OTHER, "Hello",
+            new MessageStatus(Instant.ofEpochSecond(1L))));
+    }
+
+    private Message cached(int id) {
+        return messageCache.get(id, this::load).orElseThrow();
+    }
+}
@@ -67,4 +67,17 @@ public class MessagePayloadTest {
         assertThat(messagePayload.getId()).isEqualTo(123);
     }
 
+    /**
+     * Test the lookup of supported types.
+     */
+    @Test
+    public void testIsAllowedType() {
+        for (String type : MessagePayload.ALLOWED_PAYLOAD_TYPES) {
+            assertThat(MessagePayload.isAllowedType(type)).isTrue();
+            assertThat(MessagePayload.isAllowedType(type.toUpperCase(Locale.ROOT))).isTrue();
+        }
+        assertThat(MessagePayload.isAllowedType("test12345")).isFalse();
+        assertThat(MessagePayload.isAllowedType(null)).isFalse();
+    }
+
 }
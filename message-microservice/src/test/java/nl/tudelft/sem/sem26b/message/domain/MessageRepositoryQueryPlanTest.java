@@ -0,0 +1,180 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+/**
+ * Query plan regression test for the MessageRepository.
+ * The schema is created by the Flyway migrations, every query method of the repository is called and the plan H2
+ * chooses for each statement it sends must use an index instead of scanning the whole table.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "nl.tudelft.sem.sem26b.message.domain.MessageRepositoryQueryPlanTest$RecordingStatementInspector"
+})
+public class MessageRepositoryQueryPlanTest {
+
+    /**
+     * Marker H2 puts in the plan of a query that reads all rows of a table.
+     */
+    private static final String TABLE_SCAN = "tableScan";
+
+    private static final MessageTarget TARGET = MessageTarget.of("netId");
+
+    @Autowired
+    private transient MessageRepository messageRepository;
+
+    @Autowired
+    private transient DataSource dataSource;
+
+    /**
+     * Test that no query of the repository falls back to a full table scan.
+     */
+    @Test
+    public void noTableScansTest() throws SQLException {
+        // Act
+        Map<String, List<String>> statements = recordStatements();
+
+        // Assert
+        assertThat(statements.keySet()).containsExactlyInAnyOrderElementsOf(queryMethods());
+        for (Map.Entry<String, List<String>> method : statements.entrySet()) {
+            assertThat(method.getValue()).as(method.getKey()).isNotEmpty();
+            for (String sql : method.getValue()) {
+                assertThat(explain(sql)).as(method.getKey() + ": " + sql).doesNotContain(TABLE_SCAN);
+            }
+        }
+    }
+
+    /**
+     * Test that the plans are actually checked, a query without a usable index is reported.
+     */
+    @Test
+    public void detectsTableScanTest() throws SQLException {
+        // Act&Assert
+        assertThat(explain("SELECT m.id FROM message m WHERE m.contents = ?")).contains(TABLE_SCAN);
+    }
+
+    /**
+     * Calls every query method of the repository.
+     * A method added to the repository has to be called here as well, otherwise noTableScansTest fails.
+     *
+     * @return the statements sent to the database, per method.
+     */
+    private Map<String, List<String>> recordStatements() {
+        Map<String, List<String>> statements = new TreeMap<>();
+        record(statements, "findById", () -> messageRepository.findById(1));
+        record(statements, "findWithPayloadsById", () -> messageRepository.findWithPayloadsById(1));
+        record(statements, "findAllWithPayloadsByIdIn",
+            () -> messageRepository.findAllWithPayloadsByIdIn(List.of(1, 2, 3)));
+        record(statements, "findHeadersByIdIn", () -> messageRepository.findHeadersByIdIn(List.of(1, 2, 3)));
+        record(statements, "findInboxPage", () -> messageRepository.findInboxPage(TARGET, PageRequest.of(3, 100)));
+        record(statements, "findInboxPageAfter",
+            () -> messageRepository.findInboxPageAfter(TARGET, false, Instant.now(), 1, PageRequest.of(0, 100)));
+        record(statements, "findReadInboxPage",
+            () -> messageRepository.findReadInboxPage(TARGET, PageRequest.of(0, 100)));
+        record(statements, "findOutboxPage", () -> messageRepository.findOutboxPage(TARGET, PageRequest.of(3, 100)));
+        record(statements, "findOutboxPageAfter",
+            () -> messageRepository.findOutboxPageAfter(TARGET, Instant.now(), 1, PageRequest.of(0, 100)));
+        record(statements, "findUnreadIdsForUpdate",
+            () -> messageRepository.findUnreadIdsForUpdate(TARGET, List.of(1, 2, 3)));
+        record(statements, "findUnreadIdsSentBeforeForUpdate",
+            () -> messageRepository.findUnreadIdsSentBeforeForUpdate(TARGET, Instant.now()));
+        record(statements, "countUnreadBySenderForIds",
+            () -> messageRepository.countUnreadBySenderForIds(TARGET, List.of(1, 2, 3)));
+        record(statements, "countUnreadBySenderSentBefore",
+            () -> messageRepository.countUnreadBySenderSentBefore(TARGET, Instant.now()));
+        record(statements, "markAsReadByIds",
+            () -> messageRepository.markAsReadByIds(TARGET, List.of(1, 2, 3), Instant.now()));
+        record(statements, "markAsReadSentBefore",
+            () -> messageRepository.markAsReadSentBefore(TARGET, Instant.now(), Instant.now()));
+        record(statements, "findIdsReadBefore",
+            () -> messageRepository.findIdsReadBefore(Instant.now(), PageRequest.of(0, 500)));
+        record(statements, "countByReceiverForIds", () -> messageRepository.countByReceiverForIds(List.of(1, 2, 3)));
+        record(statements, "countBySenderForIds", () -> messageRepository.countBySenderForIds(List.of(1, 2, 3)));
+        record(statements, "deletePayloadsByMessageIds",
+            () -> messageRepository.deletePayloadsByMessageIds(List.of(1, 2, 3)));
+        record(statements, "deleteByIds", () -> messageRepository.deleteByIds(List.of(1, 2, 3)));
+        record(statements, "findTextsAfter", () -> messageRepository.findTextsAfter(1, PageRequest.of(0, 1000)));
+        return statements;
+    }
+
+    private static void record(Map<String, List<String>> statements, String method, Runnable call) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        call.run();
+        statements.put(method, new ArrayList<>(RecordingStatementInspector.STATEMENTS));
+    }
+
+    private static Set<String> queryMethods() {
+        return Arrays.stream(MessageRepository.class.getDeclaredMethods())
+            .filter(method -> !method.isDefault() && !method.isSynthetic())
+            .map(Method::getName)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Gets the plan H2 chooses for a statement, the parameters do not influence the plan.
+     *
+     * @param sql the statement, with ? parameters.
+     * @return the plan.
+     */
+    private String explain(String sql) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                StringBuilder result = new StringBuilder();
+                while (plan.next()) {
+                    result.append(plan.getString(1)).append('\n');
+                }
+                return result.toString();
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Records the data statements Hibernate sends, to explain them afterwards.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.trim().toLowerCase(Locale.ROOT);
+            if (statement.startsWith("select") || statement.startsWith("update") || statement.startsWith("delete")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
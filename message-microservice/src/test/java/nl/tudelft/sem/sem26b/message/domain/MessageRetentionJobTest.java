@@ -0,0 +1,68 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Tests for the MessageRetentionJob.
+ */
+public class MessageRetentionJobTest {
+
+    private static final Instant READ_BEFORE = Instant.ofEpochSecond(1000L);
+
+    private transient MessageArchiveService mockArchiveService;
+
+    private transient MessageRetentionJob retentionJob;
+
+    /**
+     * Set up for each test.
+     * Mock and inject dependencies.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockArchiveService = Mockito.mock(MessageArchiveService.class);
+        when(mockArchiveService.retentionCutoff()).thenReturn(READ_BEFORE);
+        when(mockArchiveService.getBatchSize()).thenReturn(2);
+        retentionJob = new MessageRetentionJob(mockArchiveService);
+    }
+
+    /**
+     * Test that batches are archived until a batch is not full, all with the same cutoff.
+     */
+    @Test
+    public void archiveReadMessagesTest() {
+        // Arrange
+        when(mockArchiveService.archiveBatch(READ_BEFORE)).thenReturn(2, 2, 1);
+
+        // Act
+        retentionJob.archiveReadMessages();
+
+        // Assert
+        verify(mockArchiveService, times(1)).retentionCutoff();
+        verify(mockArchiveService, times(3)).archiveBatch(READ_BEFORE);
+    }
+
+    /**
+     * Test that a failing batch ends the run, the next run continues.
+     */
+    @Test
+    public void archiveReadMessagesFailureTest() {
+        // Arrange
+        when(mockArchiveService.archiveBatch(READ_BEFORE))
+            .thenReturn(2)
+            .thenThrow(new DataIntegrityViolationException("Duplicate key"));
+
+        // Act
+        retentionJob.archiveReadMessages();
+
+        // Assert
+        verify(mockArchiveService, times(2)).archiveBatch(READ_BEFORE);
+    }
+}
@@ -1,18 +1,30 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import nl.tudelft.sem.sem26b.message.authentication.AuthManager;
 import nl.tudelft.sem.sem26b.message.models.GetMessageResponseModel;
+import nl.tudelft.sem.sem26b.message.models.MarkReadRequestModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Tests for the MessageRetrieverService.
@@ -24,6 +36,11 @@ public class MessageRetrieverServiceTest {
     private transient MessageRepository mockMessageRepository;
     private transient MessageValidator mockValidator;
     private transient AuthManager mockAuthManager;
+    private transient MailboxCounterService mockMailboxCounterService;
+    private transient ApplicationEventPublisher mockEventPublisher;
+    private transient MessageArchiveService mockArchiveService;
+    private transient MessageCache messageCache;
+    private transient ReadReceiptBuffer mockReadReceipts;
 
     /**
      * Setup the test environment.
@@ -34,7 +51,15 @@ public class MessageRetrieverServiceTest {
         mockMessageRepository = Mockito.mock(MessageRepository.class);
         mockValidator = Mockito.mock(MessageValidator.class);
         mockAuthManager = Mockito.mock(AuthManager.class);
-        retrieverService = new MessageRetrieverService(mockMessageRepository, mockValidator, mockAuthManager);
+        mockMailboxCounterService = Mockito.mock(MailboxCounterService.class);
+        mockEventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        mockArchiveService = Mockito.mock(MessageArchiveService.class);
+        messageCache = new MessageCache(new SimpleMeterRegistry(), 100, 600);
+        mockReadReceipts = Mockito.mock(ReadReceiptBuffer.class);
+        when(mockReadReceipts.messageRead(any(Message.class), any(Instant.class)))
+            .thenAnswer(invocation -> invocation.getArgument(1));
+        retrieverService = new MessageRetrieverService(mockMessageRepository, mockValidator, mockAuthManager,
+            mockMailboxCounterService, mockEventPublisher, mockArchiveService, messageCache, mockReadReceipts);
     }
 
     /**
@@ -46,11 +71,12 @@ public class MessageRetrieverServiceTest {
         // Arrange
         Message message = messageProvider(123);
         Optional<Message> messageOptional = Optional.of(message);
-        when(mockMessageRepository.findById(21)).thenReturn(messageOptional);
+        when(mockMessageRepository.findWithPayloadsById(21)).thenReturn(messageOptional);
 
         // Act&Assert
-        assertThat(retrieverService.retrieveMessageById(21)).isEqualTo(message);
-        verify(mockMessageRepository, times(1)).findById(21);
+        assertThat(retrieverService.retrieveMessageById(21)).usingRecursiveComparison().isEqualTo(message);
+        verify(mockMessageRepository, times(1)).findWithPayloadsById(21);
+        verifyNoMoreInteractions(mockArchiveService);
         verifyNoMoreInteractions(mockMessageRepository);
         verifyNoMoreInteractions(mockValidator);
         verifyNoMoreInteractions(mockAuthManager);
@@ -64,16 +90,130 @@ public class MessageRetrieverServiceTest {
     public void retrieveMessageTestNullCase() {
         // Arrange
         Optional<Message> messageOptional = Optional.empty();
-        when(mockMessageRepository.findById(221)).thenReturn(messageOptional);
+        when(mockMessageRepository.findWithPayloadsById(221)).thenReturn(messageOptional);
 
         // Act&Assert
         assertThat(retrieverService.retrieveMessageById(221)).isNull();
-        verify(mockMessageRepository, times(1)).findById(221);
+        verify(mockMessageRepository, times(1)).findWithPayloadsById(221);
+        verify(mockArchiveService, times(1)).retrieveArchivedMessage(221);
         verifyNoMoreInteractions(mockMessageRepository);
         verifyNoMoreInteractions(mockValidator);
         verifyNoMoreInteractions(mockAuthManager);
     }
 
+    /**
+     * Test the retrieveMessage method.
+     * The message was archived, it is retrieved from the archive.
+     */
+    @Test
+    public void retrieveMessageArchivedTest() {
+        // Arrange
+        Message message = messageProvider(123);
+        when(mockMessageRepository.findWithPayloadsById(21)).thenReturn(Optional.empty());
+        when(mockArchiveService.retrieveArchivedMessage(21)).thenReturn(Optional.of(message));
+
+        // Act&Assert
+        assertThat(retrieverService.retrieveMessageById(21)).usingRecursiveComparison().isEqualTo(message);
+        verify(mockMessageRepository, times(1)).findWithPayloadsById(21);
+        verify(mockArchiveService, times(1)).retrieveArchivedMessage(21);
+    }
+
+
+    /**
+     * Test the retrieveMessage method.
+     * The message is loaded once, every retrieval gets its own copy.
+     */
+    @Test
+    public void retrieveMessageCachedTest() {
+        // Arrange
+        Message message = messageProvider(123);
+        when(mockMessageRepository.findWithPayloadsById(21)).thenReturn(Optional.of(message));
+
+        // Act
+        Message first = retrieverService.retrieveMessageById(21);
+        Message second = retrieverService.retrieveMessageById(21);
+
+        // Assert
+        assertThat(second).isNotSameAs(first).usingRecursiveComparison().isEqualTo(first);
+        first.readMessage(Instant.ofEpochSecond(5L));
+        assertThat(second.getStatus().isWasRead()).isFalse();
+        verify(mockMessageRepository, times(1)).findWithPayloadsById(21);
+    }
+
+    /**
+     * Test that opening a message marks the cached message as read.
+     */
+    @Test
+    public void openMessageIfApplicableWritesThroughTest() {
+        // Arrange
+        Message message = messageProvider(123);
+        when(mockMessageRepository.findWithPayloadsById(message.getId())).thenReturn(Optional.of(message));
+        when(mockAuthManager.getNetId()).thenReturn(message.getReceiver().getNetId());
+        Message opened = retrieverService.retrieveMessageById(message.getId());
+
+        // Act
+        retrieverService.openMessageIfApplicable(opened);
+
+        // Assert
+        Message cached = retrieverService.retrieveMessageById(message.getId());
+        assertThat(cached.getStatus().isWasRead()).isTrue();
+        assertThat(cached.getStatus().getReadAt()).isEqualTo(opened.getStatus().getReadAt());
+        verify(mockMessageRepository, times(1)).findWithPayloadsById(message.getId());
+    }
+
+    /**
+     * Test that marking messages of an inbox as read removes them from the cache.
+     */
+    @Test
+    public void markMessagesAsReadInvalidatesTest() {
+        // Arrange
+        Message message = messageProvider(123);
+        when(mockMessageRepository.findWithPayloadsById(message.getId())).thenReturn(Optional.of(message));
+        when(mockMessageRepository.findUnreadIdsSentBeforeForUpdate(eq(message.getReceiver()), any(Instant.class)))
+            .thenReturn(List.of(message.getId()));
+        when(mockMessageRepository.markAsReadSentBefore(eq(message.getReceiver()), any(Instant.class),
+            any(Instant.class))).thenReturn(1);
+        retrieverService.retrieveMessageById(message.getId());
+        MarkReadRequestModel request = new MarkReadRequestModel();
+        request.setBefore("2022-12-01T10:15:30Z");
+
+        // Act
+        retrieverService.markMessagesAsRead(message.getReceiver(), request);
+        retrieverService.retrieveMessageById(message.getId());
+
+        // Assert
+        verify(mockMessageRepository, times(2)).findWithPayloadsById(message.getId());
+    }
+
+    /**
+     * Test the retrieveMessagesByIds method.
+     * The messages are returned in the order of the ids, missing messages are skipped.
+     */
+    @Test
+    public void retrieveMessagesByIdsTest() {
+        // Arrange
+        Message first = Mockito.mock(Message.class);
+        when(first.getId()).thenReturn(1);
+        Message second = Mockito.mock(Message.class);
+        when(second.getId()).thenReturn(2);
+        when(mockMessageRepository.findAllWithPayloadsByIdIn(List.of(2, 3, 1))).thenReturn(List.of(first, second));
+
+        // Act&Assert
+        assertThat(retrieverService.retrieveMessagesByIds(List.of(2, 3, 1))).containsExactly(second, first);
+        verify(mockMessageRepository, times(1)).findAllWithPayloadsByIdIn(List.of(2, 3, 1));
+        verifyNoMoreInteractions(mockMessageRepository);
+    }
+
+    /**
+     * Test the retrieveMessagesByIds method.
+     * No query is sent for an empty page.
+     */
+    @Test
+    public void retrieveMessagesByIdsEmptyTest() {
+        // Act&Assert
+        assertThat(retrieverService.retrieveMessagesByIds(List.of())).isEmpty();
+        verifyNoMoreInteractions(mockMessageRepository);
+    }
 
     /**
      * Test the openMessageIfApplicable method.
@@ -83,18 +223,19 @@ public class MessageRetrieverServiceTest {
     public void openMessageIfApplicableTestCase1() {
         // Arrange
         Message message = new Message(
-            new MessageTarget("netId"), new MessageTarget(MessageTarget.HR_TARGET_LABEL),
+            MessageTarget.of("netId"), MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
             MessageType.OTHER, "body", Instant.ofEpochSecond(2L)
         );
         when(mockValidator.hasHrPermission()).thenReturn(true);
 
         // Act
         assertThat(message.getStatus().isWasRead()).isFalse();
-        retrieverService.openMessageIfApplicable(message);
+        boolean opened = retrieverService.openMessageIfApplicable(message);
 
         // Assert
+        assertThat(opened).isTrue();
         assertThat(message.getStatus().isWasRead()).isTrue();
-        verify(mockMessageRepository, times(1)).save(message);
+        verify(mockReadReceipts, times(1)).messageRead(message, message.getStatus().getReadAt());
         verify(mockValidator, times(1)).hasHrPermission();
         verifyNoMoreInteractions(mockMessageRepository);
         verifyNoMoreInteractions(mockValidator);
@@ -109,15 +250,16 @@ public class MessageRetrieverServiceTest {
     public void openMessageIfApplicableTestCase2() {
         // Arrange
         Message message = new Message(
-            new MessageTarget("netId"), new MessageTarget(MessageTarget.HR_TARGET_LABEL),
+            MessageTarget.of("netId"), MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
             MessageType.OTHER, "body", Instant.ofEpochSecond(2L)
         );
         when(mockValidator.hasHrPermission()).thenReturn(false);
 
         // Act
-        retrieverService.openMessageIfApplicable(message);
+        boolean opened = retrieverService.openMessageIfApplicable(message);
 
         // Assert
+        assertThat(opened).isFalse();
         assertThat(message.getStatus().isWasRead()).isFalse();
         verify(mockValidator, times(1)).hasHrPermission();
         verifyNoMoreInteractions(mockMessageRepository);
@@ -133,15 +275,16 @@ public class MessageRetrieverServiceTest {
     public void openMessageIfApplicableTestCase3() {
         // Arrange
         Message message = new Message(
-            new MessageTarget("netId"), new MessageTarget("netId2"),
+            MessageTarget.of("netId"), MessageTarget.of("netId2"),
             MessageType.OTHER, "body", Instant.ofEpochSecond(2L)
         );
         when(mockAuthManager.getNetId()).thenReturn("netId");
 
         // Act
-        retrieverService.openMessageIfApplicable(message);
+        boolean opened = retrieverService.openMessageIfApplicable(message);
 
         // Assert
+        assertThat(opened).isFalse();
         assertThat(message.getStatus().isWasRead()).isFalse();
         verify(mockAuthManager, times(1)).getNetId();
         verifyNoMoreInteractions(mockMessageRepository);
@@ -157,23 +300,208 @@ public class MessageRetrieverServiceTest {
     public void openMessageIfApplicableTestCase4() {
         // Arrange
         Message message = new Message(
-            new MessageTarget("netId"), new MessageTarget("netId2"),
+            MessageTarget.of("netId"), MessageTarget.of("netId2"),
             MessageType.OTHER, "body", Instant.ofEpochSecond(2L)
         );
         when(mockAuthManager.getNetId()).thenReturn("netId2");
 
         // Act
-        retrieverService.openMessageIfApplicable(message);
+        boolean opened = retrieverService.openMessageIfApplicable(message);
 
         // Assert
+        assertThat(opened).isTrue();
         assertThat(message.getStatus().isWasRead()).isTrue();
-        verify(mockMessageRepository, times(1)).save(message);
+        verify(mockReadReceipts, times(1)).messageRead(message, message.getStatus().getReadAt());
         verify(mockAuthManager, times(1)).getNetId();
         verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockMailboxCounterService);
+        verifyNoMoreInteractions(mockEventPublisher);
         verifyNoMoreInteractions(mockValidator);
         verifyNoMoreInteractions(mockAuthManager);
     }
 
+    /**
+     * Test the openMessageIfApplicable method.
+     * Case: the message was opened before, but the receipt was not written yet - It keeps the first read time.
+     */
+    @Test
+    public void openMessageIfApplicableReceiptPendingTest() {
+        // Arrange
+        Message message = new Message(
+            MessageTarget.of("netId"), MessageTarget.of("netId2"),
+            MessageType.OTHER, "body", Instant.ofEpochSecond(2L)
+        );
+        when(mockAuthManager.getNetId()).thenReturn("netId2");
+        when(mockReadReceipts.messageRead(eq(message), any(Instant.class))).thenReturn(Instant.ofEpochSecond(3L));
+
+        // Act
+        retrieverService.openMessageIfApplicable(message);
+
+        // Assert
+        assertThat(message.getStatus().getReadAt()).isEqualTo(Instant.ofEpochSecond(3L));
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockMailboxCounterService);
+    }
+
+    /**
+     * Test the openMessageIfApplicable method.
+     * Case: message was already read - Nothing should be updated.
+     */
+    @Test
+    public void openMessageIfApplicableAlreadyReadTest() {
+        // Arrange
+        Message message = new Message(
+            MessageTarget.of("netId"), MessageTarget.of("netId2"),
+            MessageType.OTHER, "body", Instant.ofEpochSecond(2L)
+        );
+        message.readMessage(Instant.ofEpochSecond(3L));
+        when(mockAuthManager.getNetId()).thenReturn("netId2");
+
+        // Act
+        boolean opened = retrieverService.openMessageIfApplicable(message);
+
+        // Assert
+        assertThat(opened).isFalse();
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockMailboxCounterService);
+        verifyNoMoreInteractions(mockReadReceipts);
+    }
+
+    /**
+     * Test the markMessagesAsRead method.
+     * The unread messages are locked, counted per sender and marked with one update.
+     */
+    @Test
+    public void markMessagesAsReadByIdsTest() {
+        // Arrange
+        MessageTarget receiver = MessageTarget.of("netId");
+        MarkReadRequestModel request = new MarkReadRequestModel();
+        request.setIds(List.of(1, 2, 3));
+        when(mockMessageRepository.findUnreadIdsForUpdate(receiver, List.of(1, 2, 3))).thenReturn(List.of(1, 3));
+        when(mockMessageRepository.countUnreadBySenderForIds(receiver, List.of(1, 2, 3)))
+            .thenReturn(List.of(senderCount("a", 1L), senderCount(MessageTarget.HR_TARGET_LABEL, 1L)));
+        when(mockMessageRepository.markAsReadByIds(eq(receiver), eq(List.of(1, 2, 3)), any(Instant.class)))
+            .thenReturn(2);
+
+        // Act
+        int read = retrieverService.markMessagesAsRead(receiver, request);
+
+        // Assert
+        assertThat(read).isEqualTo(2);
+        verify(mockMessageRepository, times(1)).findUnreadIdsForUpdate(receiver, List.of(1, 2, 3));
+        verify(mockMessageRepository, times(1)).countUnreadBySenderForIds(receiver, List.of(1, 2, 3));
+        verify(mockMessageRepository, times(1)).markAsReadByIds(eq(receiver), eq(List.of(1, 2, 3)), any(Instant.class));
+        verify(mockMailboxCounterService, times(1))
+            .messagesRead(receiver, Map.of("a", 1L, MessageTarget.HR_TARGET_LABEL, 1L));
+        ArgumentCaptor<MessagesReadEvent> eventCaptor = ArgumentCaptor.forClass(MessagesReadEvent.class);
+        verify(mockEventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getReceiver()).isEqualTo(receiver);
+        assertThat(eventCaptor.getValue().getCount()).isEqualTo(2);
+        verifyNoMoreInteractions(mockMessageRepository);
+    }
+
+    /**
+     * Test the markMessagesAsRead method.
+     * All messages sent before a time are marked with one update, however many there are.
+     */
+    @Test
+    public void markMessagesAsReadSentBeforeTest() {
+        // Arrange
+        MessageTarget receiver = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
+        MarkReadRequestModel request = new MarkReadRequestModel();
+        request.setBefore("2022-12-01T10:15:30Z");
+        Instant before = Instant.parse("2022-12-01T10:15:30Z");
+        List<Integer> unread = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+        when(mockMessageRepository.findUnreadIdsSentBeforeForUpdate(receiver, before)).thenReturn(unread);
+        when(mockMessageRepository.countUnreadBySenderSentBefore(receiver, before))
+            .thenReturn(List.of(senderCount("a", 3000L), senderCount("b", 2000L)));
+        when(mockMessageRepository.markAsReadSentBefore(eq(receiver), eq(before), any(Instant.class))).thenReturn(5000);
+
+        // Act
+        int read = retrieverService.markMessagesAsRead(receiver, request);
+
+        // Assert
+        assertThat(read).isEqualTo(5000);
+        verify(mockMessageRepository, times(1)).findUnreadIdsSentBeforeForUpdate(receiver, before);
+        verify(mockMessageRepository, times(1)).countUnreadBySenderSentBefore(receiver, before);
+        verify(mockMessageRepository, times(1)).markAsReadSentBefore(eq(receiver), eq(before), any(Instant.class));
+        verify(mockMailboxCounterService, times(1)).messagesRead(receiver, Map.of("a", 3000L, "b", 2000L));
+        verifyNoMoreInteractions(mockMessageRepository);
+    }
+
+    /**
+     * Test the markMessagesAsRead method.
+     * A time in the future is capped at the current time.
+     */
+    @Test
+    public void markMessagesAsReadSentBeforeFutureTest() {
+        // Arrange
+        MessageTarget receiver = MessageTarget.of("netId");
+        MarkReadRequestModel request = new MarkReadRequestModel();
+        request.setBefore("2999-01-01T00:00:00Z");
+        Instant start = Instant.now();
+
+        // Act
+        int read = retrieverService.markMessagesAsRead(receiver, request);
+
+        // Assert
+        assertThat(read).isZero();
+        ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+        verify(mockMessageRepository, times(1)).findUnreadIdsSentBeforeForUpdate(eq(receiver), before.capture());
+        assertThat(before.getValue()).isBetween(start.minusSeconds(1), Instant.now());
+        verifyNoMoreInteractions(mockMessageRepository);
+    }
+
+    /**
+     * Test the markMessagesAsRead method.
+     * Nothing else is done when no message was unread.
+     */
+    @Test
+    public void markMessagesAsReadNothingUnreadTest() {
+        // Arrange
+        MessageTarget receiver = MessageTarget.of("netId");
+        MarkReadRequestModel request = new MarkReadRequestModel();
+        request.setIds(List.of(1));
+
+        // Act
+        int read = retrieverService.markMessagesAsRead(receiver, request);
+
+        // Assert
+        assertThat(read).isZero();
+        verify(mockMessageRepository, times(1)).findUnreadIdsForUpdate(receiver, List.of(1));
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockMailboxCounterService);
+        verifyNoMoreInteractions(mockEventPublisher);
+    }
+
+    /**
+     * Test the markMessagesAsRead method.
+     * Requests without exactly one of ids and before, with too many ids or an invalid time are rejected.
+     */
+    @Test
+    public void markMessagesAsReadInvalidRequestTest() {
+        // Arrange
+        MessageTarget receiver = MessageTarget.of("netId");
+        MarkReadRequestModel neither = new MarkReadRequestModel();
+        MarkReadRequestModel both = new MarkReadRequestModel();
+        both.setIds(List.of(1));
+        both.setBefore("2022-12-01T10:15:30Z");
+        MarkReadRequestModel noIds = new MarkReadRequestModel();
+        noIds.setIds(List.of());
+        MarkReadRequestModel tooManyIds = new MarkReadRequestModel();
+        tooManyIds.setIds(IntStream.rangeClosed(1, MessageRetrieverService.MAX_MARK_READ_IDS + 1).boxed()
+            .collect(Collectors.toList()));
+        MarkReadRequestModel invalidTime = new MarkReadRequestModel();
+        invalidTime.setBefore("yesterday");
+
+        // Act&Assert
+        for (MarkReadRequestModel request : List.of(neither, both, noIds, tooManyIds, invalidTime)) {
+            assertThatThrownBy(() -> retrieverService.markMessagesAsRead(receiver, request))
+                .isInstanceOf(ResponseStatusException.class);
+        }
+        verifyNoMoreInteractions(mockMessageRepository);
+    }
+
     /**
      * Test the parseMessageToModel method.
      */
@@ -192,6 +520,20 @@ public class MessageRetrieverServiceTest {
     }
 
 
+    private static MailboxCount senderCount(String sender, long count) {
+        return new MailboxCount() {
+            @Override
+            public MessageTarget getMailbox() {
+                return MessageTarget.of(sender);
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+
     /**
      * Generate a message for testing purposes.
      *
@@ -199,7 +541,7 @@ public class MessageRetrieverServiceTest {
      * @return a message.
      */
     private Message messageProvider(int key) {
-        return new Message(new MessageTarget("1234" + key), new MessageTarget("5678" + key),
+        return new Message(MessageTarget.of("1234" + key), MessageTarget.of("5678" + key),
             MessageType.OTHER, "Test message " + key, Instant.ofEpochSecond(key));
     }
 }
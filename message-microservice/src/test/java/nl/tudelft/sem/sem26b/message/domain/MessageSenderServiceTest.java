@@ -9,12 +9,14 @@ import static org.mockito.Mockito.when;
 
 import java.time.Instant;
 import java.util.LinkedList;
+import java.util.List;
 import nl.tudelft.sem.sem26b.message.authentication.AuthManager;
 import nl.tudelft.sem.sem26b.message.models.PostMessageRequestModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -25,6 +27,9 @@ public class MessageSenderServiceTest {
     private transient MessageRepository mockMessageRepository;
     private transient MessageValidator mockValidator;
     private transient AuthManager mockAuthManager;
+    private transient PayloadService mockPayloadService;
+    private transient MailboxCounterService mockMailboxCounterService;
+    private transient ApplicationEventPublisher mockEventPublisher;
 
     private transient MessageSenderService messageSenderService;
 
@@ -37,7 +42,11 @@ public class MessageSenderServiceTest {
         mockMessageRepository = Mockito.mock(MessageRepository.class);
         mockValidator = Mockito.mock(MessageValidator.class);
         mockAuthManager = Mockito.mock(AuthManager.class);
-        messageSenderService = new MessageSenderService(mockMessageRepository, mockValidator, mockAuthManager);
+        mockPayloadService = Mockito.mock(PayloadService.class);
+        mockMailboxCounterService = Mockito.mock(MailboxCounterService.class);
+        mockEventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        messageSenderService = new MessageSenderService(mockMessageRepository, mockValidator, mockAuthManager,
+            mockPayloadService, mockMailboxCounterService, mockEventPublisher);
     }
 
     /**
@@ -53,7 +62,7 @@ public class MessageSenderServiceTest {
         payload.setContents("Hello world!");
         payload.setPayload(new LinkedList<>());
         when(mockAuthManager.getNetId()).thenReturn("someId");
-        Message returnMessage = new Message(new MessageTarget("1234"), new MessageTarget("12344"),
+        Message returnMessage = new Message(MessageTarget.of("1234"), MessageTarget.of("12344"),
             MessageType.CONTRACT_APPROVE, "Hello world!", Instant.now());
         when(mockMessageRepository.save(Mockito.any(Message.class))).thenReturn(returnMessage);
 
@@ -66,6 +75,10 @@ public class MessageSenderServiceTest {
         verify(mockValidator, times(1)).checkMessageIsValid(messageCaptor.capture());
         Message message = messageCaptor.getValue();
         verify(mockMessageRepository, times(1)).save(message);
+        verify(mockMailboxCounterService, times(1)).messagesSent(List.of(returnMessage));
+        ArgumentCaptor<MessagesSentEvent> eventCaptor = ArgumentCaptor.forClass(MessagesSentEvent.class);
+        verify(mockEventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getMessages()).containsExactly(returnMessage);
         verifyNoMoreInteractions(mockMessageRepository);
         verifyNoMoreInteractions(mockValidator);
         verifyNoMoreInteractions(mockAuthManager);
@@ -93,6 +106,7 @@ public class MessageSenderServiceTest {
         payload.setContents(payloadContents);
         payload.setPayload(new LinkedList<>());
         when(mockAuthManager.getNetId()).thenReturn("someId");
+        when(mockMessageRepository.save(Mockito.any(Message.class))).then(invocation -> invocation.getArgument(0));
 
         // Act
         messageSenderService.postMessage(payload, false);
@@ -103,6 +117,7 @@ public class MessageSenderServiceTest {
         verify(mockValidator, times(1)).checkMessageIsValid(messageCaptor.capture());
         Message message = messageCaptor.getValue();
         verify(mockMessageRepository, times(1)).save(message);
+        verify(mockMailboxCounterService, times(1)).messagesSent(List.of(message));
         verifyNoMoreInteractions(mockMessageRepository);
         verifyNoMoreInteractions(mockValidator);
         verifyNoMoreInteractions(mockAuthManager);
@@ -139,4 +154,97 @@ public class MessageSenderServiceTest {
         verifyNoMoreInteractions(mockAuthManager);
     }
 
+    /**
+     * Test the postMessage method.
+     * Test sending a message without a receiver.
+     */
+    @Test
+    public void postMessageTestNoReceiver() {
+        // Arrange
+        PostMessageRequestModel payload = new PostMessageRequestModel();
+        payload.setType(new MessageTypeAttributeConverter().convertToDatabaseColumn(MessageType.OTHER));
+        payload.setContents("Hello");
+        payload.setPayload(new LinkedList<>());
+        when(mockAuthManager.getNetId()).thenReturn("someId");
+
+        // Act&Assert
+        assertThatThrownBy(() -> messageSenderService.postMessage(payload, false))
+            .isInstanceOf(ResponseStatusException.class);
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockValidator);
+    }
+
+    /**
+     * Test the postMessages method.
+     * Happy flow, the messages and their payloads are saved together.
+     */
+    @Test
+    public void postMessagesTest() {
+        // Arrange
+        PostMessageRequestModel first = new PostMessageRequestModel();
+        first.setTo("1234");
+        first.setType(new MessageTypeAttributeConverter().convertToDatabaseColumn(MessageType.OTHER));
+        first.setContents("Hello");
+        first.setPayload(List.of(new MessagePayload(MessagePayload.CONTRACT_MESSAGE_PAYLOAD_TYPE, 1L)));
+        PostMessageRequestModel second = new PostMessageRequestModel();
+        second.setTo("5678");
+        second.setType(new MessageTypeAttributeConverter().convertToDatabaseColumn(MessageType.OTHER));
+        second.setContents("World");
+        when(mockAuthManager.getNetId()).thenReturn("someId");
+        when(mockMessageRepository.saveAll(Mockito.anyList())).then(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Message> sent = messageSenderService.postMessages(List.of(first, second), true);
+
+        // Assert
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(0).getReceiver().getNetId()).isEqualTo("1234");
+        assertThat(sent.get(1).getReceiver().getNetId()).isEqualTo("5678");
+        assertThat(sent.get(0).getSender().isHr()).isTrue();
+        verify(mockAuthManager, times(1)).getNetId();
+        verify(mockValidator, times(2)).checkMessageIsValid(Mockito.any(Message.class));
+        verify(mockMessageRepository, times(1)).saveAll(sent);
+        verify(mockMailboxCounterService, times(1)).messagesSent(sent);
+        verify(mockPayloadService, times(1)).attachMessagePayloadLists(sent, List.of(first.getPayload(), List.of()));
+        ArgumentCaptor<MessagesSentEvent> eventCaptor = ArgumentCaptor.forClass(MessagesSentEvent.class);
+        verify(mockEventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getMessages()).isEqualTo(sent);
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockPayloadService);
+    }
+
+    /**
+     * Test the postMessages method.
+     * Nothing is saved when one of the messages is invalid.
+     */
+    @Test
+    public void postMessagesTestInvalidMessage() {
+        // Arrange
+        PostMessageRequestModel payload = new PostMessageRequestModel();
+        payload.setTo("1234");
+        payload.setType(new MessageTypeAttributeConverter().convertToDatabaseColumn(MessageType.OTHER));
+        payload.setContents(new String(new char[2001]).replace("\0", "a"));
+        when(mockAuthManager.getNetId()).thenReturn("someId");
+
+        // Act&Assert
+        assertThatThrownBy(() -> messageSenderService.postMessages(List.of(payload), false))
+            .isInstanceOf(ResponseStatusException.class);
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockPayloadService);
+        verifyNoMoreInteractions(mockMailboxCounterService);
+    }
+
+    /**
+     * Test the postMessages method.
+     * An empty batch is rejected.
+     */
+    @Test
+    public void postMessagesTestEmptyBatch() {
+        // Act&Assert
+        assertThatThrownBy(() -> messageSenderService.postMessages(List.of(), false))
+            .isInstanceOf(ResponseStatusException.class);
+        verifyNoMoreInteractions(mockMessageRepository);
+        verifyNoMoreInteractions(mockPayloadService);
+    }
+
 }
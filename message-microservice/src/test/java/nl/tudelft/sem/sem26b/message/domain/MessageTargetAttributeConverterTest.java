@@ -24,11 +24,11 @@ public class MessageTargetAttributeConverterTest {
             MessageTarget.HR_TARGET_LABEL,
         };
         MessageTarget[] expectedOutput = {
-            new MessageTarget("test"),
-            new MessageTarget("test2"),
-            new MessageTarget("test3"),
-            new MessageTarget("TEST"),
-            new MessageTarget(MessageTarget.HR_TARGET_LABEL),
+            MessageTarget.of("test"),
+            MessageTarget.of("test2"),
+            MessageTarget.of("test3"),
+            MessageTarget.of("TEST"),
+            MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
         };
         for (int i = 0; i < input.length; i++) {
             assertThat(converter.convertToEntityAttribute(input[i])).isEqualTo(expectedOutput[i]);
@@ -37,17 +37,28 @@ public class MessageTargetAttributeConverterTest {
     }
 
 
+    /**
+     * Test that every row of the same target is converted into the same instance, and null stays null.
+     */
+    @Test
+    public void testConvertingStringToSharedObject() {
+        assertThat(converter.convertToEntityAttribute(new String("test")))
+            .isSameAs(converter.convertToEntityAttribute(new String("test")));
+        assertThat(converter.convertToEntityAttribute(MessageTarget.HR_TARGET_LABEL)).isSameAs(MessageTarget.HR);
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
     /**
      * Test the conversion of a MessageTarget to a String.
      */
     @Test
     public void testConvertingObjectToString() {
         MessageTarget[] input = {
-            new MessageTarget("test"),
-            new MessageTarget("test2"),
-            new MessageTarget("test3"),
-            new MessageTarget("TEST"),
-            new MessageTarget(MessageTarget.HR_TARGET_LABEL),
+            MessageTarget.of("test"),
+            MessageTarget.of("test2"),
+            MessageTarget.of("test3"),
+            MessageTarget.of("TEST"),
+            MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
         };
         String[] expectedOutput = {
             "test",
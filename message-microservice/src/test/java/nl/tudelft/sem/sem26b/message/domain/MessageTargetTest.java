@@ -15,7 +15,7 @@ public class MessageTargetTest {
     @Test
     public void testMessageTargetNetId() {
         String netId = "sampleNetId";
-        MessageTarget target = new MessageTarget(netId);
+        MessageTarget target = MessageTarget.of(netId);
         assertThat(target.getNetId()).isEqualTo(netId);
         assertThat(target.isHr()).isFalse();
     }
@@ -25,7 +25,7 @@ public class MessageTargetTest {
      */
     @Test
     public void testMessageTargetHr() {
-        MessageTarget target = new MessageTarget(MessageTarget.HR_TARGET_LABEL);
+        MessageTarget target = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
         assertThat(target.getNetId()).isEqualTo(MessageTarget.HR_TARGET_LABEL);
         assertThat(target.isHr()).isTrue();
     }
@@ -35,11 +35,11 @@ public class MessageTargetTest {
      */
     @Test
     public void testEqualsWithMessageTarget() {
-        MessageTarget target = new MessageTarget("sampleNetId");
-        MessageTarget target2 = new MessageTarget("sampleNetId");
-        MessageTarget target3 = new MessageTarget("SAMPLENetId");
-        MessageTarget target4 = new MessageTarget(MessageTarget.HR_TARGET_LABEL);
-        MessageTarget target5 = new MessageTarget(MessageTarget.HR_TARGET_LABEL);
+        MessageTarget target = MessageTarget.of("sampleNetId");
+        MessageTarget target2 = MessageTarget.of("sampleNetId");
+        MessageTarget target3 = MessageTarget.of("SAMPLENetId");
+        MessageTarget target4 = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
+        MessageTarget target5 = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
         assertThat(target.equals(target2)).isTrue();
         assertThat(target.equals(target3)).isFalse();
         assertThat(target.equals(target4)).isFalse();
@@ -51,7 +51,7 @@ public class MessageTargetTest {
      */
     @Test
     public void testEqualsWithOther() {
-        MessageTarget target = new MessageTarget("sampleNetId");
+        MessageTarget target = MessageTarget.of("sampleNetId");
         assertThat(target.equals(null)).isFalse();
         assertThat(target.equals("sampleNetId")).isFalse();
     }
@@ -61,16 +61,33 @@ public class MessageTargetTest {
      */
     @Test
     public void testHashCode() {
-        MessageTarget target = new MessageTarget("sampleNetId");
-        MessageTarget target2 = new MessageTarget("sampleNetId");
-        MessageTarget target3 = new MessageTarget("SAMPLENetId");
-        MessageTarget target4 = new MessageTarget(MessageTarget.HR_TARGET_LABEL);
-        MessageTarget target5 = new MessageTarget(MessageTarget.HR_TARGET_LABEL);
+        MessageTarget target = MessageTarget.of("sampleNetId");
+        MessageTarget target2 = MessageTarget.of("sampleNetId");
+        MessageTarget target3 = MessageTarget.of("SAMPLENetId");
+        MessageTarget target4 = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
+        MessageTarget target5 = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
         assertThat(target.hashCode()).isEqualTo(target2.hashCode());
         assertThat(target.hashCode()).isNotEqualTo(target3.hashCode());
         assertThat(target.hashCode()).isNotEqualTo(target4.hashCode());
         assertThat(target4.hashCode()).isEqualTo(target5.hashCode());
     }
 
+    /**
+     * Test that the same instance is returned for a NetID.
+     */
+    @Test
+    public void testOfInterned() {
+        MessageTarget target = MessageTarget.of(new String("sampleNetId"));
+        assertThat(MessageTarget.of(new String("sampleNetId"))).isSameAs(target);
+        assertThat(MessageTarget.of("SAMPLENetId")).isNotSameAs(target);
+    }
 
+    /**
+     * Test that HR is always the canonical HR target.
+     */
+    @Test
+    public void testOfHr() {
+        assertThat(MessageTarget.of(MessageTarget.HR_TARGET_LABEL)).isSameAs(MessageTarget.HR);
+        assertThat(MessageTarget.HR.isHr()).isTrue();
+    }
 }
@@ -20,8 +20,8 @@ public class MessageTest {
         assertThat(message).isNotNull();
 
         Message message2 = new Message(
-            new MessageTarget("1"),
-            new MessageTarget("2"),
+            MessageTarget.of("1"),
+            MessageTarget.of("2"),
             MessageType.CONTRACT_PROPOSE,
             "test",
             Instant.ofEpochSecond(123L)
@@ -35,14 +35,14 @@ public class MessageTest {
     @Test
     public void testGetters() {
         Message message = new Message(
-            new MessageTarget("1"),
-            new MessageTarget(MessageTarget.HR_TARGET_LABEL),
+            MessageTarget.of("1"),
+            MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
             MessageType.CONTRACT_PROPOSE,
             "test",
             Instant.ofEpochSecond(123L)
         );
         assertThat(message.getId()).isNotNull();
-        assertThat(message.getSender()).isEqualTo(new MessageTarget("1"));
+        assertThat(message.getSender()).isEqualTo(MessageTarget.of("1"));
         assertThat(message.getReceiver().isHr()).isTrue();
         assertThat(message.getMessageType()).isEqualTo(MessageType.CONTRACT_PROPOSE);
         assertThat(message.getContents()).isEqualTo("test");
@@ -57,8 +57,8 @@ public class MessageTest {
     @Test
     public void testMarkAsRead() {
         Message message = new Message(
-            new MessageTarget("1"),
-            new MessageTarget(MessageTarget.HR_TARGET_LABEL),
+            MessageTarget.of("1"),
+            MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
             MessageType.CONTRACT_PROPOSE,
             "test",
             Instant.ofEpochSecond(123L)
@@ -85,6 +85,7 @@ public class MessageTypeAttributeConverterTest {
         for (String incorrectValue : gibberish) {
             assertThat(converter.convertToEntityAttribute(incorrectValue)).isEqualTo(MessageType.OTHER);
         }
+        assertThat(converter.convertToEntityAttribute(null)).isEqualTo(MessageType.OTHER);
     }
 
     /**
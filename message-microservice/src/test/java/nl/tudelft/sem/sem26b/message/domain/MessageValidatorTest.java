@@ -1,6 +1,8 @@
 package nl.tudelft.sem.sem26b.message.domain;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -233,6 +235,38 @@ public class MessageValidatorTest {
         verifyNoMoreInteractions(mockAuthManager);
     }
 
+    /**
+     * Test checkMailboxOwner method.
+     * The user is the owner of the mailbox, no exception should be thrown.
+     */
+    @Test
+    public void checkMailboxOwnerTestIsOwner() {
+        // Arrange
+        when(mockAuthManager.getNetId()).thenReturn("netId");
+
+        // Act
+        messageValidator.checkMailboxOwner("netId");
+
+        // Assert
+        verify(mockAuthManager, times(1)).getNetId();
+        verifyNoMoreInteractions(mockAuthManager);
+    }
+
+    /**
+     * Test checkMailboxOwner method.
+     * HR may access the mailbox, but is not its owner, exception should be thrown.
+     */
+    @Test
+    public void checkMailboxOwnerTestIsHr() {
+        // Arrange
+        when(mockAuthManager.getRole()).thenReturn("HR");
+        when(mockAuthManager.getNetId()).thenReturn("netId");
+
+        // Act&Assert
+        assertThatThrownBy(() -> messageValidator.checkMailboxOwner("netId2"))
+            .isInstanceOf(ResponseStatusException.class);
+    }
+
     /**
      * Test the checkReadPermission method.
      * The user is admin, no exception thrown.
@@ -313,6 +347,34 @@ public class MessageValidatorTest {
         verifyNoMoreInteractions(mockAuthManager);
     }
 
+    /**
+     * Test the readableMailbox method.
+     * HR can read all messages, no mailbox.
+     */
+    @Test
+    public void readableMailboxTestHr() {
+        // Arrange
+        when(mockAuthManager.getRole()).thenReturn("HR");
+
+        // Act&Assert
+        assertThat(messageValidator.readableMailbox()).isEmpty();
+        verify(mockAuthManager, never()).getNetId();
+    }
+
+    /**
+     * Test the readableMailbox method.
+     * Other users can read the messages of their own mailbox.
+     */
+    @Test
+    public void readableMailboxTestUser() {
+        // Arrange
+        when(mockAuthManager.getRole()).thenReturn("stuff");
+        when(mockAuthManager.getNetId()).thenReturn("netId");
+
+        // Act&Assert
+        assertThat(messageValidator.readableMailbox()).contains(MessageTarget.of("netId"));
+    }
+
     /**
      * A function that provides a message with given parameters.
      *
@@ -322,7 +384,7 @@ public class MessageValidatorTest {
      * @return A message with given parameters.
      */
     private Message messageProvider(String sender, String receiver, MessageType type) {
-        return new Message(new MessageTarget(sender), new MessageTarget(receiver), type, "test",
+        return new Message(MessageTarget.of(sender), MessageTarget.of(receiver), type, "test",
             Instant.ofEpochMilli(12L));
     }
 }
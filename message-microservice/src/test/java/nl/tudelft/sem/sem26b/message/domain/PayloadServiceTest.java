@@ -55,6 +55,30 @@ public class PayloadServiceTest {
         verifyNoMoreInteractions(mockRepository);
     }
 
+    /**
+     * Test the attachMessagePayloadLists method.
+     * The links of all messages are saved at once.
+     */
+    @Test
+    public void attachMessagePayloadListsTest() {
+        // Arrange
+        Message first = new Message();
+        Message second = new Message();
+        MessagePayload payload = new MessagePayload(MessagePayload.CONTRACT_MESSAGE_PAYLOAD_TYPE, 123L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MessagePayloadMessage>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        payloadService.attachMessagePayloadLists(List.of(first, second), List.of(List.of(), List.of(payload)));
+
+        // Assert
+        verify(mockRepository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(captor.getValue().get(0).getMessage()).isEqualTo(second);
+        assertThat(captor.getValue().get(0).getPayloadId()).isEqualTo(123L);
+        verifyNoMoreInteractions(mockRepository);
+    }
+
     /**
      * Test the getMessagePayload method.
      * Invalid payload is ignored.
@@ -76,7 +100,7 @@ public class PayloadServiceTest {
         payloadMessage3.setPayloadId(456L);
         payloadMessage3.setType("INVALID");
         List<MessagePayloadMessage> payloadMessages = List.of(payloadMessage1, payloadMessage2, payloadMessage3);
-        when(mockRepository.findAllByMessage(message)).thenReturn(payloadMessages);
+        message.getPayloads().addAll(payloadMessages);
 
         // Act
         List<MessagePayload> result = payloadService.getMessagePayload(message);
@@ -87,7 +111,6 @@ public class PayloadServiceTest {
             assertThat(result.get(i).getType()).isEqualTo(payloadMessages.get(i).getType());
         }
         assertThat(result.size()).isEqualTo(2);
-        verify(mockRepository, times(1)).findAllByMessage(message);
         verifyNoMoreInteractions(mockRepository);
     }
 
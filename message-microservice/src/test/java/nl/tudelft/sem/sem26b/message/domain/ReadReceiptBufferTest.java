@@ -0,0 +1,182 @@
+package nl.tudelft.sem.sem26b.message.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Tests for the ReadReceiptBuffer.
+ */
+public class ReadReceiptBufferTest {
+
+    private static final MessageTarget RECEIVER = MessageTarget.of("netId2");
+
+    private transient JdbcTemplate mockJdbcTemplate;
+    private transient MailboxCounterService mockMailboxCounterService;
+    private transient ApplicationEventPublisher mockEventPublisher;
+    private transient List<Runnable> flushes;
+
+    private transient ReadReceiptBuffer buffer;
+
+    /**
+     * Set up for each test.
+     * Flushes triggered by the size of the buffer are collected instead of run.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockJdbcTemplate = mock(JdbcTemplate.class);
+        mockMailboxCounterService = mock(MailboxCounterService.class);
+        mockEventPublisher = mock(ApplicationEventPublisher.class);
+        flushes = new ArrayList<>();
+        buffer = new ReadReceiptBuffer(mockJdbcTemplate, TransactionOperations.withoutTransaction(),
+            mockMailboxCounterService, mockEventPublisher, flushes::add, 3);
+    }
+
+    /**
+     * Test that receipts of the same message are coalesced, the first read time is kept.
+     */
+    @Test
+    public void messageReadCoalescedTest() {
+        // Arrange
+        Message message = message(1, "netId");
+
+        // Act
+        Instant first = buffer.messageRead(message, Instant.ofEpochSecond(5L));
+        Instant second = buffer.messageRead(message, Instant.ofEpochSecond(6L));
+
+        // Assert
+        assertThat(first).isEqualTo(Instant.ofEpochSecond(5L));
+        assertThat(second).isEqualTo(Instant.ofEpochSecond(5L));
+        assertThat(buffer.size()).isEqualTo(1);
+        verifyNoInteractions(mockJdbcTemplate);
+    }
+
+    /**
+     * Test that the receipts are written as one batch and counted per inbox and sender.
+     * The receipt of a message that was read meanwhile is not counted.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void flushTest() {
+        // Arrange
+        buffer.messageRead(message(1, "netId"), Instant.ofEpochSecond(5L));
+        buffer.messageRead(message(2, "netId"), Instant.ofEpochSecond(6L));
+        buffer.messageRead(message(3, MessageTarget.HR_TARGET_LABEL), Instant.ofEpochSecond(7L));
+        ArgumentCaptor<List<Object[]>> arguments = ArgumentCaptor.forClass(List.class);
+        when(mockJdbcTemplate.batchUpdate(eq(ReadReceiptBuffer.MARK_AS_READ_SQL), arguments.capture()))
+            .thenAnswer(invocation -> {
+                List<Object[]> rows = invocation.getArgument(1);
+                return rows.stream().mapToInt(row -> row[1].equals(2) ? 0 : 1).toArray();
+            });
+
+        // Act
+        int read = buffer.flush();
+
+        // Assert
+        assertThat(read).isEqualTo(2);
+        assertThat(buffer.size()).isZero();
+        assertThat(arguments.getValue()).hasSize(3);
+        assertThat(arguments.getValue()).anySatisfy(row ->
+            assertThat(row).containsExactly(Timestamp.from(Instant.ofEpochSecond(5L)), 1));
+        verify(mockMailboxCounterService, times(1))
+            .messagesRead(RECEIVER, Map.of("netId", 1L, MessageTarget.HR_TARGET_LABEL, 1L));
+        ArgumentCaptor<MessagesReadEvent> event = ArgumentCaptor.forClass(MessagesReadEvent.class);
+        verify(mockEventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getReceiver()).isEqualTo(RECEIVER);
+        assertThat(event.getValue().getCount()).isEqualTo(2);
+    }
+
+    /**
+     * Test that nothing is written when the buffer is empty.
+     */
+    @Test
+    public void flushEmptyTest() {
+        // Act&Assert
+        assertThat(buffer.flush()).isZero();
+        verifyNoInteractions(mockJdbcTemplate);
+    }
+
+    /**
+     * Test that receipts are kept when writing them fails, and written with the next flush.
+     */
+    @Test
+    public void flushFailedTest() {
+        // Arrange
+        buffer.messageRead(message(1, "netId"), Instant.ofEpochSecond(5L));
+        when(mockJdbcTemplate.batchUpdate(eq(ReadReceiptBuffer.MARK_AS_READ_SQL), anyList()))
+            .thenThrow(new QueryTimeoutException("Timeout"))
+            .thenReturn(new int[]{1});
+
+        // Act
+        int failed = buffer.flush();
+        int retried = buffer.flush();
+
+        // Assert
+        assertThat(failed).isZero();
+        assertThat(retried).isEqualTo(1);
+        assertThat(buffer.size()).isZero();
+    }
+
+    /**
+     * Test that a full buffer is flushed right away, once.
+     */
+    @Test
+    public void messageReadFullTest() {
+        // Arrange
+        when(mockJdbcTemplate.batchUpdate(eq(ReadReceiptBuffer.MARK_AS_READ_SQL), anyList()))
+            .thenReturn(new int[]{1, 1, 1, 1});
+
+        // Act
+        buffer.messageRead(message(1, "netId"), Instant.ofEpochSecond(5L));
+        buffer.messageRead(message(2, "netId"), Instant.ofEpochSecond(5L));
+        assertThat(flushes).isEmpty();
+        buffer.messageRead(message(3, "netId"), Instant.ofEpochSecond(5L));
+        buffer.messageRead(message(4, "netId"), Instant.ofEpochSecond(5L));
+
+        // Assert
+        assertThat(flushes).hasSize(1);
+        flushes.get(0).run();
+        assertThat(buffer.size()).isZero();
+    }
+
+    /**
+     * Test that the buffer is flushed when the service stops.
+     */
+    @Test
+    public void closeTest() {
+        // Arrange
+        buffer.messageRead(message(1, "netId"), Instant.ofEpochSecond(5L));
+        when(mockJdbcTemplate.batchUpdate(eq(ReadReceiptBuffer.MARK_AS_READ_SQL), anyList()))
+            .thenReturn(new int[]{1});
+
+        // Act
+        buffer.close();
+
+        // Assert
+        assertThat(buffer.size()).isZero();
+        verify(mockMailboxCounterService, times(1)).messagesRead(RECEIVER, Map.of("netId", 1L));
+    }
+
+    private static Message message(int id, String sender) {
+        return new Message(id, MessageTarget.of(sender), RECEIVER, MessageType.OTHER, "Hello",
+            new MessageStatus(Instant.ofEpochSecond(1L)));
+    }
+}
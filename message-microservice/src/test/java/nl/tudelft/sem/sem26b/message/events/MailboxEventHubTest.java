@@ -0,0 +1,301 @@
+package nl.tudelft.sem.sem26b.message.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.sem26b.message.domain.MailboxCounter;
+import nl.tudelft.sem.sem26b.message.domain.MailboxCounterService;
+import nl.tudelft.sem.sem26b.message.domain.Message;
+import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
+import nl.tudelft.sem.sem26b.message.domain.MessageType;
+import nl.tudelft.sem.sem26b.message.domain.MessagesReadEvent;
+import nl.tudelft.sem.sem26b.message.domain.MessagesSentEvent;
+import nl.tudelft.sem.sem26b.message.models.MailboxCountsModel;
+import nl.tudelft.sem.sem26b.message.models.MessageHeaderModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Tests for the MailboxEventHub.
+ */
+public class MailboxEventHubTest {
+
+    private static final MessageTarget RECEIVER = MessageTarget.of("netId2");
+
+    private transient MailboxCounterService mockMailboxCounterService;
+
+    private transient MailboxEventHub hub;
+
+    /**
+     * Set up for each test.
+     * Events are delivered on the calling thread.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockMailboxCounterService = mock(MailboxCounterService.class);
+        MailboxCounter counters = mock(MailboxCounter.class);
+        when(counters.getInboxUnread()).thenReturn(2L);
+        when(counters.getInboxTotal()).thenReturn(5L);
+        when(mockMailboxCounterService.getCounters(any(MessageTarget.class))).thenReturn(counters);
+        hub = new MailboxEventHub(mockMailboxCounterService, Runnable::run, 1000L, 16, 2);
+    }
+
+    /**
+     * Test that a new subscriber gets the current counts of the inbox.
+     */
+    @Test
+    public void subscribeTest() throws IOException {
+        // Arrange
+        SseEmitter emitter = mock(SseEmitter.class);
+
+        // Act
+        assertThat(hub.subscribe(RECEIVER, emitter)).isSameAs(emitter);
+
+        // Assert
+        assertThat(hub.subscriberCount(RECEIVER.getNetId())).isEqualTo(1);
+        assertThat(sentData(emitter)).containsExactly(new MailboxCountsModel(2, 5));
+        verify(mockMailboxCounterService, times(1)).getCounters(RECEIVER);
+    }
+
+    /**
+     * Test that subscribers get the header of a new message, followed by the new counts.
+     * Messages to mailboxes without subscribers are skipped.
+     */
+    @Test
+    public void messagesSentTest() throws IOException {
+        // Arrange
+        SseEmitter emitter = mock(SseEmitter.class);
+        hub.subscribe(RECEIVER, emitter);
+        Message toSubscriber = new Message(MessageTarget.of("netId"), RECEIVER, MessageType.OTHER, "Hello",
+            Instant.ofEpochSecond(1L));
+        Message toOther = new Message(MessageTarget.of("netId"), MessageTarget.of("netId3"), MessageType.OTHER,
+            "World", Instant.ofEpochSecond(1L));
+
+        // Act
+        hub.messagesSent(new MessagesSentEvent(List.of(toSubscriber, toOther)));
+
+        // Assert
+        List<Object> data = sentData(emitter);
+        assertThat(data).hasSize(3);
+        assertThat(data.get(1)).isEqualTo(new MessageHeaderModel(toSubscriber));
+        assertThat(data.get(2)).isEqualTo(new MailboxCountsModel(2, 5));
+        verify(mockMailboxCounterService, never()).getCounters(MessageTarget.of("netId3"));
+    }
+
+    /**
+     * Test that every subscriber of a mailbox builds its own events, so they are not shared between the threads
+     * writing to the subscribers.
+     */
+    @Test
+    public void messagesSentToSeveralSubscribersTest() throws IOException {
+        // Arrange
+        SseEmitter first = mock(SseEmitter.class);
+        SseEmitter second = mock(SseEmitter.class);
+        hub.subscribe(RECEIVER, first);
+        hub.subscribe(RECEIVER, second);
+        Message message = new Message(MessageTarget.of("netId"), RECEIVER, MessageType.OTHER, "Hello",
+            Instant.ofEpochSecond(1L));
+
+        // Act
+        hub.messagesSent(new MessagesSentEvent(List.of(message)));
+
+        // Assert
+        List<SseEmitter.SseEventBuilder> firstEvents = sentEvents(first);
+        List<SseEmitter.SseEventBuilder> secondEvents = sentEvents(second);
+        assertThat(firstEvents.get(1)).isNotSameAs(secondEvents.get(1));
+        assertThat(sentData(first)).containsExactlyElementsOf(sentData(second));
+    }
+
+    /**
+     * Test that nothing is looked up when nobody is subscribed to the receiver's mailbox.
+     */
+    @Test
+    public void messagesSentWithoutSubscribersTest() {
+        // Arrange
+        Message message = new Message(MessageTarget.of("netId"), RECEIVER, MessageType.OTHER, "Hello",
+            Instant.ofEpochSecond(1L));
+
+        // Act
+        hub.messagesSent(new MessagesSentEvent(List.of(message)));
+        hub.messagesRead(new MessagesReadEvent(RECEIVER, 1));
+
+        // Assert
+        verifyNoInteractions(mockMailboxCounterService);
+    }
+
+    /**
+     * Test that subscribers get the new counts when messages are read.
+     */
+    @Test
+    public void messagesReadTest() throws IOException {
+        // Arrange
+        SseEmitter emitter = mock(SseEmitter.class);
+        hub.subscribe(RECEIVER, emitter);
+
+        // Act
+        hub.messagesRead(new MessagesReadEvent(RECEIVER, 3));
+
+        // Assert
+        assertThat(sentData(emitter)).containsExactly(new MailboxCountsModel(2, 5), new MailboxCountsModel(2, 5));
+    }
+
+    /**
+     * Test that all subscribers get a heartbeat.
+     */
+    @Test
+    public void heartbeatTest() throws IOException {
+        // Arrange
+        SseEmitter first = mock(SseEmitter.class);
+        SseEmitter second = mock(SseEmitter.class);
+        hub.subscribe(RECEIVER, first);
+        hub.subscribe(MessageTarget.of(MessageTarget.HR_TARGET_LABEL), second);
+
+        // Act
+        hub.heartbeat();
+
+        // Assert
+        verify(first, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(second, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    /**
+     * Test that a subscriber whose buffer is full is disconnected.
+     */
+    @Test
+    public void slowSubscriberDisconnectedTest() {
+        // Arrange
+        List<Runnable> pending = new ArrayList<>();
+        hub = new MailboxEventHub(mockMailboxCounterService, pending::add, 1000L, 1, 2);
+        SseEmitter emitter = mock(SseEmitter.class);
+        hub.subscribe(RECEIVER, emitter);
+
+        // Act
+        hub.heartbeat();
+
+        // Assert
+        verify(emitter, times(1)).complete();
+        assertThat(hub.subscriberCount(RECEIVER.getNetId())).isZero();
+    }
+
+    /**
+     * Test that a subscriber that cannot be written to is disconnected.
+     */
+    @Test
+    public void failingSubscriberDisconnectedTest() throws IOException {
+        // Arrange
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        // Act
+        hub.subscribe(RECEIVER, emitter);
+
+        // Assert
+        verify(emitter, times(1)).complete();
+        assertThat(hub.subscriberCount(RECEIVER.getNetId())).isZero();
+    }
+
+    /**
+     * Test that a subscriber is removed when its stream completes.
+     */
+    @Test
+    public void completionUnsubscribesTest() {
+        // Arrange
+        SseEmitter emitter = mock(SseEmitter.class);
+        hub.subscribe(RECEIVER, emitter);
+        ArgumentCaptor<Runnable> onCompletion = ArgumentCaptor.forClass(Runnable.class);
+        verify(emitter).onCompletion(onCompletion.capture());
+
+        // Act
+        onCompletion.getValue().run();
+
+        // Assert
+        assertThat(hub.subscriberCount(RECEIVER.getNetId())).isZero();
+    }
+
+    /**
+     * Test that clients are rejected once the maximum number of clients is subscribed.
+     */
+    @Test
+    public void tooManySubscribersTest() {
+        // Arrange
+        hub.subscribe(RECEIVER, mock(SseEmitter.class));
+        hub.subscribe(MessageTarget.of("netId3"), mock(SseEmitter.class));
+        SseEmitter emitter = mock(SseEmitter.class);
+
+        // Act&Assert
+        assertThatThrownBy(() -> hub.subscribe(RECEIVER, emitter))
+            .isInstanceOf(ResponseStatusException.class)
+            .hasFieldOrPropertyWithValue("status", HttpStatus.SERVICE_UNAVAILABLE);
+        verifyNoInteractions(emitter);
+        assertThat(hub.subscriberCount()).isEqualTo(2);
+    }
+
+    /**
+     * Test that an unsubscribed client frees its place, also when the stream ends more than once.
+     */
+    @Test
+    public void unsubscribeFreesPlaceTest() {
+        // Arrange
+        SseEmitter emitter = mock(SseEmitter.class);
+        hub.subscribe(RECEIVER, emitter);
+        hub.subscribe(RECEIVER, mock(SseEmitter.class));
+        ArgumentCaptor<Runnable> onCompletion = ArgumentCaptor.forClass(Runnable.class);
+        verify(emitter).onCompletion(onCompletion.capture());
+        ArgumentCaptor<Runnable> onTimeout = ArgumentCaptor.forClass(Runnable.class);
+        verify(emitter).onTimeout(onTimeout.capture());
+
+        // Act
+        onTimeout.getValue().run();
+        onCompletion.getValue().run();
+        hub.subscribe(RECEIVER, mock(SseEmitter.class));
+
+        // Assert
+        assertThat(hub.subscriberCount()).isEqualTo(2);
+        assertThat(hub.subscriberCount(RECEIVER.getNetId())).isEqualTo(2);
+    }
+
+    /**
+     * Gets the data of the events sent to a client, in order.
+     *
+     * @param emitter the event stream of the client.
+     * @return the data objects of the events (the SSE syntax around them is left out).
+     */
+    private static List<Object> sentData(SseEmitter emitter) throws IOException {
+        return sentEvents(emitter).stream()
+            .flatMap(event -> event.build().stream())
+            .map(ResponseBodyEmitter.DataWithMediaType::getData)
+            .filter(data -> !(data instanceof String))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the events sent to a client, in order.
+     *
+     * @param emitter the event stream of the client.
+     * @return the events.
+     */
+    private static List<SseEmitter.SseEventBuilder> sentEvents(SseEmitter emitter) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeastOnce()).send(events.capture());
+        return events.getAllValues();
+    }
+}
@@ -0,0 +1,169 @@
+package nl.tudelft.sem.sem26b.message.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import nl.tudelft.sem.sem26b.message.domain.Message;
+import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
+import nl.tudelft.sem.sem26b.message.domain.MessageText;
+import nl.tudelft.sem.sem26b.message.domain.MessageType;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for the MessageIndex, on an in-memory index.
+ */
+public class MessageIndexTest {
+
+    private static final MessageTarget ALICE = MessageTarget.of("alice");
+    private static final MessageTarget BOB = MessageTarget.of("bob");
+    private static final MessageTarget HR = MessageTarget.of(MessageTarget.HR_TARGET_LABEL);
+
+    private transient MessageIndex index;
+
+    /**
+     * Set up for each test.
+     * Indexes a few messages and makes them searchable.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        index = new MessageIndex(new ByteBuffersDirectory());
+        index.add(List.of(
+            text(1, ALICE, HR, MessageType.LEAVE_REQUEST, "Requesting sick leave for Monday", 1000L),
+            text(2, BOB, HR, MessageType.LEAVE_REQUEST, "Leave for a sick child on Tuesday", 2000L),
+            text(3, HR, ALICE, MessageType.LEAVE_APPROVE, "Your sick leave was approved.", 3000L),
+            text(4, HR, BOB, MessageType.OTHER, "Welcome to the company!", 4000L)));
+        index.refresh();
+    }
+
+    /**
+     * Close the index after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        index.close();
+    }
+
+    /**
+     * Test that all words must occur, in any case, and results are newest first.
+     */
+    @Test
+    public void searchWordsTest() {
+        // Act
+        MessageSearchResult result = index.search(query("SICK leave"), Optional.empty());
+
+        // Assert
+        assertThat(result.getIds()).containsExactly(3, 2, 1);
+        assertThat(result.isMore()).isFalse();
+    }
+
+    /**
+     * Test that the words of a phrase must occur next to each other, in order.
+     */
+    @Test
+    public void searchPhraseTest() {
+        // Act&Assert
+        assertThat(index.search(query("\"sick leave\""), Optional.empty()).getIds()).containsExactly(3, 1);
+        assertThat(index.search(query("\"leave sick\""), Optional.empty()).getIds()).isEmpty();
+    }
+
+    /**
+     * Test the sender, receiver, type and time filters.
+     */
+    @Test
+    public void searchFiltersTest() {
+        // Act&Assert
+        assertThat(index.search(new MessageSearchQuery("sick", BOB, null, null, null, null, 1, 20), Optional.empty())
+            .getIds()).containsExactly(2);
+        assertThat(index.search(new MessageSearchQuery("sick", null, ALICE, null, null, null, 1, 20),
+            Optional.empty()).getIds()).containsExactly(3);
+        assertThat(index.search(new MessageSearchQuery("sick", null, null, MessageType.LEAVE_APPROVE, null, null, 1,
+            20), Optional.empty()).getIds()).containsExactly(3);
+        assertThat(index.search(new MessageSearchQuery("sick", null, null, null, Instant.ofEpochMilli(2000L),
+            Instant.ofEpochMilli(3000L), 1, 20), Optional.empty()).getIds()).containsExactly(2);
+    }
+
+    /**
+     * Test that users only find the messages they sent or received.
+     */
+    @Test
+    public void searchMailboxTest() {
+        // Act&Assert
+        assertThat(index.search(query("sick"), Optional.of(ALICE)).getIds()).containsExactly(3, 1);
+        assertThat(index.search(query("sick"), Optional.of(BOB)).getIds()).containsExactly(2);
+    }
+
+    /**
+     * Test that results are split into pages.
+     */
+    @Test
+    public void searchPagesTest() {
+        // Act
+        MessageSearchResult first = index.search(new MessageSearchQuery("sick", null, null, null, null, null, 1, 2),
+            Optional.empty());
+        MessageSearchResult second = index.search(new MessageSearchQuery("sick", null, null, null, null, null, 2, 2),
+            Optional.empty());
+
+        // Assert
+        assertThat(first.getIds()).containsExactly(3, 2);
+        assertThat(first.isMore()).isTrue();
+        assertThat(second.getIds()).containsExactly(1);
+        assertThat(second.isMore()).isFalse();
+    }
+
+    /**
+     * Test that nothing is found for a search without words.
+     */
+    @Test
+    public void searchPunctuationTest() {
+        // Act&Assert
+        assertThat(index.search(query("! ?"), Optional.empty()).getIds()).isEmpty();
+    }
+
+    /**
+     * Test that adding a message again replaces it, and that it is only found after a refresh.
+     */
+    @Test
+    public void addReplacesTest() {
+        // Act
+        index.add(List.of(text(4, HR, BOB, MessageType.OTHER, "Welcome, get well soon", 4000L)));
+
+        // Assert
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.search(query("soon"), Optional.empty()).getIds()).isEmpty();
+        index.refresh();
+        assertThat(index.search(query("soon"), Optional.empty()).getIds()).containsExactly(4);
+        assertThat(index.search(query("company"), Optional.empty()).getIds()).isEmpty();
+    }
+
+    /**
+     * Test that clearing removes all messages.
+     */
+    @Test
+    public void clearTest() {
+        // Act
+        index.clear();
+        index.refresh();
+
+        // Assert
+        assertThat(index.size()).isZero();
+        assertThat(index.search(query("sick"), Optional.empty()).getIds()).isEmpty();
+    }
+
+    private static MessageSearchQuery query(String text) {
+        return new MessageSearchQuery(text, null, null, null, null, null, 1, 20);
+    }
+
+    private static MessageText text(int id, MessageTarget sender, MessageTarget receiver, MessageType type,
+                                    String contents, long sentAt) {
+        Message message = Mockito.spy(new Message(sender, receiver, type, contents, Instant.ofEpochMilli(sentAt)));
+        Mockito.when(message.getId()).thenReturn(id);
+        return MessageText.of(message);
+    }
+}
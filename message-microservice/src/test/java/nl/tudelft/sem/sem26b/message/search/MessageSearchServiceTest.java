@@ -0,0 +1,147 @@
+package nl.tudelft.sem.sem26b.message.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import nl.tudelft.sem.sem26b.message.domain.ArchivedMessageRepository;
+import nl.tudelft.sem.sem26b.message.domain.Message;
+import nl.tudelft.sem.sem26b.message.domain.MessageRepository;
+import nl.tudelft.sem.sem26b.message.domain.MessageTarget;
+import nl.tudelft.sem.sem26b.message.domain.MessageText;
+import nl.tudelft.sem.sem26b.message.domain.MessageType;
+import nl.tudelft.sem.sem26b.message.domain.MessageValidator;
+import nl.tudelft.sem.sem26b.message.domain.MessagesSentEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Tests for the MessageSearchService.
+ */
+public class MessageSearchServiceTest {
+
+    private transient MessageIndex mockMessageIndex;
+    private transient MessageRepository mockMessageRepository;
+    private transient ArchivedMessageRepository mockArchivedMessageRepository;
+    private transient MessageValidator mockValidator;
+
+    private transient MessageSearchService searchService;
+
+    /**
+     * Set up for each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockMessageIndex = mock(MessageIndex.class);
+        mockMessageRepository = mock(MessageRepository.class);
+        mockArchivedMessageRepository = mock(ArchivedMessageRepository.class);
+        mockValidator = mock(MessageValidator.class);
+        searchService = new MessageSearchService(mockMessageIndex, mockMessageRepository,
+            mockArchivedMessageRepository, mockValidator, 2);
+    }
+
+    /**
+     * Test that the search is restricted to the mailbox of the token bearer.
+     */
+    @Test
+    public void searchTest() {
+        // Arrange
+        MessageSearchQuery query = new MessageSearchQuery("leave", null, null, null, null, null, 1, 20);
+        MessageSearchResult result = new MessageSearchResult(List.of(1), false);
+        when(mockValidator.readableMailbox()).thenReturn(Optional.of(MessageTarget.of("netId")));
+        when(mockMessageIndex.search(query, Optional.of(MessageTarget.of("netId")))).thenReturn(result);
+
+        // Act&Assert
+        assertThat(searchService.search(query)).isSameAs(result);
+    }
+
+    /**
+     * Test that sent messages are indexed.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void messagesSentTest() {
+        // Arrange
+        Message message = new Message(MessageTarget.of("netId"), MessageTarget.of(MessageTarget.HR_TARGET_LABEL),
+            MessageType.OTHER, "Hello", Instant.ofEpochSecond(1L));
+
+        // Act
+        searchService.messagesSent(new MessagesSentEvent(List.of(message)));
+
+        // Assert
+        ArgumentCaptor<List<MessageText>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(mockMessageIndex, times(1)).add(indexed.capture());
+        assertThat(indexed.getValue()).hasSize(1);
+        assertThat(indexed.getValue().get(0).getContents()).isEqualTo("Hello");
+        assertThat(indexed.getValue().get(0).getSentAt()).isEqualTo(Instant.ofEpochSecond(1L));
+    }
+
+    /**
+     * Test that an index in sync with the database is not rebuilt.
+     */
+    @Test
+    public void rebuildIfStaleInSyncTest() {
+        // Arrange
+        when(mockMessageRepository.count()).thenReturn(3L);
+        when(mockArchivedMessageRepository.count()).thenReturn(2L);
+        when(mockMessageIndex.size()).thenReturn(5);
+
+        // Act
+        searchService.rebuildIfStale();
+
+        // Assert
+        verify(mockMessageIndex, never()).clear();
+        verify(mockMessageIndex, never()).add(anyList());
+    }
+
+    /**
+     * Test that a stale index is rebuilt from both tables, page by page.
+     */
+    @Test
+    public void rebuildIfStaleTest() {
+        // Arrange
+        when(mockMessageRepository.count()).thenReturn(3L);
+        when(mockArchivedMessageRepository.count()).thenReturn(1L);
+        when(mockMessageIndex.size()).thenReturn(0);
+        List<MessageText> first = List.of(text(1), text(2));
+        List<MessageText> second = List.of(text(5));
+        List<MessageText> archived = List.of(text(3));
+        when(mockMessageRepository.findTextsAfter(eq(0), any(PageRequest.class))).thenReturn(first);
+        when(mockMessageRepository.findTextsAfter(eq(2), any(PageRequest.class))).thenReturn(second);
+        when(mockMessageRepository.findTextsAfter(eq(5), any(PageRequest.class))).thenReturn(List.of());
+        when(mockArchivedMessageRepository.findTextsAfter(eq(0), any(PageRequest.class))).thenReturn(archived);
+        when(mockArchivedMessageRepository.findTextsAfter(eq(3), any(PageRequest.class))).thenReturn(List.of());
+
+        // Act
+        searchService.rebuildIfStale();
+
+        // Assert
+        InOrder order = inOrder(mockMessageIndex);
+        order.verify(mockMessageIndex).clear();
+        order.verify(mockMessageIndex).add(first);
+        order.verify(mockMessageIndex).add(second);
+        order.verify(mockMessageIndex).add(archived);
+        order.verify(mockMessageIndex).commit();
+        order.verify(mockMessageIndex).refresh();
+        verify(mockMessageRepository, times(3)).findTextsAfter(any(Integer.class), eq(PageRequest.of(0, 2)));
+    }
+
+    private static MessageText text(int id) {
+        MessageText text = mock(MessageText.class);
+        when(text.getId()).thenReturn(id);
+        return text;
+    }
+}
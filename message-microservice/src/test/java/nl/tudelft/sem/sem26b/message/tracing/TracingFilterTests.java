@@ -0,0 +1,79 @@
+package nl.tudelft.sem.sem26b.message.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class TracingFilterTests {
+    private transient SpanRecorder spanRecorder;
+    private transient TracingFilter tracingFilter;
+
+    private transient HttpServletRequest mockRequest;
+    private transient HttpServletResponse mockResponse;
+    private transient FilterChain mockFilterChain;
+
+    /**
+     * Set up mocks.
+     */
+    @BeforeEach
+    public void setup() {
+        spanRecorder = new SpanRecorder("test-service", 10, "", new ObjectMapper());
+        tracingFilter = new TracingFilter(spanRecorder);
+
+        mockRequest = Mockito.mock(HttpServletRequest.class);
+        mockResponse = Mockito.mock(HttpServletResponse.class);
+        mockFilterChain = Mockito.mock(FilterChain.class);
+        when(mockRequest.getMethod()).thenReturn("GET");
+        when(mockRequest.getRequestURI()).thenReturn("/test");
+        when(mockResponse.getStatus()).thenReturn(200);
+    }
+
+    @Test
+    public void continuesTraceOfCaller() throws ServletException, IOException {
+        // Arrange
+        when(mockRequest.getHeader("traceparent"))
+            .thenReturn("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        AtomicReference<TraceContext> duringRequest = new AtomicReference<>();
+        doAnswer(invocation -> {
+            duringRequest.set(TraceContextHolder.get());
+            return null;
+        }).when(mockFilterChain).doFilter(any(), any());
+
+        // Act
+        tracingFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        // Assert
+        List<Span> spans = spanRecorder.getSpans("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(spans).hasSize(1);
+        assertThat(spans.get(0).getParentSpanId()).isEqualTo("00f067aa0ba902b7");
+        assertThat(spans.get(0).getName()).isEqualTo("GET /test");
+        assertThat(spans.get(0).getService()).isEqualTo("test-service");
+        assertThat(spans.get(0).getTags()).containsEntry("http.status", "200");
+        assertThat(duringRequest.get().getSpanId()).isEqualTo(spans.get(0).getSpanId());
+        assertThat(TraceContextHolder.get()).isNull();
+    }
+
+    @Test
+    public void startsTraceWithoutCaller() throws ServletException, IOException {
+        // Act
+        tracingFilter.doFilterInternal(mockRequest, mockResponse, mockFilterChain);
+
+        // Assert
+        List<Span> spans = spanRecorder.getSpans(null);
+        assertThat(spans).hasSize(1);
+        assertThat(spans.get(0).getParentSpanId()).isNull();
+    }
+}